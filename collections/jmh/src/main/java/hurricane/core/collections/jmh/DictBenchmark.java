@@ -0,0 +1,113 @@
+package hurricane.core.collections.jmh;
+
+import hurricane.core.collections.Dict;
+import hurricane.core.collections.TransientDict;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures single-key operations and iteration on the {@link Dict} implementations. Updates are
+ * applied to the same base dictionary each time, so every invocation does the same amount of work.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class DictBenchmark {
+
+  @Param({"tree", "btree", "hashed"})
+  public String implementation;
+
+  @Param({"1000", "100000", "10000000"})
+  public int size;
+
+  private Dict<Integer, Integer> dict;
+  private int[] present;
+  private int[] absent;
+  private int probe;
+
+  @Setup
+  public void setUp() {
+    dict = build(implementation, size);
+    present = Keys.present(size, 1);
+    absent = Keys.absent(size, 2);
+  }
+
+  static Dict<Integer, Integer> build(final String implementation, final int size) {
+    final IntStream keys = IntStream.range(0, size).map(i -> 2 * i);
+    final Function<Integer, Integer> identity = Function.identity();
+
+    switch (implementation) {
+      case "tree":
+        return keys.boxed().collect(Dict.collector(identity, identity));
+      case "btree":
+        return Dict.<Integer, Integer>btree().union(build("tree", size));
+      case "hashed":
+        return keys.boxed().collect(Dict.hashedCollector(identity, identity));
+      default:
+        throw new IllegalArgumentException("Unknown implementation: " + implementation);
+    }
+  }
+
+  private int nextProbe() {
+    return probe = (probe + 1) & (Keys.PROBES - 1);
+  }
+
+  @Benchmark
+  public Optional<Integer> lookup() {
+    return dict.lookup(present[nextProbe()]);
+  }
+
+  @Benchmark
+  public Optional<Integer> lookupAbsent() {
+    return dict.lookup(absent[nextProbe()]);
+  }
+
+  @Benchmark
+  public Dict<Integer, Integer> put() {
+    return dict.put(absent[nextProbe()], 0);
+  }
+
+  @Benchmark
+  public Dict<Integer, Integer> replace() {
+    return dict.put(present[nextProbe()], -1);
+  }
+
+  @Benchmark
+  public Dict<Integer, Integer> delete() {
+    return dict.delete(present[nextProbe()]);
+  }
+
+  /**
+   * Puts and deletes a key through a transient. The delete updates the elements near the root
+   * that the put copied in place.
+   */
+  @Benchmark
+  public int transientUpdate() {
+    final TransientDict<Integer, Integer> editable = dict.asTransient();
+    editable.put(absent[nextProbe()], 0);
+    editable.delete(present[probe]);
+    return editable.getSize();
+  }
+
+  @Benchmark
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public long iterate() {
+    return dict.entries().mapToLong(entry -> entry.getKey()).sum();
+  }
+}
@@ -0,0 +1,70 @@
+package hurricane.core.collections.jmh;
+
+import hurricane.core.collections.IntDict;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures single-key operations on {@link IntDict}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class IntDictBenchmark {
+
+  @Param({"1000", "100000", "10000000"})
+  public int size;
+
+  private IntDict<Integer> dict;
+  private int[] present;
+  private int[] absent;
+  private int probe;
+
+  @Setup
+  public void setUp() {
+    dict = IntStream.range(0, size)
+        .map(i -> 2 * i)
+        .boxed()
+        .collect(IntDict.collector(Integer::intValue, key -> key));
+    present = Keys.present(size, 1);
+    absent = Keys.absent(size, 2);
+  }
+
+  private int nextProbe() {
+    return probe = (probe + 1) & (Keys.PROBES - 1);
+  }
+
+  @Benchmark
+  public Integer lookup() {
+    return dict.getOrNull(present[nextProbe()]);
+  }
+
+  @Benchmark
+  public Integer lookupAbsent() {
+    return dict.getOrNull(absent[nextProbe()]);
+  }
+
+  @Benchmark
+  public IntDict<Integer> put() {
+    return dict.put(absent[nextProbe()], 0);
+  }
+
+  @Benchmark
+  public IntDict<Integer> delete() {
+    return dict.delete(present[nextProbe()]);
+  }
+}
@@ -0,0 +1,119 @@
+package hurricane.core.collections.jmh;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Baseline for {@link DictBenchmark} and {@link PersistentSetBenchmark} using the mutable
+ * java.util maps. Since these maps are updated in place, the update benchmarks insert and remove
+ * a key to keep the size of the map stable.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class JavaMapBenchmark {
+
+  @Param({"TreeMap", "HashMap"})
+  public String implementation;
+
+  @Param({"1000", "100000", "10000000"})
+  public int size;
+
+  private Map<Integer, Integer> map;
+  private Map<Integer, Integer> copy;
+  private int[] present;
+  private int[] absent;
+  private int probe;
+
+  @Setup
+  public void setUp() {
+    map = build(implementation, size);
+    copy = build(implementation, size);
+    present = Keys.present(size, 1);
+    absent = Keys.absent(size, 2);
+  }
+
+  private static Map<Integer, Integer> build(final String implementation, final int size) {
+    final Map<Integer, Integer> map;
+
+    switch (implementation) {
+      case "TreeMap":
+        map = new TreeMap<>();
+        break;
+      case "HashMap":
+        map = new HashMap<>();
+        break;
+      default:
+        throw new IllegalArgumentException("Unknown implementation: " + implementation);
+    }
+
+    for (int i = 0; i < size; ++ i) {
+      map.put(2 * i, 2 * i);
+    }
+
+    return map;
+  }
+
+  private int nextProbe() {
+    return probe = (probe + 1) & (Keys.PROBES - 1);
+  }
+
+  @Benchmark
+  public Integer lookup() {
+    return map.get(present[nextProbe()]);
+  }
+
+  @Benchmark
+  public Integer lookupAbsent() {
+    return map.get(absent[nextProbe()]);
+  }
+
+  @Benchmark
+  public Integer putAndRemove() {
+    final int key = absent[nextProbe()];
+    map.put(key, 0);
+    return map.remove(key);
+  }
+
+  @Benchmark
+  public Integer removeAndPut() {
+    final int key = present[nextProbe()];
+    final Integer value = map.remove(key);
+    map.put(key, value);
+    return value;
+  }
+
+  @Benchmark
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public long iterate() {
+    return map.entrySet().stream().mapToLong(entry -> entry.getKey()).sum();
+  }
+
+  @Benchmark
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public boolean equalsCopy() {
+    return map.equals(copy);
+  }
+
+  @Benchmark
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public int hashCodeOf() {
+    return map.hashCode();
+  }
+}
@@ -0,0 +1,47 @@
+package hurricane.core.collections.jmh;
+
+import java.util.Random;
+
+/**
+ * Generates keys for the benchmarks. A collection of the given size contains the even numbers
+ * 0, 2, ..., 2 * (size - 1), so odd numbers in that range are never present.
+ */
+final class Keys {
+
+  /**
+   * The number of keys probed by the single-key benchmarks, a power of two so the probe index
+   * can be masked.
+   */
+  static final int PROBES = 1024;
+
+  private Keys() {
+  }
+
+  /**
+   * Returns random keys that are present in a collection of the given size.
+   */
+  static int[] present(final int size, final long seed) {
+    final Random random = new Random(seed);
+    final int[] keys = new int[PROBES];
+
+    for (int i = 0; i < PROBES; ++ i) {
+      keys[i] = 2 * random.nextInt(size);
+    }
+
+    return keys;
+  }
+
+  /**
+   * Returns random keys that are absent from a collection of the given size, but fall within its
+   * range.
+   */
+  static int[] absent(final int size, final long seed) {
+    final int[] keys = present(size, seed);
+
+    for (int i = 0; i < PROBES; ++ i) {
+      keys[i] += 1;
+    }
+
+    return keys;
+  }
+}
@@ -0,0 +1,71 @@
+package hurricane.core.collections.jmh;
+
+import hurricane.core.collections.LongDict;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures single-key operations on {@link LongDict}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class LongDictBenchmark {
+
+  @Param({"1000", "100000", "10000000"})
+  public int size;
+
+  private LongDict<Long> dict;
+  private long[] present;
+  private long[] absent;
+  private int probe;
+
+  @Setup
+  public void setUp() {
+    dict = LongStream.range(0, size)
+        .map(i -> 2L * i)
+        .boxed()
+        .collect(LongDict.collector(Long::longValue, key -> key));
+    present = Arrays.stream(Keys.present(size, 1)).asLongStream().toArray();
+    absent = Arrays.stream(Keys.absent(size, 2)).asLongStream().toArray();
+  }
+
+  private int nextProbe() {
+    return probe = (probe + 1) & (Keys.PROBES - 1);
+  }
+
+  @Benchmark
+  public Long lookup() {
+    return dict.getOrNull(present[nextProbe()]);
+  }
+
+  @Benchmark
+  public Long lookupAbsent() {
+    return dict.getOrNull(absent[nextProbe()]);
+  }
+
+  @Benchmark
+  public LongDict<Long> put() {
+    return dict.put(absent[nextProbe()], 0L);
+  }
+
+  @Benchmark
+  public LongDict<Long> delete() {
+    return dict.delete(present[nextProbe()]);
+  }
+}
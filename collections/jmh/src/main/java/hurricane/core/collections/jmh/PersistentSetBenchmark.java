@@ -0,0 +1,107 @@
+package hurricane.core.collections.jmh;
+
+import hurricane.core.collections.PersistentSet;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures single-value operations, iteration and equality on the {@link PersistentSet}
+ * implementations. The equals benchmark compares two sets that are equal but were built
+ * independently, so they share no structure.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class PersistentSetBenchmark {
+
+  @Param({"tree", "btree", "hashed"})
+  public String implementation;
+
+  @Param({"1000", "100000", "10000000"})
+  public int size;
+
+  private PersistentSet<Integer> set;
+  private PersistentSet<Integer> copy;
+  private int[] present;
+  private int[] absent;
+  private int probe;
+
+  @Setup
+  public void setUp() {
+    set = build(implementation, size);
+    copy = build(implementation, size);
+    present = Keys.present(size, 1);
+    absent = Keys.absent(size, 2);
+  }
+
+  static PersistentSet<Integer> build(final String implementation, final int size) {
+    final IntStream values = IntStream.range(0, size).map(i -> 2 * i);
+
+    switch (implementation) {
+      case "tree":
+        return values.boxed().collect(PersistentSet.collector());
+      case "btree":
+        return PersistentSet.<Integer>btree().union(build("tree", size));
+      case "hashed":
+        return values.boxed().collect(PersistentSet.hashedCollector());
+      default:
+        throw new IllegalArgumentException("Unknown implementation: " + implementation);
+    }
+  }
+
+  private int nextProbe() {
+    return probe = (probe + 1) & (Keys.PROBES - 1);
+  }
+
+  @Benchmark
+  public boolean contains() {
+    return set.contains(present[nextProbe()]);
+  }
+
+  @Benchmark
+  public boolean containsAbsent() {
+    return set.contains(absent[nextProbe()]);
+  }
+
+  @Benchmark
+  public PersistentSet<Integer> add() {
+    return set.add(absent[nextProbe()]);
+  }
+
+  @Benchmark
+  public PersistentSet<Integer> delete() {
+    return set.delete(present[nextProbe()]);
+  }
+
+  @Benchmark
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public long iterate() {
+    return set.stream().mapToLong(Integer::longValue).sum();
+  }
+
+  @Benchmark
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public boolean equalsCopy() {
+    return set.equals(copy);
+  }
+
+  @Benchmark
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public int hashCodeOf() {
+    return set.hashCode();
+  }
+}
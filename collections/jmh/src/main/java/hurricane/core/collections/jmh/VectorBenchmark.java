@@ -0,0 +1,106 @@
+package hurricane.core.collections.jmh;
+
+import hurricane.core.collections.PersistentVector;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures indexing, appending, slicing and concatenating {@link PersistentVector}. The relaxed
+ * vector is built by concatenating vectors of random sizes, so its nodes are not full.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class VectorBenchmark {
+
+  @Param({"appended", "concatenated"})
+  public String shape;
+
+  @Param({"1000", "100000", "10000000"})
+  public int size;
+
+  private PersistentVector<Integer> vector;
+  private int[] indices;
+  private int probe;
+
+  @Setup
+  public void setUp() {
+    vector = build(shape, size);
+    indices = Keys.present(size, 1);
+  }
+
+  static PersistentVector<Integer> build(final String shape, final int size) {
+    switch (shape) {
+      case "appended":
+        return IntStream.range(0, size).boxed().collect(PersistentVector.collector());
+      case "concatenated":
+        return concatenated(size);
+      default:
+        throw new IllegalArgumentException("Unknown shape: " + shape);
+    }
+  }
+
+  private static PersistentVector<Integer> concatenated(final int size) {
+    final Random random = new Random(2);
+    PersistentVector<Integer> vector = PersistentVector.empty();
+
+    while (vector.getSize() < size) {
+      final int from = vector.getSize();
+      final int to = Math.min(size, from + 33 + random.nextInt(1000));
+      vector = vector.concat(IntStream.range(from, to).boxed()
+          .collect(PersistentVector.collector()));
+    }
+
+    return vector;
+  }
+
+  private int nextIndex() {
+    return indices[probe = (probe + 1) & (Keys.PROBES - 1)] / 2;
+  }
+
+  @Benchmark
+  public Integer get() {
+    return vector.get(nextIndex());
+  }
+
+  @Benchmark
+  public PersistentVector<Integer> set() {
+    return vector.set(nextIndex(), -1);
+  }
+
+  @Benchmark
+  public PersistentVector<Integer> append() {
+    return vector.append(-1);
+  }
+
+  @Benchmark
+  public PersistentVector<Integer> slice() {
+    final int index = nextIndex();
+    return vector.slice(index / 2, index + 1);
+  }
+
+  @Benchmark
+  public PersistentVector<Integer> concat() {
+    return vector.concat(vector);
+  }
+
+  @Benchmark
+  public long iterate() {
+    return vector.stream().mapToLong(Integer::longValue).sum();
+  }
+}
@@ -0,0 +1,135 @@
+package hurricane.core.collections;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.UnaryOperator;
+
+/**
+ * A reference to the current version of a persistent collection that is shared between threads.
+ * Readers get the current version without blocking, writers derive a new version from it and
+ * publish it with a compare-and-set, retrying with the latest version when another writer
+ * published first. Updates that return the same version are not published at all.
+ *
+ * <p>The number of published updates and of retries caused by conflicting writers are counted,
+ * their ratio measures the contention on the reference.</p>
+ *
+ * @param <T> the type of the collection.
+ */
+public abstract class AtomicCollection<T> {
+
+  private static final VarHandle VALUE;
+
+  static {
+    try {
+      VALUE = MethodHandles.lookup().findVarHandle(AtomicCollection.class, "value", Object.class);
+    } catch (final ReflectiveOperationException e) {
+      throw new ExceptionInInitializerError(e);
+    }
+  }
+
+  private volatile Object value;
+  private final LongAdder updates = new LongAdder();
+  private final LongAdder retries = new LongAdder();
+
+  AtomicCollection(final T initialValue) {
+    this.value = Objects.requireNonNull(initialValue, "initialValue cannot be null");
+  }
+
+  /**
+   * Returns the current version.
+   */
+  @SuppressWarnings("unchecked")
+  public final T get() {
+    return (T) value;
+  }
+
+  /**
+   * Replaces the current version unconditionally.
+   */
+  public final void set(final T newValue) {
+    value = Objects.requireNonNull(newValue, "newValue cannot be null");
+    updates.increment();
+  }
+
+  /**
+   * Replaces the current version if it is still the expected version, comparing by identity.
+   */
+  public final boolean compareAndSet(final T expectedValue, final T newValue) {
+    Objects.requireNonNull(newValue, "newValue cannot be null");
+
+    if (VALUE.compareAndSet(this, expectedValue, newValue)) {
+      updates.increment();
+      return true;
+    }
+
+    return false;
+  }
+
+  /**
+   * Applies the function to the current version and publishes the result, retrying with the
+   * latest version if another thread published a version in the meantime. The function may be
+   * called more than once and should have no side effects. Returns the published version.
+   */
+  public final T updateAndGet(final UnaryOperator<T> function) {
+    Objects.requireNonNull(function, "function cannot be null");
+
+    while (true) {
+      final T current = get();
+      final T next = Objects.requireNonNull(function.apply(current), "result cannot be null");
+
+      if (next == current) {
+        return current;
+      } else if (VALUE.compareAndSet(this, current, next)) {
+        updates.increment();
+        return next;
+      }
+
+      retries.increment();
+      Thread.onSpinWait();
+    }
+  }
+
+  /**
+   * Like {@link #updateAndGet}, but returns the version the function was applied to.
+   */
+  public final T getAndUpdate(final UnaryOperator<T> function) {
+    Objects.requireNonNull(function, "function cannot be null");
+
+    while (true) {
+      final T current = get();
+      final T next = Objects.requireNonNull(function.apply(current), "result cannot be null");
+
+      if (next == current) {
+        return current;
+      } else if (VALUE.compareAndSet(this, current, next)) {
+        updates.increment();
+        return current;
+      }
+
+      retries.increment();
+      Thread.onSpinWait();
+    }
+  }
+
+  /**
+   * Returns the number of versions that have been published.
+   */
+  public final long getUpdateCount() {
+    return updates.sum();
+  }
+
+  /**
+   * Returns the number of times an update was retried because another thread published a version
+   * first.
+   */
+  public final long getRetryCount() {
+    return retries.sum();
+  }
+
+  @Override
+  public String toString() {
+    return String.valueOf(value);
+  }
+}
@@ -0,0 +1,68 @@
+package hurricane.core.collections;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * A lock-free reference to the current version of a persistent dictionary, see
+ * {@link AtomicCollection}.
+ *
+ * @param <K>
+ * @param <V>
+ */
+public final class AtomicDict<K, V> extends AtomicCollection<Dict<K, V>> {
+
+  public AtomicDict(final Dict<K, V> initialValue) {
+    super(initialValue);
+  }
+
+  /**
+   * Looks up the key in the current version.
+   */
+  public Optional<V> lookup(final K key) {
+    return get().lookup(key);
+  }
+
+  /**
+   * Puts the entry into the current version, returning the published version.
+   */
+  public Dict<K, V> put(final K key, final V value) {
+    Objects.requireNonNull(key, "key cannot be null");
+    Objects.requireNonNull(value, "value cannot be null");
+    return updateAndGet(dict -> dict.put(key, value));
+  }
+
+  /**
+   * Deletes the key from the current version, returning the published version.
+   */
+  public Dict<K, V> delete(final K key) {
+    return updateAndGet(dict -> dict.delete(key));
+  }
+
+  public Dict<K, V> putAll(final Map<? extends K, ? extends V> entries) {
+    Objects.requireNonNull(entries, "entries cannot be null");
+    return updateAndGet(dict -> dict.putAll(entries));
+  }
+
+  public Dict<K, V> deleteAll(final Iterable<? extends K> keys) {
+    Objects.requireNonNull(keys, "keys cannot be null");
+    return updateAndGet(dict -> dict.deleteAll(keys));
+  }
+
+  /**
+   * Applies a batch of changes to a transient copy of the current version and publishes the
+   * result as a single version. The batch is applied again to the latest version if another
+   * thread published a version in the meantime, so it should only update the transient.
+   */
+  public Dict<K, V> commit(final Consumer<? super TransientDict<K, V>> changes) {
+    Objects.requireNonNull(changes, "changes cannot be null");
+
+    return updateAndGet(dict -> {
+      final TransientDict<K, V> editable = dict.asTransient();
+      changes.accept(editable);
+      return editable.persistent();
+    });
+  }
+}
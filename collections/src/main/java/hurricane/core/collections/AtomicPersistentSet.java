@@ -0,0 +1,64 @@
+package hurricane.core.collections;
+
+import java.util.Objects;
+import java.util.function.Consumer;
+
+/**
+ * A lock-free reference to the current version of a persistent set, see
+ * {@link AtomicCollection}.
+ *
+ * @param <V>
+ */
+public final class AtomicPersistentSet<V> extends AtomicCollection<PersistentSet<V>> {
+
+  public AtomicPersistentSet(final PersistentSet<V> initialValue) {
+    super(initialValue);
+  }
+
+  /**
+   * Returns whether the current version contains the value.
+   */
+  public boolean contains(final V value) {
+    return get().contains(value);
+  }
+
+  /**
+   * Adds the value to the current version, returning the published version.
+   */
+  public PersistentSet<V> add(final V value) {
+    Objects.requireNonNull(value, "value cannot be null");
+    return updateAndGet(set -> set.add(value));
+  }
+
+  /**
+   * Deletes the value from the current version, returning the published version.
+   */
+  public PersistentSet<V> delete(final V value) {
+    return updateAndGet(set -> set.delete(value));
+  }
+
+  public PersistentSet<V> addAll(final Iterable<? extends V> values) {
+    Objects.requireNonNull(values, "values cannot be null");
+    return updateAndGet(set -> set.addAll(values));
+  }
+
+  public PersistentSet<V> deleteAll(final Iterable<? extends V> values) {
+    Objects.requireNonNull(values, "values cannot be null");
+    return updateAndGet(set -> set.deleteAll(values));
+  }
+
+  /**
+   * Applies a batch of changes to a transient copy of the current version and publishes the
+   * result as a single version. The batch is applied again to the latest version if another
+   * thread published a version in the meantime, so it should only update the transient.
+   */
+  public PersistentSet<V> commit(final Consumer<? super TransientSet<V>> changes) {
+    Objects.requireNonNull(changes, "changes cannot be null");
+
+    return updateAndGet(set -> {
+      final TransientSet<V> editable = set.asTransient();
+      changes.accept(editable);
+      return editable.persistent();
+    });
+  }
+}
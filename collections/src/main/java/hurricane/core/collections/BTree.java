@@ -0,0 +1,885 @@
+package hurricane.core.collections;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Spliterator;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+
+/**
+ * Building blocks for collections implemented as a persistent B+-tree.
+ *
+ * <p>Leaves store up to {@link #MAX_COUNT} keys, and the values for dictionaries, in sorted
+ * arrays. Branches store up to {@link #MAX_COUNT} children together with the size of each child,
+ * which gives rank and select in logarithmic time, and for each child but the first the lower
+ * bound of its keys. All leaves are at the same depth. Updates copy a single path of wide nodes
+ * instead of a long path of binary nodes, and lookups touch a few arrays instead of a node per
+ * level. Like the elements of the weight balanced trees, nodes carry the edit token of the
+ * transient that created them and are updated in place by that transient.</p>
+ *
+ * <p>Nodes are kept at least half full by updates, but range queries cut nodes at the edges of
+ * the range without refilling them. None of the operations depend on the minimum occupancy, it
+ * only keeps the tree shallow.</p>
+ */
+final class BTree {
+
+  static final int MAX_COUNT = 32;
+  private static final int MIN_COUNT = MAX_COUNT / 2;
+
+  static final Leaf EMPTY_DICT = new Leaf(null, new Object[0], new Object[0]);
+  static final Leaf EMPTY_SET = new Leaf(null, new Object[0], null);
+
+  private BTree() {
+  }
+
+  /**
+   * Carries the effects of an update back up the path: the change in size, and the right half
+   * of a node that was split.
+   */
+  static final class Change {
+    int delta;
+    private Node right;
+    private Object separator;
+  }
+
+  abstract static class Node {
+    final Object edit;
+    Object[] keys;
+
+    Node(final Object edit, final Object[] keys) {
+      this.edit = edit;
+      this.keys = keys;
+    }
+
+    abstract int getSize();
+
+    /**
+     * Returns the number of keys of a leaf or the number of children of a branch.
+     */
+    final int getCount() {
+      return keys.length;
+    }
+
+    final boolean isOwnedBy(final Object edit) {
+      return edit != null && edit == this.edit;
+    }
+  }
+
+  static final class Leaf extends Node {
+    /**
+     * The values of the keys, or null for a leaf of a set.
+     */
+    Object[] values;
+
+    Leaf(final Object edit, final Object[] keys, final Object[] values) {
+      super(edit, keys);
+      this.values = values;
+    }
+
+    @Override
+    int getSize() {
+      return keys.length;
+    }
+
+    Object getValue(final int index) {
+      return values == null ? keys[index] : values[index];
+    }
+
+    private Leaf update(final Object edit, final Object[] newKeys, final Object[] newValues) {
+      if (isOwnedBy(edit)) {
+        keys = newKeys;
+        values = newValues;
+        return this;
+      }
+
+      // Nodes owned by a transient are updated in place, so they can't share arrays with this
+      // node:
+      return edit == null
+          ? new Leaf(null, newKeys, newValues)
+          : new Leaf(edit, privateCopy(newKeys, keys), privateCopy(newValues, values));
+    }
+  }
+
+  static final class Branch extends Node {
+    Node[] children;
+    int[] sizes;
+    int size;
+
+    Branch(final Object edit, final Object[] keys, final Node[] children, final int[] sizes) {
+      super(edit, keys);
+      this.children = children;
+      this.sizes = sizes;
+      this.size = sum(sizes);
+    }
+
+    @Override
+    int getSize() {
+      return size;
+    }
+
+    private Branch update(final Object edit, final Object[] newKeys, final Node[] newChildren,
+        final int[] newSizes) {
+      if (isOwnedBy(edit)) {
+        keys = newKeys;
+        children = newChildren;
+        sizes = newSizes;
+        size = sum(newSizes);
+        return this;
+      }
+
+      return edit == null
+          ? new Branch(null, newKeys, newChildren, newSizes)
+          : new Branch(edit, privateCopy(newKeys, keys), privateCopy(newChildren, children),
+              newSizes == sizes ? newSizes.clone() : newSizes);
+    }
+  }
+
+  static Object get(final Node root, final Comparator<Object> comparator, final Object key,
+      final Object notFound) {
+    Node node = root;
+
+    while (node instanceof Branch) {
+      final Branch branch = (Branch) node;
+      node = branch.children[route(branch.keys, comparator, key)];
+    }
+
+    final Leaf leaf = (Leaf) node;
+    final int index = Arrays.binarySearch(leaf.keys, key, comparator);
+
+    return index < 0 ? notFound : leaf.getValue(index);
+  }
+
+  /**
+   * Returns the number of keys smaller than the given key, or smaller than or equal to it if
+   * inclusive.
+   */
+  static int rank(final Node root, final Comparator<Object> comparator, final Object key,
+      final boolean inclusive) {
+    Node node = root;
+    int rank = 0;
+
+    while (node instanceof Branch) {
+      final Branch branch = (Branch) node;
+      final int index = route(branch.keys, comparator, key);
+
+      for (int i = 0; i < index; ++ i) {
+        rank += branch.sizes[i];
+      }
+
+      node = branch.children[index];
+    }
+
+    final int index = Arrays.binarySearch(node.keys, key, comparator);
+
+    if (index >= 0) {
+      return rank + (inclusive ? index + 1 : index);
+    }
+
+    return rank - index - 1;
+  }
+
+  /**
+   * Returns the position of the key, or -1 if the tree doesn't contain it.
+   */
+  static int indexOf(final Node root, final Comparator<Object> comparator, final Object key) {
+    Node node = root;
+    int rank = 0;
+
+    while (node instanceof Branch) {
+      final Branch branch = (Branch) node;
+      final int index = route(branch.keys, comparator, key);
+
+      for (int i = 0; i < index; ++ i) {
+        rank += branch.sizes[i];
+      }
+
+      node = branch.children[index];
+    }
+
+    final int index = Arrays.binarySearch(node.keys, key, comparator);
+
+    return index < 0 ? -1 : rank + index;
+  }
+
+  static Node put(final Object edit, final Node root, final Comparator<Object> comparator,
+      final Object key, final Object value, final Change change) {
+    final Node node = insert(edit, root, comparator, key, value, change);
+
+    if (change.right == null) {
+      return node;
+    }
+
+    // The root was split, grow the tree by one level:
+    final Node right = change.right;
+    change.right = null;
+
+    return new Branch(
+        edit,
+        new Object[] { null, change.separator },
+        new Node[] { node, right },
+        new int[] { node.getSize(), right.getSize() }
+    );
+  }
+
+  static Node remove(final Object edit, final Node root, final Comparator<Object> comparator,
+      final Object key, final Leaf empty, final Change change) {
+    final Node node = delete(edit, root, comparator, key, change);
+    return collapse(node, empty);
+  }
+
+  /**
+   * Returns the keys ranging from position from, inclusive, to position to, exclusive. Nodes
+   * that lie entirely within the range are shared with the original tree.
+   */
+  static Node slice(final Node root, final int from, final int to, final Leaf empty) {
+    if (from >= to) {
+      return empty;
+    }
+
+    return collapse(slice(root, from, to), empty);
+  }
+
+  /**
+   * Builds a tree out of sorted, distinct keys in linear time, filling the nodes evenly.
+   */
+  static Node build(final Object[] keys, final Object[] values, final int size,
+      final Leaf empty) {
+    if (size == 0) {
+      return empty;
+    }
+
+    final int leafCount = (size + MAX_COUNT - 1) / MAX_COUNT;
+    Node[] level = new Node[leafCount];
+
+    for (int i = 0; i < leafCount; ++ i) {
+      final int from = (int) ((long) size * i / leafCount);
+      final int to = (int) ((long) size * (i + 1) / leafCount);
+
+      level[i] = new Leaf(
+          null,
+          Arrays.copyOfRange(keys, from, to),
+          values == null ? null : Arrays.copyOfRange(values, from, to)
+      );
+    }
+
+    while (level.length > 1) {
+      final int parentCount = (level.length + MAX_COUNT - 1) / MAX_COUNT;
+      final Node[] parents = new Node[parentCount];
+
+      for (int i = 0; i < parentCount; ++ i) {
+        final int from = (int) ((long) level.length * i / parentCount);
+        final int to = (int) ((long) level.length * (i + 1) / parentCount);
+        final Node[] children = Arrays.copyOfRange(level, from, to);
+        final Object[] bounds = new Object[children.length];
+        final int[] sizes = new int[children.length];
+
+        for (int j = 0; j < children.length; ++ j) {
+          bounds[j] = children[j].keys[0];
+          sizes[j] = children[j].getSize();
+        }
+
+        parents[i] = new Branch(null, bounds, children, sizes);
+      }
+
+      level = parents;
+    }
+
+    return level[0];
+  }
+
+  /**
+   * Returns the index of the child of a branch that may contain the key: the last child whose
+   * lower bound is smaller than or equal to the key. The bound of the first child is not used.
+   */
+  private static int route(final Object[] keys, final Comparator<Object> comparator,
+      final Object key) {
+    int low = 1;
+    int high = keys.length - 1;
+
+    while (low <= high) {
+      final int mid = (low + high) >>> 1;
+
+      if (comparator.compare(keys[mid], key) <= 0) {
+        low = mid + 1;
+      } else {
+        high = mid - 1;
+      }
+    }
+
+    return low - 1;
+  }
+
+  private static Node insert(final Object edit, final Node node,
+      final Comparator<Object> comparator, final Object key, final Object value,
+      final Change change) {
+    if (node instanceof Leaf) {
+      return insert(edit, (Leaf) node, comparator, key, value, change);
+    }
+
+    final Branch branch = (Branch) node;
+    final int index = route(branch.keys, comparator, key);
+    final Node child = branch.children[index];
+    final Node newChild = insert(edit, child, comparator, key, value, change);
+
+    if (newChild == child && change.delta == 0) {
+      return branch;
+    }
+
+    Object[] keys = branch.keys;
+    Node[] children = editable(edit, branch, branch.children);
+    int[] sizes = editable(edit, branch, branch.sizes);
+
+    children[index] = newChild;
+    sizes[index] = newChild.getSize();
+
+    if (change.right == null) {
+      return branch.update(edit, keys, children, sizes);
+    }
+
+    // The child was split, insert its right half:
+    final Node right = change.right;
+    change.right = null;
+
+    keys = insertAt(keys, index + 1, change.separator);
+    children = insertAt(children, index + 1, right);
+    sizes = insertAt(sizes, index + 1, right.getSize());
+
+    if (children.length <= MAX_COUNT) {
+      return branch.update(edit, keys, children, sizes);
+    }
+
+    final int half = children.length / 2;
+
+    change.right = new Branch(
+        edit,
+        Arrays.copyOfRange(keys, half, keys.length),
+        Arrays.copyOfRange(children, half, children.length),
+        Arrays.copyOfRange(sizes, half, sizes.length)
+    );
+    change.separator = keys[half];
+
+    return branch.update(
+        edit,
+        Arrays.copyOf(keys, half),
+        Arrays.copyOf(children, half),
+        Arrays.copyOf(sizes, half)
+    );
+  }
+
+  private static Node insert(final Object edit, final Leaf leaf,
+      final Comparator<Object> comparator, final Object key, final Object value,
+      final Change change) {
+    final int index = Arrays.binarySearch(leaf.keys, key, comparator);
+
+    if (index >= 0) {
+      // Keys are equal, keep the leaf if the value didn't change. Sets replace the key, as a
+      // value that is equal according to the comparator may still differ:
+      final Object[] current = leaf.values == null ? leaf.keys : leaf.values;
+
+      if (current[index].equals(value)) {
+        return leaf;
+      }
+
+      final Object[] updated = editable(edit, leaf, current);
+      updated[index] = value;
+
+      return leaf.values == null
+          ? leaf.update(edit, updated, null)
+          : leaf.update(edit, leaf.keys, updated);
+    }
+
+    final int position = -index - 1;
+    final Object[] keys = insertAt(leaf.keys, position, key);
+    final Object[] values = leaf.values == null ? null : insertAt(leaf.values, position, value);
+
+    change.delta = 1;
+
+    if (keys.length <= MAX_COUNT) {
+      return leaf.update(edit, keys, values);
+    }
+
+    final int half = keys.length / 2;
+
+    change.right = new Leaf(
+        edit,
+        Arrays.copyOfRange(keys, half, keys.length),
+        values == null ? null : Arrays.copyOfRange(values, half, values.length)
+    );
+    change.separator = keys[half];
+
+    return leaf.update(
+        edit,
+        Arrays.copyOf(keys, half),
+        values == null ? null : Arrays.copyOf(values, half)
+    );
+  }
+
+  private static Node delete(final Object edit, final Node node,
+      final Comparator<Object> comparator, final Object key, final Change change) {
+    if (node instanceof Leaf) {
+      final Leaf leaf = (Leaf) node;
+      final int index = Arrays.binarySearch(leaf.keys, key, comparator);
+
+      if (index < 0) {
+        return leaf;
+      }
+
+      change.delta = -1;
+      return leaf.update(
+          edit,
+          removeAt(leaf.keys, index),
+          leaf.values == null ? null : removeAt(leaf.values, index)
+      );
+    }
+
+    final Branch branch = (Branch) node;
+    final int index = route(branch.keys, comparator, key);
+    final Node newChild = delete(edit, branch.children[index], comparator, key, change);
+
+    if (change.delta == 0) {
+      return branch;
+    }
+
+    Object[] keys = branch.keys;
+    Node[] children = editable(edit, branch, branch.children);
+    int[] sizes = editable(edit, branch, branch.sizes);
+
+    if (newChild.getCount() == 0) {
+      // Drop empty children, the branch itself may become empty and be dropped by its parent:
+      return branch.update(
+          edit,
+          removeAt(keys, index),
+          removeAt(children, index),
+          removeAt(sizes, index)
+      );
+    }
+
+    children[index] = newChild;
+    sizes[index] = newChild.getSize();
+
+    if (newChild.getCount() >= MIN_COUNT || children.length == 1) {
+      return branch.update(edit, keys, children, sizes);
+    }
+
+    // Merge the child with a neighbour, or move children over from the neighbour when both
+    // don't fit in a single node:
+    final int left = index > 0 ? index - 1 : index;
+    final Node merged = merge(edit, children[left], children[left + 1], keys[left + 1], change);
+
+    children[left] = merged;
+    sizes[left] = merged.getSize();
+
+    if (change.right != null) {
+      keys = editable(edit, branch, keys);
+      children[left + 1] = change.right;
+      sizes[left + 1] = change.right.getSize();
+      keys[left + 1] = change.separator;
+      change.right = null;
+
+      return branch.update(edit, keys, children, sizes);
+    }
+
+    return branch.update(
+        edit,
+        removeAt(keys, left + 1),
+        removeAt(children, left + 1),
+        removeAt(sizes, left + 1)
+    );
+  }
+
+  /**
+   * Combines two neighbouring nodes into one if their contents fit, otherwise divides their
+   * contents evenly and reports the right node through the change.
+   */
+  private static Node merge(final Object edit, final Node left, final Node right,
+      final Object separator, final Change change) {
+    final int total = left.getCount() + right.getCount();
+    final int split = total <= MAX_COUNT ? total : total / 2;
+    final Object[] keys = concat(left.keys, right.keys);
+
+    if (left instanceof Leaf) {
+      final Object[] leftValues = ((Leaf) left).values;
+      final Object[] values = leftValues == null
+          ? null
+          : concat(leftValues, ((Leaf) right).values);
+
+      if (split < total) {
+        change.right = new Leaf(
+            edit,
+            Arrays.copyOfRange(keys, split, total),
+            values == null ? null : Arrays.copyOfRange(values, split, total)
+        );
+        change.separator = keys[split];
+      }
+
+      return ((Leaf) left).update(
+          edit,
+          Arrays.copyOf(keys, split),
+          values == null ? null : Arrays.copyOf(values, split)
+      );
+    }
+
+    // The first child of the right branch is bounded by the separator in the parent:
+    keys[left.getCount()] = separator;
+
+    final Node[] children = concat(((Branch) left).children, ((Branch) right).children);
+    final int[] sizes = concat(((Branch) left).sizes, ((Branch) right).sizes);
+
+    if (split < total) {
+      change.right = new Branch(
+          edit,
+          Arrays.copyOfRange(keys, split, total),
+          Arrays.copyOfRange(children, split, total),
+          Arrays.copyOfRange(sizes, split, total)
+      );
+      change.separator = keys[split];
+    }
+
+    return ((Branch) left).update(
+        edit,
+        Arrays.copyOf(keys, split),
+        Arrays.copyOf(children, split),
+        Arrays.copyOf(sizes, split)
+    );
+  }
+
+  /**
+   * Removes levels from the top of the tree that have a single child.
+   */
+  private static Node collapse(final Node root, final Leaf empty) {
+    Node node = root;
+
+    while (node instanceof Branch && node.getCount() == 1) {
+      node = ((Branch) node).children[0];
+    }
+
+    return node.getCount() == 0 ? empty : node;
+  }
+
+  private static Node slice(final Node node, final int from, final int to) {
+    if (from == 0 && to == node.getSize()) {
+      return node;
+    }
+
+    if (node instanceof Leaf) {
+      return sliceLeaf((Leaf) node, from, to);
+    }
+
+    final Branch branch = (Branch) node;
+    final int first = childAt(branch, from);
+    final int last = childAt(branch, to - 1);
+    final int firstOffset = offsetOf(branch, first);
+    final int lastOffset = offsetOf(branch, last);
+
+    if (first == last) {
+      return slice(branch.children[first], from - firstOffset, to - firstOffset);
+    }
+
+    final Node[] children = Arrays.copyOfRange(branch.children, first, last + 1);
+    final int[] sizes = Arrays.copyOfRange(branch.sizes, first, last + 1);
+
+    children[0] = sliceFrom(children[0], from - firstOffset);
+    children[children.length - 1] =
+        sliceTo(children[children.length - 1], to - lastOffset);
+    sizes[0] = children[0].getSize();
+    sizes[sizes.length - 1] = children[children.length - 1].getSize();
+
+    return new Branch(null, Arrays.copyOfRange(branch.keys, first, last + 1), children, sizes);
+  }
+
+  /**
+   * Returns the keys of the node from the position onwards, as a node of the same height.
+   */
+  private static Node sliceFrom(final Node node, final int from) {
+    if (from == 0) {
+      return node;
+    }
+
+    if (node instanceof Leaf) {
+      return sliceLeaf((Leaf) node, from, node.getSize());
+    }
+
+    final Branch branch = (Branch) node;
+    final int first = childAt(branch, from);
+    final Node[] children = Arrays.copyOfRange(branch.children, first, branch.children.length);
+    final int[] sizes = Arrays.copyOfRange(branch.sizes, first, branch.sizes.length);
+
+    children[0] = sliceFrom(children[0], from - offsetOf(branch, first));
+    sizes[0] = children[0].getSize();
+
+    return new Branch(
+        null,
+        Arrays.copyOfRange(branch.keys, first, branch.keys.length),
+        children,
+        sizes
+    );
+  }
+
+  /**
+   * Returns the keys of the node before the position, as a node of the same height.
+   */
+  private static Node sliceTo(final Node node, final int to) {
+    if (to == node.getSize()) {
+      return node;
+    }
+
+    if (node instanceof Leaf) {
+      return sliceLeaf((Leaf) node, 0, to);
+    }
+
+    final Branch branch = (Branch) node;
+    final int last = childAt(branch, to - 1);
+    final Node[] children = Arrays.copyOf(branch.children, last + 1);
+    final int[] sizes = Arrays.copyOf(branch.sizes, last + 1);
+
+    children[last] = sliceTo(children[last], to - offsetOf(branch, last));
+    sizes[last] = children[last].getSize();
+
+    return new Branch(null, Arrays.copyOf(branch.keys, last + 1), children, sizes);
+  }
+
+  private static Leaf sliceLeaf(final Leaf leaf, final int from, final int to) {
+    return new Leaf(
+        null,
+        Arrays.copyOfRange(leaf.keys, from, to),
+        leaf.values == null ? null : Arrays.copyOfRange(leaf.values, from, to)
+    );
+  }
+
+  /**
+   * Returns the index of the child of the branch that contains the key at the given position.
+   */
+  private static int childAt(final Branch branch, final int position) {
+    int remaining = position;
+    int index = 0;
+
+    while (remaining >= branch.sizes[index]) {
+      remaining -= branch.sizes[index];
+      ++ index;
+    }
+
+    return index;
+  }
+
+  private static int offsetOf(final Branch branch, final int child) {
+    int offset = 0;
+
+    for (int i = 0; i < child; ++ i) {
+      offset += branch.sizes[i];
+    }
+
+    return offset;
+  }
+
+  private static int sum(final int[] sizes) {
+    int sum = 0;
+
+    for (final int size : sizes) {
+      sum += size;
+    }
+
+    return sum;
+  }
+
+  private static <T> T[] privateCopy(final T[] array, final T[] shared) {
+    return array != null && array == shared ? array.clone() : array;
+  }
+
+  private static <T> T[] editable(final Object edit, final Node node, final T[] array) {
+    return node.isOwnedBy(edit) ? array : array.clone();
+  }
+
+  private static int[] editable(final Object edit, final Node node, final int[] array) {
+    return node.isOwnedBy(edit) ? array : array.clone();
+  }
+
+  private static <T> T[] insertAt(final T[] array, final int index, final T item) {
+    final T[] result = Arrays.copyOf(array, array.length + 1);
+    System.arraycopy(array, index, result, index + 1, array.length - index);
+    result[index] = item;
+    return result;
+  }
+
+  private static int[] insertAt(final int[] array, final int index, final int item) {
+    final int[] result = Arrays.copyOf(array, array.length + 1);
+    System.arraycopy(array, index, result, index + 1, array.length - index);
+    result[index] = item;
+    return result;
+  }
+
+  private static <T> T[] removeAt(final T[] array, final int index) {
+    final T[] result = Arrays.copyOf(array, array.length - 1);
+    System.arraycopy(array, index + 1, result, index, array.length - index - 1);
+    return result;
+  }
+
+  private static int[] removeAt(final int[] array, final int index) {
+    final int[] result = Arrays.copyOf(array, array.length - 1);
+    System.arraycopy(array, index + 1, result, index, array.length - index - 1);
+    return result;
+  }
+
+  private static <T> T[] concat(final T[] a, final T[] b) {
+    final T[] result = Arrays.copyOf(a, a.length + b.length);
+    System.arraycopy(b, 0, result, a.length, b.length);
+    return result;
+  }
+
+  private static int[] concat(final int[] a, final int[] b) {
+    final int[] result = Arrays.copyOf(a, a.length + b.length);
+    System.arraycopy(b, 0, result, a.length, b.length);
+    return result;
+  }
+
+  /**
+   * A position in a tree, kept as the path of nodes from the root to a leaf.
+   */
+  static final class Cursor {
+    private final Node[] path;
+    private final int[] positions;
+
+    Cursor(final Node root) {
+      int height = 1;
+
+      for (Node node = root; node instanceof Branch; node = ((Branch) node).children[0]) {
+        ++ height;
+      }
+
+      path = new Node[height];
+      positions = new int[height];
+      path[0] = root;
+    }
+
+    /**
+     * Moves the cursor to the key at the given position, which must be within the tree.
+     */
+    Cursor seek(final int index) {
+      int remaining = index;
+
+      for (int level = 0; level < path.length - 1; ++ level) {
+        final Branch branch = (Branch) path[level];
+        final int child = childAt(branch, remaining);
+
+        remaining -= offsetOf(branch, child);
+        positions[level] = child;
+        path[level + 1] = branch.children[child];
+      }
+
+      positions[path.length - 1] = remaining;
+      return this;
+    }
+
+    Object getKey() {
+      return path[path.length - 1].keys[positions[path.length - 1]];
+    }
+
+    Object getValue() {
+      return ((Leaf) path[path.length - 1]).getValue(positions[path.length - 1]);
+    }
+
+    /**
+     * Moves the cursor to the next key, returns false if there is none.
+     */
+    boolean advance() {
+      final int leafLevel = path.length - 1;
+
+      if (++ positions[leafLevel] < path[leafLevel].getCount()) {
+        return true;
+      }
+
+      int level = leafLevel - 1;
+
+      while (level >= 0 && ++ positions[level] >= path[level].getCount()) {
+        -- level;
+      }
+
+      if (level < 0) {
+        return false;
+      }
+
+      for (; level < leafLevel; ++ level) {
+        path[level + 1] = ((Branch) path[level]).children[positions[level]];
+        positions[level + 1] = 0;
+      }
+
+      return true;
+    }
+  }
+
+  /**
+   * Iterates over a range of positions of a tree. Splits divide the remaining range in half and
+   * seek to the start of each half, so the iterator is sized at every level of splitting.
+   */
+  static final class BTreeSpliterator<R> implements Spliterator<R> {
+    private final Node root;
+    private final BiFunction<Object, Object, R> mapper;
+    private final Comparator<? super R> comparator;
+    private final int characteristics;
+    private int index;
+    private final int end;
+    private Cursor cursor;
+
+    BTreeSpliterator(final Node root, final int from, final int to,
+        final BiFunction<Object, Object, R> mapper, final Comparator<? super R> comparator,
+        final int characteristics) {
+      this.root = root;
+      this.index = from;
+      this.end = to;
+      this.mapper = mapper;
+      this.comparator = comparator;
+      this.characteristics = characteristics | SIZED | SUBSIZED;
+    }
+
+    @Override
+    public boolean tryAdvance(final Consumer<? super R> action) {
+      if (index >= end) {
+        return false;
+      }
+
+      if (cursor == null) {
+        cursor = new Cursor(root).seek(index);
+      } else {
+        cursor.advance();
+      }
+
+      ++ index;
+      action.accept(mapper.apply(cursor.getKey(), cursor.getValue()));
+      return true;
+    }
+
+    @Override
+    public Spliterator<R> trySplit() {
+      final int remaining = end - index;
+
+      if (remaining <= MAX_COUNT || cursor != null) {
+        return null;
+      }
+
+      final int mid = index + remaining / 2;
+      final Spliterator<R> prefix =
+          new BTreeSpliterator<>(root, index, mid, mapper, comparator, characteristics);
+
+      index = mid;
+      return prefix;
+    }
+
+    @Override
+    public long estimateSize() {
+      return end - index;
+    }
+
+    @Override
+    public int characteristics() {
+      return characteristics;
+    }
+
+    @Override
+    public Comparator<? super R> getComparator() {
+      if (hasCharacteristics(SORTED)) {
+        return comparator;
+      }
+
+      throw new IllegalStateException();
+    }
+  }
+}
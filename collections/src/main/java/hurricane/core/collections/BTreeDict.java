@@ -0,0 +1,422 @@
+package hurricane.core.collections;
+
+import hurricane.core.collections.BTree.BTreeSpliterator;
+import hurricane.core.collections.BTree.Change;
+import hurricane.core.collections.BTree.Cursor;
+import hurricane.core.collections.BTree.Node;
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Spliterator;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * A dictionary implemented as a persistent B+-tree, see {@link BTree}.
+ *
+ * @param <K>
+ * @param <V>
+ */
+public final class BTreeDict<K, V> implements SortedDict<K, V> {
+
+  private static final int CHARACTERISTICS = Spliterator.IMMUTABLE | Spliterator.ORDERED
+      | Spliterator.NONNULL | Spliterator.DISTINCT | Spliterator.SORTED;
+
+  /**
+   * Set operations with a dictionary that is much smaller than this one insert or delete its keys
+   * one by one instead of merging both dictionaries in linear time.
+   */
+  private static final int INCREMENTAL_RATIO = 16;
+
+  private final Comparator<K> comparator;
+  private final Node root;
+
+  private BTreeDict(final Comparator<K> comparator, final Node root) {
+    this.comparator = comparator;
+    this.root = root;
+  }
+
+  static <K extends Comparable<K>, V> BTreeDict<K, V> empty() {
+    return new BTreeDict<>(Comparator.<K>naturalOrder(), BTree.EMPTY_DICT);
+  }
+
+  static <K, V> BTreeDict<K, V> empty(final Comparator<K> comparator) {
+    return new BTreeDict<>(
+        Objects.requireNonNull(comparator, "comparator cannot be null"),
+        BTree.EMPTY_DICT
+    );
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public Optional<V> lookup(final K key) {
+    return Optional.ofNullable((V) BTree.get(root, order(), key, null));
+  }
+
+  @Override
+  public boolean containsKey(final K key) {
+    return lookup(key).isPresent();
+  }
+
+  @Override
+  public SortedDict<K, V> put(final K key, final V value) {
+    Objects.requireNonNull(key, "key cannot be null");
+    Objects.requireNonNull(value, "value cannot be null");
+
+    return replaceRoot(BTree.put(null, root, order(), key, value, new Change()));
+  }
+
+  @Override
+  public SortedDict<K, V> delete(final K key) {
+    if (key == null) {
+      return this;
+    }
+
+    return replaceRoot(BTree.remove(null, root, order(), key, BTree.EMPTY_DICT, new Change()));
+  }
+
+  /**
+   * Puts the entries into a transient, which copies every touched node once instead of once per
+   * entry.
+   */
+  @Override
+  public SortedDict<K, V> putAll(final Map<? extends K, ? extends V> entries) {
+    Objects.requireNonNull(entries, "entries cannot be null");
+
+    if (entries.isEmpty()) {
+      return this;
+    }
+
+    final TransientDict<K, V> result = asTransient();
+    entries.forEach(result::put);
+
+    return (SortedDict<K, V>) result.persistent();
+  }
+
+  @Override
+  public SortedDict<K, V> deleteAll(final Iterable<? extends K> keys) {
+    Objects.requireNonNull(keys, "keys cannot be null");
+
+    final TransientDict<K, V> result = asTransient();
+    keys.forEach(result::delete);
+
+    return result.getSize() == getSize() ? this : (SortedDict<K, V>) result.persistent();
+  }
+
+  @Override
+  public SortedDict<K, V> union(final Dict<K, V> other) {
+    Objects.requireNonNull(other, "other cannot be null");
+
+    if (other.isEmpty()) {
+      return this;
+    }
+
+    if (other.getSize() * INCREMENTAL_RATIO < getSize()) {
+      final TransientDict<K, V> result = asTransient();
+      other.entries().forEach(entry -> result.put(entry.getKey(), entry.getValue()));
+      return (SortedDict<K, V>) result.persistent();
+    }
+
+    final Iterator<Map.Entry<K, V>> a = entries().iterator();
+    final Iterator<Map.Entry<K, V>> b = sortedEntriesOf(other).iterator();
+    final Builder<K, V> builder = new Builder<>(getSize() + other.getSize());
+
+    Map.Entry<K, V> entryA = next(a);
+    Map.Entry<K, V> entryB = next(b);
+
+    while (entryA != null || entryB != null) {
+      final int compare = entryA == null ? 1
+          : entryB == null ? -1
+          : comparator.compare(entryA.getKey(), entryB.getKey());
+
+      if (compare < 0) {
+        builder.add(entryA);
+        entryA = next(a);
+      } else {
+        // Equal keys take the value of the other dictionary:
+        builder.add(entryB);
+        entryA = compare == 0 ? next(a) : entryA;
+        entryB = next(b);
+      }
+    }
+
+    return builder.build(comparator);
+  }
+
+  @Override
+  public SortedDict<K, V> intersection(final Dict<K, ?> other) {
+    Objects.requireNonNull(other, "other cannot be null");
+
+    final Builder<K, V> builder = new Builder<>(Math.min(getSize(), other.getSize()));
+    entries().filter(entry -> other.containsKey(entry.getKey())).forEach(builder::add);
+
+    return builder.size == getSize() ? this : builder.build(comparator);
+  }
+
+  @Override
+  public SortedDict<K, V> difference(final Dict<K, ?> other) {
+    Objects.requireNonNull(other, "other cannot be null");
+
+    if (other.getSize() * INCREMENTAL_RATIO < getSize()) {
+      final TransientDict<K, V> result = asTransient();
+      other.entries().forEach(entry -> result.delete(entry.getKey()));
+      return result.getSize() == getSize() ? this : (SortedDict<K, V>) result.persistent();
+    }
+
+    final Builder<K, V> builder = new Builder<>(getSize());
+    entries().filter(entry -> !other.containsKey(entry.getKey())).forEach(builder::add);
+
+    return builder.size == getSize() ? this : builder.build(comparator);
+  }
+
+  @Override
+  public TransientDict<K, V> asTransient() {
+    return new Transient<>(comparator, root);
+  }
+
+  @Override
+  public int getSize() {
+    return root.getSize();
+  }
+
+  @Override
+  public Comparator<K> getComparator() {
+    return comparator;
+  }
+
+  @Override
+  public Stream<Map.Entry<K, V>> entries() {
+    return entries(0);
+  }
+
+  @Override
+  public Stream<Map.Entry<K, V>> entries(final K from) {
+    return entries(BTree.rank(root, order(), Objects.requireNonNull(from, "from cannot be null"),
+        false));
+  }
+
+  @Override
+  public Optional<K> floorKey(final K key) {
+    return optionalKeyAt(BTree.rank(root, order(), key, true) - 1);
+  }
+
+  @Override
+  public Optional<K> ceilingKey(final K key) {
+    return optionalKeyAt(BTree.rank(root, order(), key, false));
+  }
+
+  @Override
+  public Optional<K> lowerKey(final K key) {
+    return optionalKeyAt(BTree.rank(root, order(), key, false) - 1);
+  }
+
+  @Override
+  public Optional<K> higherKey(final K key) {
+    return optionalKeyAt(BTree.rank(root, order(), key, true));
+  }
+
+  @Override
+  public SortedDict<K, V> subDict(final K from, final K to) {
+    if (comparator.compare(from, to) > 0) {
+      throw new IllegalArgumentException("from cannot be greater than to");
+    }
+
+    return slice(BTree.rank(root, order(), from, false), BTree.rank(root, order(), to, false));
+  }
+
+  @Override
+  public SortedDict<K, V> headDict(final K to) {
+    return slice(0, BTree.rank(root, order(), to, false));
+  }
+
+  @Override
+  public SortedDict<K, V> tailDict(final K from) {
+    return slice(BTree.rank(root, order(), from, false), getSize());
+  }
+
+  @Override
+  public int indexOf(final K key) {
+    return BTree.indexOf(root, order(), key);
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public K keyAt(final int index) {
+    return (K) seek(index).getKey();
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public V valueAt(final int index) {
+    return (V) seek(index).getValue();
+  }
+
+  @Override
+  public int count(final K from, final K to) {
+    if (comparator.compare(from, to) > 0) {
+      throw new IllegalArgumentException("from cannot be greater than to");
+    }
+
+    return BTree.rank(root, order(), to, false) - BTree.rank(root, order(), from, false);
+  }
+
+  @SuppressWarnings("unchecked")
+  private Comparator<Object> order() {
+    return (Comparator<Object>) comparator;
+  }
+
+  private Cursor seek(final int index) {
+    if (index < 0 || index >= getSize()) {
+      throw new IndexOutOfBoundsException("Index: " + index + ", size: " + getSize());
+    }
+
+    return new Cursor(root).seek(index);
+  }
+
+  @SuppressWarnings("unchecked")
+  private Optional<K> optionalKeyAt(final int index) {
+    return index < 0 || index >= getSize()
+        ? Optional.empty()
+        : Optional.of((K) new Cursor(root).seek(index).getKey());
+  }
+
+  @SuppressWarnings("unchecked")
+  private Stream<Map.Entry<K, V>> entries(final int from) {
+    return StreamSupport.stream(new BTreeSpliterator<>(
+        root,
+        from,
+        getSize(),
+        (key, value) -> new SimpleImmutableEntry<>((K) key, (V) value),
+        Map.Entry.comparingByKey(comparator),
+        CHARACTERISTICS
+    ), false);
+  }
+
+  private SortedDict<K, V> slice(final int from, final int to) {
+    return replaceRoot(BTree.slice(root, from, to, BTree.EMPTY_DICT));
+  }
+
+  private SortedDict<K, V> replaceRoot(final Node newRoot) {
+    return newRoot == root
+        ? this
+        : new BTreeDict<>(comparator, newRoot);
+  }
+
+  /**
+   * Returns the entries of another dictionary in the order of this dictionary.
+   */
+  private Stream<Map.Entry<K, V>> sortedEntriesOf(final Dict<K, V> other) {
+    if (other instanceof SortedDict<?, ?>
+        && comparator.equals(((SortedDict<K, V>) other).getComparator())) {
+      return other.entries();
+    }
+
+    final List<Map.Entry<K, V>> entries = new ArrayList<>(other.getSize());
+    other.entries().forEach(entries::add);
+    TreeDictBase.sortDistinct(entries, Map.Entry.comparingByKey(comparator));
+
+    return entries.stream();
+  }
+
+  private static <T> T next(final Iterator<T> iterator) {
+    return iterator.hasNext() ? iterator.next() : null;
+  }
+
+  /**
+   * Accumulates entries in ascending key order for a linear time build.
+   */
+  private static final class Builder<K, V> {
+    private final Object[] keys;
+    private final Object[] values;
+    private int size;
+
+    private Builder(final int capacity) {
+      keys = new Object[capacity];
+      values = new Object[capacity];
+    }
+
+    private void add(final Map.Entry<K, V> entry) {
+      keys[size] = entry.getKey();
+      values[size] = entry.getValue();
+      ++ size;
+    }
+
+    private BTreeDict<K, V> build(final Comparator<K> comparator) {
+      return new BTreeDict<>(comparator, BTree.build(keys, values, size, BTree.EMPTY_DICT));
+    }
+  }
+
+  private static final class Transient<K, V> implements TransientDict<K, V> {
+
+    private final Comparator<K> comparator;
+    private Node root;
+    private Object edit = new Object();
+
+    private Transient(final Comparator<K> comparator, final Node root) {
+      this.comparator = comparator;
+      this.root = root;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Optional<V> lookup(final K key) {
+      ensureEditable();
+      return Optional.ofNullable((V) BTree.get(root, order(), key, null));
+    }
+
+    @Override
+    public boolean containsKey(final K key) {
+      return lookup(key).isPresent();
+    }
+
+    @Override
+    public TransientDict<K, V> put(final K key, final V value) {
+      Objects.requireNonNull(key, "key cannot be null");
+      Objects.requireNonNull(value, "value cannot be null");
+      ensureEditable();
+
+      root = BTree.put(edit, root, order(), key, value, new Change());
+      return this;
+    }
+
+    @Override
+    public TransientDict<K, V> delete(final K key) {
+      ensureEditable();
+
+      if (key != null) {
+        root = BTree.remove(edit, root, order(), key, BTree.EMPTY_DICT, new Change());
+      }
+
+      return this;
+    }
+
+    @Override
+    public int getSize() {
+      ensureEditable();
+      return root.getSize();
+    }
+
+    @Override
+    public Dict<K, V> persistent() {
+      ensureEditable();
+      edit = null;
+      return new BTreeDict<>(comparator, root);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Comparator<Object> order() {
+      return (Comparator<Object>) comparator;
+    }
+
+    private void ensureEditable() {
+      if (edit == null) {
+        throw new IllegalStateException("Transient used after call to persistent()");
+      }
+    }
+  }
+}
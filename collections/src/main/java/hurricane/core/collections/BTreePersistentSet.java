@@ -0,0 +1,406 @@
+package hurricane.core.collections;
+
+import hurricane.core.collections.BTree.BTreeSpliterator;
+import hurricane.core.collections.BTree.Change;
+import hurricane.core.collections.BTree.Cursor;
+import hurricane.core.collections.BTree.Node;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Spliterator;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * A set implemented as a persistent B+-tree, see {@link BTree}.
+ *
+ * @param <V>
+ */
+public final class BTreePersistentSet<V> implements SortedPersistentSet<V> {
+
+  private static final int CHARACTERISTICS = Spliterator.IMMUTABLE | Spliterator.ORDERED
+      | Spliterator.NONNULL | Spliterator.DISTINCT | Spliterator.SORTED;
+
+  /**
+   * Set operations with a set that is much smaller than this one insert or delete its values one
+   * by one instead of merging both sets in linear time.
+   */
+  private static final int INCREMENTAL_RATIO = 16;
+
+  private final Comparator<V> comparator;
+  private final Node root;
+
+  private BTreePersistentSet(final Comparator<V> comparator, final Node root) {
+    this.comparator = comparator;
+    this.root = root;
+  }
+
+  static <V extends Comparable<V>> BTreePersistentSet<V> empty() {
+    return new BTreePersistentSet<>(Comparator.<V>naturalOrder(), BTree.EMPTY_SET);
+  }
+
+  static <V> BTreePersistentSet<V> empty(final Comparator<V> comparator) {
+    return new BTreePersistentSet<>(
+        Objects.requireNonNull(comparator, "comparator cannot be null"),
+        BTree.EMPTY_SET
+    );
+  }
+
+  @Override
+  public boolean contains(final V value) {
+    return BTree.get(root, order(), value, null) != null;
+  }
+
+  @Override
+  public SortedPersistentSet<V> add(final V value) {
+    Objects.requireNonNull(value, "value cannot be null");
+
+    return replaceRoot(BTree.put(null, root, order(), value, value, new Change()));
+  }
+
+  @Override
+  public SortedPersistentSet<V> delete(final V value) {
+    if (value == null) {
+      return this;
+    }
+
+    return replaceRoot(BTree.remove(null, root, order(), value, BTree.EMPTY_SET, new Change()));
+  }
+
+  /**
+   * Adds the values to a transient, which copies every touched node once instead of once per
+   * value.
+   */
+  @Override
+  public SortedPersistentSet<V> addAll(final Iterable<? extends V> values) {
+    Objects.requireNonNull(values, "values cannot be null");
+
+    final TransientSet<V> result = asTransient();
+    values.forEach(result::add);
+
+    return result.getSize() == getSize() ? this : (SortedPersistentSet<V>) result.persistent();
+  }
+
+  @Override
+  public SortedPersistentSet<V> deleteAll(final Iterable<? extends V> values) {
+    Objects.requireNonNull(values, "values cannot be null");
+
+    final TransientSet<V> result = asTransient();
+    values.forEach(result::delete);
+
+    return result.getSize() == getSize() ? this : (SortedPersistentSet<V>) result.persistent();
+  }
+
+  @Override
+  public SortedPersistentSet<V> union(final PersistentSet<V> other) {
+    Objects.requireNonNull(other, "other cannot be null");
+
+    if (other.isEmpty()) {
+      return this;
+    }
+
+    if (other.getSize() * INCREMENTAL_RATIO < getSize()) {
+      final TransientSet<V> result = asTransient();
+      other.stream().forEach(result::add);
+      return (SortedPersistentSet<V>) result.persistent();
+    }
+
+    final Iterator<V> a = stream().iterator();
+    final Iterator<V> b = sortedValuesOf(other).iterator();
+    final Object[] values = new Object[getSize() + other.getSize()];
+    int size = 0;
+
+    V valueA = next(a);
+    V valueB = next(b);
+
+    while (valueA != null || valueB != null) {
+      final int compare = valueA == null ? 1
+          : valueB == null ? -1
+          : comparator.compare(valueA, valueB);
+
+      if (compare < 0) {
+        values[size ++] = valueA;
+        valueA = next(a);
+      } else {
+        // Equal values are taken from the other set:
+        values[size ++] = valueB;
+        valueA = compare == 0 ? next(a) : valueA;
+        valueB = next(b);
+      }
+    }
+
+    return build(values, size);
+  }
+
+  @Override
+  public SortedPersistentSet<V> intersection(final PersistentSet<V> other) {
+    Objects.requireNonNull(other, "other cannot be null");
+
+    final Object[] values = stream().filter(other::contains).toArray();
+
+    return values.length == getSize() ? this : build(values, values.length);
+  }
+
+  @Override
+  public SortedPersistentSet<V> difference(final PersistentSet<V> other) {
+    Objects.requireNonNull(other, "other cannot be null");
+
+    if (other.getSize() * INCREMENTAL_RATIO < getSize()) {
+      final TransientSet<V> result = asTransient();
+      other.stream().forEach(result::delete);
+      return result.getSize() == getSize() ? this : (SortedPersistentSet<V>) result.persistent();
+    }
+
+    final Object[] values = stream().filter(value -> !other.contains(value)).toArray();
+
+    return values.length == getSize() ? this : build(values, values.length);
+  }
+
+  @Override
+  public TransientSet<V> asTransient() {
+    return new Transient<>(comparator, root);
+  }
+
+  @Override
+  public int getSize() {
+    return root.getSize();
+  }
+
+  @Override
+  public Comparator<V> getComparator() {
+    return comparator;
+  }
+
+  @Override
+  public Stream<V> stream() {
+    return stream(0);
+  }
+
+  @Override
+  public Stream<V> stream(final V from) {
+    return stream(BTree.rank(root, order(), Objects.requireNonNull(from, "from cannot be null"),
+        false));
+  }
+
+  @Override
+  public Optional<V> floor(final V value) {
+    return optionalGet(BTree.rank(root, order(), value, true) - 1);
+  }
+
+  @Override
+  public Optional<V> ceiling(final V value) {
+    return optionalGet(BTree.rank(root, order(), value, false));
+  }
+
+  @Override
+  public Optional<V> lower(final V value) {
+    return optionalGet(BTree.rank(root, order(), value, false) - 1);
+  }
+
+  @Override
+  public Optional<V> higher(final V value) {
+    return optionalGet(BTree.rank(root, order(), value, true));
+  }
+
+  @Override
+  public SortedPersistentSet<V> subSet(final V from, final V to) {
+    if (comparator.compare(from, to) > 0) {
+      throw new IllegalArgumentException("from cannot be greater than to");
+    }
+
+    return slice(BTree.rank(root, order(), from, false), BTree.rank(root, order(), to, false));
+  }
+
+  @Override
+  public SortedPersistentSet<V> headSet(final V to) {
+    return slice(0, BTree.rank(root, order(), to, false));
+  }
+
+  @Override
+  public SortedPersistentSet<V> tailSet(final V from) {
+    return slice(BTree.rank(root, order(), from, false), getSize());
+  }
+
+  @Override
+  public int indexOf(final V value) {
+    return BTree.indexOf(root, order(), value);
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public V get(final int index) {
+    if (index < 0 || index >= getSize()) {
+      throw new IndexOutOfBoundsException("Index: " + index + ", size: " + getSize());
+    }
+
+    return (V) new Cursor(root).seek(index).getKey();
+  }
+
+  @Override
+  public int count(final V from, final V to) {
+    if (comparator.compare(from, to) > 0) {
+      throw new IllegalArgumentException("from cannot be greater than to");
+    }
+
+    return BTree.rank(root, order(), to, false) - BTree.rank(root, order(), from, false);
+  }
+
+  @SuppressWarnings("unchecked")
+  private Comparator<Object> order() {
+    return (Comparator<Object>) comparator;
+  }
+
+  private Optional<V> optionalGet(final int index) {
+    return index < 0 || index >= getSize()
+        ? Optional.empty()
+        : Optional.of(get(index));
+  }
+
+  @SuppressWarnings("unchecked")
+  private Stream<V> stream(final int from) {
+    return StreamSupport.stream(new BTreeSpliterator<>(
+        root,
+        from,
+        getSize(),
+        (key, value) -> (V) key,
+        comparator,
+        CHARACTERISTICS
+    ), false);
+  }
+
+  private SortedPersistentSet<V> slice(final int from, final int to) {
+    return replaceRoot(BTree.slice(root, from, to, BTree.EMPTY_SET));
+  }
+
+  private SortedPersistentSet<V> replaceRoot(final Node newRoot) {
+    return newRoot == root
+        ? this
+        : new BTreePersistentSet<>(comparator, newRoot);
+  }
+
+  private SortedPersistentSet<V> build(final Object[] values, final int size) {
+    return new BTreePersistentSet<>(comparator, BTree.build(values, null, size, BTree.EMPTY_SET));
+  }
+
+  /**
+   * Returns the values of another set in the order of this set.
+   */
+  private Stream<V> sortedValuesOf(final PersistentSet<V> other) {
+    if (other instanceof SortedPersistentSet<?>
+        && comparator.equals(((SortedPersistentSet<V>) other).getComparator())) {
+      return other.stream();
+    }
+
+    final List<V> values = other.stream().collect(Collectors.toCollection(ArrayList::new));
+    TreeDictBase.sortDistinct(values, comparator);
+
+    return values.stream();
+  }
+
+  private static <T> T next(final Iterator<T> iterator) {
+    return iterator.hasNext() ? iterator.next() : null;
+  }
+
+  @Override
+  public boolean equals(final Object obj) {
+    if (!(obj instanceof BTreePersistentSet<?>)) {
+      return false;
+    }
+
+    final BTreePersistentSet<?> other = (BTreePersistentSet<?>) obj;
+
+    // Pre-test by comparing size:
+    if (getSize() != other.getSize()) {
+      return false;
+    }
+
+    final Iterator<?> iteratorA = stream().iterator();
+    final Iterator<?> iteratorB = other.stream().iterator();
+
+    while (iteratorA.hasNext() && iteratorB.hasNext()) {
+      if (!Objects.equals(iteratorA.next(), iteratorB.next())) {
+        return false;
+      }
+    }
+
+    return !iteratorA.hasNext() && !iteratorB.hasNext();
+  }
+
+  @Override
+  public int hashCode() {
+    int hashCode = 1;
+
+    final Iterator<V> iterator = stream().iterator();
+    while (iterator.hasNext()) {
+      hashCode = 31 * hashCode + Objects.hashCode(iterator.next());
+    }
+
+    return hashCode;
+  }
+
+  private static final class Transient<V> implements TransientSet<V> {
+
+    private final Comparator<V> comparator;
+    private Node root;
+    private Object edit = new Object();
+
+    private Transient(final Comparator<V> comparator, final Node root) {
+      this.comparator = comparator;
+      this.root = root;
+    }
+
+    @Override
+    public boolean contains(final V value) {
+      ensureEditable();
+      return BTree.get(root, order(), value, null) != null;
+    }
+
+    @Override
+    public TransientSet<V> add(final V value) {
+      Objects.requireNonNull(value, "value cannot be null");
+      ensureEditable();
+
+      root = BTree.put(edit, root, order(), value, value, new Change());
+      return this;
+    }
+
+    @Override
+    public TransientSet<V> delete(final V value) {
+      ensureEditable();
+
+      if (value != null) {
+        root = BTree.remove(edit, root, order(), value, BTree.EMPTY_SET, new Change());
+      }
+
+      return this;
+    }
+
+    @Override
+    public int getSize() {
+      ensureEditable();
+      return root.getSize();
+    }
+
+    @Override
+    public PersistentSet<V> persistent() {
+      ensureEditable();
+      edit = null;
+      return new BTreePersistentSet<>(comparator, root);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Comparator<Object> order() {
+      return (Comparator<Object>) comparator;
+    }
+
+    private void ensureEditable() {
+      if (edit == null) {
+        throw new IllegalStateException("Transient used after call to persistent()");
+      }
+    }
+  }
+}
@@ -4,6 +4,6 @@ public interface BaseDict<K, V, T extends BaseDict<K, V, T>> {
   int getSize();
 
   default boolean isEmpty() {
-    return getSize() != 0;
+    return getSize() == 0;
   }
 }
@@ -4,6 +4,6 @@ public interface BaseSet<V, T extends BaseSet<V, T>> {
   int getSize();
 
   default boolean isEmpty() {
-    return getSize() != 0;
+    return getSize() == 0;
   }
 }
\ No newline at end of file
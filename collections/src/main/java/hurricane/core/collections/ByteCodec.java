@@ -0,0 +1,56 @@
+package hurricane.core.collections;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Converts values to and from bytes, for storing them in a {@link MappedSortedSet}. Encoded
+ * values are ordered by comparing their bytes as unsigned numbers, so codecs of which the
+ * encoding preserves the order of the values allow range scans without decoding.
+ *
+ * @param <V>
+ */
+public interface ByteCodec<V> {
+  byte[] encode(V value);
+
+  /**
+   * Decodes a value from the remaining bytes of the buffer.
+   */
+  V decode(ByteBuffer buffer);
+
+  /**
+   * Returns a codec that encodes strings as UTF-8, which preserves the order of their code
+   * points.
+   */
+  static ByteCodec<String> utf8() {
+    return new ByteCodec<>() {
+      @Override
+      public byte[] encode(final String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+      }
+
+      @Override
+      public String decode(final ByteBuffer buffer) {
+        return StandardCharsets.UTF_8.decode(buffer).toString();
+      }
+    };
+  }
+
+  /**
+   * Returns a codec that encodes longs as eight big-endian bytes with the sign bit flipped, which
+   * preserves their order.
+   */
+  static ByteCodec<Long> longs() {
+    return new ByteCodec<>() {
+      @Override
+      public byte[] encode(final Long value) {
+        return ByteBuffer.allocate(Long.BYTES).putLong(value ^ Long.MIN_VALUE).array();
+      }
+
+      @Override
+      public Long decode(final ByteBuffer buffer) {
+        return buffer.getLong(buffer.position()) ^ Long.MIN_VALUE;
+      }
+    };
+  }
+}
@@ -1,7 +1,12 @@
 package hurricane.core.collections;
 
 import java.util.Comparator;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collector;
+import java.util.stream.Stream;
 
 public interface Dict<K, V> extends BaseDict<K, V, Dict<K, V>> {
   Optional<V> lookup(K key);
@@ -9,16 +14,151 @@ public interface Dict<K, V> extends BaseDict<K, V, Dict<K, V>> {
   Dict<K, V> put(K key, V value);
   Dict<K, V> delete(K key);
 
-  Comparator<K> getComparator();
+  /**
+   * Returns a dictionary with all entries of the map put into it, as with repeated calls to put.
+   * Implementations may apply the whole batch at once instead of copying a path for every entry.
+   */
+  default Dict<K, V> putAll(final Map<? extends K, ? extends V> entries) {
+    Objects.requireNonNull(entries, "entries cannot be null");
 
-  static <K extends Comparable<K>, V> Dict<K, V> empty() {
+    final TransientDict<K, V> result = asTransient();
+    entries.forEach(result::put);
+
+    return result.persistent();
+  }
+
+  /**
+   * Returns a dictionary without the given keys, as with repeated calls to delete.
+   */
+  default Dict<K, V> deleteAll(final Iterable<? extends K> keys) {
+    Objects.requireNonNull(keys, "keys cannot be null");
+
+    final TransientDict<K, V> result = asTransient();
+    keys.forEach(result::delete);
+
+    return result.getSize() == getSize() ? this : result.persistent();
+  }
+
+  /**
+   * Returns a dictionary with the entries of both this dictionary and the other dictionary. Where
+   * both contain the same key, the value of the other dictionary is kept, as with put.
+   */
+  Dict<K, V> union(Dict<K, V> other);
+
+  /**
+   * Returns a dictionary with the entries of this dictionary whose keys are also in the other
+   * dictionary.
+   */
+  Dict<K, V> intersection(Dict<K, ?> other);
+
+  /**
+   * Returns a dictionary with the entries of this dictionary whose keys are not in the other
+   * dictionary.
+   */
+  Dict<K, V> difference(Dict<K, ?> other);
+
+  /**
+   * Returns a transient copy of this dictionary that can be updated in place, for building large
+   * dictionaries without copying a path for every update.
+   */
+  TransientDict<K, V> asTransient();
+
+  /**
+   * Returns a stream of the entries of this dictionary. Sorted dictionaries stream their entries
+   * in ascending key order, other dictionaries in an unspecified order.
+   */
+  Stream<Map.Entry<K, V>> entries();
+
+  /**
+   * Returns the changes that turn this dictionary into the other dictionary: entries of which the
+   * key is only in the other dictionary are added, entries of which the key is only in this
+   * dictionary are removed, and entries with different values are changed. The order of the
+   * changes is unspecified.
+   */
+  default Stream<DictChange<K, V>> diff(final Dict<K, V> other) {
+    Objects.requireNonNull(other, "other cannot be null");
+
+    return Stream.concat(
+        difference(other).entries()
+            .map(entry -> DictChange.removed(entry.getKey(), entry.getValue())),
+        other.entries()
+            .map(entry -> {
+              final V oldValue = lookup(entry.getKey()).orElse(null);
+
+              if (oldValue == null) {
+                return DictChange.added(entry.getKey(), entry.getValue());
+              }
+
+              return oldValue.equals(entry.getValue())
+                  ? null
+                  : DictChange.changed(entry.getKey(), oldValue, entry.getValue());
+            })
+            .filter(Objects::nonNull)
+    );
+  }
+
+  static <K extends Comparable<K>, V> SortedDict<K, V> empty() {
     return TreeDict.empty();
   }
 
-  static <K, V> Dict<K, V> empty(final Comparator<K> comparator) {
+  static <K, V> SortedDict<K, V> empty(final Comparator<K> comparator) {
     return TreeDict.empty(comparator);
   }
 
+  /**
+   * Returns an empty dictionary backed by a B+-tree, which stores up to 32 entries per node in
+   * arrays. Lookups touch fewer cache lines than in the binary tree of {@link #empty()}, and
+   * updates copy a shorter path, at the cost of copying wider nodes.
+   */
+  static <K extends Comparable<K>, V> SortedDict<K, V> btree() {
+    return BTreeDict.empty();
+  }
+
+  static <K, V> SortedDict<K, V> btree(final Comparator<K> comparator) {
+    return BTreeDict.empty(comparator);
+  }
+
+  /**
+   * Returns an empty dictionary backed by a hash array mapped trie. Keys are compared using
+   * equals and hashCode instead of a comparator, which makes lookups take near constant time
+   * for keys that are expensive to compare. Entries are not ordered.
+   */
+  static <K, V> Dict<K, V> hashed() {
+    return HashDict.empty();
+  }
+
+  /**
+   * Returns a collector that accumulates items into a hashed dictionary. When keys collide the
+   * last value wins, as with repeated calls to put.
+   */
+  static <T, K, V> Collector<T, ?, Dict<K, V>> hashedCollector(
+      final Function<? super T, ? extends K> keyMapper,
+      final Function<? super T, ? extends V> valueMapper) {
+    return HashDict.collector(keyMapper, valueMapper);
+  }
+
+  /**
+   * Returns a collector that accumulates items into a dictionary keyed by the natural order of
+   * the keys. When keys collide the last value wins, as with repeated calls to put. Items that are
+   * already sorted by key are collected in linear time.
+   */
+  static <T, K extends Comparable<K>, V> Collector<T, ?, SortedDict<K, V>> collector(
+      final Function<? super T, ? extends K> keyMapper,
+      final Function<? super T, ? extends V> valueMapper) {
+    return TreeDict.collector(Comparator.<K>naturalOrder(), keyMapper, valueMapper);
+  }
+
+  /**
+   * Returns a collector that accumulates items into a dictionary ordered by the given comparator.
+   * When keys collide the last value wins, as with repeated calls to put. Items that are already
+   * sorted by key are collected in linear time.
+   */
+  static <T, K, V> Collector<T, ?, SortedDict<K, V>> collector(final Comparator<K> comparator,
+      final Function<? super T, ? extends K> keyMapper,
+      final Function<? super T, ? extends V> valueMapper) {
+    return TreeDict.collector(comparator, keyMapper, valueMapper);
+  }
+
   /*
   <K, V, R> Dict<K, R> mapValues(Function<V, R> mapper);
 
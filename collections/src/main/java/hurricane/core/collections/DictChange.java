@@ -0,0 +1,87 @@
+package hurricane.core.collections;
+
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * An entry that was added to, removed from or changed in a dictionary, see {@link Dict#diff}.
+ * Added entries only have a new value, removed entries only have an old value and changed entries
+ * have both.
+ *
+ * @param <K>
+ * @param <V>
+ */
+public final class DictChange<K, V> {
+
+  public enum Kind {
+    ADDED, REMOVED, CHANGED
+  }
+
+  private final Kind kind;
+  private final K key;
+  private final V oldValue;
+  private final V newValue;
+
+  private DictChange(final Kind kind, final K key, final V oldValue, final V newValue) {
+    this.kind = kind;
+    this.key = Objects.requireNonNull(key, "key cannot be null");
+    this.oldValue = oldValue;
+    this.newValue = newValue;
+  }
+
+  public static <K, V> DictChange<K, V> added(final K key, final V newValue) {
+    return new DictChange<>(Kind.ADDED, key, null,
+        Objects.requireNonNull(newValue, "newValue cannot be null"));
+  }
+
+  public static <K, V> DictChange<K, V> removed(final K key, final V oldValue) {
+    return new DictChange<>(Kind.REMOVED, key,
+        Objects.requireNonNull(oldValue, "oldValue cannot be null"), null);
+  }
+
+  public static <K, V> DictChange<K, V> changed(final K key, final V oldValue, final V newValue) {
+    return new DictChange<>(Kind.CHANGED, key,
+        Objects.requireNonNull(oldValue, "oldValue cannot be null"),
+        Objects.requireNonNull(newValue, "newValue cannot be null"));
+  }
+
+  public Kind getKind() {
+    return kind;
+  }
+
+  public K getKey() {
+    return key;
+  }
+
+  public Optional<V> getOldValue() {
+    return Optional.ofNullable(oldValue);
+  }
+
+  public Optional<V> getNewValue() {
+    return Optional.ofNullable(newValue);
+  }
+
+  @Override
+  public boolean equals(final Object obj) {
+    if (!(obj instanceof DictChange<?, ?>)) {
+      return false;
+    }
+
+    final DictChange<?, ?> other = (DictChange<?, ?>) obj;
+
+    return kind == other.kind
+        && key.equals(other.key)
+        && Objects.equals(oldValue, other.oldValue)
+        && Objects.equals(newValue, other.newValue);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(kind, key, oldValue, newValue);
+  }
+
+  @Override
+  public String toString() {
+    return kind + " " + key + ": " + oldValue + " -> " + newValue;
+  }
+}
@@ -0,0 +1,303 @@
+package hurricane.core.collections;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * The estimated heap usage of a persistent collection: the number of tree nodes and the bytes of
+ * the nodes, their arrays and the collection object itself. Keys and values are not included,
+ * since they are owned by the caller and are often shared with other collections.
+ *
+ * <p>Sizes are estimated for a 64-bit HotSpot JVM with compressed references: 12 byte object
+ * headers, 16 byte array headers, 4 byte references and objects aligned to 8 bytes. Versions of a
+ * collection share most of their nodes, {@link #shared} reports how much of a version would be
+ * retained by another version anyway.</p>
+ */
+public final class Footprint {
+
+  private static final int OBJECT_HEADER = 12;
+  private static final int ARRAY_HEADER = 16;
+  private static final int REFERENCE = 4;
+  private static final int ALIGNMENT = 8;
+
+  private static final ClassValue<Layout> LAYOUTS = new ClassValue<>() {
+    @Override
+    protected Layout computeValue(final Class<?> type) {
+      return new Layout(type);
+    }
+  };
+
+  private final long nodeCount;
+  private final long bytes;
+
+  private Footprint(final long nodeCount, final long bytes) {
+    this.nodeCount = nodeCount;
+    this.bytes = bytes;
+  }
+
+  /**
+   * Measures a set, visiting all of its nodes.
+   *
+   * @throws IllegalArgumentException if the set is not implemented by this package.
+   */
+  public static Footprint of(final BaseSet<?, ?> set) {
+    return new Walk(null).visit(Objects.requireNonNull(set, "set cannot be null")).toFootprint();
+  }
+
+  /**
+   * Measures a dictionary or multimap, visiting all of its nodes.
+   *
+   * @throws IllegalArgumentException if the dictionary is not implemented by this package or is
+   *     stored off-heap, see {@link OffHeapArena#getAllocatedBytes()}.
+   */
+  public static Footprint of(final BaseDict<?, ?, ?> dict) {
+    return new Walk(null).visit(Objects.requireNonNull(dict, "dict cannot be null"))
+        .toFootprint();
+  }
+
+  /**
+   * Measures a vector, visiting all of its nodes.
+   */
+  public static Footprint of(final PersistentVector<?> vector) {
+    return new Walk(null).visit(Objects.requireNonNull(vector, "vector cannot be null"))
+        .toFootprint();
+  }
+
+  /**
+   * Measures the part of a set that is shared with another set, usually another version of it.
+   * The difference with {@link #of(BaseSet)} is what a cache holding both versions pays for the
+   * first one.
+   */
+  public static Footprint shared(final BaseSet<?, ?> set, final BaseSet<?, ?> other) {
+    return measureShared(Objects.requireNonNull(set, "set cannot be null"),
+        Objects.requireNonNull(other, "other cannot be null"));
+  }
+
+  /**
+   * Measures the part of a dictionary that is shared with another dictionary.
+   */
+  public static Footprint shared(final BaseDict<?, ?, ?> dict, final BaseDict<?, ?, ?> other) {
+    return measureShared(Objects.requireNonNull(dict, "dict cannot be null"),
+        Objects.requireNonNull(other, "other cannot be null"));
+  }
+
+  /**
+   * Measures the part of a vector that is shared with another vector.
+   */
+  public static Footprint shared(final PersistentVector<?> vector,
+      final PersistentVector<?> other) {
+    return measureShared(Objects.requireNonNull(vector, "vector cannot be null"),
+        Objects.requireNonNull(other, "other cannot be null"));
+  }
+
+  private static Footprint measureShared(final Object collection, final Object other) {
+    return new Walk(new Walk(null).visit(other).visited).visit(collection).toFootprint();
+  }
+
+  /**
+   * Returns the number of nodes, not counting arrays held by the nodes.
+   */
+  public long getNodeCount() {
+    return nodeCount;
+  }
+
+  /**
+   * Returns the estimated number of bytes.
+   */
+  public long getBytes() {
+    return bytes;
+  }
+
+  @Override
+  public boolean equals(final Object obj) {
+    if (!(obj instanceof Footprint)) {
+      return false;
+    }
+
+    final Footprint other = (Footprint) obj;
+
+    return nodeCount == other.nodeCount && bytes == other.bytes;
+  }
+
+  @Override
+  public int hashCode() {
+    return Long.hashCode(nodeCount) * 31 + Long.hashCode(bytes);
+  }
+
+  @Override
+  public String toString() {
+    return nodeCount + " nodes, " + bytes + " bytes";
+  }
+
+  private static boolean isNode(final Object object) {
+    return object instanceof TreeDictBase.Element<?, ?>
+        || object instanceof BTree.Node
+        || object instanceof HashTrie.Node
+        || object instanceof RrbTree.Node;
+  }
+
+  private static int sizeOfField(final Class<?> type) {
+    if (!type.isPrimitive()) {
+      return REFERENCE;
+    } else if (type == long.class || type == double.class) {
+      return 8;
+    } else if (type == int.class || type == float.class) {
+      return 4;
+    } else if (type == short.class || type == char.class) {
+      return 2;
+    }
+
+    return 1;
+  }
+
+  private static long align(final long size) {
+    return (size + ALIGNMENT - 1) & -ALIGNMENT;
+  }
+
+  /**
+   * Visits the objects of a collection: the collection object, the objects of this package it
+   * holds such as the set behind a multimap, and the nodes and arrays of their trees. Objects that
+   * are neither nodes nor part of this package, like keys, values and comparators, are skipped.
+   */
+  private static final class Walk {
+    private final Set<Object> counted;
+    private final Set<Object> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+    private final Deque<Object> pending = new ArrayDeque<>();
+    private long nodeCount;
+    private long bytes;
+
+    /**
+     * Creates a walk that only counts the given objects, or all objects if null.
+     */
+    private Walk(final Set<Object> counted) {
+      this.counted = counted;
+    }
+
+    private Walk visit(final Object collection) {
+      if (collection instanceof OffHeapLongLongDict) {
+        throw new IllegalArgumentException("Off-heap collections are measured by their arena");
+      }
+
+      if (collection.getClass().getPackage() != Footprint.class.getPackage()) {
+        throw new IllegalArgumentException(
+            "Cannot measure " + collection.getClass().getName());
+      }
+
+      push(collection);
+
+      while (!pending.isEmpty()) {
+        final Object object = pending.pop();
+        final boolean node = isNode(object);
+
+        count(object, node);
+
+        for (final Field field : LAYOUTS.get(object.getClass()).references) {
+          final Object child = get(field, object);
+
+          if (child instanceof Object[]) {
+            count(child, false);
+            for (final Object item : (Object[]) child) {
+              if (isNode(item)) {
+                push(item);
+              }
+            }
+          } else if (child != null && child.getClass().isArray()) {
+            count(child, false);
+          } else if (isNode(child) || !node && isPart(child)) {
+            push(child);
+          }
+        }
+      }
+
+      return this;
+    }
+
+    private static boolean isPart(final Object object) {
+      return object != null
+          && object.getClass().getPackage() == Footprint.class.getPackage()
+          && !(object instanceof Comparator<?>);
+    }
+
+    private void push(final Object object) {
+      if (visited.add(object)) {
+        pending.push(object);
+      }
+    }
+
+    private void count(final Object object, final boolean node) {
+      if (object.getClass().isArray() && !visited.add(object)) {
+        return;
+      }
+
+      if (counted == null || counted.contains(object)) {
+        bytes += sizeOf(object);
+        if (node) {
+          ++ nodeCount;
+        }
+      }
+    }
+
+    private static long sizeOf(final Object object) {
+      final Class<?> type = object.getClass();
+
+      if (!type.isArray()) {
+        return LAYOUTS.get(type).size;
+      }
+
+      return align(ARRAY_HEADER
+          + (long) Array.getLength(object) * sizeOfField(type.getComponentType()));
+    }
+
+    private static Object get(final Field field, final Object object) {
+      try {
+        return field.get(object);
+      } catch (final IllegalAccessException e) {
+        throw new IllegalStateException(e);
+      }
+    }
+
+    private Footprint toFootprint() {
+      return new Footprint(nodeCount, bytes);
+    }
+  }
+
+  /**
+   * The estimated size of the instances of a class and its reference fields.
+   */
+  private static final class Layout {
+    private final long size;
+    private final List<Field> references = new ArrayList<>();
+
+    private Layout(final Class<?> type) {
+      long fieldBytes = 0;
+
+      for (Class<?> current = type; current != null; current = current.getSuperclass()) {
+        for (final Field field : current.getDeclaredFields()) {
+          if (Modifier.isStatic(field.getModifiers())) {
+            continue;
+          }
+
+          fieldBytes += sizeOfField(field.getType());
+
+          if (!field.getType().isPrimitive()
+              && current.getPackage() == Footprint.class.getPackage()) {
+            field.setAccessible(true);
+            references.add(field);
+          }
+        }
+      }
+
+      this.size = align(OBJECT_HEADER + fieldBytes);
+    }
+  }
+}
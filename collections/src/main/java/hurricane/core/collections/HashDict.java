@@ -0,0 +1,253 @@
+package hurricane.core.collections;
+
+import hurricane.core.collections.HashTrie.Node;
+import hurricane.core.collections.HashTrie.SizeChange;
+import hurricane.core.collections.HashTrie.TrieSpliterator;
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Spliterator;
+import java.util.function.Function;
+import java.util.stream.Collector;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * A dictionary implemented as a hash array mapped trie, see {@link HashTrie}.
+ *
+ * @param <K>
+ * @param <V>
+ */
+public final class HashDict<K, V> implements Dict<K, V> {
+
+  private static final int CHARACTERISTICS = Spliterator.IMMUTABLE | Spliterator.NONNULL
+      | Spliterator.DISTINCT;
+
+  private static final HashDict<?, ?> EMPTY = new HashDict<>(HashTrie.empty(), 0);
+
+  private final Node root;
+  private final int size;
+
+  private HashDict(final Node root, final int size) {
+    this.root = root;
+    this.size = size;
+  }
+
+  @SuppressWarnings("unchecked")
+  static <K, V> HashDict<K, V> empty() {
+    return (HashDict<K, V>) EMPTY;
+  }
+
+  static <T, K, V> Collector<T, ?, Dict<K, V>> collector(
+      final Function<? super T, ? extends K> keyMapper,
+      final Function<? super T, ? extends V> valueMapper) {
+    Objects.requireNonNull(keyMapper, "keyMapper cannot be null");
+    Objects.requireNonNull(valueMapper, "valueMapper cannot be null");
+
+    return Collector.<T, TransientDict<K, V>, Dict<K, V>>of(
+        () -> HashDict.<K, V>empty().asTransient(),
+        (dict, item) -> dict.put(keyMapper.apply(item), valueMapper.apply(item)),
+        (a, b) -> {
+          b.persistent().entries().forEach(entry -> a.put(entry.getKey(), entry.getValue()));
+          return a;
+        },
+        TransientDict::persistent,
+        Collector.Characteristics.UNORDERED
+    );
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public Optional<V> lookup(final K key) {
+    if (key == null) {
+      return Optional.empty();
+    }
+
+    return Optional.ofNullable((V) root.find(0, HashTrie.hash(key), key, null));
+  }
+
+  @Override
+  public boolean containsKey(final K key) {
+    return lookup(key).isPresent();
+  }
+
+  @Override
+  public Dict<K, V> put(final K key, final V value) {
+    Objects.requireNonNull(key, "key cannot be null");
+    Objects.requireNonNull(value, "value cannot be null");
+
+    final SizeChange change = new SizeChange();
+    return replaceRoot(root.put(null, 0, HashTrie.hash(key), key, value, change), change);
+  }
+
+  @Override
+  public Dict<K, V> delete(final K key) {
+    if (key == null) {
+      return this;
+    }
+
+    final SizeChange change = new SizeChange();
+    return replaceRoot(root.remove(null, 0, HashTrie.hash(key), key, change), change);
+  }
+
+  /**
+   * Returns the union of both dictionaries by inserting the entries of the smaller dictionary
+   * into the larger one, which takes time proportional to the size of the smaller dictionary.
+   */
+  @Override
+  public Dict<K, V> union(final Dict<K, V> other) {
+    Objects.requireNonNull(other, "other cannot be null");
+
+    if (other.getSize() <= getSize() || !(other instanceof HashDict<?, ?>)) {
+      final TransientDict<K, V> result = asTransient();
+      other.entries().forEach(entry -> result.put(entry.getKey(), entry.getValue()));
+      return result.persistent();
+    }
+
+    // Values of the other dictionary win, only add the entries it doesn't have:
+    final TransientDict<K, V> result = other.asTransient();
+    entries().forEach(entry -> {
+      if (!result.containsKey(entry.getKey())) {
+        result.put(entry.getKey(), entry.getValue());
+      }
+    });
+
+    return result.persistent();
+  }
+
+  @Override
+  public Dict<K, V> intersection(final Dict<K, ?> other) {
+    Objects.requireNonNull(other, "other cannot be null");
+
+    final TransientDict<K, V> result = HashDict.<K, V>empty().asTransient();
+    entries()
+        .filter(entry -> other.containsKey(entry.getKey()))
+        .forEach(entry -> result.put(entry.getKey(), entry.getValue()));
+
+    return result.getSize() == getSize() ? this : result.persistent();
+  }
+
+  @Override
+  public Dict<K, V> difference(final Dict<K, ?> other) {
+    Objects.requireNonNull(other, "other cannot be null");
+
+    final TransientDict<K, V> result = asTransient();
+
+    if (other.getSize() < getSize()) {
+      other.entries().forEach(entry -> result.delete(entry.getKey()));
+    } else {
+      entries()
+          .filter(entry -> other.containsKey(entry.getKey()))
+          .forEach(entry -> result.delete(entry.getKey()));
+    }
+
+    return result.getSize() == getSize() ? this : result.persistent();
+  }
+
+  @Override
+  public TransientDict<K, V> asTransient() {
+    return new Transient<>(root, size);
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public Stream<Map.Entry<K, V>> entries() {
+    return StreamSupport.stream(new TrieSpliterator<>(
+        root,
+        size,
+        (key, value) -> new SimpleImmutableEntry<>((K) key, (V) value),
+        CHARACTERISTICS
+    ), false);
+  }
+
+  @Override
+  public int getSize() {
+    return size;
+  }
+
+  private Dict<K, V> replaceRoot(final Node newRoot, final SizeChange change) {
+    if (newRoot == root) {
+      return this;
+    }
+
+    return newRoot == null
+        ? empty()
+        : new HashDict<>(newRoot, size + change.delta);
+  }
+
+  private static final class Transient<K, V> implements TransientDict<K, V> {
+
+    private Node root;
+    private int size;
+    private Object edit = new Object();
+
+    private Transient(final Node root, final int size) {
+      this.root = root;
+      this.size = size;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Optional<V> lookup(final K key) {
+      ensureEditable();
+
+      if (key == null) {
+        return Optional.empty();
+      }
+
+      return Optional.ofNullable((V) root.find(0, HashTrie.hash(key), key, null));
+    }
+
+    @Override
+    public boolean containsKey(final K key) {
+      return lookup(key).isPresent();
+    }
+
+    @Override
+    public TransientDict<K, V> put(final K key, final V value) {
+      Objects.requireNonNull(key, "key cannot be null");
+      Objects.requireNonNull(value, "value cannot be null");
+      ensureEditable();
+
+      final SizeChange change = new SizeChange();
+      root = root.put(edit, 0, HashTrie.hash(key), key, value, change);
+      size += change.delta;
+      return this;
+    }
+
+    @Override
+    public TransientDict<K, V> delete(final K key) {
+      ensureEditable();
+
+      if (key == null) {
+        return this;
+      }
+
+      final SizeChange change = new SizeChange();
+      final Node newRoot = root.remove(edit, 0, HashTrie.hash(key), key, change);
+      root = newRoot == null ? HashTrie.empty() : newRoot;
+      size += change.delta;
+      return this;
+    }
+
+    @Override
+    public int getSize() {
+      ensureEditable();
+      return size;
+    }
+
+    @Override
+    public Dict<K, V> persistent() {
+      ensureEditable();
+      edit = null;
+      return size == 0 ? empty() : new HashDict<>(root, size);
+    }
+
+    private void ensureEditable() {
+      if (edit == null) {
+        throw new IllegalStateException("Transient used after call to persistent()");
+      }
+    }
+  }
+}
@@ -0,0 +1,249 @@
+package hurricane.core.collections;
+
+import hurricane.core.collections.HashTrie.Node;
+import hurricane.core.collections.HashTrie.SizeChange;
+import hurricane.core.collections.HashTrie.TrieSpliterator;
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.stream.Collector;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * A set implemented as a hash array mapped trie, see {@link HashTrie}. Each value is stored as
+ * both the key and the value of a pair in the trie.
+ *
+ * @param <V>
+ */
+public final class HashPersistentSet<V> implements PersistentSet<V> {
+
+  private static final int CHARACTERISTICS = Spliterator.IMMUTABLE | Spliterator.NONNULL
+      | Spliterator.DISTINCT;
+
+  private static final HashPersistentSet<?> EMPTY = new HashPersistentSet<>(HashTrie.empty(), 0);
+
+  private final Node root;
+  private final int size;
+
+  private HashPersistentSet(final Node root, final int size) {
+    this.root = root;
+    this.size = size;
+  }
+
+  @SuppressWarnings("unchecked")
+  static <V> HashPersistentSet<V> empty() {
+    return (HashPersistentSet<V>) EMPTY;
+  }
+
+  static <V> Collector<V, ?, PersistentSet<V>> collector() {
+    return Collector.<V, TransientSet<V>, PersistentSet<V>>of(
+        () -> HashPersistentSet.<V>empty().asTransient(),
+        TransientSet::add,
+        (a, b) -> {
+          b.persistent().stream().forEach(a::add);
+          return a;
+        },
+        TransientSet::persistent,
+        Collector.Characteristics.UNORDERED
+    );
+  }
+
+  @Override
+  public boolean contains(final V value) {
+    return value != null && root.find(0, HashTrie.hash(value), value, null) != null;
+  }
+
+  @Override
+  public PersistentSet<V> add(final V value) {
+    Objects.requireNonNull(value, "value cannot be null");
+
+    final SizeChange change = new SizeChange();
+    return replaceRoot(root.put(null, 0, HashTrie.hash(value), value, value, change), change);
+  }
+
+  @Override
+  public PersistentSet<V> delete(final V value) {
+    if (value == null) {
+      return this;
+    }
+
+    final SizeChange change = new SizeChange();
+    return replaceRoot(root.remove(null, 0, HashTrie.hash(value), value, change), change);
+  }
+
+  /**
+   * Returns the union of both sets by inserting the values of the smaller set into the larger
+   * one, which takes time proportional to the size of the smaller set.
+   */
+  @Override
+  public PersistentSet<V> union(final PersistentSet<V> other) {
+    Objects.requireNonNull(other, "other cannot be null");
+
+    final PersistentSet<V> larger = other.getSize() > getSize()
+        && other instanceof HashPersistentSet<?> ? other : this;
+    final PersistentSet<V> smaller = larger == this ? other : this;
+
+    final TransientSet<V> result = larger.asTransient();
+    smaller.stream().forEach(result::add);
+    return result.persistent();
+  }
+
+  @Override
+  public PersistentSet<V> intersection(final PersistentSet<V> other) {
+    Objects.requireNonNull(other, "other cannot be null");
+
+    final TransientSet<V> result = HashPersistentSet.<V>empty().asTransient();
+    stream().filter(other::contains).forEach(result::add);
+
+    return result.getSize() == getSize() ? this : result.persistent();
+  }
+
+  @Override
+  public PersistentSet<V> difference(final PersistentSet<V> other) {
+    Objects.requireNonNull(other, "other cannot be null");
+
+    final TransientSet<V> result = asTransient();
+
+    if (other.getSize() < getSize()) {
+      other.stream().forEach(result::delete);
+    } else {
+      stream().filter(other::contains).forEach(result::delete);
+    }
+
+    return result.getSize() == getSize() ? this : result.persistent();
+  }
+
+  @Override
+  public TransientSet<V> asTransient() {
+    return new Transient<>(root, size);
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public Stream<V> stream() {
+    return StreamSupport.stream(new TrieSpliterator<>(
+        root,
+        size,
+        (key, value) -> (V) key,
+        CHARACTERISTICS
+    ), false);
+  }
+
+  @Override
+  public int getSize() {
+    return size;
+  }
+
+  private PersistentSet<V> replaceRoot(final Node newRoot, final SizeChange change) {
+    if (newRoot == root) {
+      return this;
+    }
+
+    return newRoot == null
+        ? empty()
+        : new HashPersistentSet<>(newRoot, size + change.delta);
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public boolean equals(final Object obj) {
+    if (!(obj instanceof HashPersistentSet<?>)) {
+      return false;
+    }
+
+    final HashPersistentSet<V> other = (HashPersistentSet<V>) obj;
+
+    if (getSize() != other.getSize()) {
+      return false;
+    }
+
+    final Iterator<V> iterator = stream().iterator();
+    while (iterator.hasNext()) {
+      if (!other.contains(iterator.next())) {
+        return false;
+      }
+    }
+
+    return true;
+  }
+
+  /**
+   * Returns the sum of the hash codes of the values, which unlike the hash code of the sorted
+   * sets does not depend on the iteration order.
+   */
+  @Override
+  public int hashCode() {
+    int hashCode = 0;
+
+    final Iterator<V> iterator = stream().iterator();
+    while (iterator.hasNext()) {
+      hashCode += iterator.next().hashCode();
+    }
+
+    return hashCode;
+  }
+
+  private static final class Transient<V> implements TransientSet<V> {
+
+    private Node root;
+    private int size;
+    private Object edit = new Object();
+
+    private Transient(final Node root, final int size) {
+      this.root = root;
+      this.size = size;
+    }
+
+    @Override
+    public boolean contains(final V value) {
+      ensureEditable();
+      return value != null && root.find(0, HashTrie.hash(value), value, null) != null;
+    }
+
+    @Override
+    public TransientSet<V> add(final V value) {
+      Objects.requireNonNull(value, "value cannot be null");
+      ensureEditable();
+
+      final SizeChange change = new SizeChange();
+      root = root.put(edit, 0, HashTrie.hash(value), value, value, change);
+      size += change.delta;
+      return this;
+    }
+
+    @Override
+    public TransientSet<V> delete(final V value) {
+      ensureEditable();
+
+      if (value == null) {
+        return this;
+      }
+
+      final SizeChange change = new SizeChange();
+      final Node newRoot = root.remove(edit, 0, HashTrie.hash(value), value, change);
+      root = newRoot == null ? HashTrie.empty() : newRoot;
+      size += change.delta;
+      return this;
+    }
+
+    @Override
+    public int getSize() {
+      ensureEditable();
+      return size;
+    }
+
+    @Override
+    public PersistentSet<V> persistent() {
+      ensureEditable();
+      edit = null;
+      return size == 0 ? empty() : new HashPersistentSet<>(root, size);
+    }
+
+    private void ensureEditable() {
+      if (edit == null) {
+        throw new IllegalStateException("Transient used after call to persistent()");
+      }
+    }
+  }
+}
@@ -0,0 +1,381 @@
+package hurricane.core.collections;
+
+import java.util.Spliterators;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+
+/**
+ * Building blocks for collections implemented as a hash array mapped trie.
+ *
+ * <p>Each level of the trie consumes 5 bits of the hash of a key. Bitmap nodes store only the
+ * slots that are in use, as consecutive key/value pairs in a single array. A pair with a null key
+ * holds a child node in place of the value, keys with a hash that is equal in all bits share a
+ * collision node. Like the elements of the trees, nodes carry the edit token of the transient that
+ * created them and are updated in place by that transient.</p>
+ *
+ * <p>https://lampwww.epfl.ch/papers/idealhashtrees.pdf</p>
+ */
+final class HashTrie {
+
+  private static final int BITS = 5;
+  private static final int MASK = (1 << BITS) - 1;
+
+  /**
+   * Bitmap levels needed to consume a 32 bit hash, plus one for a collision node.
+   */
+  private static final int MAX_DEPTH = (Integer.SIZE + BITS - 1) / BITS + 1;
+
+  private HashTrie() {
+  }
+
+  static int hash(final Object key) {
+    final int hash = key.hashCode();
+    return hash ^ (hash >>> 16);
+  }
+
+  static Node empty() {
+    return BitmapNode.EMPTY;
+  }
+
+  /**
+   * Receives the change in the number of keys caused by an update, so that the collection can
+   * maintain its size without counting.
+   */
+  static final class SizeChange {
+    int delta;
+  }
+
+  abstract static class Node {
+
+    /**
+     * Returns the value for the key, or notFound if the trie doesn't contain it.
+     */
+    abstract Object find(int shift, int hash, Object key, Object notFound);
+
+    abstract Node put(Object edit, int shift, int hash, Object key, Object value,
+        SizeChange change);
+
+    /**
+     * Returns the node without the key, or null if the node becomes empty.
+     */
+    abstract Node remove(Object edit, int shift, int hash, Object key, SizeChange change);
+
+    /**
+     * Returns the key/value pairs of this node. The array is sized exactly, with a null key
+     * marking a pair that holds a child node.
+     */
+    abstract Object[] getArray();
+  }
+
+  private static final class BitmapNode extends Node {
+    private static final BitmapNode EMPTY = new BitmapNode(null, 0, new Object[0]);
+
+    private final Object edit;
+    private int bitmap;
+    private Object[] array;
+
+    private BitmapNode(final Object edit, final int bitmap, final Object[] array) {
+      this.edit = edit;
+      this.bitmap = bitmap;
+      this.array = array;
+    }
+
+    @Override
+    Object find(final int shift, final int hash, final Object key, final Object notFound) {
+      final int bit = bitpos(hash, shift);
+
+      if ((bitmap & bit) == 0) {
+        return notFound;
+      }
+
+      final int index = 2 * index(bit);
+      final Object currentKey = array[index];
+      final Object currentValue = array[index + 1];
+
+      if (currentKey == null) {
+        return ((Node) currentValue).find(shift + BITS, hash, key, notFound);
+      }
+
+      return key.equals(currentKey) ? currentValue : notFound;
+    }
+
+    @Override
+    Node put(final Object edit, final int shift, final int hash, final Object key,
+        final Object value, final SizeChange change) {
+      final int bit = bitpos(hash, shift);
+      final int index = 2 * index(bit);
+
+      if ((bitmap & bit) == 0) {
+        // Free slot, insert the pair:
+        final Object[] newArray = new Object[array.length + 2];
+        System.arraycopy(array, 0, newArray, 0, index);
+        newArray[index] = key;
+        newArray[index + 1] = value;
+        System.arraycopy(array, index, newArray, index + 2, array.length - index);
+
+        change.delta = 1;
+        return update(edit, bitmap | bit, newArray);
+      }
+
+      final Object currentKey = array[index];
+      final Object currentValue = array[index + 1];
+
+      if (currentKey == null) {
+        final Node child = (Node) currentValue;
+        final Node newChild = child.put(edit, shift + BITS, hash, key, value, change);
+
+        return newChild == child
+            ? this
+            : set(edit, index + 1, newChild);
+      }
+
+      if (key.equals(currentKey)) {
+        return value.equals(currentValue)
+            ? this
+            : set(edit, index + 1, value);
+      }
+
+      // Different keys in the same slot, push both down into a child node:
+      final Object[] newArray = edit != null && edit == this.edit ? array : array.clone();
+      newArray[index] = null;
+      newArray[index + 1] =
+          createNode(edit, shift + BITS, currentKey, currentValue, hash, key, value);
+
+      change.delta = 1;
+      return update(edit, bitmap, newArray);
+    }
+
+    @Override
+    Node remove(final Object edit, final int shift, final int hash, final Object key,
+        final SizeChange change) {
+      final int bit = bitpos(hash, shift);
+
+      if ((bitmap & bit) == 0) {
+        return this;
+      }
+
+      final int index = 2 * index(bit);
+      final Object currentKey = array[index];
+      final Object currentValue = array[index + 1];
+
+      if (currentKey == null) {
+        final Node child = (Node) currentValue;
+        final Node newChild = child.remove(edit, shift + BITS, hash, key, change);
+
+        if (newChild == child) {
+          return this;
+        } else if (newChild != null) {
+          return set(edit, index + 1, newChild);
+        }
+      } else if (!key.equals(currentKey)) {
+        return this;
+      } else {
+        change.delta = -1;
+      }
+
+      // Remove the pair:
+      if (bitmap == bit) {
+        return null;
+      }
+
+      final Object[] newArray = new Object[array.length - 2];
+      System.arraycopy(array, 0, newArray, 0, index);
+      System.arraycopy(array, index + 2, newArray, index, array.length - index - 2);
+
+      return update(edit, bitmap & ~bit, newArray);
+    }
+
+    @Override
+    Object[] getArray() {
+      return array;
+    }
+
+    private int index(final int bit) {
+      return Integer.bitCount(bitmap & (bit - 1));
+    }
+
+    private BitmapNode set(final Object edit, final int index, final Object value) {
+      if (edit != null && edit == this.edit) {
+        array[index] = value;
+        return this;
+      }
+
+      final Object[] newArray = array.clone();
+      newArray[index] = value;
+      return new BitmapNode(edit, bitmap, newArray);
+    }
+
+    private BitmapNode update(final Object edit, final int newBitmap, final Object[] newArray) {
+      if (edit != null && edit == this.edit) {
+        bitmap = newBitmap;
+        array = newArray;
+        return this;
+      }
+
+      return new BitmapNode(edit, newBitmap, newArray);
+    }
+  }
+
+  private static final class CollisionNode extends Node {
+    private final Object edit;
+    private final int hash;
+    private Object[] array;
+
+    private CollisionNode(final Object edit, final int hash, final Object[] array) {
+      this.edit = edit;
+      this.hash = hash;
+      this.array = array;
+    }
+
+    @Override
+    Object find(final int shift, final int hash, final Object key, final Object notFound) {
+      final int index = indexOf(hash, key);
+      return index < 0 ? notFound : array[index + 1];
+    }
+
+    @Override
+    Node put(final Object edit, final int shift, final int hash, final Object key,
+        final Object value, final SizeChange change) {
+      if (hash != this.hash) {
+        // Not a collision with this node, nest it in a bitmap node to tell the keys apart:
+        return new BitmapNode(null, bitpos(this.hash, shift), new Object[] { null, this })
+            .put(edit, shift, hash, key, value, change);
+      }
+
+      final int index = indexOf(hash, key);
+
+      if (index >= 0) {
+        if (value.equals(array[index + 1])) {
+          return this;
+        }
+
+        final Object[] newArray = edit != null && edit == this.edit ? array : array.clone();
+        newArray[index + 1] = value;
+        return update(edit, newArray);
+      }
+
+      final Object[] newArray = new Object[array.length + 2];
+      System.arraycopy(array, 0, newArray, 0, array.length);
+      newArray[array.length] = key;
+      newArray[array.length + 1] = value;
+
+      change.delta = 1;
+      return update(edit, newArray);
+    }
+
+    @Override
+    Node remove(final Object edit, final int shift, final int hash, final Object key,
+        final SizeChange change) {
+      final int index = indexOf(hash, key);
+
+      if (index < 0) {
+        return this;
+      }
+
+      change.delta = -1;
+
+      if (array.length == 2) {
+        return null;
+      }
+
+      final Object[] newArray = new Object[array.length - 2];
+      System.arraycopy(array, 0, newArray, 0, index);
+      System.arraycopy(array, index + 2, newArray, index, array.length - index - 2);
+
+      return update(edit, newArray);
+    }
+
+    @Override
+    Object[] getArray() {
+      return array;
+    }
+
+    private int indexOf(final int hash, final Object key) {
+      if (hash != this.hash) {
+        return -1;
+      }
+
+      for (int i = 0; i < array.length; i += 2) {
+        if (key.equals(array[i])) {
+          return i;
+        }
+      }
+
+      return -1;
+    }
+
+    private CollisionNode update(final Object edit, final Object[] newArray) {
+      if (edit != null && edit == this.edit) {
+        array = newArray;
+        return this;
+      }
+
+      return new CollisionNode(edit, hash, newArray);
+    }
+  }
+
+  private static Node createNode(final Object edit, final int shift, final Object key1,
+      final Object value1, final int hash2, final Object key2, final Object value2) {
+    final int hash1 = hash(key1);
+
+    if (hash1 == hash2) {
+      return new CollisionNode(edit, hash1, new Object[] { key1, value1, key2, value2 });
+    }
+
+    final SizeChange change = new SizeChange();
+    return BitmapNode.EMPTY
+        .put(edit, shift, hash1, key1, value1, change)
+        .put(edit, shift, hash2, key2, value2, change);
+  }
+
+  private static int bitpos(final int hash, final int shift) {
+    return 1 << ((hash >>> shift) & MASK);
+  }
+
+  /**
+   * Iterates over the pairs of a trie depth first, mapping each of them to an item of the
+   * stream. Splitting is left to the batching of the abstract spliterator, the trie itself has no
+   * cheap way of telling how many pairs a subtree holds.
+   */
+  static final class TrieSpliterator<R> extends Spliterators.AbstractSpliterator<R> {
+    private final BiFunction<Object, Object, R> mapper;
+    private final Object[][] arrays = new Object[MAX_DEPTH][];
+    private final int[] positions = new int[MAX_DEPTH];
+    private int depth;
+
+    TrieSpliterator(final Node root, final int size, final BiFunction<Object, Object, R> mapper,
+        final int characteristics) {
+      super(size, characteristics | SIZED);
+      this.mapper = mapper;
+      this.arrays[0] = root.getArray();
+    }
+
+    @Override
+    public boolean tryAdvance(final Consumer<? super R> action) {
+      while (depth >= 0) {
+        final Object[] array = arrays[depth];
+        final int position = positions[depth];
+
+        if (position >= array.length) {
+          arrays[depth] = null;
+          -- depth;
+          continue;
+        }
+
+        positions[depth] = position + 2;
+
+        if (array[position] == null) {
+          ++ depth;
+          arrays[depth] = ((Node) array[position + 1]).getArray();
+          positions[depth] = 0;
+          continue;
+        }
+
+        action.accept(mapper.apply(array[position], array[position + 1]));
+        return true;
+      }
+
+      return false;
+    }
+  }
+}
@@ -0,0 +1,37 @@
+package hurricane.core.collections;
+
+import java.util.OptionalInt;
+import java.util.function.ToIntFunction;
+import java.util.stream.Collector;
+
+/**
+ * A dictionary with int keys and int values. Keys and values are stored unboxed, so lookups
+ * through {@link #getOrDefault(int, int)} do not allocate.
+ */
+public interface IntIntDict extends BaseDict<Integer, Integer, IntIntDict> {
+  OptionalInt lookup(int key);
+
+  /**
+   * Returns the value for the key, or the default value if this dictionary does not contain the
+   * key.
+   */
+  int getOrDefault(int key, int defaultValue);
+
+  boolean containsKey(int key);
+  IntIntDict put(int key, int value);
+  IntIntDict delete(int key);
+
+  static IntIntDict empty() {
+    return TreeDictIntInt.empty();
+  }
+
+  /**
+   * Returns a collector that accumulates items into a dictionary. When keys collide the last
+   * value wins, as with repeated calls to put. Items that are already sorted by key are collected
+   * in linear time.
+   */
+  static <T> Collector<T, ?, IntIntDict> collector(final ToIntFunction<? super T> keyMapper,
+      final ToIntFunction<? super T> valueMapper) {
+    return TreeDictIntInt.collector(keyMapper, valueMapper);
+  }
+}
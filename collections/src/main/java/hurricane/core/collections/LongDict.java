@@ -1,14 +1,71 @@
 package hurricane.core.collections;
 
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+import java.util.stream.Collector;
 
 public interface LongDict<V> extends BaseDict<Long, V, LongDict<V>> {
   Optional<V> lookup(long key);
+
+  /**
+   * Returns the value for the key, or the default value if this dictionary does not contain the
+   * key. Unlike lookup this does not allocate.
+   */
+  V getOrDefault(long key, V defaultValue);
+
+  /**
+   * Returns the value for the key, or null if this dictionary does not contain the key.
+   */
+  V getOrNull(long key);
   boolean containsKey(long key);
   LongDict<V> put(long key, V value);
   LongDict<V> delete(long key);
 
+  /**
+   * Returns a transient copy of this dictionary that can be updated in place.
+   */
+  TransientLongDict<V> asTransient();
+
+  /**
+   * Returns the position of the key in sort order, or -1 if this dictionary does not contain it.
+   * Takes logarithmic time.
+   */
+  int indexOf(long key);
+
+  /**
+   * Returns the key at the given position in sort order. Takes logarithmic time.
+   *
+   * @throws IndexOutOfBoundsException if the index is negative or not smaller than the size.
+   */
+  long keyAt(int index);
+
+  /**
+   * Returns the value of the entry at the given position in key order. Takes logarithmic time.
+   *
+   * @throws IndexOutOfBoundsException if the index is negative or not smaller than the size.
+   */
+  V valueAt(int index);
+
+  /**
+   * Returns the number of keys ranging from from, inclusive, to to, exclusive, without visiting
+   * them. Takes logarithmic time.
+   *
+   * @throws IllegalArgumentException if from is greater than to.
+   */
+  int count(long from, long to);
+
   static <V> LongDict<V> empty() {
     return TreeDictLong.empty();
   }
+
+  /**
+   * Returns a collector that accumulates items into a dictionary. When keys collide the last
+   * value wins, as with repeated calls to put. Items that are already sorted by key are collected
+   * in linear time.
+   */
+  static <T, V> Collector<T, ?, LongDict<V>> collector(final ToLongFunction<? super T> keyMapper,
+      final Function<? super T, ? extends V> valueMapper) {
+    return TreeDictLong.collector(keyMapper, valueMapper);
+  }
 }
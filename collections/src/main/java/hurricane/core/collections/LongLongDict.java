@@ -0,0 +1,37 @@
+package hurricane.core.collections;
+
+import java.util.OptionalLong;
+import java.util.function.ToLongFunction;
+import java.util.stream.Collector;
+
+/**
+ * A dictionary with long keys and long values. Keys and values are stored unboxed, so lookups
+ * through {@link #getOrDefault(long, long)} do not allocate.
+ */
+public interface LongLongDict extends BaseDict<Long, Long, LongLongDict> {
+  OptionalLong lookup(long key);
+
+  /**
+   * Returns the value for the key, or the default value if this dictionary does not contain the
+   * key.
+   */
+  long getOrDefault(long key, long defaultValue);
+
+  boolean containsKey(long key);
+  LongLongDict put(long key, long value);
+  LongLongDict delete(long key);
+
+  static LongLongDict empty() {
+    return TreeDictLongLong.empty();
+  }
+
+  /**
+   * Returns a collector that accumulates items into a dictionary. When keys collide the last
+   * value wins, as with repeated calls to put. Items that are already sorted by key are collected
+   * in linear time.
+   */
+  static <T> Collector<T, ?, LongLongDict> collector(final ToLongFunction<? super T> keyMapper,
+      final ToLongFunction<? super T> valueMapper) {
+    return TreeDictLongLong.collector(keyMapper, valueMapper);
+  }
+}
@@ -0,0 +1,404 @@
+package hurricane.core.collections;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * A read-only set stored in a file, which is memory-mapped when opened. Values are kept as the
+ * bytes of a {@link ByteCodec}, sorted by comparing those bytes as unsigned numbers, and lookups
+ * and range scans binary search the mapped bytes directly. Only the values that are returned are
+ * decoded, so opening a set takes constant time regardless of its size and the operating system
+ * pages in the parts that are used.
+ *
+ * <p>The file starts with a header of 24 bytes: a magic number, the format version, the number of
+ * values, a reserved int and the offset of the index. The header is followed by the records, each
+ * an int length and the encoded bytes, and by the index: the offset of every record relative to
+ * the first one, as longs. Files are mapped in chunks of 1 GiB, so records are padded such that
+ * none crosses a chunk boundary.</p>
+ *
+ * @param <V>
+ */
+public final class MappedSortedSet<V> implements AutoCloseable {
+
+  private static final int MAGIC = 0x48534554;
+  private static final int VERSION = 1;
+  private static final int HEADER_SIZE = 24;
+
+  private static final int CHUNK_SHIFT = 30;
+  private static final long CHUNK_SIZE = 1L << CHUNK_SHIFT;
+  private static final long CHUNK_MASK = CHUNK_SIZE - 1;
+
+  private static final int CHARACTERISTICS = Spliterator.IMMUTABLE | Spliterator.ORDERED
+      | Spliterator.NONNULL | Spliterator.DISTINCT | Spliterator.SIZED | Spliterator.SUBSIZED;
+
+  private final ByteCodec<V> codec;
+  private final int size;
+  private final ByteBuffer[] data;
+  private final ByteBuffer[] index;
+  private volatile boolean closed;
+
+  private MappedSortedSet(final ByteCodec<V> codec, final int size, final ByteBuffer[] data,
+      final ByteBuffer[] index) {
+    this.codec = codec;
+    this.size = size;
+    this.data = data;
+    this.index = index;
+  }
+
+  /**
+   * Writes the values of a set to a file, replacing the file if it exists.
+   *
+   * @throws IllegalArgumentException if the codec encodes two values of the set to the same bytes,
+   *     or encodes a value to more than 1 GiB.
+   */
+  public static <V> void write(final Path path, final PersistentSet<V> set,
+      final ByteCodec<V> codec) throws IOException {
+    Objects.requireNonNull(path, "path cannot be null");
+    Objects.requireNonNull(set, "set cannot be null");
+    Objects.requireNonNull(codec, "codec cannot be null");
+
+    final byte[][] records = set.stream().map(codec::encode).toArray(byte[][]::new);
+    Arrays.parallelSort(records, Arrays::compareUnsigned);
+
+    final long[] offsets = new long[records.length];
+    long position = 0;
+
+    for (int i = 0; i < records.length; ++ i) {
+      if (i > 0 && Arrays.equals(records[i - 1], records[i])) {
+        throw new IllegalArgumentException("codec encodes distinct values to the same bytes");
+      }
+
+      final long length = Integer.BYTES + (long) records[i].length;
+      if (length > CHUNK_SIZE) {
+        throw new IllegalArgumentException("codec encodes a value to more than 1 GiB");
+      }
+
+      // Start a new chunk if the record would cross a chunk boundary:
+      if ((position & CHUNK_MASK) + length > CHUNK_SIZE) {
+        position = (position | CHUNK_MASK) + 1;
+      }
+
+      offsets[i] = position;
+      position += length;
+    }
+
+    final long indexOffset = align(HEADER_SIZE + position);
+
+    try (DataOutputStream out = new DataOutputStream(
+        new BufferedOutputStream(Files.newOutputStream(path), 1 << 16))) {
+      out.writeInt(MAGIC);
+      out.writeInt(VERSION);
+      out.writeInt(records.length);
+      out.writeInt(0);
+      out.writeLong(indexOffset);
+
+      long written = 0;
+
+      for (int i = 0; i < records.length; ++ i) {
+        written = pad(out, written, offsets[i]);
+        out.writeInt(records[i].length);
+        out.write(records[i]);
+        written += Integer.BYTES + records[i].length;
+      }
+
+      pad(out, HEADER_SIZE + written, indexOffset);
+
+      for (final long offset : offsets) {
+        out.writeLong(offset);
+      }
+    }
+  }
+
+  /**
+   * Opens a file written by {@link #write}, using the same codec.
+   *
+   * @throws IOException if the file cannot be read or is not a set file.
+   */
+  public static <V> MappedSortedSet<V> open(final Path path, final ByteCodec<V> codec)
+      throws IOException {
+    Objects.requireNonNull(path, "path cannot be null");
+    Objects.requireNonNull(codec, "codec cannot be null");
+
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      final long fileSize = channel.size();
+
+      if (fileSize < HEADER_SIZE) {
+        throw new IOException("Not a set file: " + path);
+      }
+
+      final ByteBuffer header = channel.map(MapMode.READ_ONLY, 0, HEADER_SIZE);
+
+      if (header.getInt(0) != MAGIC) {
+        throw new IOException("Not a set file: " + path);
+      }
+
+      if (header.getInt(4) != VERSION) {
+        throw new IOException("Unsupported set file version " + header.getInt(4) + ": " + path);
+      }
+
+      final int size = header.getInt(8);
+      final long indexOffset = header.getLong(16);
+
+      if (size < 0 || indexOffset < HEADER_SIZE || indexOffset + (long) size * Long.BYTES
+          != fileSize) {
+        throw new IOException("Corrupt set file: " + path);
+      }
+
+      return new MappedSortedSet<>(
+          codec,
+          size,
+          map(channel, HEADER_SIZE, indexOffset - HEADER_SIZE),
+          map(channel, indexOffset, (long) size * Long.BYTES)
+      );
+    }
+  }
+
+  public boolean contains(final V value) {
+    if (value == null) {
+      return false;
+    }
+
+    final byte[] key = codec.encode(value);
+    final int rank = rank(key);
+
+    return rank < size && compare(rank, key) == 0;
+  }
+
+  public int getSize() {
+    ensureOpen();
+    return size;
+  }
+
+  public boolean isEmpty() {
+    return getSize() == 0;
+  }
+
+  /**
+   * Returns the value at the index, in the order of the encoded bytes.
+   */
+  public V get(final int index) {
+    if (index < 0 || index >= getSize()) {
+      throw new IndexOutOfBoundsException("Index: " + index + ", size: " + getSize());
+    }
+
+    final long offset = offset(index);
+    final ByteBuffer chunk = data[(int) (offset >>> CHUNK_SHIFT)];
+    final int position = (int) (offset & CHUNK_MASK) + Integer.BYTES;
+
+    return codec.decode(chunk.duplicate()
+        .limit(position + chunk.getInt(position - Integer.BYTES))
+        .position(position));
+  }
+
+  /**
+   * Returns the index of the value, or -1 if this set does not contain the value.
+   */
+  public int indexOf(final V value) {
+    if (value == null) {
+      return -1;
+    }
+
+    final byte[] key = codec.encode(value);
+    final int rank = rank(key);
+
+    return rank < size && compare(rank, key) == 0 ? rank : -1;
+  }
+
+  /**
+   * Returns the number of values from (inclusive) to (exclusive).
+   */
+  public int count(final V from, final V to) {
+    final byte[] fromKey = codec.encode(Objects.requireNonNull(from, "from cannot be null"));
+    final byte[] toKey = codec.encode(Objects.requireNonNull(to, "to cannot be null"));
+
+    if (Arrays.compareUnsigned(fromKey, toKey) > 0) {
+      throw new IllegalArgumentException("from cannot be greater than to");
+    }
+
+    return rank(toKey) - rank(fromKey);
+  }
+
+  public Stream<V> stream() {
+    ensureOpen();
+    return StreamSupport.stream(new RecordSpliterator(0, size), false);
+  }
+
+  /**
+   * Returns a stream of the values starting at the first value that is greater than or equal to
+   * from.
+   */
+  public Stream<V> stream(final V from) {
+    final int rank = rank(codec.encode(Objects.requireNonNull(from, "from cannot be null")));
+    return StreamSupport.stream(new RecordSpliterator(rank, size), false);
+  }
+
+  /**
+   * Returns a stream of the values from (inclusive) to (exclusive).
+   */
+  public Stream<V> stream(final V from, final V to) {
+    final byte[] fromKey = codec.encode(Objects.requireNonNull(from, "from cannot be null"));
+    final byte[] toKey = codec.encode(Objects.requireNonNull(to, "to cannot be null"));
+
+    if (Arrays.compareUnsigned(fromKey, toKey) > 0) {
+      throw new IllegalArgumentException("from cannot be greater than to");
+    }
+
+    return StreamSupport.stream(new RecordSpliterator(rank(fromKey), rank(toKey)), false);
+  }
+
+  /**
+   * Decodes all values into an in-memory set, for updating them. Values of which the order of the
+   * encoded bytes matches the comparator are loaded in linear time.
+   */
+  public SortedPersistentSet<V> toPersistentSet(final Comparator<V> comparator) {
+    Objects.requireNonNull(comparator, "comparator cannot be null");
+
+    return stream().collect(PersistentSet.collector(comparator));
+  }
+
+  /**
+   * Closes this set. The mapped memory is released when the set is garbage collected.
+   */
+  @Override
+  public void close() {
+    closed = true;
+  }
+
+  /**
+   * Returns the index of the first record that is greater than or equal to the key.
+   */
+  private int rank(final byte[] key) {
+    ensureOpen();
+
+    int low = 0;
+    int high = size;
+
+    while (low < high) {
+      final int middle = (low + high) >>> 1;
+
+      if (compare(middle, key) < 0) {
+        low = middle + 1;
+      } else {
+        high = middle;
+      }
+    }
+
+    return low;
+  }
+
+  /**
+   * Compares the bytes of a record with a key as unsigned numbers, without copying the record.
+   */
+  private int compare(final int record, final byte[] key) {
+    final long offset = offset(record);
+    final ByteBuffer chunk = data[(int) (offset >>> CHUNK_SHIFT)];
+    final int position = (int) (offset & CHUNK_MASK);
+    final int length = chunk.getInt(position);
+    final int common = Math.min(length, key.length);
+
+    for (int i = 0; i < common; ++ i) {
+      final int compare = Byte.toUnsignedInt(chunk.get(position + Integer.BYTES + i))
+          - Byte.toUnsignedInt(key[i]);
+
+      if (compare != 0) {
+        return compare;
+      }
+    }
+
+    return Integer.compare(length, key.length);
+  }
+
+  private long offset(final int record) {
+    final long position = (long) record * Long.BYTES;
+    return index[(int) (position >>> CHUNK_SHIFT)].getLong((int) (position & CHUNK_MASK));
+  }
+
+  private void ensureOpen() {
+    if (closed) {
+      throw new IllegalStateException("Set used after call to close()");
+    }
+  }
+
+  private static ByteBuffer[] map(final FileChannel channel, final long start, final long length)
+      throws IOException {
+    final ByteBuffer[] chunks = new ByteBuffer[(int) ((length + CHUNK_MASK) >>> CHUNK_SHIFT)];
+
+    for (int i = 0; i < chunks.length; ++ i) {
+      final long offset = (long) i << CHUNK_SHIFT;
+      chunks[i] = channel.map(MapMode.READ_ONLY, start + offset,
+          Math.min(CHUNK_SIZE, length - offset));
+    }
+
+    return chunks;
+  }
+
+  private static long align(final long position) {
+    return (position + Long.BYTES - 1) & -Long.BYTES;
+  }
+
+  private static long pad(final DataOutputStream out, final long from, final long to)
+      throws IOException {
+    for (long i = from; i < to; ++ i) {
+      out.write(0);
+    }
+
+    return to;
+  }
+
+  private final class RecordSpliterator implements Spliterator<V> {
+    private int from;
+    private final int to;
+
+    private RecordSpliterator(final int from, final int to) {
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    public boolean tryAdvance(final Consumer<? super V> action) {
+      if (from >= to) {
+        return false;
+      }
+
+      action.accept(get(from ++));
+      return true;
+    }
+
+    @Override
+    public Spliterator<V> trySplit() {
+      final int middle = (from + to) >>> 1;
+
+      if (middle <= from) {
+        return null;
+      }
+
+      final Spliterator<V> prefix = new RecordSpliterator(from, middle);
+      from = middle;
+      return prefix;
+    }
+
+    @Override
+    public long estimateSize() {
+      return to - from;
+    }
+
+    @Override
+    public int characteristics() {
+      return CHARACTERISTICS;
+    }
+  }
+}
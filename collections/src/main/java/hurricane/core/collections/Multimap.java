@@ -0,0 +1,113 @@
+package hurricane.core.collections;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collector;
+import java.util.stream.Stream;
+
+/**
+ * A persistent dictionary from keys to sets of values, ordered by key and then by value. All
+ * key-value pairs are kept in a single tree instead of a dictionary of sets, so adding or
+ * removing a pair copies one path, and the values of a key are found with a range lookup.
+ *
+ * @param <K>
+ * @param <V>
+ */
+public interface Multimap<K, V> extends BaseDict<K, V, Multimap<K, V>> {
+
+  /**
+   * Returns the number of key-value pairs.
+   */
+  @Override
+  int getSize();
+
+  boolean contains(K key, V value);
+  boolean containsKey(K key);
+  Multimap<K, V> put(K key, V value);
+  Multimap<K, V> delete(K key, V value);
+
+  /**
+   * Returns a multimap with all values put under the key, as with repeated calls to put.
+   */
+  Multimap<K, V> putAll(K key, Iterable<? extends V> values);
+
+  /**
+   * Returns a multimap without the key and any of its values.
+   */
+  Multimap<K, V> deleteAll(K key);
+
+  /**
+   * Returns the values of the key in ascending order. Locating the first value takes logarithmic
+   * time.
+   */
+  Stream<V> get(K key);
+
+  /**
+   * Returns the number of values of the key without visiting them. Takes logarithmic time.
+   */
+  int count(K key);
+
+  /**
+   * Returns the smallest value of the key.
+   */
+  Optional<V> first(K key);
+
+  /**
+   * Returns the distinct keys in ascending order. Each key is found by skipping over the values
+   * of the previous key, which takes logarithmic time.
+   */
+  Stream<K> keys();
+
+  /**
+   * Returns all key-value pairs in ascending order.
+   */
+  Stream<Map.Entry<K, V>> entries();
+
+  /**
+   * Returns every key together with its values in ascending key order. Each group is collected
+   * into a list when it is reached, so only one group is held at a time.
+   */
+  Stream<Map.Entry<K, List<V>>> groups();
+
+  Comparator<K> getKeyComparator();
+  Comparator<V> getValueComparator();
+
+  /**
+   * Returns a transient copy of this multimap that can be updated in place, for building large
+   * indexes without copying a path for every update.
+   */
+  TransientMultimap<K, V> asTransient();
+
+  static <K extends Comparable<K>, V extends Comparable<V>> Multimap<K, V> empty() {
+    return TreeMultimap.empty(Comparator.<K>naturalOrder(), Comparator.<V>naturalOrder());
+  }
+
+  static <K, V> Multimap<K, V> empty(final Comparator<K> keyComparator,
+      final Comparator<V> valueComparator) {
+    return TreeMultimap.empty(keyComparator, valueComparator);
+  }
+
+  /**
+   * Returns a collector that accumulates items into a multimap using the natural order of keys
+   * and values. Duplicate pairs are collapsed, and items that are already sorted are collected in
+   * linear time.
+   */
+  static <T, K extends Comparable<K>, V extends Comparable<V>> Collector<T, ?, Multimap<K, V>>
+      collector(final Function<? super T, ? extends K> keyMapper,
+      final Function<? super T, ? extends V> valueMapper) {
+    return TreeMultimap.collector(Comparator.<K>naturalOrder(), Comparator.<V>naturalOrder(),
+        keyMapper, valueMapper);
+  }
+
+  /**
+   * Returns a collector that accumulates items into a multimap ordered by the given comparators.
+   */
+  static <T, K, V> Collector<T, ?, Multimap<K, V>> collector(final Comparator<K> keyComparator,
+      final Comparator<V> valueComparator, final Function<? super T, ? extends K> keyMapper,
+      final Function<? super T, ? extends V> valueMapper) {
+    return TreeMultimap.collector(keyComparator, valueComparator, keyMapper, valueMapper);
+  }
+}
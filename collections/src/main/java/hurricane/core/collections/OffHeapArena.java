@@ -0,0 +1,247 @@
+package hurricane.core.collections;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+/**
+ * Off-heap storage for the nodes of {@link OffHeapLongSet} and {@link OffHeapLongLongDict}. Nodes
+ * are fixed size records in direct byte buffers, identified by an int: a long key, a long value
+ * when the arena stores values, the ids of the left and right child, the size of the subtree and
+ * a reference count. A multi-gigabyte tree is kept in a few hundred buffers instead of a heap
+ * object per node, so it is invisible to the garbage collector.
+ *
+ * <p>Nodes are immutable once created and are shared between versions. A node is referenced by
+ * its parents and by the versions it is the root of, and is reused once the last reference is
+ * released. Reference counts are updated atomically, so versions in the same arena can be
+ * created and closed from different threads.</p>
+ *
+ * <p>Closing the arena releases its memory. Sets and dictionaries in the arena can no longer be
+ * used after that.</p>
+ */
+public final class OffHeapArena implements AutoCloseable {
+
+  /**
+   * The id of the empty tree, no node is stored there.
+   */
+  static final int NIL = 0;
+
+  private static final int CHUNK_SHIFT = 16;
+  private static final int CHUNK_NODES = 1 << CHUNK_SHIFT;
+  private static final int SLOT_MASK = CHUNK_NODES - 1;
+
+  private static final VarHandle INT = MethodHandles.byteBufferViewVarHandle(int[].class,
+      ByteOrder.nativeOrder());
+
+  private final boolean values;
+  private final int nodeSize;
+  private final int leftOffset;
+  private final int rightOffset;
+  private final int sizeOffset;
+  private final int countOffset;
+
+  private volatile ByteBuffer[] chunks = new ByteBuffer[0];
+  private int capacity;
+  private int next = 1;
+  private int free = NIL;
+  private int nodes;
+  private boolean closed;
+
+  private OffHeapArena(final boolean values) {
+    this.values = values;
+    this.leftOffset = values ? 16 : 8;
+    this.rightOffset = leftOffset + 4;
+    this.sizeOffset = leftOffset + 8;
+    this.countOffset = leftOffset + 12;
+    this.nodeSize = leftOffset + 16;
+  }
+
+  /**
+   * Returns an arena for {@link OffHeapLongSet}, with 24 byte nodes.
+   */
+  public static OffHeapArena forSets() {
+    return new OffHeapArena(false);
+  }
+
+  /**
+   * Returns an arena for {@link OffHeapLongLongDict}, with 32 byte nodes.
+   */
+  public static OffHeapArena forDicts() {
+    return new OffHeapArena(true);
+  }
+
+  /**
+   * Returns the number of nodes that are in use.
+   */
+  public synchronized int getNodeCount() {
+    return nodes;
+  }
+
+  /**
+   * Returns the number of bytes of off-heap memory allocated by this arena.
+   */
+  public synchronized long getAllocatedBytes() {
+    return (long) chunks.length * CHUNK_NODES * nodeSize;
+  }
+
+  @Override
+  public synchronized void close() {
+    closed = true;
+    chunks = new ByteBuffer[0];
+    capacity = 0;
+  }
+
+  synchronized boolean isClosed() {
+    return closed;
+  }
+
+  boolean storesValues() {
+    return values;
+  }
+
+  long key(final int node) {
+    return chunk(node).getLong(offset(node));
+  }
+
+  long value(final int node) {
+    return values ? chunk(node).getLong(offset(node) + 8) : 0L;
+  }
+
+  int left(final int node) {
+    return chunk(node).getInt(offset(node) + leftOffset);
+  }
+
+  int right(final int node) {
+    return chunk(node).getInt(offset(node) + rightOffset);
+  }
+
+  int size(final int node) {
+    return node == NIL ? 0 : chunk(node).getInt(offset(node) + sizeOffset);
+  }
+
+  /**
+   * Creates a node that references the given children, with a reference count of zero. The
+   * caller either makes the node part of a tree, or disposes it.
+   */
+  int create(final long key, final long value, final int left, final int right) {
+    final int node = allocate();
+    final ByteBuffer chunk = chunk(node);
+    final int offset = offset(node);
+
+    chunk.putLong(offset, key);
+    if (values) {
+      chunk.putLong(offset + 8, value);
+    }
+    chunk.putInt(offset + leftOffset, left);
+    chunk.putInt(offset + rightOffset, right);
+    chunk.putInt(offset + sizeOffset, size(left) + size(right) + 1);
+    INT.setVolatile(chunk, offset + countOffset, 0);
+
+    retain(left);
+    retain(right);
+
+    return node;
+  }
+
+  void retain(final int node) {
+    if (node != NIL) {
+      INT.getAndAdd(chunk(node), offset(node) + countOffset, 1);
+    }
+  }
+
+  /**
+   * Releases a reference to a node, reclaiming it and releasing its children when it was the
+   * last reference.
+   */
+  void release(final int node) {
+    if (node != NIL
+        && (int) INT.getAndAdd(chunk(node), offset(node) + countOffset, -1) == 1) {
+      reclaim(node);
+    }
+  }
+
+  /**
+   * Reclaims a node that was created but never became part of a tree. Nodes that are referenced
+   * are left alone.
+   */
+  void dispose(final int node) {
+    if (node != NIL && (int) INT.getVolatile(chunk(node), offset(node) + countOffset) == 0) {
+      reclaim(node);
+    }
+  }
+
+  private void reclaim(final int node) {
+    final int left = left(node);
+    final int right = right(node);
+
+    deallocate(node);
+    release(left);
+    release(right);
+  }
+
+  private synchronized int allocate() {
+    ensureOpen();
+
+    final int node;
+
+    if (free != NIL) {
+      node = free;
+      free = left(node);
+    } else {
+      if (next >= capacity) {
+        grow();
+      }
+      node = next ++;
+    }
+
+    ++ nodes;
+    return node;
+  }
+
+  private synchronized void deallocate(final int node) {
+    if (closed) {
+      return;
+    }
+
+    chunk(node).putInt(offset(node) + leftOffset, free);
+    free = node;
+    -- nodes;
+  }
+
+  private void grow() {
+    if (capacity > Integer.MAX_VALUE - CHUNK_NODES) {
+      throw new OutOfMemoryError("Arena cannot hold more than 2^31 nodes");
+    }
+
+    final ByteBuffer[] newChunks = Arrays.copyOf(chunks, chunks.length + 1);
+    newChunks[chunks.length] = ByteBuffer.allocateDirect(CHUNK_NODES * nodeSize)
+        .order(ByteOrder.nativeOrder());
+
+    chunks = newChunks;
+    capacity += CHUNK_NODES;
+  }
+
+  private void ensureOpen() {
+    if (closed) {
+      throw new IllegalStateException("Arena used after call to close()");
+    }
+  }
+
+  private ByteBuffer chunk(final int node) {
+    final ByteBuffer[] chunks = this.chunks;
+    final int index = node >>> CHUNK_SHIFT;
+
+    // Nodes are only ever out of range after the arena was closed:
+    if (index >= chunks.length) {
+      throw new IllegalStateException("Arena used after call to close()");
+    }
+
+    return chunks[index];
+  }
+
+  private int offset(final int node) {
+    return (node & SLOT_MASK) * nodeSize;
+  }
+}
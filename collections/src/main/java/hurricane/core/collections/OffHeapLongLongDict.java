@@ -0,0 +1,129 @@
+package hurricane.core.collections;
+
+import static hurricane.core.collections.OffHeapArena.NIL;
+
+import hurricane.core.collections.OffHeapLongSet.Release;
+import hurricane.core.collections.OffHeapTree.NodeSpliterator;
+import java.lang.ref.Cleaner;
+import java.util.Objects;
+import java.util.OptionalLong;
+import java.util.stream.LongStream;
+import java.util.stream.StreamSupport;
+
+/**
+ * A persistent dictionary with long keys and long values stored off-heap in an
+ * {@link OffHeapArena}. Like {@link OffHeapLongSet}, each version has to be released with
+ * {@link #close()} once it is no longer used, or is released when it is garbage collected.
+ */
+public final class OffHeapLongLongDict implements LongLongDict, AutoCloseable {
+
+  private static final Cleaner CLEANER = Cleaner.create();
+
+  private final OffHeapArena arena;
+  private final int root;
+  private final Cleaner.Cleanable cleanable;
+  private volatile boolean closed;
+
+  private OffHeapLongLongDict(final OffHeapArena arena, final int root) {
+    this.arena = arena;
+    this.root = root;
+
+    arena.retain(root);
+    this.cleanable = CLEANER.register(this, new Release(arena, root));
+  }
+
+  /**
+   * Returns an empty dictionary in the arena.
+   *
+   * @throws IllegalArgumentException if the arena does not store values.
+   */
+  public static OffHeapLongLongDict empty(final OffHeapArena arena) {
+    Objects.requireNonNull(arena, "arena cannot be null");
+
+    if (!arena.storesValues()) {
+      throw new IllegalArgumentException("arena must be created with OffHeapArena.forDicts()");
+    }
+
+    return new OffHeapLongLongDict(arena, NIL);
+  }
+
+  @Override
+  public OptionalLong lookup(final long key) {
+    final int node = find(key);
+    return node == NIL ? OptionalLong.empty() : OptionalLong.of(arena.value(node));
+  }
+
+  @Override
+  public long getOrDefault(final long key, final long defaultValue) {
+    final int node = find(key);
+    return node == NIL ? defaultValue : arena.value(node);
+  }
+
+  @Override
+  public boolean containsKey(final long key) {
+    return find(key) != NIL;
+  }
+
+  @Override
+  public OffHeapLongLongDict put(final long key, final long value) {
+    ensureOpen();
+    return replaceRoot(OffHeapTree.insert(arena, root, key, value));
+  }
+
+  @Override
+  public OffHeapLongLongDict delete(final long key) {
+    ensureOpen();
+    return replaceRoot(OffHeapTree.delete(arena, root, key));
+  }
+
+  @Override
+  public int getSize() {
+    ensureOpen();
+    return arena.size(root);
+  }
+
+  /**
+   * Returns the keys in ascending order. The dictionary must not be closed while the stream is
+   * used.
+   */
+  public LongStream keys() {
+    ensureOpen();
+    return StreamSupport.longStream(new NodeSpliterator(arena, this, root, false), false);
+  }
+
+  /**
+   * Returns the values in ascending order of their keys. The dictionary must not be closed while
+   * the stream is used.
+   */
+  public LongStream values() {
+    ensureOpen();
+    return StreamSupport.longStream(new NodeSpliterator(arena, this, root, true), false);
+  }
+
+  /**
+   * Releases the nodes of this version that are not shared with other versions. Closing a version
+   * more than once has no effect.
+   */
+  @Override
+  public void close() {
+    closed = true;
+    cleanable.clean();
+  }
+
+  private int find(final long key) {
+    ensureOpen();
+    return OffHeapTree.find(arena, root, key);
+  }
+
+  private OffHeapLongLongDict replaceRoot(final int newRoot) {
+    return newRoot == root
+        ? this
+        : new OffHeapLongLongDict(arena, newRoot);
+  }
+
+  private void ensureOpen() {
+    if (closed) {
+      throw new IllegalStateException("Dictionary used after call to close()");
+    }
+  }
+}
@@ -0,0 +1,124 @@
+package hurricane.core.collections;
+
+import static hurricane.core.collections.OffHeapArena.NIL;
+
+import hurricane.core.collections.OffHeapTree.NodeSpliterator;
+import java.lang.ref.Cleaner;
+import java.util.Objects;
+import java.util.stream.LongStream;
+import java.util.stream.StreamSupport;
+
+/**
+ * A persistent set of longs stored off-heap in an {@link OffHeapArena}. Versions share nodes like
+ * the versions of {@link TreePersistentSet}, but each version holds a reference to its nodes that
+ * has to be released with {@link #close()} once the version is no longer used. Versions that are
+ * not closed are released when they are garbage collected. A version must not be closed while
+ * other threads still use it.
+ */
+public final class OffHeapLongSet implements AutoCloseable {
+
+  private static final Cleaner CLEANER = Cleaner.create();
+
+  private final OffHeapArena arena;
+  private final int root;
+  private final Cleaner.Cleanable cleanable;
+  private volatile boolean closed;
+
+  private OffHeapLongSet(final OffHeapArena arena, final int root) {
+    this.arena = arena;
+    this.root = root;
+
+    arena.retain(root);
+    this.cleanable = CLEANER.register(this, new Release(arena, root));
+  }
+
+  /**
+   * Returns an empty set in the arena.
+   *
+   * @throws IllegalArgumentException if the arena stores values.
+   */
+  public static OffHeapLongSet empty(final OffHeapArena arena) {
+    Objects.requireNonNull(arena, "arena cannot be null");
+
+    if (arena.storesValues()) {
+      throw new IllegalArgumentException("arena must be created with OffHeapArena.forSets()");
+    }
+
+    return new OffHeapLongSet(arena, NIL);
+  }
+
+  public boolean contains(final long value) {
+    ensureOpen();
+    return OffHeapTree.find(arena, root, value) != NIL;
+  }
+
+  public OffHeapLongSet add(final long value) {
+    ensureOpen();
+    return replaceRoot(OffHeapTree.insert(arena, root, value, 0L));
+  }
+
+  public OffHeapLongSet delete(final long value) {
+    ensureOpen();
+    return replaceRoot(OffHeapTree.delete(arena, root, value));
+  }
+
+  public int getSize() {
+    ensureOpen();
+    return arena.size(root);
+  }
+
+  public boolean isEmpty() {
+    return getSize() == 0;
+  }
+
+  /**
+   * Returns the values in ascending order. The set must not be closed while the stream is used.
+   */
+  public LongStream stream() {
+    ensureOpen();
+    return StreamSupport.longStream(new NodeSpliterator(arena, this, root, false), false);
+  }
+
+  /**
+   * Releases the nodes of this version that are not shared with other versions. Closing a version
+   * more than once has no effect.
+   */
+  @Override
+  public void close() {
+    closed = true;
+    cleanable.clean();
+  }
+
+  private OffHeapLongSet replaceRoot(final int newRoot) {
+    return newRoot == root
+        ? this
+        : new OffHeapLongSet(arena, newRoot);
+  }
+
+  private void ensureOpen() {
+    if (closed) {
+      throw new IllegalStateException("Set used after call to close()");
+    }
+  }
+
+  /**
+   * Releases the root of a version. Must not reference the version itself, or it would never be
+   * garbage collected.
+   */
+  static final class Release implements Runnable {
+    private final OffHeapArena arena;
+    private final int root;
+
+    Release(final OffHeapArena arena, final int root) {
+      this.arena = arena;
+      this.root = root;
+    }
+
+    @Override
+    public void run() {
+      if (!arena.isClosed()) {
+        arena.release(root);
+      }
+    }
+  }
+}
@@ -0,0 +1,247 @@
+package hurricane.core.collections;
+
+import static hurricane.core.collections.OffHeapArena.NIL;
+
+import java.util.Comparator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.LongConsumer;
+
+/**
+ * Weight balanced tree operations on the nodes of an {@link OffHeapArena}, with the same balance
+ * criteria as {@link TreeDictBase}. Updates copy the path to the changed node, returning the id of
+ * the new root. New nodes are created with a reference count of zero and intermediate nodes that
+ * are replaced by a rotation are disposed, so the new root is the only node the caller has to
+ * retain or dispose.
+ */
+final class OffHeapTree {
+
+  private OffHeapTree() {
+  }
+
+  /**
+   * Returns the node with the key, or NIL.
+   */
+  static int find(final OffHeapArena arena, final int root, final long key) {
+    int current = root;
+
+    while (current != NIL) {
+      final int compare = Long.compare(key, arena.key(current));
+
+      if (compare == 0) {
+        return current;
+      }
+
+      current = compare < 0 ? arena.left(current) : arena.right(current);
+    }
+
+    return NIL;
+  }
+
+  /**
+   * Inserts the key, or replaces the value of the key. Returns the same node if nothing changed.
+   */
+  static int insert(final OffHeapArena arena, final int node, final long key, final long value) {
+    if (node == NIL) {
+      return arena.create(key, value, NIL, NIL);
+    }
+
+    final long nodeKey = arena.key(node);
+    final int compare = Long.compare(key, nodeKey);
+    final int left = arena.left(node);
+    final int right = arena.right(node);
+
+    if (compare == 0) {
+      return !arena.storesValues() || arena.value(node) == value
+          ? node
+          : arena.create(key, value, left, right);
+    } else if (compare < 0) {
+      final int newLeft = insert(arena, left, key, value);
+      return newLeft == left
+          ? node
+          : balance(arena, arena.create(nodeKey, arena.value(node), newLeft, right));
+    } else {
+      final int newRight = insert(arena, right, key, value);
+      return newRight == right
+          ? node
+          : balance(arena, arena.create(nodeKey, arena.value(node), left, newRight));
+    }
+  }
+
+  /**
+   * Deletes the key. Returns the same node if the tree doesn't contain the key.
+   */
+  static int delete(final OffHeapArena arena, final int node, final long key) {
+    if (node == NIL) {
+      return NIL;
+    }
+
+    final long nodeKey = arena.key(node);
+    final int compare = Long.compare(key, nodeKey);
+    final int left = arena.left(node);
+    final int right = arena.right(node);
+
+    if (compare < 0) {
+      final int newLeft = delete(arena, left, key);
+      return newLeft == left
+          ? node
+          : balance(arena, arena.create(nodeKey, arena.value(node), newLeft, right));
+    } else if (compare > 0) {
+      final int newRight = delete(arena, right, key);
+      return newRight == right
+          ? node
+          : balance(arena, arena.create(nodeKey, arena.value(node), left, newRight));
+    } else if (left == NIL) {
+      return right;
+    } else if (right == NIL) {
+      return left;
+    }
+
+    // Replace the node by the smallest node of the right subtree:
+    int first = right;
+    while (arena.left(first) != NIL) {
+      first = arena.left(first);
+    }
+
+    return balance(arena, arena.create(
+        arena.key(first),
+        arena.value(first),
+        left,
+        deleteFirst(arena, right)));
+  }
+
+  private static int deleteFirst(final OffHeapArena arena, final int node) {
+    final int left = arena.left(node);
+
+    if (left == NIL) {
+      return arena.right(node);
+    }
+
+    return balance(arena, arena.create(
+        arena.key(node),
+        arena.value(node),
+        deleteFirst(arena, left),
+        arena.right(node)));
+  }
+
+  /**
+   * Restores the balance of a newly created node whose subtrees are balanced.
+   */
+  private static int balance(final OffHeapArena arena, final int node) {
+    final int left = arena.left(node);
+    final int right = arena.right(node);
+
+    if (left == NIL && right == NIL) {
+      return node;
+    }
+
+    final float balance = weight(arena, left) / weight(arena, node);
+
+    if (balance > 0.707011) {
+      // The left subtree is too heavy: requires right rotation.
+      if (weight(arena, arena.left(left)) / weight(arena, left) > 0.414213) {
+        return rotateRight(arena, node);
+      }
+
+      final int newNode = arena.create(arena.key(node), arena.value(node),
+          rotateLeft(arena, left), right);
+      arena.dispose(node);
+      return rotateRight(arena, newNode);
+    } else if (balance < 0.292893) {
+      // The right subtree is too heavy: requires left rotation.
+      if (weight(arena, arena.left(right)) / weight(arena, right) < 0.585786) {
+        return rotateLeft(arena, node);
+      }
+
+      final int newNode = arena.create(arena.key(node), arena.value(node),
+          left, rotateRight(arena, right));
+      arena.dispose(node);
+      return rotateLeft(arena, newNode);
+    }
+
+    return node;
+  }
+
+  private static int rotateLeft(final OffHeapArena arena, final int node) {
+    final int right = arena.right(node);
+    final int result = arena.create(
+        arena.key(right),
+        arena.value(right),
+        arena.create(arena.key(node), arena.value(node), arena.left(node), arena.left(right)),
+        arena.right(right));
+
+    arena.dispose(node);
+    return result;
+  }
+
+  private static int rotateRight(final OffHeapArena arena, final int node) {
+    final int left = arena.left(node);
+    final int result = arena.create(
+        arena.key(left),
+        arena.value(left),
+        arena.left(left),
+        arena.create(arena.key(node), arena.value(node), arena.right(left), arena.right(node)));
+
+    arena.dispose(node);
+    return result;
+  }
+
+  private static float weight(final OffHeapArena arena, final int node) {
+    return (float) arena.size(node) + 1.0f;
+  }
+
+  /**
+   * An in-order iterator over the nodes of a tree. Keeps a reference to the owner of the tree, so
+   * the tree is not reclaimed while it is iterated.
+   */
+  static final class NodeSpliterator extends Spliterators.AbstractLongSpliterator {
+
+    private final OffHeapArena arena;
+    private final Object owner;
+    private final boolean values;
+    private int[] stack = new int[96];
+    private int depth;
+
+    NodeSpliterator(final OffHeapArena arena, final Object owner, final int root,
+        final boolean values) {
+      super(arena.size(root), Spliterator.IMMUTABLE | Spliterator.NONNULL | Spliterator.SIZED
+          | Spliterator.ORDERED | (values ? 0 : Spliterator.DISTINCT | Spliterator.SORTED));
+      this.arena = arena;
+      this.owner = owner;
+      this.values = values;
+      pushLeft(root);
+    }
+
+    private void pushLeft(final int node) {
+      for (int current = node; current != NIL; current = arena.left(current)) {
+        stack[depth ++] = current;
+      }
+    }
+
+    /**
+     * Advances to the next node, passing its key, or its value if this spliterator iterates
+     * values.
+     */
+    @Override
+    public boolean tryAdvance(final LongConsumer consumer) {
+      if (depth == 0) {
+        return false;
+      }
+
+      final int node = stack[-- depth];
+      pushLeft(arena.right(node));
+      consumer.accept(values ? arena.value(node) : arena.key(node));
+      return true;
+    }
+
+    @Override
+    public Comparator<? super Long> getComparator() {
+      // Keys are in natural order:
+      if (values) {
+        throw new IllegalStateException();
+      }
+
+      return null;
+    }
+  }
+}
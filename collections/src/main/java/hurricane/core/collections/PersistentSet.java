@@ -1,6 +1,8 @@
 package hurricane.core.collections;
 
 import java.util.Comparator;
+import java.util.Objects;
+import java.util.stream.Collector;
 import java.util.stream.Stream;
 
 public interface PersistentSet<V> extends BaseSet<V, PersistentSet<V>> {
@@ -8,15 +10,134 @@ public interface PersistentSet<V> extends BaseSet<V, PersistentSet<V>> {
   PersistentSet<V> add(V value);
   PersistentSet<V> delete(V value);
 
-  Comparator<V> getComparator();
+  /**
+   * Returns a set with all given values added to it, as with repeated calls to add.
+   * Implementations may apply the whole batch at once instead of copying a path for every value.
+   */
+  default PersistentSet<V> addAll(final Iterable<? extends V> values) {
+    Objects.requireNonNull(values, "values cannot be null");
 
+    final TransientSet<V> result = asTransient();
+    values.forEach(result::add);
+
+    return result.persistent();
+  }
+
+  /**
+   * Returns a set without the given values, as with repeated calls to delete.
+   */
+  default PersistentSet<V> deleteAll(final Iterable<? extends V> values) {
+    Objects.requireNonNull(values, "values cannot be null");
+
+    final TransientSet<V> result = asTransient();
+    values.forEach(result::delete);
+
+    return result.getSize() == getSize() ? this : result.persistent();
+  }
+
+  /**
+   * Returns a set with the values of both this set and the other set. Where both sets contain an
+   * equal value, the value of the other set is kept.
+   */
+  PersistentSet<V> union(PersistentSet<V> other);
+
+  /**
+   * Returns a set with the values of this set that are also in the other set.
+   */
+  PersistentSet<V> intersection(PersistentSet<V> other);
+
+  /**
+   * Returns a set with the values of this set that are not in the other set.
+   */
+  PersistentSet<V> difference(PersistentSet<V> other);
+
+  /**
+   * Returns a transient copy of this set that can be updated in place, for building large sets
+   * without copying a path for every update.
+   */
+  TransientSet<V> asTransient();
+
+  /**
+   * Returns a stream of the values of this set. Sorted sets stream their values in ascending
+   * order, other sets in an unspecified order.
+   */
   Stream<V> stream();
 
-  static <V extends Comparable<V>> PersistentSet<V> empty() {
+  /**
+   * Returns the changes that turn this set into the other set: values that are only in the other
+   * set are added and values that are only in this set are removed. The order of the changes is
+   * unspecified.
+   */
+  default Stream<SetChange<V>> diff(final PersistentSet<V> other) {
+    Objects.requireNonNull(other, "other cannot be null");
+
+    return Stream.concat(
+        difference(other).stream().map(SetChange::removed),
+        other.difference(this).stream().map(SetChange::added)
+    );
+  }
+
+  static <V extends Comparable<V>> SortedPersistentSet<V> empty() {
     return TreePersistentSet.empty();
   }
 
-  static <V> PersistentSet<V> empty(final Comparator<V> comparator) {
+  static <V> SortedPersistentSet<V> empty(final Comparator<V> comparator) {
     return TreePersistentSet.empty(comparator);
   }
+
+  /**
+   * Returns an empty set backed by a B+-tree, which stores up to 32 values per node in arrays.
+   * Lookups touch fewer cache lines than in the binary tree of {@link #empty()}, and updates copy
+   * a shorter path, at the cost of copying wider nodes.
+   */
+  static <V extends Comparable<V>> SortedPersistentSet<V> btree() {
+    return BTreePersistentSet.empty();
+  }
+
+  static <V> SortedPersistentSet<V> btree(final Comparator<V> comparator) {
+    return BTreePersistentSet.empty(comparator);
+  }
+
+  /**
+   * Returns an empty set backed by a hash array mapped trie. Values are compared using equals and
+   * hashCode instead of a comparator, which makes lookups take near constant time for values
+   * that are expensive to compare. Values are not ordered.
+   */
+  static <V> PersistentSet<V> hashed() {
+    return HashPersistentSet.empty();
+  }
+
+  /**
+   * Returns a collector that accumulates values into a hashed set.
+   */
+  static <V> Collector<V, ?, PersistentSet<V>> hashedCollector() {
+    return HashPersistentSet.collector();
+  }
+
+  /**
+   * Creates a set out of values that are sorted in ascending order according to the comparator.
+   * The set is built in linear time, duplicate values are collapsed.
+   *
+   * @throws IllegalArgumentException if the values are not sorted.
+   */
+  static <V> SortedPersistentSet<V> fromSorted(final Comparator<V> comparator,
+      final Iterable<? extends V> values) {
+    return TreePersistentSet.fromSorted(comparator, values);
+  }
+
+  /**
+   * Returns a collector that accumulates values into a set using their natural order. The values
+   * don't need to be sorted, but sorted input is collected in linear time.
+   */
+  static <V extends Comparable<V>> Collector<V, ?, SortedPersistentSet<V>> collector() {
+    return TreePersistentSet.collector(Comparator.<V>naturalOrder());
+  }
+
+  /**
+   * Returns a collector that accumulates values into a set ordered by the given comparator. The
+   * values don't need to be sorted, but sorted input is collected in linear time.
+   */
+  static <V> Collector<V, ?, SortedPersistentSet<V>> collector(final Comparator<V> comparator) {
+    return TreePersistentSet.collector(comparator);
+  }
 }
@@ -0,0 +1,96 @@
+package hurricane.core.collections;
+
+import java.util.Objects;
+import java.util.stream.Collector;
+import java.util.stream.Stream;
+
+/**
+ * An immutable sequence of values that are accessed by their position. Updates return a new
+ * vector that shares most of its structure with this vector.
+ *
+ * @param <V>
+ */
+public interface PersistentVector<V> {
+  int getSize();
+
+  default boolean isEmpty() {
+    return getSize() == 0;
+  }
+
+  /**
+   * Returns the value at the index.
+   *
+   * @throws IndexOutOfBoundsException if the index is negative or not smaller than the size.
+   */
+  V get(int index);
+
+  /**
+   * Returns a vector with the value at the index replaced.
+   *
+   * @throws IndexOutOfBoundsException if the index is negative or not smaller than the size.
+   */
+  PersistentVector<V> set(int index, V value);
+
+  PersistentVector<V> append(V value);
+
+  /**
+   * Returns a vector with all given values appended to it, as with repeated calls to append.
+   */
+  default PersistentVector<V> appendAll(final Iterable<? extends V> values) {
+    Objects.requireNonNull(values, "values cannot be null");
+
+    final TransientVector<V> result = asTransient();
+    values.forEach(result::append);
+
+    return result.getSize() == getSize() ? this : result.persistent();
+  }
+
+  /**
+   * Returns a vector without its last value.
+   *
+   * @throws IllegalStateException if the vector is empty.
+   */
+  PersistentVector<V> deleteLast();
+
+  /**
+   * Returns the values from (inclusive) to (exclusive) as a vector.
+   *
+   * @throws IndexOutOfBoundsException if the range is not within the vector.
+   */
+  PersistentVector<V> slice(int from, int to);
+
+  /**
+   * Returns a vector with the values of this vector followed by the values of the other vector.
+   */
+  PersistentVector<V> concat(PersistentVector<V> other);
+
+  /**
+   * Returns a transient copy of this vector that can be updated in place, for building large
+   * vectors without copying a path for every update.
+   */
+  TransientVector<V> asTransient();
+
+  Stream<V> stream();
+
+  static <V> PersistentVector<V> empty() {
+    return RrbVector.empty();
+  }
+
+  @SafeVarargs
+  static <V> PersistentVector<V> of(final V... values) {
+    final TransientVector<V> result = RrbVector.<V>empty().asTransient();
+
+    for (final V value : values) {
+      result.append(value);
+    }
+
+    return result.persistent();
+  }
+
+  /**
+   * Returns a collector that accumulates values into a vector in encounter order.
+   */
+  static <V> Collector<V, ?, PersistentVector<V>> collector() {
+    return RrbVector.collector();
+  }
+}
@@ -0,0 +1,556 @@
+package hurricane.core.collections;
+
+import java.util.Arrays;
+
+/**
+ * Building blocks for {@link RrbVector}, a relaxed radix balanced tree.
+ *
+ * <p>Leaves store up to {@link #WIDTH} elements and branches store up to {@link #WIDTH} children
+ * together with the cumulative sizes of the children. A child holds at most
+ * {@code 1 << shift} elements, where shift is the level of its parent times {@link #BITS}, so
+ * shifting an index gives the first child that may hold it. Trees built by appending fill every
+ * child but the last, and the shift finds the child right away as in a radix tree. Slicing and
+ * concatenation leave nodes that are not full, and the cumulative sizes correct the guess by
+ * scanning a few children to the right.</p>
+ *
+ * <p>Concatenation rebalances the nodes along the seam of both trees so that each level has at
+ * most {@link #EXTRA} more nodes than needed to hold its items, which keeps the tree shallow and
+ * the scans short. Like the nodes of {@link BTree}, nodes carry the edit token of the transient
+ * that created them and are updated in place by that transient.</p>
+ */
+final class RrbTree {
+
+  static final int BITS = 5;
+  static final int WIDTH = 1 << BITS;
+  private static final int EXTRA = 2;
+
+  private RrbTree() {
+  }
+
+  abstract static class Node {
+    final Object edit;
+
+    Node(final Object edit) {
+      this.edit = edit;
+    }
+
+    abstract int getSize();
+
+    /**
+     * Returns the number of elements of a leaf or the number of children of a branch.
+     */
+    abstract int getCount();
+
+    /**
+     * Returns the level of this node times {@link #BITS}, leaves are at level zero.
+     */
+    abstract int getShift();
+
+    /**
+     * Returns the elements of a leaf or the children of a branch.
+     */
+    abstract Object[] getItems();
+
+    final boolean isOwnedBy(final Object edit) {
+      return edit != null && edit == this.edit;
+    }
+  }
+
+  static final class Leaf extends Node {
+    Object[] values;
+
+    Leaf(final Object edit, final Object[] values) {
+      super(edit);
+      this.values = values;
+    }
+
+    @Override
+    int getSize() {
+      return values.length;
+    }
+
+    @Override
+    int getCount() {
+      return values.length;
+    }
+
+    @Override
+    int getShift() {
+      return 0;
+    }
+
+    @Override
+    Object[] getItems() {
+      return values;
+    }
+
+    private Leaf update(final Object edit, final Object[] newValues) {
+      if (isOwnedBy(edit)) {
+        values = newValues;
+        return this;
+      }
+
+      return new Leaf(edit, newValues);
+    }
+  }
+
+  static final class Branch extends Node {
+    final int shift;
+    Node[] children;
+    int[] sizes;
+
+    Branch(final Object edit, final int shift, final Node[] children) {
+      this(edit, shift, children, sizesOf(children));
+    }
+
+    private Branch(final Object edit, final int shift, final Node[] children, final int[] sizes) {
+      super(edit);
+      this.shift = shift;
+      this.children = children;
+      this.sizes = sizes;
+    }
+
+    @Override
+    int getSize() {
+      return sizes[sizes.length - 1];
+    }
+
+    @Override
+    int getCount() {
+      return children.length;
+    }
+
+    @Override
+    int getShift() {
+      return shift;
+    }
+
+    @Override
+    Object[] getItems() {
+      return children;
+    }
+
+    /**
+     * Returns the child that holds the element at the position.
+     */
+    int childAt(final int position) {
+      int child = position >>> shift;
+
+      while (sizes[child] <= position) {
+        ++ child;
+      }
+
+      return child;
+    }
+
+    /**
+     * Returns the position of the first element of the child.
+     */
+    int offsetOf(final int child) {
+      return child == 0 ? 0 : sizes[child - 1];
+    }
+
+    private Branch update(final Object edit, final Node[] newChildren, final int[] newSizes) {
+      if (isOwnedBy(edit)) {
+        children = newChildren;
+        sizes = newSizes;
+        return this;
+      }
+
+      // A transient updates the sizes of its branches in place, so they cannot be shared:
+      return edit == null || newSizes != sizes
+          ? new Branch(edit, shift, newChildren, newSizes)
+          : new Branch(edit, shift, newChildren, newSizes.clone());
+    }
+  }
+
+  /**
+   * Returns the element at the position, which must be within the tree.
+   */
+  static Object get(final Node root, final int index) {
+    Node node = root;
+    int remaining = index;
+
+    while (node instanceof Branch) {
+      final Branch branch = (Branch) node;
+      final int child = branch.childAt(remaining);
+
+      remaining -= branch.offsetOf(child);
+      node = branch.children[child];
+    }
+
+    return ((Leaf) node).values[remaining];
+  }
+
+  /**
+   * Returns the tree with the element at the position replaced.
+   */
+  static Node set(final Object edit, final Node node, final int index, final Object value) {
+    if (node instanceof Leaf) {
+      final Leaf leaf = (Leaf) node;
+      final Object[] values = editable(edit, leaf, leaf.values);
+
+      values[index] = value;
+      return leaf.update(edit, values);
+    }
+
+    final Branch branch = (Branch) node;
+    final int child = branch.childAt(index);
+    final Node oldChild = branch.children[child];
+    final Node newChild = set(edit, oldChild, index - branch.offsetOf(child), value);
+
+    if (newChild == oldChild) {
+      return branch;
+    }
+
+    final Node[] children = editable(edit, branch, branch.children);
+    children[child] = newChild;
+
+    return branch.update(edit, children, branch.sizes);
+  }
+
+  /**
+   * Returns the tree with the leaf appended after its last element. The tree may be null for an
+   * empty tree.
+   */
+  static Node appendLeaf(final Object edit, final Node root, final Leaf leaf) {
+    if (root == null) {
+      return leaf;
+    }
+
+    if (root instanceof Branch) {
+      final Branch appended = appendLeaf(edit, (Branch) root, leaf);
+
+      if (appended != null) {
+        return appended;
+      }
+    }
+
+    // The rightmost path is full, grow the tree by a level:
+    return new Branch(edit, root.getShift() + BITS,
+        new Node[] {root, newPath(edit, root.getShift(), leaf)});
+  }
+
+  /**
+   * Returns the elements [from, to) of the tree as a tree, or null if the range is empty. Only
+   * the nodes at the edges of the range are copied.
+   */
+  static Node slice(final Node root, final int from, final int to) {
+    return from >= to ? null : collapse(sliceNode(root, from, to));
+  }
+
+  /**
+   * Returns the concatenation of two trees, both of which may be null for an empty tree.
+   */
+  static Node concat(final Node left, final Node right) {
+    if (left == null) {
+      return right;
+    } else if (right == null) {
+      return left;
+    }
+
+    return collapse(merge(left, right));
+  }
+
+  private static Node sliceNode(final Node node, final int from, final int to) {
+    if (from == 0 && to == node.getSize()) {
+      return node;
+    }
+
+    if (node instanceof Leaf) {
+      return new Leaf(null, Arrays.copyOfRange(((Leaf) node).values, from, to));
+    }
+
+    final Branch branch = (Branch) node;
+    final int first = branch.childAt(from);
+    final int last = branch.childAt(to - 1);
+    final Node[] children = new Node[last - first + 1];
+
+    for (int i = first; i <= last; ++ i) {
+      final int offset = branch.offsetOf(i);
+      final Node child = branch.children[i];
+
+      children[i - first] = sliceNode(child, Math.max(from - offset, 0),
+          Math.min(to - offset, child.getSize()));
+    }
+
+    return new Branch(null, branch.shift, children);
+  }
+
+  /**
+   * Removes branches with a single child from the top of the tree.
+   */
+  private static Node collapse(final Node root) {
+    Node node = root;
+
+    while (node instanceof Branch && ((Branch) node).children.length == 1) {
+      node = ((Branch) node).children[0];
+    }
+
+    return node;
+  }
+
+  private static Branch appendLeaf(final Object edit, final Branch branch, final Leaf leaf) {
+    final int count = branch.children.length;
+
+    if (branch.shift > BITS) {
+      final Branch last = (Branch) branch.children[count - 1];
+      final Branch appended = appendLeaf(edit, last, leaf);
+
+      if (appended != null) {
+        final Node[] children = editable(edit, branch, branch.children);
+        final int[] sizes = editable(edit, branch, branch.sizes);
+
+        children[count - 1] = appended;
+        sizes[count - 1] += leaf.getSize();
+        return branch.update(edit, children, sizes);
+      }
+    }
+
+    if (count == WIDTH) {
+      return null;
+    }
+
+    final Node[] children = Arrays.copyOf(branch.children, count + 1);
+    final int[] sizes = Arrays.copyOf(branch.sizes, count + 1);
+
+    children[count] = newPath(edit, branch.shift - BITS, leaf);
+    sizes[count] = sizes[count - 1] + leaf.getSize();
+    return branch.update(edit, children, sizes);
+  }
+
+  /**
+   * Wraps the leaf into branches with a single child up to the level of the shift.
+   */
+  private static Node newPath(final Object edit, final int shift, final Leaf leaf) {
+    Node node = leaf;
+
+    for (int level = BITS; level <= shift; level += BITS) {
+      node = new Branch(edit, level, new Node[] {node});
+    }
+
+    return node;
+  }
+
+  /**
+   * Merges two trees into a branch one level above the higher of both, which has one or two
+   * children.
+   */
+  private static Branch merge(final Node left, final Node right) {
+    if (left.getShift() > right.getShift()) {
+      final Branch leftBranch = (Branch) left;
+      return rebalance(leftBranch, merge(last(leftBranch), right), null);
+    } else if (left.getShift() < right.getShift()) {
+      final Branch rightBranch = (Branch) right;
+      return rebalance(null, merge(left, rightBranch.children[0]), rightBranch);
+    } else if (left instanceof Leaf) {
+      final Object[] leftValues = ((Leaf) left).values;
+      final Object[] rightValues = ((Leaf) right).values;
+
+      if (leftValues.length + rightValues.length <= WIDTH) {
+        return new Branch(null, BITS, new Node[] {new Leaf(null, concat(leftValues, rightValues))});
+      }
+
+      return new Branch(null, BITS, new Node[] {left, right});
+    }
+
+    final Branch leftBranch = (Branch) left;
+    final Branch rightBranch = (Branch) right;
+
+    return rebalance(leftBranch, merge(last(leftBranch), rightBranch.children[0]), rightBranch);
+  }
+
+  /**
+   * Packs the children of the left branch but its last, the children of the middle branch and
+   * the children of the right branch but its first into one or two branches, and returns a
+   * branch one level up with those. The middle branch replaces the children that are left out.
+   * Either of the left and right branches may be null.
+   */
+  private static Branch rebalance(final Branch left, final Branch middle, final Branch right) {
+    final Node[] leftChildren = left == null
+        ? new Node[0]
+        : Arrays.copyOf(left.children, left.children.length - 1);
+    final Node[] rightChildren = right == null
+        ? new Node[0]
+        : Arrays.copyOfRange(right.children, 1, right.children.length);
+    final Node[] nodes = pack(concat(concat(leftChildren, middle.children), rightChildren));
+    final int shift = middle.shift;
+
+    if (nodes.length <= WIDTH) {
+      return new Branch(null, shift + BITS, new Node[] {new Branch(null, shift, nodes)});
+    }
+
+    return new Branch(null, shift + BITS, new Node[] {
+        new Branch(null, shift, Arrays.copyOf(nodes, WIDTH)),
+        new Branch(null, shift, Arrays.copyOfRange(nodes, WIDTH, nodes.length))
+    });
+  }
+
+  /**
+   * Redistributes the items of adjacent nodes at the same level such that there are at most
+   * {@link #EXTRA} more nodes than needed to hold the items. Nodes that are not full are merged
+   * into the nodes to their right, nodes that keep their items are reused.
+   */
+  private static Node[] pack(final Node[] nodes) {
+    final int[] counts = new int[nodes.length];
+    int total = 0;
+
+    for (int i = 0; i < nodes.length; ++ i) {
+      counts[i] = nodes[i].getCount();
+      total += counts[i];
+    }
+
+    final int needed = (total + WIDTH - 1) / WIDTH;
+    int length = nodes.length;
+
+    if (length <= needed + EXTRA) {
+      return nodes;
+    }
+
+    int i = 0;
+
+    while (length > needed + EXTRA) {
+      // Find a node that is not full:
+      while (counts[i] == WIDTH) {
+        ++ i;
+      }
+
+      // Move its items into the nodes to the right, which frees one node:
+      int remaining = counts[i];
+
+      while (remaining > 0) {
+        final int count = Math.min(remaining + counts[i + 1], WIDTH);
+        remaining += counts[i + 1] - count;
+        counts[i] = count;
+        ++ i;
+      }
+
+      System.arraycopy(counts, i + 1, counts, i, length - i - 1);
+      -- length;
+      -- i;
+    }
+
+    return build(nodes, counts, length);
+  }
+
+  /**
+   * Builds nodes with the given number of items out of the items of the nodes, in order.
+   */
+  private static Node[] build(final Node[] nodes, final int[] counts, final int length) {
+    final boolean leaves = nodes[0] instanceof Leaf;
+    final int shift = nodes[0].getShift();
+    final Node[] result = new Node[length];
+    int source = 0;
+    int offset = 0;
+
+    for (int i = 0; i < length; ++ i) {
+      if (offset == 0 && nodes[source].getCount() == counts[i]) {
+        result[i] = nodes[source ++];
+        continue;
+      }
+
+      final Object[] items = leaves ? new Object[counts[i]] : new Node[counts[i]];
+      int filled = 0;
+
+      while (filled < counts[i]) {
+        final Node node = nodes[source];
+        final int count = Math.min(counts[i] - filled, node.getCount() - offset);
+
+        System.arraycopy(node.getItems(), offset, items, filled, count);
+        filled += count;
+        offset += count;
+
+        if (offset == node.getCount()) {
+          ++ source;
+          offset = 0;
+        }
+      }
+
+      result[i] = leaves ? new Leaf(null, items) : new Branch(null, shift, (Node[]) items);
+    }
+
+    return result;
+  }
+
+  private static Node last(final Branch branch) {
+    return branch.children[branch.children.length - 1];
+  }
+
+  private static int[] sizesOf(final Node[] children) {
+    final int[] sizes = new int[children.length];
+    int size = 0;
+
+    for (int i = 0; i < children.length; ++ i) {
+      size += children[i].getSize();
+      sizes[i] = size;
+    }
+
+    return sizes;
+  }
+
+  private static <T> T[] editable(final Object edit, final Node node, final T[] array) {
+    return node.isOwnedBy(edit) ? array : array.clone();
+  }
+
+  private static int[] editable(final Object edit, final Node node, final int[] array) {
+    return node.isOwnedBy(edit) ? array : array.clone();
+  }
+
+  private static <T> T[] concat(final T[] a, final T[] b) {
+    final T[] result = Arrays.copyOf(a, a.length + b.length);
+    System.arraycopy(b, 0, result, a.length, b.length);
+    return result;
+  }
+
+  /**
+   * The leaf that holds a position in a tree, for iterating over a tree a leaf at a time.
+   */
+  static final class Cursor {
+    private final Node root;
+    private Object[] values;
+    private int start;
+
+    Cursor(final Node root) {
+      this.root = root;
+    }
+
+    /**
+     * Moves the cursor to the leaf holding the position, which must be within the tree, unless
+     * the cursor is already there.
+     */
+    Cursor seek(final int index) {
+      if (values != null && index >= start && index < start + values.length) {
+        return this;
+      }
+
+      Node node = root;
+      int offset = 0;
+
+      while (node instanceof Branch) {
+        final Branch branch = (Branch) node;
+        final int child = branch.childAt(index - offset);
+
+        offset += branch.offsetOf(child);
+        node = branch.children[child];
+      }
+
+      values = ((Leaf) node).values;
+      start = offset;
+      return this;
+    }
+
+    /**
+     * Returns the elements of the leaf.
+     */
+    Object[] getValues() {
+      return values;
+    }
+
+    /**
+     * Returns the position of the first element of the leaf.
+     */
+    int getStart() {
+      return start;
+    }
+  }
+}
@@ -0,0 +1,406 @@
+package hurricane.core.collections;
+
+import hurricane.core.collections.RrbTree.Cursor;
+import hurricane.core.collections.RrbTree.Leaf;
+import hurricane.core.collections.RrbTree.Node;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.stream.Collector;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * A vector implemented as a relaxed radix balanced tree, see {@link RrbTree}.
+ *
+ * <p>The last up to 32 values are kept in a tail array outside of the tree, so appending copies
+ * the tail and only every 32nd append adds a leaf to the tree. Lookups and updates take time
+ * logarithmic in the size with a base of 32, slicing and concatenation copy the nodes along the
+ * edges of the result.</p>
+ *
+ * @param <V>
+ */
+public final class RrbVector<V> implements PersistentVector<V> {
+
+  private static final int CHARACTERISTICS = Spliterator.IMMUTABLE | Spliterator.ORDERED
+      | Spliterator.NONNULL | Spliterator.SIZED | Spliterator.SUBSIZED;
+
+  private static final RrbVector<?> EMPTY = new RrbVector<>(null, new Object[0], 0);
+
+  /**
+   * The tree with all values but the tail, or null if the tail holds all values.
+   */
+  private final Node root;
+
+  /**
+   * The last values, never empty unless the vector is empty.
+   */
+  private final Object[] tail;
+  private final int size;
+
+  private RrbVector(final Node root, final Object[] tail, final int size) {
+    this.root = root;
+    this.tail = tail;
+    this.size = size;
+  }
+
+  @SuppressWarnings("unchecked")
+  static <V> RrbVector<V> empty() {
+    return (RrbVector<V>) EMPTY;
+  }
+
+  static <V> Collector<V, ?, PersistentVector<V>> collector() {
+    return Collector.<V, TransientVector<V>, PersistentVector<V>>of(
+        () -> RrbVector.<V>empty().asTransient(),
+        TransientVector::append,
+        (a, b) -> a.persistent().concat(b.persistent()).asTransient(),
+        TransientVector::persistent
+    );
+  }
+
+  @Override
+  public int getSize() {
+    return size;
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public V get(final int index) {
+    checkIndex(index, size);
+
+    final int treeSize = size - tail.length;
+
+    return (V) (index >= treeSize ? tail[index - treeSize] : RrbTree.get(root, index));
+  }
+
+  @Override
+  public PersistentVector<V> set(final int index, final V value) {
+    Objects.requireNonNull(value, "value cannot be null");
+    checkIndex(index, size);
+
+    final int treeSize = size - tail.length;
+
+    if (index >= treeSize) {
+      final Object[] newTail = tail.clone();
+      newTail[index - treeSize] = value;
+      return new RrbVector<>(root, newTail, size);
+    }
+
+    return new RrbVector<>(RrbTree.set(null, root, index, value), tail, size);
+  }
+
+  @Override
+  public PersistentVector<V> append(final V value) {
+    Objects.requireNonNull(value, "value cannot be null");
+
+    if (tail.length < RrbTree.WIDTH) {
+      final Object[] newTail = Arrays.copyOf(tail, tail.length + 1);
+      newTail[tail.length] = value;
+      return new RrbVector<>(root, newTail, size + 1);
+    }
+
+    return new RrbVector<>(RrbTree.appendLeaf(null, root, new Leaf(null, tail)),
+        new Object[] {value}, size + 1);
+  }
+
+  @Override
+  public PersistentVector<V> deleteLast() {
+    if (size == 0) {
+      throw new IllegalStateException("Vector is empty");
+    }
+
+    if (tail.length > 1) {
+      return new RrbVector<>(root, Arrays.copyOf(tail, tail.length - 1), size - 1);
+    }
+
+    // The tail becomes empty, take the last leaf of the tree as the new tail:
+    return slice(0, size - 1);
+  }
+
+  @Override
+  public PersistentVector<V> slice(final int from, final int to) {
+    if (from < 0 || to > size || from > to) {
+      throw new IndexOutOfBoundsException("Range: [" + from + ", " + to + "), size: " + size);
+    }
+
+    if (from == 0 && to == size) {
+      return this;
+    } else if (from == to) {
+      return empty();
+    }
+
+    final int treeSize = size - tail.length;
+
+    if (to > treeSize) {
+      // The range ends in the tail, which becomes the tail of the slice:
+      return new RrbVector<>(
+          from < treeSize ? RrbTree.slice(root, from, treeSize) : null,
+          Arrays.copyOfRange(tail, Math.max(from - treeSize, 0), to - treeSize),
+          to - from
+      );
+    }
+
+    // The range ends in the tree, the part of the leaf holding its last value becomes the tail:
+    final Cursor cursor = new Cursor(root).seek(to - 1);
+    final int tailStart = Math.max(from, cursor.getStart());
+
+    return new RrbVector<>(
+        RrbTree.slice(root, from, tailStart),
+        Arrays.copyOfRange(cursor.getValues(), tailStart - cursor.getStart(),
+            to - cursor.getStart()),
+        to - from
+    );
+  }
+
+  /**
+   * Concatenates the trees of both vectors, which takes time logarithmic in the size of the
+   * result. Vectors of up to 32 values are appended one by one instead.
+   */
+  @Override
+  public PersistentVector<V> concat(final PersistentVector<V> other) {
+    Objects.requireNonNull(other, "other cannot be null");
+
+    if (other.isEmpty()) {
+      return this;
+    } else if (isEmpty()) {
+      return other;
+    }
+
+    if (!(other instanceof RrbVector<?>) || other.getSize() <= RrbTree.WIDTH) {
+      final TransientVector<V> result = asTransient();
+      other.stream().forEach(result::append);
+      return result.persistent();
+    }
+
+    final RrbVector<V> vector = (RrbVector<V>) other;
+    final Node left = RrbTree.appendLeaf(null, root, new Leaf(null, tail));
+
+    return new RrbVector<>(RrbTree.concat(left, vector.root), vector.tail, size + vector.size);
+  }
+
+  @Override
+  public TransientVector<V> asTransient() {
+    return new Transient<>(root, tail, size);
+  }
+
+  @Override
+  public Stream<V> stream() {
+    return StreamSupport.stream(new VectorSpliterator<>(root, tail, size, 0, size), false);
+  }
+
+  private static void checkIndex(final int index, final int size) {
+    if (index < 0 || index >= size) {
+      throw new IndexOutOfBoundsException("Index: " + index + ", size: " + size);
+    }
+  }
+
+  @Override
+  public boolean equals(final Object obj) {
+    if (this == obj) {
+      return true;
+    }
+
+    if (!(obj instanceof RrbVector<?>)) {
+      return false;
+    }
+
+    final RrbVector<?> other = (RrbVector<?>) obj;
+
+    // Pre-test by comparing size:
+    if (size != other.size) {
+      return false;
+    }
+
+    final Iterator<?> iteratorA = stream().iterator();
+    final Iterator<?> iteratorB = other.stream().iterator();
+
+    while (iteratorA.hasNext()) {
+      if (!iteratorA.next().equals(iteratorB.next())) {
+        return false;
+      }
+    }
+
+    return true;
+  }
+
+  @Override
+  public int hashCode() {
+    int hashCode = 1;
+
+    final Iterator<V> iterator = stream().iterator();
+    while (iterator.hasNext()) {
+      hashCode = 31 * hashCode + iterator.next().hashCode();
+    }
+
+    return hashCode;
+  }
+
+  /**
+   * Iterates over a range of positions of a vector a leaf at a time. Splits divide the remaining
+   * range in half.
+   */
+  private static final class VectorSpliterator<V> implements Spliterator<V> {
+    private final Node root;
+    private final Object[] tail;
+    private final int treeSize;
+    private final Cursor cursor;
+    private int index;
+    private final int end;
+
+    private VectorSpliterator(final Node root, final Object[] tail, final int size,
+        final int from, final int to) {
+      this.root = root;
+      this.tail = tail;
+      this.treeSize = size - tail.length;
+      this.cursor = new Cursor(root);
+      this.index = from;
+      this.end = to;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public boolean tryAdvance(final Consumer<? super V> action) {
+      if (index >= end) {
+        return false;
+      }
+
+      if (index >= treeSize) {
+        action.accept((V) tail[index - treeSize]);
+      } else {
+        cursor.seek(index);
+        action.accept((V) cursor.getValues()[index - cursor.getStart()]);
+      }
+
+      ++ index;
+      return true;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void forEachRemaining(final Consumer<? super V> action) {
+      while (index < end && index < treeSize) {
+        final Object[] values = cursor.seek(index).getValues();
+        final int start = cursor.getStart();
+        final int stop = Math.min(end, start + values.length);
+
+        for (; index < stop; ++ index) {
+          action.accept((V) values[index - start]);
+        }
+      }
+
+      for (; index < end; ++ index) {
+        action.accept((V) tail[index - treeSize]);
+      }
+    }
+
+    @Override
+    public Spliterator<V> trySplit() {
+      final int remaining = end - index;
+
+      if (remaining <= RrbTree.WIDTH) {
+        return null;
+      }
+
+      final int mid = index + remaining / 2;
+      final Spliterator<V> prefix = new VectorSpliterator<>(root, tail, treeSize + tail.length,
+          index, mid);
+
+      index = mid;
+      return prefix;
+    }
+
+    @Override
+    public long estimateSize() {
+      return end - index;
+    }
+
+    @Override
+    public int characteristics() {
+      return CHARACTERISTICS;
+    }
+  }
+
+  private static final class Transient<V> implements TransientVector<V> {
+
+    private Node root;
+    private Object[] tail = new Object[RrbTree.WIDTH];
+    private int tailSize;
+    private int size;
+    private Object edit = new Object();
+
+    private Transient(final Node root, final Object[] tail, final int size) {
+      this.root = root;
+      this.tailSize = tail.length;
+      this.size = size;
+      System.arraycopy(tail, 0, this.tail, 0, tail.length);
+    }
+
+    @Override
+    public int getSize() {
+      ensureEditable();
+      return size;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V get(final int index) {
+      ensureEditable();
+      checkIndex(index, size);
+
+      final int treeSize = size - tailSize;
+
+      return (V) (index >= treeSize ? tail[index - treeSize] : RrbTree.get(root, index));
+    }
+
+    @Override
+    public TransientVector<V> set(final int index, final V value) {
+      Objects.requireNonNull(value, "value cannot be null");
+      ensureEditable();
+      checkIndex(index, size);
+
+      final int treeSize = size - tailSize;
+
+      if (index >= treeSize) {
+        tail[index - treeSize] = value;
+      } else {
+        root = RrbTree.set(edit, root, index, value);
+      }
+
+      return this;
+    }
+
+    @Override
+    public TransientVector<V> append(final V value) {
+      Objects.requireNonNull(value, "value cannot be null");
+      ensureEditable();
+
+      if (tailSize == RrbTree.WIDTH) {
+        root = RrbTree.appendLeaf(edit, root, new Leaf(edit, tail));
+        tail = new Object[RrbTree.WIDTH];
+        tailSize = 0;
+      }
+
+      tail[tailSize ++] = value;
+      ++ size;
+      return this;
+    }
+
+    @Override
+    public PersistentVector<V> persistent() {
+      ensureEditable();
+      edit = null;
+
+      return size == 0
+          ? empty()
+          : new RrbVector<>(root, Arrays.copyOf(tail, tailSize), size);
+    }
+
+    private void ensureEditable() {
+      if (edit == null) {
+        throw new IllegalStateException("Transient used after call to persistent()");
+      }
+    }
+  }
+}
@@ -0,0 +1,60 @@
+package hurricane.core.collections;
+
+import java.util.Objects;
+
+/**
+ * A value that was added to or removed from a set, see {@link PersistentSet#diff}.
+ *
+ * @param <V>
+ */
+public final class SetChange<V> {
+
+  public enum Kind {
+    ADDED, REMOVED
+  }
+
+  private final Kind kind;
+  private final V value;
+
+  private SetChange(final Kind kind, final V value) {
+    this.kind = kind;
+    this.value = Objects.requireNonNull(value, "value cannot be null");
+  }
+
+  public static <V> SetChange<V> added(final V value) {
+    return new SetChange<>(Kind.ADDED, value);
+  }
+
+  public static <V> SetChange<V> removed(final V value) {
+    return new SetChange<>(Kind.REMOVED, value);
+  }
+
+  public Kind getKind() {
+    return kind;
+  }
+
+  public V getValue() {
+    return value;
+  }
+
+  @Override
+  public boolean equals(final Object obj) {
+    if (!(obj instanceof SetChange<?>)) {
+      return false;
+    }
+
+    final SetChange<?> other = (SetChange<?>) obj;
+
+    return kind == other.kind && value.equals(other.value);
+  }
+
+  @Override
+  public int hashCode() {
+    return 31 * kind.hashCode() + value.hashCode();
+  }
+
+  @Override
+  public String toString() {
+    return kind + " " + value;
+  }
+}
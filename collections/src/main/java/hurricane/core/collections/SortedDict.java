@@ -0,0 +1,111 @@
+package hurricane.core.collections;
+
+import java.util.Comparator;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * A dictionary whose keys are ordered by a comparator, adding navigation, range and positional
+ * operations to {@link Dict}. Entries are streamed in ascending key order.
+ *
+ * @param <K>
+ * @param <V>
+ */
+public interface SortedDict<K, V> extends Dict<K, V> {
+  @Override
+  SortedDict<K, V> put(K key, V value);
+
+  @Override
+  SortedDict<K, V> delete(K key);
+
+  @Override
+  SortedDict<K, V> putAll(Map<? extends K, ? extends V> entries);
+
+  @Override
+  SortedDict<K, V> deleteAll(Iterable<? extends K> keys);
+
+  @Override
+  SortedDict<K, V> union(Dict<K, V> other);
+
+  @Override
+  SortedDict<K, V> intersection(Dict<K, ?> other);
+
+  @Override
+  SortedDict<K, V> difference(Dict<K, ?> other);
+
+  Comparator<K> getComparator();
+
+  /**
+   * Returns a stream of the entries of this dictionary whose keys are greater than or equal to
+   * the given key, in ascending key order. Locating the first entry takes logarithmic time.
+   */
+  Stream<Map.Entry<K, V>> entries(K from);
+
+  /**
+   * Returns the greatest key that is smaller than or equal to the given key.
+   */
+  Optional<K> floorKey(K key);
+
+  /**
+   * Returns the smallest key that is greater than or equal to the given key.
+   */
+  Optional<K> ceilingKey(K key);
+
+  /**
+   * Returns the greatest key that is strictly smaller than the given key.
+   */
+  Optional<K> lowerKey(K key);
+
+  /**
+   * Returns the smallest key that is strictly greater than the given key.
+   */
+  Optional<K> higherKey(K key);
+
+  /**
+   * Returns the entries of this dictionary with keys ranging from from, inclusive, to to,
+   * exclusive. Takes logarithmic time, the result shares most of its structure with this
+   * dictionary.
+   *
+   * @throws IllegalArgumentException if from is greater than to.
+   */
+  SortedDict<K, V> subDict(K from, K to);
+
+  /**
+   * Returns the entries of this dictionary with keys strictly smaller than to.
+   */
+  SortedDict<K, V> headDict(K to);
+
+  /**
+   * Returns the entries of this dictionary with keys greater than or equal to from.
+   */
+  SortedDict<K, V> tailDict(K from);
+
+  /**
+   * Returns the position of the key in sort order, or -1 if this dictionary does not contain it.
+   * Takes logarithmic time.
+   */
+  int indexOf(K key);
+
+  /**
+   * Returns the key at the given position in sort order. Takes logarithmic time.
+   *
+   * @throws IndexOutOfBoundsException if the index is negative or not smaller than the size.
+   */
+  K keyAt(int index);
+
+  /**
+   * Returns the value of the entry at the given position in key order. Takes logarithmic time.
+   *
+   * @throws IndexOutOfBoundsException if the index is negative or not smaller than the size.
+   */
+  V valueAt(int index);
+
+  /**
+   * Returns the number of keys ranging from from, inclusive, to to, exclusive, without visiting
+   * them. Takes logarithmic time.
+   *
+   * @throws IllegalArgumentException if from is greater than to.
+   */
+  int count(K from, K to);
+}
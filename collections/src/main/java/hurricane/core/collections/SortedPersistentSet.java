@@ -0,0 +1,102 @@
+package hurricane.core.collections;
+
+import java.util.Comparator;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * A set whose values are ordered by a comparator, adding navigation, range and positional
+ * operations to {@link PersistentSet}. Values are streamed in ascending order.
+ *
+ * @param <V>
+ */
+public interface SortedPersistentSet<V> extends PersistentSet<V> {
+  @Override
+  SortedPersistentSet<V> add(V value);
+
+  @Override
+  SortedPersistentSet<V> delete(V value);
+
+  @Override
+  SortedPersistentSet<V> addAll(Iterable<? extends V> values);
+
+  @Override
+  SortedPersistentSet<V> deleteAll(Iterable<? extends V> values);
+
+  @Override
+  SortedPersistentSet<V> union(PersistentSet<V> other);
+
+  @Override
+  SortedPersistentSet<V> intersection(PersistentSet<V> other);
+
+  @Override
+  SortedPersistentSet<V> difference(PersistentSet<V> other);
+
+  Comparator<V> getComparator();
+
+  /**
+   * Returns a stream of the values of this set that are greater than or equal to the given value,
+   * in ascending order. Locating the first value takes logarithmic time.
+   */
+  Stream<V> stream(V from);
+
+  /**
+   * Returns the greatest value of this set that is smaller than or equal to the given value.
+   */
+  Optional<V> floor(V value);
+
+  /**
+   * Returns the smallest value of this set that is greater than or equal to the given value.
+   */
+  Optional<V> ceiling(V value);
+
+  /**
+   * Returns the greatest value of this set that is strictly smaller than the given value.
+   */
+  Optional<V> lower(V value);
+
+  /**
+   * Returns the smallest value of this set that is strictly greater than the given value.
+   */
+  Optional<V> higher(V value);
+
+  /**
+   * Returns the values of this set ranging from from, inclusive, to to, exclusive. Since the
+   * result is persistent it shares most of its structure with this set, and takes logarithmic
+   * time to create.
+   *
+   * @throws IllegalArgumentException if from is greater than to.
+   */
+  SortedPersistentSet<V> subSet(V from, V to);
+
+  /**
+   * Returns the values of this set that are strictly smaller than to.
+   */
+  SortedPersistentSet<V> headSet(V to);
+
+  /**
+   * Returns the values of this set that are greater than or equal to from.
+   */
+  SortedPersistentSet<V> tailSet(V from);
+
+  /**
+   * Returns the position of the value in sort order, or -1 if this set does not contain it.
+   * Takes logarithmic time.
+   */
+  int indexOf(V value);
+
+  /**
+   * Returns the value at the given position in sort order. Takes logarithmic time.
+   *
+   * @throws IndexOutOfBoundsException if the index is negative or not smaller than the size.
+   */
+  V get(int index);
+
+  /**
+   * Returns the number of values ranging from from, inclusive, to to, exclusive, without
+   * visiting them. Takes logarithmic time.
+   *
+   * @throws IllegalArgumentException if from is greater than to.
+   */
+  int count(V from, V to);
+}
@@ -0,0 +1,26 @@
+package hurricane.core.collections;
+
+import java.util.Optional;
+
+/**
+ * A dictionary that is updated in place, obtained through {@link Dict#asTransient()}.
+ *
+ * <p>Elements created by the transient are owned by it and are mutated rather than copied by
+ * subsequent updates, which avoids most of the garbage of building a dictionary through repeated
+ * puts. A transient must not be shared between threads and can no longer be used once
+ * {@link #persistent()} has been called.</p>
+ *
+ * @param <K>
+ * @param <V>
+ */
+public interface TransientDict<K, V> extends BaseDict<K, V, TransientDict<K, V>> {
+  Optional<V> lookup(K key);
+  boolean containsKey(K key);
+  TransientDict<K, V> put(K key, V value);
+  TransientDict<K, V> delete(K key);
+
+  /**
+   * Ends the transient, returning a persistent dictionary with its current contents.
+   */
+  Dict<K, V> persistent();
+}
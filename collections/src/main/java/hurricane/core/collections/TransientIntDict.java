@@ -0,0 +1,24 @@
+package hurricane.core.collections;
+
+import java.util.Optional;
+
+/**
+ * A dictionary with int keys that is updated in place, obtained through
+ * {@link IntDict#asTransient()}.
+ *
+ * @param <V>
+ * @see TransientDict
+ */
+public interface TransientIntDict<V> extends BaseDict<Integer, V, TransientIntDict<V>> {
+  Optional<V> lookup(int key);
+  V getOrDefault(int key, V defaultValue);
+  V getOrNull(int key);
+  boolean containsKey(int key);
+  TransientIntDict<V> put(int key, V value);
+  TransientIntDict<V> delete(int key);
+
+  /**
+   * Ends the transient, returning a persistent dictionary with its current contents.
+   */
+  IntDict<V> persistent();
+}
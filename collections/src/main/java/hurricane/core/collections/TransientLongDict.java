@@ -0,0 +1,24 @@
+package hurricane.core.collections;
+
+import java.util.Optional;
+
+/**
+ * A dictionary with long keys that is updated in place, obtained through
+ * {@link LongDict#asTransient()}.
+ *
+ * @param <V>
+ * @see TransientDict
+ */
+public interface TransientLongDict<V> extends BaseDict<Long, V, TransientLongDict<V>> {
+  Optional<V> lookup(long key);
+  V getOrDefault(long key, V defaultValue);
+  V getOrNull(long key);
+  boolean containsKey(long key);
+  TransientLongDict<V> put(long key, V value);
+  TransientLongDict<V> delete(long key);
+
+  /**
+   * Ends the transient, returning a persistent dictionary with its current contents.
+   */
+  LongDict<V> persistent();
+}
@@ -0,0 +1,21 @@
+package hurricane.core.collections;
+
+/**
+ * A multimap that is updated in place, obtained through {@link Multimap#asTransient()}.
+ *
+ * <p>A transient must not be shared between threads and can no longer be used once
+ * {@link #persistent()} has been called.</p>
+ *
+ * @param <K>
+ * @param <V>
+ */
+public interface TransientMultimap<K, V> extends BaseDict<K, V, TransientMultimap<K, V>> {
+  boolean contains(K key, V value);
+  TransientMultimap<K, V> put(K key, V value);
+  TransientMultimap<K, V> delete(K key, V value);
+
+  /**
+   * Ends the transient, returning a persistent multimap with its current contents.
+   */
+  Multimap<K, V> persistent();
+}
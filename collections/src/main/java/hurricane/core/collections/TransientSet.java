@@ -0,0 +1,21 @@
+package hurricane.core.collections;
+
+/**
+ * A set that is updated in place, obtained through {@link PersistentSet#asTransient()}.
+ *
+ * <p>Elements created by the transient are owned by it and are mutated rather than copied by
+ * subsequent updates. A transient must not be shared between threads and can no longer be used
+ * once {@link #persistent()} has been called.</p>
+ *
+ * @param <V>
+ */
+public interface TransientSet<V> extends BaseSet<V, TransientSet<V>> {
+  boolean contains(V value);
+  TransientSet<V> add(V value);
+  TransientSet<V> delete(V value);
+
+  /**
+   * Ends the transient, returning a persistent set with its current contents.
+   */
+  PersistentSet<V> persistent();
+}
@@ -0,0 +1,27 @@
+package hurricane.core.collections;
+
+/**
+ * A vector that is updated in place, obtained through {@link PersistentVector#asTransient()}.
+ *
+ * <p>Appends fill a buffer that is added to the tree once it is full, and nodes created by the
+ * transient are mutated rather than copied by subsequent updates. A transient must not be shared
+ * between threads and can no longer be used once {@link #persistent()} has been called.</p>
+ *
+ * @param <V>
+ */
+public interface TransientVector<V> {
+  int getSize();
+
+  default boolean isEmpty() {
+    return getSize() == 0;
+  }
+
+  V get(int index);
+  TransientVector<V> set(int index, V value);
+  TransientVector<V> append(V value);
+
+  /**
+   * Ends the transient, returning a persistent vector with its current contents.
+   */
+  PersistentVector<V> persistent();
+}
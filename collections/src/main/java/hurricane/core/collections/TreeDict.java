@@ -1,9 +1,18 @@
 package hurricane.core.collections;
 
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Spliterator;
+import java.util.function.Function;
 import java.util.function.ToIntFunction;
+import java.util.stream.Collector;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * A dictionary implemented as a weight balanced tree.
@@ -13,7 +22,11 @@ import java.util.function.ToIntFunction;
  * @param <K>
  * @param <V>
  */
-public final class TreeDict<K, V> extends TreeDictBase<V, TreeDict<K, V>> implements Dict<K, V> {
+public final class TreeDict<K, V> extends TreeDictBase<V, TreeDict<K, V>> implements
+    SortedDict<K, V> {
+
+  private static final int CHARACTERISTICS = Spliterator.IMMUTABLE | Spliterator.ORDERED
+      | Spliterator.NONNULL | Spliterator.DISTINCT | Spliterator.SORTED;
 
   private final Comparator<K> comparator;
   private final Element<K, V> root;
@@ -34,9 +47,29 @@ public final class TreeDict<K, V> extends TreeDictBase<V, TreeDict<K, V>> implem
     );
   }
 
+  static <T, K, V> Collector<T, ?, SortedDict<K, V>> collector(final Comparator<K> comparator,
+      final Function<? super T, ? extends K> keyMapper,
+      final Function<? super T, ? extends V> valueMapper) {
+    Objects.requireNonNull(comparator, "comparator cannot be null");
+    Objects.requireNonNull(keyMapper, "keyMapper cannot be null");
+    Objects.requireNonNull(valueMapper, "valueMapper cannot be null");
+
+    return Collector.<T, List<Leaf<K, V>>, SortedDict<K, V>>of(
+        ArrayList::new,
+        (list, item) -> list.add(new Leaf<>(
+            Objects.requireNonNull(keyMapper.apply(item), "key cannot be null"),
+            Objects.requireNonNull(valueMapper.apply(item), "value cannot be null"))),
+        (a, b) -> {
+          a.addAll(b);
+          return a;
+        },
+        leaves -> new TreeDict<>(comparator, build(comparator, leaves))
+    );
+  }
+
   @Override
   public Optional<V> lookup(final K key) {
-    return root.doGet(makeComparator(key));
+    return root.doGet(makeComparator(comparator, key));
   }
 
   @Override
@@ -45,23 +78,98 @@ public final class TreeDict<K, V> extends TreeDictBase<V, TreeDict<K, V>> implem
   }
 
   @Override
-  public Dict<K, V> put(final K key, final V value) {
+  public SortedDict<K, V> put(final K key, final V value) {
     Objects.requireNonNull(key, "key cannot be null");
     Objects.requireNonNull(value, "value cannot be null");
 
-    return replaceRoot(root.doInsert(
-        makeComparator(key),
-        val -> new Leaf<>(key, val),
-        value));
+    return replaceRoot(insert(null, comparator, root, key, value));
   }
 
   @Override
-  public Dict<K, V> delete(final K key) {
+  public SortedDict<K, V> delete(final K key) {
     if (key == null) {
       return this;
     }
 
-    return replaceRoot(root.doDelete(makeComparator(key)));
+    return replaceRoot(root.doDelete(null, makeComparator(comparator, key)));
+  }
+
+  /**
+   * Sorts the entries and merges them into this dictionary with a single union, which copies
+   * every touched node once instead of once per entry.
+   */
+  @Override
+  public SortedDict<K, V> putAll(final Map<? extends K, ? extends V> entries) {
+    Objects.requireNonNull(entries, "entries cannot be null");
+
+    if (entries.isEmpty()) {
+      return this;
+    }
+
+    final List<Leaf<K, V>> leaves = new ArrayList<>(entries.size());
+    entries.forEach((key, value) -> leaves.add(new Leaf<>(
+        Objects.requireNonNull(key, "key cannot be null"),
+        Objects.requireNonNull(value, "value cannot be null"))));
+
+    return replaceRoot(union(elementOrder(), root, build(comparator, leaves)));
+  }
+
+  @Override
+  public SortedDict<K, V> deleteAll(final Iterable<? extends K> keys) {
+    Objects.requireNonNull(keys, "keys cannot be null");
+
+    final List<Leaf<K, V>> leaves = new ArrayList<>();
+    for (final K key : keys) {
+      if (key != null) {
+        leaves.add(new Leaf<>(key, null));
+      }
+    }
+
+    return leaves.isEmpty()
+        ? this
+        : replaceRoot(difference(elementOrder(), root, build(comparator, leaves)));
+  }
+
+  @Override
+  public SortedDict<K, V> union(final Dict<K, V> other) {
+    return replaceRoot(union(elementOrder(), root, elementsOf(other)));
+  }
+
+  @Override
+  public SortedDict<K, V> intersection(final Dict<K, ?> other) {
+    return replaceRoot(intersection(elementOrder(), root, elementsOf(other)));
+  }
+
+  @Override
+  public SortedDict<K, V> difference(final Dict<K, ?> other) {
+    return replaceRoot(difference(elementOrder(), root, elementsOf(other)));
+  }
+
+  /**
+   * Returns the changes that turn this dictionary into the other dictionary in ascending key
+   * order. When the other dictionary is a version of this dictionary, subtrees that both share are
+   * skipped, so this takes time proportional to the changes between them.
+   */
+  @Override
+  public Stream<DictChange<K, V>> diff(final Dict<K, V> other) {
+    final List<DictChange<K, V>> changes = new ArrayList<>();
+
+    diff(elementOrder(), root, elementsOf(other), (a, b) -> {
+      if (a == null) {
+        changes.add(DictChange.added(b.getKey(), b.getValue()));
+      } else if (b == null) {
+        changes.add(DictChange.removed(a.getKey(), a.getValue()));
+      } else if (!a.getValue().equals(b.getValue())) {
+        changes.add(DictChange.changed(b.getKey(), a.getValue(), b.getValue()));
+      }
+    });
+
+    return changes.stream();
+  }
+
+  @Override
+  public TransientDict<K, V> asTransient() {
+    return new Transient<>(comparator, root);
   }
 
   @Override
@@ -79,16 +187,243 @@ public final class TreeDict<K, V> extends TreeDictBase<V, TreeDict<K, V>> implem
     return comparator;
   }
 
-  private Dict<K, V> replaceRoot(final Element<K, V> newRoot) {
+  @Override
+  public Stream<Map.Entry<K, V>> entries() {
+    return StreamSupport.stream(new ElementSpliterator<>(
+        root,
+        TreeDict::toEntry,
+        Map.Entry.comparingByKey(comparator),
+        CHARACTERISTICS
+    ), false);
+  }
+
+  @Override
+  public Stream<Map.Entry<K, V>> entries(final K from) {
+    return StreamSupport.stream(new ElementSpliterator<>(
+        root,
+        makeComparator(comparator, Objects.requireNonNull(from, "from cannot be null")),
+        TreeDict::toEntry,
+        Map.Entry.comparingByKey(comparator),
+        CHARACTERISTICS
+    ), false);
+  }
+
+  @Override
+  public Optional<K> floorKey(final K key) {
+    return keyOf(root.doFloor(makeComparator(comparator, key), true));
+  }
+
+  @Override
+  public Optional<K> ceilingKey(final K key) {
+    return keyOf(root.doCeiling(makeComparator(comparator, key), true));
+  }
+
+  @Override
+  public Optional<K> lowerKey(final K key) {
+    return keyOf(root.doFloor(makeComparator(comparator, key), false));
+  }
+
+  @Override
+  public Optional<K> higherKey(final K key) {
+    return keyOf(root.doCeiling(makeComparator(comparator, key), false));
+  }
+
+  @Override
+  public SortedDict<K, V> subDict(final K from, final K to) {
+    if (comparator.compare(from, to) > 0) {
+      throw new IllegalArgumentException("from cannot be greater than to");
+    }
+
+    return replaceRoot(range(
+        root,
+        makeComparator(comparator, from),
+        makeComparator(comparator, to)
+    ));
+  }
+
+  @Override
+  public SortedDict<K, V> headDict(final K to) {
+    return replaceRoot(range(root, null, makeComparator(comparator, to)));
+  }
+
+  @Override
+  public SortedDict<K, V> tailDict(final K from) {
+    return replaceRoot(range(root, makeComparator(comparator, from), null));
+  }
+
+  @Override
+  public int indexOf(final K key) {
+    return root.doIndexOf(makeComparator(comparator, key));
+  }
+
+  @Override
+  public K keyAt(final int index) {
+    return root.doSelect(index).getKey();
+  }
+
+  @Override
+  public V valueAt(final int index) {
+    return root.doSelect(index).getValue();
+  }
+
+  @Override
+  public int count(final K from, final K to) {
+    if (comparator.compare(from, to) > 0) {
+      throw new IllegalArgumentException("from cannot be greater than to");
+    }
+
+    return root.doRank(makeComparator(comparator, to))
+        - root.doRank(makeComparator(comparator, from));
+  }
+
+  private static <K, V> Map.Entry<K, V> toEntry(final Element<K, V> element) {
+    return new SimpleImmutableEntry<>(element.getKey(), element.getValue());
+  }
+
+  private static <K> Optional<K> keyOf(final Element<K, ?> element) {
+    return element == null ? Optional.empty() : Optional.of(element.getKey());
+  }
+
+  private SortedDict<K, V> replaceRoot(final Element<K, V> newRoot) {
     return newRoot == root
         ? this
         : new TreeDict<>(comparator, newRoot);
   }
 
-  private ToIntFunction<Element<K, V>> makeComparator(final K key) {
+  private Comparator<Element<K, V>> elementOrder() {
+    return (a, b) -> comparator.compare(a.getKey(), b.getKey());
+  }
+
+  /**
+   * Returns the elements of another dictionary, ordered by the comparator of this dictionary.
+   * The values of the other dictionary may be of another type: intersections and differences only
+   * ever keep elements of this dictionary.
+   */
+  @SuppressWarnings("unchecked")
+  private Element<K, V> elementsOf(final Dict<K, ?> other) {
+    Objects.requireNonNull(other, "other cannot be null");
+
+    final List<Leaf<K, V>> leaves = new ArrayList<>(other.getSize());
+
+    if (other instanceof TreeDict<?, ?>) {
+      final TreeDict<K, V> tree = (TreeDict<K, V>) other;
+
+      if (comparator.equals(tree.comparator)) {
+        return tree.root;
+      }
+
+      collectLeaves(tree.root, leaves);
+    } else {
+      ((Dict<K, V>) other).entries()
+          .forEach(entry -> leaves.add(new Leaf<>(entry.getKey(), entry.getValue())));
+    }
+
+    return build(comparator, leaves);
+  }
+
+  /**
+   * Sorts the leaves by key, keeping the last of equal keys, and builds a balanced tree out of
+   * them in linear time.
+   */
+  private static <K, V> Element<K, V> build(final Comparator<K> comparator,
+      final List<Leaf<K, V>> leaves) {
+    sortDistinct(leaves, (a, b) -> comparator.compare(a.getKey(), b.getKey()));
+
+    return buildBalanced(
+        0,
+        leaves.size(),
+        Element.<K, V>empty(),
+        (index, left, right) -> leaves.get(index).updateChildren(left, right)
+    );
+  }
+
+  private static <K, V> void collectLeaves(final Element<K, V> element,
+      final List<Leaf<K, V>> leaves) {
+    if (element.isEmpty()) {
+      return;
+    }
+
+    collectLeaves(element.getLeft(), leaves);
+    leaves.add(new Leaf<>(element.getKey(), element.getValue()));
+    collectLeaves(element.getRight(), leaves);
+  }
+
+  private static <K, V> Element<K, V> insert(final Object edit, final Comparator<K> comparator,
+      final Element<K, V> root, final K key, final V value) {
+    return root.doInsert(
+        edit,
+        makeComparator(comparator, key),
+        val -> new Leaf<>(key, val),
+        value);
+  }
+
+  private static <K, V> ToIntFunction<Element<K, V>> makeComparator(
+      final Comparator<K> comparator, final K key) {
     return node -> comparator.compare(key, node.getKey());
   }
 
+  private static final class Transient<K, V> implements TransientDict<K, V> {
+
+    private final Comparator<K> comparator;
+    private Element<K, V> root;
+    private Object edit = new Object();
+
+    private Transient(final Comparator<K> comparator, final Element<K, V> root) {
+      this.comparator = comparator;
+      this.root = root;
+    }
+
+    @Override
+    public Optional<V> lookup(final K key) {
+      ensureEditable();
+      return root.doGet(makeComparator(comparator, key));
+    }
+
+    @Override
+    public boolean containsKey(final K key) {
+      return lookup(key).isPresent();
+    }
+
+    @Override
+    public TransientDict<K, V> put(final K key, final V value) {
+      Objects.requireNonNull(key, "key cannot be null");
+      Objects.requireNonNull(value, "value cannot be null");
+      ensureEditable();
+
+      root = insert(edit, comparator, root, key, value);
+      return this;
+    }
+
+    @Override
+    public TransientDict<K, V> delete(final K key) {
+      ensureEditable();
+
+      if (key != null) {
+        root = root.doDelete(edit, makeComparator(comparator, key));
+      }
+      return this;
+    }
+
+    @Override
+    public int getSize() {
+      ensureEditable();
+      return root.getSize();
+    }
+
+    @Override
+    public Dict<K, V> persistent() {
+      ensureEditable();
+      edit = null;
+      return new TreeDict<>(comparator, root);
+    }
+
+    private void ensureEditable() {
+      if (edit == null) {
+        throw new IllegalStateException("Transient used after call to persistent()");
+      }
+    }
+  }
+
   static abstract class Element<K, V> extends TreeDictBase.Element<V, Element<K, V>> {
 
     abstract K getKey();
@@ -119,7 +454,7 @@ public final class TreeDict<K, V> extends TreeDictBase<V, TreeDict<K, V>> implem
     }
 
     @Override
-    Element<K, V> updateValue(final V newValue) {
+    Element<K, V> updateValue(final Object edit, final V newValue) {
       throw new UnsupportedOperationException();
     }
 
@@ -144,7 +479,8 @@ public final class TreeDict<K, V> extends TreeDictBase<V, TreeDict<K, V>> implem
     }
 
     @Override
-    Element<K, V> updateChildren(final Element<K, V> newLeft, final Element<K, V> newRight) {
+    Element<K, V> updateChildren(final Object edit, final Element<K, V> newLeft,
+        final Element<K, V> newRight) {
       if (newLeft != value() || newRight != value()) {
         throw new IllegalArgumentException(
             "Empty node children can only be updated to empty nodes");
@@ -169,7 +505,7 @@ public final class TreeDict<K, V> extends TreeDictBase<V, TreeDict<K, V>> implem
     }
 
     @Override
-    Element<K, V> updateValue(V newValue) {
+    Element<K, V> updateValue(final Object edit, final V newValue) {
       return new Leaf<>(key, newValue);
     }
 
@@ -199,12 +535,13 @@ public final class TreeDict<K, V> extends TreeDictBase<V, TreeDict<K, V>> implem
     }
 
     @Override
-    Element<K, V> updateChildren(final Element<K, V> newLeft, final Element<K, V> newRight) {
+    Element<K, V> updateChildren(final Object edit, final Element<K, V> newLeft,
+        final Element<K, V> newRight) {
       if (newLeft.isEmpty() && newRight.isEmpty()) {
         return this;
       }
 
-      return new Node<>(key, value, newLeft, newRight);
+      return new Node<>(edit, key, value, newLeft, newRight);
     }
 
     @Override
@@ -214,13 +551,20 @@ public final class TreeDict<K, V> extends TreeDictBase<V, TreeDict<K, V>> implem
   }
 
   final static class Node<K, V> extends Element<K, V> {
+    private final Object edit;
     private final K key;
-    private final V value;
-    private final Element<K, V> left;
-    private final Element<K, V> right;
-    private final int size;
+    private V value;
+    private Element<K, V> left;
+    private Element<K, V> right;
+    private int size;
 
     Node(final K key, final V value, final Element<K, V> left, final Element<K, V> right) {
+      this(null, key, value, left, right);
+    }
+
+    Node(final Object edit, final K key, final V value, final Element<K, V> left,
+        final Element<K, V> right) {
+      this.edit = edit;
       this.key = key;
       this.value = value;
       this.left = left;
@@ -229,8 +573,13 @@ public final class TreeDict<K, V> extends TreeDictBase<V, TreeDict<K, V>> implem
     }
 
     @Override
-    Element<K, V> updateValue(V newValue) {
-      return new Node<>(key, newValue, left, right);
+    Element<K, V> updateValue(final Object edit, final V newValue) {
+      if (edit != null && edit == this.edit) {
+        this.value = newValue;
+        return this;
+      }
+
+      return new Node<>(edit, key, newValue, left, right);
     }
 
     @Override
@@ -259,10 +608,18 @@ public final class TreeDict<K, V> extends TreeDictBase<V, TreeDict<K, V>> implem
     }
 
     @Override
-    Element<K, V> updateChildren(Element<K, V> newLeft, Element<K, V> newRight) {
+    Element<K, V> updateChildren(final Object edit, final Element<K, V> newLeft,
+        final Element<K, V> newRight) {
+      if (edit != null && edit == this.edit) {
+        this.left = newLeft;
+        this.right = newRight;
+        this.size = newLeft.getSize() + newRight.getSize() + 1;
+        return this;
+      }
+
       return newLeft.isEmpty() && newRight.isEmpty()
           ? new Leaf<>(key, value)
-          : new Node<>(key, value, newLeft, newRight);
+          : new Node<>(edit, key, value, newLeft, newRight);
     }
 
     @Override
@@ -1,11 +1,742 @@
 package hurricane.core.collections;
 
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Spliterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.BiConsumer;
+import java.util.function.BiPredicate;
+import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.ToIntFunction;
 
 public abstract class TreeDictBase<V, T extends TreeDictBase<V, T>> {
 
+  /**
+   * Set operations on subtrees with more elements than this are forked onto the fork join pool.
+   */
+  static final int PARALLEL_THRESHOLD = 4096;
+
+  /**
+   * Builds a perfectly balanced tree out of the range [from, to) of a sorted sequence of
+   * distinct elements. Every element is created exactly once by the factory, which makes bulk
+   * loading O(n) instead of the O(n log n) path copying of repeated inserts.
+   */
+  static <T extends Element<?, T>> T buildBalanced(final int from, final int to, final T empty,
+      final ElementFactory<T> factory) {
+    if (from >= to) {
+      return empty;
+    }
+
+    final int mid = (from + to) >>> 1;
+
+    return factory.create(
+        mid,
+        buildBalanced(from, mid, empty, factory),
+        buildBalanced(mid + 1, to, empty, factory)
+    );
+  }
+
+  /**
+   * Sorts the items and removes duplicates, keeping the last of each run of equal items so that
+   * the outcome matches inserting the items one by one. The sort is stable and detects input
+   * that is already sorted in a single pass.
+   */
+  static <E> void sortDistinct(final List<E> items, final Comparator<? super E> order) {
+    items.sort(order);
+    removeDuplicates(items, order);
+  }
+
+  /**
+   * Verifies that the items are sorted in ascending order and removes duplicates, keeping the
+   * last of each run of equal items.
+   *
+   * @throws IllegalArgumentException if the items are not sorted.
+   */
+  static <E> void requireSortedDistinct(final List<E> items, final Comparator<? super E> order) {
+    for (int i = 1; i < items.size(); ++ i) {
+      if (order.compare(items.get(i - 1), items.get(i)) > 0) {
+        throw new IllegalArgumentException(
+            "values must be sorted in ascending order, found element out of order at index " + i);
+      }
+    }
+
+    removeDuplicates(items, order);
+  }
+
+  private static <E> void removeDuplicates(final List<E> items, final Comparator<? super E> order) {
+    final int size = items.size();
+    int length = 0;
+
+    for (int i = 0; i < size; ++ i) {
+      if (i + 1 < size && order.compare(items.get(i), items.get(i + 1)) == 0) {
+        continue;
+      }
+
+      items.set(length ++, items.get(i));
+    }
+
+    items.subList(length, size).clear();
+  }
+
+  /**
+   * Joins two trees and an element that sorts after all elements of the left tree and before all
+   * elements of the right tree. Descends along the spine of the heavier tree until a subtree is
+   * found that balances with the lighter tree, and rebalances on the way up. Takes time
+   * logarithmic in the ratio of the tree sizes.
+   */
+  static <T extends Element<?, T>> T join(final T left, final T middle, final T right) {
+    final float balance = left.getWeight() / (left.getWeight() + right.getWeight());
+
+    if (balance > 0.707011) {
+      return left
+          .updateChildren(left.getLeft(), join(left.getRight(), middle, right))
+          .applyRotations(null);
+    } else if (balance < 0.292893) {
+      return right
+          .updateChildren(join(left, middle, right.getLeft()), right.getRight())
+          .applyRotations(null);
+    }
+
+    // Keep the middle element when its children didn't change:
+    return middle.getLeft() == left && middle.getRight() == right
+        ? middle
+        : middle.updateChildren(left, right);
+  }
+
+  /**
+   * Joins two trees where all elements of the left tree sort before those of the right tree.
+   */
+  static <T extends Element<?, T>> T join(final T left, final T right) {
+    if (left.isEmpty()) {
+      return right;
+    } else if (right.isEmpty()) {
+      return left;
+    }
+
+    return join(left.removeLast(null), left.getLast(), right);
+  }
+
+  /**
+   * Splits a tree into the elements that sort before and after a key, and the element of the tree
+   * that is equal to the key if it exists. The comparator compares the key to an element.
+   */
+  static <T extends Element<?, T>> Split<T> split(final T tree,
+      final ToIntFunction<T> comparator) {
+    if (tree.isEmpty()) {
+      return new Split<>(tree, null, tree);
+    }
+
+    final int compare = comparator.applyAsInt(tree);
+
+    if (compare == 0) {
+      return new Split<>(tree.getLeft(), tree, tree.getRight());
+    } else if (compare < 0) {
+      final Split<T> split = split(tree.getLeft(), comparator);
+      return new Split<>(split.left, split.found, join(split.right, tree, tree.getRight()));
+    } else {
+      final Split<T> split = split(tree.getRight(), comparator);
+      return new Split<>(join(tree.getLeft(), tree, split.left), split.found, split.right);
+    }
+  }
+
+  /**
+   * Returns the elements of a tree that are greater than or equal to the key, and smaller than
+   * the upper key, or all elements greater than or equal to the key if the upper key is omitted.
+   * Takes logarithmic time.
+   */
+  static <T extends Element<?, T>> T range(final T tree, final ToIntFunction<T> from,
+      final ToIntFunction<T> to) {
+    final T tail;
+
+    if (from == null) {
+      tail = tree;
+    } else {
+      final Split<T> split = split(tree, from);
+      tail = split.found == null
+          ? split.right
+          : join(emptyOf(tree), split.found, split.right);
+    }
+
+    return to == null ? tail : split(tail, to).left;
+  }
+
+  static <T extends Element<?, T>> T union(final Comparator<? super T> order, final T a,
+      final T b) {
+    return SetOperation.apply(SetOperation.Kind.UNION, order, a, b);
+  }
+
+  static <T extends Element<?, T>> T intersection(final Comparator<? super T> order, final T a,
+      final T b) {
+    return SetOperation.apply(SetOperation.Kind.INTERSECTION, order, a, b);
+  }
+
+  static <T extends Element<?, T>> T difference(final Comparator<? super T> order, final T a,
+      final T b) {
+    return SetOperation.apply(SetOperation.Kind.DIFFERENCE, order, a, b);
+  }
+
+  /**
+   * Reports the differences between an old and a new tree in order: elements that are only in the
+   * old tree as (old, null), elements that are only in the new tree as (null, new) and elements
+   * with equal keys in both trees as (old, new), unless they are in a subtree that both trees
+   * share. The new tree is split by the root of the old tree and both halves are compared
+   * recursively, so shared subtrees are pruned without visiting them and comparing two versions
+   * of a tree takes time proportional to the changes between them.
+   */
+  static <T extends Element<?, T>> void diff(final Comparator<? super T> order, final T a,
+      final T b, final BiConsumer<? super T, ? super T> consumer) {
+    if (a == b) {
+      return;
+    } else if (a.isEmpty()) {
+      forEachElement(b, element -> consumer.accept(null, element));
+      return;
+    } else if (b.isEmpty()) {
+      forEachElement(a, element -> consumer.accept(element, null));
+      return;
+    }
+
+    final Split<T> split = split(b, node -> order.compare(a, node));
+
+    diff(order, a.getLeft(), split.left, consumer);
+    consumer.accept(a, split.found);
+    diff(order, a.getRight(), split.right, consumer);
+  }
+
+  /**
+   * Visits the elements of a tree in order.
+   */
+  static <T extends Element<?, T>> void forEachElement(final T tree,
+      final Consumer<? super T> consumer) {
+    if (tree.isEmpty()) {
+      return;
+    }
+
+    forEachElement(tree.getLeft(), consumer);
+    consumer.accept(tree);
+    forEachElement(tree.getRight(), consumer);
+  }
+
+  /**
+   * Returns the empty element of the type of the tree.
+   */
+  static <T extends Element<?, T>> T emptyOf(final T tree) {
+    T current = tree;
+    while (!current.isEmpty()) {
+      current = current.getLeft();
+    }
+    return current;
+  }
+
+  /**
+   * Returns whether two trees of the same type contain pairwise equal elements in the same order.
+   * Subtrees that both trees share at the same position are skipped without visiting them, and
+   * subtrees at the same position with different cached hashes are rejected, so comparing two
+   * versions of a tree takes time proportional to the changes between them rather than to their
+   * size.
+   */
+  static <T extends Element<?, T>> boolean equalElements(final T a, final T b,
+      final BiPredicate<? super T, ? super T> equal) {
+    return a.getSize() == b.getSize() && equalElements(a, 0, b, 0, equal);
+  }
+
+  /**
+   * Compares the elements at the positions covered by both subtrees, given the position of the
+   * first element of each subtree. Splits the larger subtree at its root and looks up the element
+   * at the position of the root in the smaller one.
+   */
+  private static <T extends Element<?, T>> boolean equalElements(final T a, final int offsetA,
+      final T b, final int offsetB, final BiPredicate<? super T, ? super T> equal) {
+    final int from = Math.max(offsetA, offsetB);
+    final int to = Math.min(offsetA + a.getSize(), offsetB + b.getSize());
+
+    if (from >= to) {
+      return true;
+    }
+
+    if (offsetA == offsetB && a.getSize() == b.getSize()) {
+      if (a == b) {
+        return true;
+      }
+
+      final int hashA = a.getCachedHash();
+      final int hashB = b.getCachedHash();
+
+      if (hashA != 0 && hashB != 0 && hashA != hashB) {
+        return false;
+      }
+    }
+
+    final boolean splitA = a.getSize() >= b.getSize();
+    final T larger = splitA ? a : b;
+    final T smaller = splitA ? b : a;
+    final int offsetLarger = splitA ? offsetA : offsetB;
+    final int offsetSmaller = splitA ? offsetB : offsetA;
+    final int position = offsetLarger + larger.getLeft().getSize();
+
+    if (!equalElements(larger.getLeft(), offsetLarger, smaller, offsetSmaller, equal)) {
+      return false;
+    }
+
+    if (position >= from && position < to
+        && !equal.test(larger, smaller.doSelect(position - offsetSmaller))) {
+      return false;
+    }
+
+    return equalElements(larger.getRight(), position + 1, smaller, offsetSmaller, equal);
+  }
+
+  /**
+   * Returns the sum of h(e_i) * 31^(n - 1 - i) over the elements e_0 ... e_n-1 of the tree in
+   * order, where h is the given element hash. This is the list hash code without its leading
+   * 31^n term. Subtree hashes are cached by the elements that support it, so after a change only
+   * the hashes on the changed paths are recomputed.
+   */
+  static <T extends Element<?, T>> int orderedHash(final T tree,
+      final ToIntFunction<? super T> elementHash) {
+    if (tree.isEmpty()) {
+      return 0;
+    }
+
+    final int cached = tree.getCachedHash();
+    if (cached != 0) {
+      return cached;
+    }
+
+    final T left = tree.getLeft();
+    final T right = tree.getRight();
+    final int hash = (orderedHash(left, elementHash) * 31 + elementHash.applyAsInt(tree))
+        * power31(right.getSize()) + orderedHash(right, elementHash);
+
+    tree.setCachedHash(hash);
+    return hash;
+  }
+
+  /**
+   * Returns 31 raised to the given power, with the overflow of int arithmetic.
+   */
+  static int power31(final int exponent) {
+    int result = 1;
+    int base = 31;
+
+    for (int remaining = exponent; remaining != 0; remaining >>>= 1) {
+      if ((remaining & 1) != 0) {
+        result *= base;
+      }
+      base *= base;
+    }
+
+    return result;
+  }
+
+  static final class Split<T> {
+    final T left;
+    final T found;
+    final T right;
+
+    Split(final T left, final T found, final T right) {
+      this.left = left;
+      this.found = found;
+      this.right = right;
+    }
+  }
+
+  /**
+   * Union, intersection and difference of two trees, implemented by splitting one tree by the
+   * root of the other, recursing into both halves and joining the results (Blelloch, Ferizovic
+   * and Sun, "Just Join for Parallel Ordered Sets"). Takes O(m log(n / m + 1)) time for trees of
+   * sizes m &lt;= n. Both halves are processed in parallel when they are large enough. Where
+   * both trees contain an equal element, a union keeps the element of the second tree and an
+   * intersection keeps the element of the first tree.
+   */
+  private static final class SetOperation<T extends Element<?, T>> extends RecursiveTask<T> {
+    private static final long serialVersionUID = 1L;
+
+    enum Kind {
+      UNION, INTERSECTION, DIFFERENCE
+    }
+
+    private final Kind kind;
+    private final Comparator<? super T> order;
+    private final T a;
+    private final T b;
+
+    private SetOperation(final Kind kind, final Comparator<? super T> order, final T a,
+        final T b) {
+      this.kind = kind;
+      this.order = order;
+      this.a = a;
+      this.b = b;
+    }
+
+    static <T extends Element<?, T>> T apply(final Kind kind, final Comparator<? super T> order,
+        final T a, final T b) {
+      final SetOperation<T> operation = new SetOperation<>(kind, order, a, b);
+
+      return isParallel(a, b)
+          ? ForkJoinPool.commonPool().invoke(operation)
+          : operation.apply(a, b);
+    }
+
+    private static boolean isParallel(final Element<?, ?> a, final Element<?, ?> b) {
+      return a.getSize() + b.getSize() > PARALLEL_THRESHOLD;
+    }
+
+    @Override
+    protected T compute() {
+      return apply(a, b);
+    }
+
+    private T apply(final T a, final T b) {
+      if (a == b) {
+        return kind == Kind.DIFFERENCE ? emptyOf(a) : a;
+      } else if (a.isEmpty()) {
+        return kind == Kind.UNION ? b : a;
+      } else if (b.isEmpty()) {
+        return kind == Kind.INTERSECTION ? b : a;
+      }
+
+      // A difference splits the first tree by the root of the second, the other operations split
+      // the second tree by the root of the first:
+      final boolean difference = kind == Kind.DIFFERENCE;
+      final T pivot = difference ? b : a;
+      final Split<T> split = split(difference ? a : b, node -> order.compare(pivot, node));
+
+      final T leftA = difference ? split.left : pivot.getLeft();
+      final T leftB = difference ? pivot.getLeft() : split.left;
+      final T rightA = difference ? split.right : pivot.getRight();
+      final T rightB = difference ? pivot.getRight() : split.right;
+
+      final T left;
+      final T right;
+
+      if (isParallel(leftA, leftB) && isParallel(rightA, rightB)) {
+        final SetOperation<T> leftOperation = new SetOperation<>(kind, order, leftA, leftB);
+        leftOperation.fork();
+        right = apply(rightA, rightB);
+        left = leftOperation.join();
+      } else {
+        left = apply(leftA, leftB);
+        right = apply(rightA, rightB);
+      }
+
+      switch (kind) {
+        case UNION:
+          return TreeDictBase.join(left, split.found != null ? split.found : pivot, right);
+        case INTERSECTION:
+          return split.found != null
+              ? TreeDictBase.join(left, pivot, right)
+              : TreeDictBase.join(left, right);
+        default:
+          return TreeDictBase.join(left, right);
+      }
+    }
+  }
+
+  /**
+   * An in-order spliterator over the elements of a tree.
+   *
+   * <p>The remaining elements are kept as an array-backed stack of entries, in order from the top
+   * of the stack to the bottom. An entry is either a whole subtree that hasn't been visited yet,
+   * or a single element whose left subtree has already been visited. Because subtrees know their
+   * size the spliterator is SIZED and SUBSIZED, and it splits by handing off every entry except
+   * the bottom one after expanding the bottom entry until it holds at most half of the remaining
+   * elements.</p>
+   */
+  static final class ElementSpliterator<T extends Element<?, T>, R> implements Spliterator<R> {
+
+    private final Function<? super T, ? extends R> mapper;
+    private final Comparator<? super R> comparator;
+    private final int characteristics;
+    private Object[] elements;
+    private boolean[] single;
+    private int depth;
+    private long size;
+
+    ElementSpliterator(final T root, final Function<? super T, ? extends R> mapper,
+        final Comparator<? super R> comparator, final int characteristics) {
+      this(mapper, comparator, characteristics, new Object[16], new boolean[16], 0,
+          root.getSize());
+      pushSubtree(root);
+    }
+
+    /**
+     * Creates a spliterator over the elements that are greater than or equal to a key, by
+     * descending to the key and pushing the parts of the path that sort after it. Elements that
+     * are pushed later sort before those that were pushed earlier, so the stack is in order.
+     */
+    ElementSpliterator(final T root, final ToIntFunction<T> from,
+        final Function<? super T, ? extends R> mapper, final Comparator<? super R> comparator,
+        final int characteristics) {
+      this(mapper, comparator, characteristics, new Object[16], new boolean[16], 0, 0);
+
+      T current = root;
+      while (!current.isEmpty()) {
+        final int compare = from.applyAsInt(current);
+
+        if (compare > 0) {
+          current = current.getRight();
+          continue;
+        }
+
+        pushSubtree(current.getRight());
+        push(current, true);
+        size += current.getRight().getSize() + 1;
+
+        if (compare == 0) {
+          break;
+        }
+        current = current.getLeft();
+      }
+    }
+
+    private ElementSpliterator(final Function<? super T, ? extends R> mapper,
+        final Comparator<? super R> comparator, final int characteristics,
+        final Object[] elements, final boolean[] single, final int depth, final long size) {
+      this.mapper = mapper;
+      this.comparator = comparator;
+      this.characteristics = characteristics | SIZED | SUBSIZED;
+      this.elements = elements;
+      this.single = single;
+      this.depth = depth;
+      this.size = size;
+    }
+
+    @Override
+    public boolean tryAdvance(final Consumer<? super R> consumer) {
+      Objects.requireNonNull(consumer, "consumer cannot be null");
+
+      while (depth > 0) {
+        final T element = pop();
+
+        if (single[depth] || (element.getLeft().isEmpty() && element.getRight().isEmpty())) {
+          -- size;
+          consumer.accept(mapper.apply(element));
+          return true;
+        }
+
+        // Expand the subtree, so that the left subtree ends up on top of the stack:
+        pushSubtree(element.getRight());
+        push(element, true);
+        pushSubtree(element.getLeft());
+      }
+
+      return false;
+    }
+
+    @Override
+    public void forEachRemaining(final Consumer<? super R> consumer) {
+      Objects.requireNonNull(consumer, "consumer cannot be null");
+
+      while (depth > 0) {
+        final T element = pop();
+
+        if (single[depth]) {
+          consumer.accept(mapper.apply(element));
+        } else {
+          forEach(element, consumer);
+        }
+      }
+
+      size = 0;
+    }
+
+    private void forEach(final T element, final Consumer<? super R> consumer) {
+      if (element.isEmpty()) {
+        return;
+      }
+
+      forEach(element.getLeft(), consumer);
+      consumer.accept(mapper.apply(element));
+      forEach(element.getRight(), consumer);
+    }
+
+    @Override
+    public Spliterator<R> trySplit() {
+      // Expand the bottom entry until it holds no more than half of the remaining elements:
+      while (depth > 0 && !single[0] && (depth == 1 || entrySize(0) * 2 > size)) {
+        final T bottom = element(0);
+
+        // Make room for the (at most) three entries that replace the bottom entry:
+        ensureCapacity(depth + 2);
+        System.arraycopy(elements, 1, elements, 3, depth - 1);
+        System.arraycopy(single, 1, single, 3, depth - 1);
+
+        // Fill the room from the bottom up, then remove the entries that remained empty:
+        int index = 0;
+        if (!bottom.getRight().isEmpty()) {
+          setEntry(index ++, bottom.getRight(), false);
+        }
+        setEntry(index ++, bottom, true);
+        if (!bottom.getLeft().isEmpty()) {
+          setEntry(index ++, bottom.getLeft(), false);
+        }
+
+        if (index < 3) {
+          System.arraycopy(elements, 3, elements, index, depth - 1);
+          System.arraycopy(single, 3, single, index, depth - 1);
+        }
+        depth += index - 1;
+      }
+
+      if (depth < 2) {
+        return null;
+      }
+
+      // Hand off everything but the bottom entry, which contains the last elements:
+      final long bottomSize = entrySize(0);
+      final ElementSpliterator<T, R> prefix = new ElementSpliterator<T, R>(
+          mapper,
+          comparator,
+          characteristics,
+          Arrays.copyOfRange(elements, 1, 1 + Math.max(depth - 1, 16)),
+          Arrays.copyOfRange(single, 1, 1 + Math.max(depth - 1, 16)),
+          depth - 1,
+          size - bottomSize
+      );
+
+      Arrays.fill(elements, 1, depth, null);
+      depth = 1;
+      size = bottomSize;
+
+      return prefix;
+    }
+
+    @Override
+    public long estimateSize() {
+      return size;
+    }
+
+    @Override
+    public int characteristics() {
+      return characteristics;
+    }
+
+    @Override
+    public Comparator<? super R> getComparator() {
+      if (!hasCharacteristics(SORTED)) {
+        throw new IllegalStateException();
+      }
+
+      return comparator;
+    }
+
+    @SuppressWarnings("unchecked")
+    private T element(final int index) {
+      return (T) elements[index];
+    }
+
+    private long entrySize(final int index) {
+      return single[index] ? 1 : element(index).getSize();
+    }
+
+    private T pop() {
+      final T element = element(-- depth);
+      elements[depth] = null;
+      return element;
+    }
+
+    private void pushSubtree(final T element) {
+      if (!element.isEmpty()) {
+        push(element, false);
+      }
+    }
+
+    private void push(final T element, final boolean isSingle) {
+      ensureCapacity(depth + 1);
+      setEntry(depth ++, element, isSingle);
+    }
+
+    private void setEntry(final int index, final T element, final boolean isSingle) {
+      elements[index] = element;
+      single[index] = isSingle;
+    }
+
+    private void ensureCapacity(final int capacity) {
+      if (capacity > elements.length) {
+        final int newLength = Math.max(capacity, elements.length * 2);
+        elements = Arrays.copyOf(elements, newLength);
+        single = Arrays.copyOf(single, newLength);
+      }
+    }
+  }
+
+  /**
+   * Creates the element at a given index of a sorted sequence, given its (already built) left and
+   * right subtrees.
+   */
+  @FunctionalInterface
+  interface ElementFactory<T> {
+    T create(int index, T left, T right);
+  }
+
+  /**
+   * The elements on the way down from the root of a tree to a position in it, for updating the
+   * tree bottom-up without recursion. The directions are kept as bits, the height of a balanced
+   * tree with an int size stays well below 64.
+   */
+  static final class Path<T extends Element<?, T>> {
+    private static final int MAX_DEPTH = Long.SIZE;
+
+    private Object[] elements;
+    private long lefts;
+    private int depth;
+
+    /**
+     * Creates a path with room for the height of a balanced tree of the given size, which is at
+     * most twice the binary logarithm of the size.
+     */
+    Path(final int size) {
+      elements = new Object[Math.min(2 * (Integer.SIZE - Integer.numberOfLeadingZeros(size)) + 1,
+          MAX_DEPTH)];
+    }
+
+    /**
+     * Records that the descent went from the element to its left or right child.
+     *
+     * @throws IllegalStateException if the tree is too deep, which means it is not balanced.
+     */
+    void push(final T element, final boolean left) {
+      if (depth == elements.length) {
+        if (depth == MAX_DEPTH) {
+          throw new IllegalStateException("Tree is deeper than " + MAX_DEPTH);
+        }
+
+        elements = Arrays.copyOf(elements, Math.min(2 * depth, MAX_DEPTH));
+      }
+
+      elements[depth] = element;
+      lefts = left ? lefts | 1L << depth : lefts & ~(1L << depth);
+      ++ depth;
+    }
+
+    /**
+     * Replaces the subtree at the end of the path and updates the elements on the path from the
+     * bottom up, rebalancing them if the size of the subtree changed.
+     */
+    @SuppressWarnings("unchecked")
+    T rebuild(final Object edit, final T replacement, final boolean rebalance) {
+      T current = replacement;
+
+      while (depth > 0) {
+        -- depth;
+
+        final T parent = (T) elements[depth];
+        final T updated = (lefts & 1L << depth) != 0
+            ? parent.updateChildren(edit, current, parent.getRight())
+            : parent.updateChildren(edit, parent.getLeft(), current);
+
+        current = rebalance ? updated.applyRotations(edit) : updated;
+      }
+
+      return current;
+    }
+  }
+
   static abstract class Element<V, T extends Element<V, T>> {
 
     public abstract int getSize();
@@ -29,9 +760,38 @@ public abstract class TreeDictBase<V, T extends TreeDictBase<V, T>> {
 
     abstract V getValue();
 
-    abstract T updateChildren(T newLeft, T newRight);
+    /**
+     * Returns the cached hash of this subtree, see {@link #orderedHash}, or 0 if it has not been
+     * computed or the element does not cache it.
+     */
+    int getCachedHash() {
+      return 0;
+    }
+
+    /**
+     * Caches the hash of this subtree. Elements that don't cache hashes ignore it. Like the hash
+     * code of a string the cache is written without synchronization, which is safe because every
+     * thread computes the same value.
+     */
+    void setCachedHash(final int hash) {
+    }
+
+    /**
+     * Returns an element with the same key and value as this element and the given children. If
+     * the edit token is non-null and this element was created with the same token, the element is
+     * owned by a transient and is updated in place instead of copied.
+     */
+    abstract T updateChildren(Object edit, T newLeft, T newRight);
 
-    abstract T updateValue(V newValue);
+    /**
+     * Returns an element with the same key and children as this element and the given value,
+     * updating in place if the element is owned by the edit token.
+     */
+    abstract T updateValue(Object edit, V newValue);
+
+    final T updateChildren(final T newLeft, final T newRight) {
+      return updateChildren(null, newLeft, newRight);
+    }
 
     Optional<V> doGet(final ToIntFunction<T> comparator) {
       @SuppressWarnings("unchecked")
@@ -52,142 +812,304 @@ public abstract class TreeDictBase<V, T extends TreeDictBase<V, T>> {
       return Optional.empty();
     }
 
-    final T doInsert(final ToIntFunction<T> comparator, final Function<V, T> factory,
-        final V value) {
+    /**
+     * Returns the greatest element that is smaller than the key, or equal to it if inclusive, or
+     * null if there is no such element.
+     */
+    final T doFloor(final ToIntFunction<T> comparator, final boolean inclusive) {
+      T current = getSelf();
+      T result = null;
 
-      // Inserting into an empty node replaces the node with a leaf node:
-      if (isEmpty()) {
-        return factory.apply(value);
+      while (!current.isEmpty()) {
+        final int compare = comparator.applyAsInt(current);
+
+        if (compare == 0 && inclusive) {
+          return current;
+        } else if (compare > 0) {
+          result = current;
+          current = current.getRight();
+        } else {
+          current = current.getLeft();
+        }
       }
 
-      @SuppressWarnings("unchecked") final int compare = comparator.applyAsInt((T) this);
+      return result;
+    }
+
+    /**
+     * Returns the smallest element that is greater than the key, or equal to it if inclusive, or
+     * null if there is no such element.
+     */
+    final T doCeiling(final ToIntFunction<T> comparator, final boolean inclusive) {
+      T current = getSelf();
+      T result = null;
+
+      while (!current.isEmpty()) {
+        final int compare = comparator.applyAsInt(current);
 
-      if (compare == 0) {
-        // Keys are equal, return this node or overwrite depending on whether the
-        // value changed:
-        return this.getValue().equals(value)
-            ? getSelf()
-            : updateValue(value);
+        if (compare == 0 && inclusive) {
+          return current;
+        } else if (compare < 0) {
+          result = current;
+          current = current.getLeft();
+        } else {
+          current = current.getRight();
+        }
       }
 
-      final T newNode;
+      return result;
+    }
 
-      if (compare < 0) {
-        // Key is smaller than this.key, insert left:
-        newNode = updateChildren(getLeft().doInsert(comparator, factory, value), getRight());
-      } else {
-        // Key is larger than this.key, insert right:
-        newNode = updateChildren(getLeft(), getRight().doInsert(comparator, factory, value));
+    /**
+     * Returns the number of elements that are strictly smaller than the key, using the cached
+     * subtree sizes to avoid visiting more than one path.
+     */
+    final int doRank(final ToIntFunction<T> comparator) {
+      T current = getSelf();
+      int rank = 0;
+
+      while (!current.isEmpty()) {
+        if (comparator.applyAsInt(current) <= 0) {
+          current = current.getLeft();
+        } else {
+          rank += current.getLeft().getSize() + 1;
+          current = current.getRight();
+        }
       }
 
-      return newNode.applyRotations();
+      return rank;
     }
 
-    final T doDelete(final ToIntFunction<T> comparator) {
-      if (isEmpty()) {
-        return getSelf();
+    /**
+     * Returns the position of the element matching the key in sort order, or -1 if there is no
+     * such element.
+     */
+    final int doIndexOf(final ToIntFunction<T> comparator) {
+      T current = getSelf();
+      int rank = 0;
+
+      while (!current.isEmpty()) {
+        final int compare = comparator.applyAsInt(current);
+
+        if (compare == 0) {
+          return rank + current.getLeft().getSize();
+        } else if (compare < 0) {
+          current = current.getLeft();
+        } else {
+          rank += current.getLeft().getSize() + 1;
+          current = current.getRight();
+        }
       }
 
-      final int compare = comparator.applyAsInt(getSelf());
-      final T newTree;
-
-      if (compare < 0) {
-        // Delete from the left subtree:
-        final T newLeft = getLeft().doDelete(comparator);
-        return newLeft == getLeft()
-            ? getSelf()
-            : updateChildren(getLeft().doDelete(comparator), getRight());
-      } else if (compare > 0) {
-        // Delete from the right subtree:
-        final T newRight = getRight().doDelete(comparator);
-        return newRight == getRight()
-            ? getSelf()
-            : updateChildren(getLeft(), getRight().doDelete(comparator));
-      } else if (getLeft().isEmpty()) {
-        // We need to delete this node, and this node has no left element:
-        newTree = getRight();
-      } else if (getRight().isEmpty()) {
-        // We need to delete this node, and this node has no right element:
-        newTree = getLeft();
-      } else {
-        // Neither child is empty, rotate the heavier side of the tree:
-        if (getLeft().getWeight() > getRight().getWeight()) {
-          final T rotated = rotateRight();
-          newTree = rotated
-              .updateChildren(rotated.getLeft(), rotated.getRight().doDelete(comparator));
+      return -1;
+    }
+
+    /**
+     * Returns the element at the given position in sort order.
+     *
+     * @throws IndexOutOfBoundsException if the index is negative or not smaller than the size.
+     */
+    final T doSelect(final int index) {
+      if (index < 0 || index >= getSize()) {
+        throw new IndexOutOfBoundsException("Index: " + index + ", size: " + getSize());
+      }
+
+      T current = getSelf();
+      int remaining = index;
+
+      while (true) {
+        final int leftSize = current.getLeft().getSize();
+
+        if (remaining == leftSize) {
+          return current;
+        } else if (remaining < leftSize) {
+          current = current.getLeft();
         } else {
-          final T rotated = rotateLeft();
-          newTree = rotated.updateChildren(rotated.getLeft().doDelete(comparator),
-              rotated.getRight());
+          remaining -= leftSize + 1;
+          current = current.getRight();
+        }
+      }
+    }
+
+    /**
+     * Inserts the value in a single descent that records the path to the insertion point, then
+     * copies and rebalances the path bottom-up.
+     */
+    final T doInsert(final Object edit, final ToIntFunction<T> comparator,
+        final Function<V, T> factory, final V value) {
+      final Path<T> path = new Path<>(getSize());
+      T current = getSelf();
+
+      while (!current.isEmpty()) {
+        final int compare = comparator.applyAsInt(current);
+
+        if (compare == 0) {
+          // Keys are equal, return this tree if the value didn't change. Otherwise overwrite it,
+          // which leaves the sizes and so the balance of the path as it was:
+          return current.getValue().equals(value)
+              ? getSelf()
+              : path.rebuild(edit, current.updateValue(edit, value), false);
+        }
+
+        path.push(current, compare < 0);
+        current = compare < 0 ? current.getLeft() : current.getRight();
+      }
+
+      // Inserting into an empty node replaces the node with a leaf node:
+      return path.rebuild(edit, factory.apply(value), true);
+    }
+
+    /**
+     * Deletes the key in a single descent that records the path to the element, then copies and
+     * rebalances the path bottom-up. Returns this tree if it doesn't contain the key.
+     */
+    final T doDelete(final Object edit, final ToIntFunction<T> comparator) {
+      final Path<T> path = new Path<>(getSize());
+      T current = getSelf();
+
+      while (!current.isEmpty()) {
+        final int compare = comparator.applyAsInt(current);
+
+        if (compare == 0) {
+          return path.rebuild(edit, current.removeSelf(edit), true);
         }
+
+        path.push(current, compare < 0);
+        current = compare < 0 ? current.getLeft() : current.getRight();
+      }
+
+      return getSelf();
+    }
+
+    /**
+     * Returns the children of this element joined into a single tree.
+     */
+    final T removeSelf(final Object edit) {
+      final T left = getLeft();
+      final T right = getRight();
+
+      if (left.isEmpty()) {
+        return right;
+      } else if (right.isEmpty()) {
+        return left;
+      } else if (left.getWeight() > right.getWeight()) {
+        // Neither child is empty, replace this element by the largest element of the heavier left
+        // side. Look the element up before removing it, the removal may update the subtree in
+        // place. The element is detached by the time its children are updated:
+        final T last = left.getLast();
+        final T newLeft = left.removeLast(edit);
+        return last.updateChildren(edit, newLeft, right).applyRotations(edit);
+      } else {
+        // Replace this element by the smallest element of the right side:
+        final T first = right.getFirst();
+        final T newRight = right.removeFirst(edit);
+        return first.updateChildren(edit, left, newRight).applyRotations(edit);
+      }
+    }
+
+    final T getFirst() {
+      T current = getSelf();
+      while (!current.getLeft().isEmpty()) {
+        current = current.getLeft();
+      }
+      return current;
+    }
+
+    final T getLast() {
+      T current = getSelf();
+      while (!current.getRight().isEmpty()) {
+        current = current.getRight();
+      }
+      return current;
+    }
+
+    /**
+     * Returns this tree without its first element.
+     */
+    final T removeFirst(final Object edit) {
+      final Path<T> path = new Path<>(getSize());
+      T current = getSelf();
+
+      while (!current.getLeft().isEmpty()) {
+        path.push(current, true);
+        current = current.getLeft();
+      }
+
+      return path.rebuild(edit, current.getRight(), true);
+    }
+
+    /**
+     * Returns this tree without its last element.
+     */
+    final T removeLast(final Object edit) {
+      final Path<T> path = new Path<>(getSize());
+      T current = getSelf();
+
+      while (!current.getRight().isEmpty()) {
+        path.push(current, false);
+        current = current.getRight();
       }
 
-      return newTree == this
-          ? getSelf()
-          : newTree.applyRotations();
+      return path.rebuild(edit, current.getLeft(), true);
     }
 
-    final T applyRotations() {
-      final float balance = getLeft().getWeight() / getWeight();
+    final T applyRotations(final Object edit) {
+      final T left = getLeft();
+      final T right = getRight();
 
-      if (getLeft().isEmpty() && getRight().isEmpty()) {
+      if (left.isEmpty() && right.isEmpty()) {
         return getSelf();
       }
 
+      final float balance = left.getWeight() / getWeight();
+
       if (balance > 0.707011) {
         // The left subtree is too heavy: requires right rotation.
-        if (getLeft().getLeft().getWeight() / getLeft().getWeight() > 0.414213) {
-          return rotateRight();
+        if (left.getLeft().getWeight() / left.getWeight() > 0.414213) {
+          return rotateRight(edit);
         } else {
-          return updateChildren(getLeft().rotateLeft(), getRight()).rotateRight();
+          return updateChildren(edit, left.rotateLeft(edit), right).rotateRight(edit);
         }
       } else if (balance < 0.292893) {
         // The right subtree is too heavy: required left rotation.
-        if (getRight().getLeft().getWeight() / getRight().getWeight() < 0.585786) {
-          return rotateLeft();
+        if (right.getLeft().getWeight() / right.getWeight() < 0.585786) {
+          return rotateLeft(edit);
         } else {
-          return updateChildren(getLeft(), getRight().rotateRight()).rotateLeft();
+          return updateChildren(edit, left, right.rotateRight(edit)).rotateLeft(edit);
         }
       }
 
       return getSelf();
     }
 
-    final T rotateLeft() {
-      if (getLeft().isEmpty() && getRight().isEmpty()) {
+    final T rotateLeft(final Object edit) {
+      final T left = getLeft();
+      final T right = getRight();
+
+      if (left.isEmpty() && right.isEmpty()) {
         return getSelf();
       }
 
-      /*
-      return makeNode(
-          right.getKey(),
-          right.getValue(),
-          makeNode(key, value, left, right.getLeft()),
-          right.getRight()
-      );
-      */
+      // Read the grandchildren before updating anything, this element may be updated in place:
+      final T rightLeft = right.getLeft();
+      final T rightRight = right.getRight();
 
-      return getRight().updateChildren(updateChildren(getLeft(), getRight().getLeft()),
-          getRight().getRight());
+      return right.updateChildren(edit, updateChildren(edit, left, rightLeft), rightRight);
     }
 
-    @SuppressWarnings("unchecked")
-    final T rotateRight() {
-      if (getLeft().isEmpty() && getRight().isEmpty()) {
+    final T rotateRight(final Object edit) {
+      final T left = getLeft();
+      final T right = getRight();
+
+      if (left.isEmpty() && right.isEmpty()) {
         return getSelf();
       }
 
-      /*
-      return makeNode(
-          left.getKey(),
-          left.getValue(),
-          left.getLeft(),
-          makeNode(key, value, left.getRight(), right)
-      );
-      */
+      // Read the grandchildren before updating anything, this element may be updated in place:
+      final T leftLeft = left.getLeft();
+      final T leftRight = left.getRight();
 
-      return getLeft()
-          .updateChildren(getLeft().getLeft(), updateChildren(getLeft().getRight(), getRight()));
+      return left.updateChildren(edit, leftLeft, updateChildren(edit, leftRight, right));
     }
   }
 }
@@ -1,8 +1,12 @@
 package hurricane.core.collections;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Function;
 import java.util.function.ToIntFunction;
+import java.util.stream.Collector;
 
 public final class TreeDictInt<V> extends TreeDictBase<V, TreeDictInt<V>> implements
     IntDict<V> {
@@ -17,30 +21,67 @@ public final class TreeDictInt<V> extends TreeDictBase<V, TreeDictInt<V>> implem
     return new TreeDictInt<>(Element.empty());
   }
 
+  static <T, V> Collector<T, ?, IntDict<V>> collector(final ToIntFunction<? super T> keyMapper,
+      final Function<? super T, ? extends V> valueMapper) {
+    Objects.requireNonNull(keyMapper, "keyMapper cannot be null");
+    Objects.requireNonNull(valueMapper, "valueMapper cannot be null");
+
+    return Collector.<T, List<Leaf<V>>, IntDict<V>>of(
+        ArrayList::new,
+        (list, item) -> list.add(new Leaf<>(
+            keyMapper.applyAsInt(item),
+            Objects.requireNonNull(valueMapper.apply(item), "value cannot be null"))),
+        (a, b) -> {
+          a.addAll(b);
+          return a;
+        },
+        leaves -> {
+          sortDistinct(leaves, (a, b) -> Integer.compare(a.getKey(), b.getKey()));
+          return new TreeDictInt<>(buildBalanced(
+              0,
+              leaves.size(),
+              Element.<V>empty(),
+              (index, left, right) -> leaves.get(index).updateChildren(left, right)
+          ));
+        }
+    );
+  }
+
   @Override
   public Optional<V> lookup(final int key) {
-    return root.doGet(makeComparator(key));
+    return Optional.ofNullable(find(root, key, null));
+  }
+
+  @Override
+  public V getOrDefault(final int key, final V defaultValue) {
+    return find(root, key, defaultValue);
+  }
+
+  @Override
+  public V getOrNull(final int key) {
+    return find(root, key, null);
   }
 
   @Override
   public boolean containsKey(final int key) {
-    return lookup(key).isPresent();
+    return find(root, key, null) != null;
   }
 
   @Override
   public IntDict<V> put(final int key, final V value) {
     Objects.requireNonNull(value, "value cannot be null");
 
-    return replaceRoot(root.doInsert(
-        makeComparator(key),
-        val -> new Leaf<>(key, val),
-        value
-    ));
+    return replaceRoot(insert(null, root, key, value));
   }
 
   @Override
   public IntDict<V> delete(final int key) {
-    return replaceRoot(root.doDelete(makeComparator(key)));
+    return replaceRoot(root.doDelete(null, makeComparator(key)));
+  }
+
+  @Override
+  public TransientIntDict<V> asTransient() {
+    return new Transient<>(root);
   }
 
   @Override
@@ -53,7 +94,61 @@ public final class TreeDictInt<V> extends TreeDictBase<V, TreeDictInt<V>> implem
     return root.isEmpty();
   }
 
-  private ToIntFunction<Element<V>> makeComparator(final int key) {
+  @Override
+  public int indexOf(final int key) {
+    return root.doIndexOf(makeComparator(key));
+  }
+
+  @Override
+  public int keyAt(final int index) {
+    return root.doSelect(index).getKey();
+  }
+
+  @Override
+  public V valueAt(final int index) {
+    return root.doSelect(index).getValue();
+  }
+
+  @Override
+  public int count(final int from, final int to) {
+    if (from > to) {
+      throw new IllegalArgumentException("from cannot be greater than to");
+    }
+
+    return root.doRank(makeComparator(to)) - root.doRank(makeComparator(from));
+  }
+
+  /**
+   * Descends from the root comparing primitive keys directly, avoiding the comparator lambda and
+   * the Optional that doGet would allocate.
+   */
+  private static <V> V find(final Element<V> root, final int key, final V defaultValue) {
+    Element<V> current = root;
+
+    while (!current.isEmpty()) {
+      final int currentKey = current.getKey();
+
+      if (key == currentKey) {
+        return current.getValue();
+      }
+
+      current = key < currentKey ? current.getLeft() : current.getRight();
+    }
+
+    return defaultValue;
+  }
+
+  private static <V> Element<V> insert(final Object edit, final Element<V> root, final int key,
+      final V value) {
+    return root.doInsert(
+        edit,
+        makeComparator(key),
+        val -> new Leaf<>(key, val),
+        value
+    );
+  }
+
+  private static <V> ToIntFunction<Element<V>> makeComparator(final int key) {
     return node -> Integer.compare(key, node.getKey());
   }
 
@@ -63,6 +158,73 @@ public final class TreeDictInt<V> extends TreeDictBase<V, TreeDictInt<V>> implem
         : new TreeDictInt<>(newRoot);
   }
 
+  private static final class Transient<V> implements TransientIntDict<V> {
+
+    private Element<V> root;
+    private Object edit = new Object();
+
+    private Transient(final Element<V> root) {
+      this.root = root;
+    }
+
+    @Override
+    public Optional<V> lookup(final int key) {
+      return Optional.ofNullable(getOrNull(key));
+    }
+
+    @Override
+    public V getOrDefault(final int key, final V defaultValue) {
+      ensureEditable();
+      return find(root, key, defaultValue);
+    }
+
+    @Override
+    public V getOrNull(final int key) {
+      return getOrDefault(key, null);
+    }
+
+    @Override
+    public boolean containsKey(final int key) {
+      return getOrNull(key) != null;
+    }
+
+    @Override
+    public TransientIntDict<V> put(final int key, final V value) {
+      Objects.requireNonNull(value, "value cannot be null");
+      ensureEditable();
+
+      root = insert(edit, root, key, value);
+      return this;
+    }
+
+    @Override
+    public TransientIntDict<V> delete(final int key) {
+      ensureEditable();
+
+      root = root.doDelete(edit, makeComparator(key));
+      return this;
+    }
+
+    @Override
+    public int getSize() {
+      ensureEditable();
+      return root.getSize();
+    }
+
+    @Override
+    public IntDict<V> persistent() {
+      ensureEditable();
+      edit = null;
+      return new TreeDictInt<>(root);
+    }
+
+    private void ensureEditable() {
+      if (edit == null) {
+        throw new IllegalStateException("Transient used after call to persistent()");
+      }
+    }
+  }
+
   static abstract class Element<V> extends TreeDictBase.Element<V, Element<V>> {
 
     public static <V> Element<V> empty() {
@@ -102,7 +264,8 @@ public final class TreeDictInt<V> extends TreeDictBase<V, TreeDictInt<V>> implem
     }
 
     @Override
-    Element<V> updateChildren(final Element<V> newLeft, final Element<V> newRight) {
+    Element<V> updateChildren(final Object edit, final Element<V> newLeft,
+        final Element<V> newRight) {
       if (!newLeft.isEmpty() || !newRight.isEmpty()) {
         throw new IllegalArgumentException(
             "Empty node children can only be updated to empty values");
@@ -112,7 +275,7 @@ public final class TreeDictInt<V> extends TreeDictBase<V, TreeDictInt<V>> implem
     }
 
     @Override
-    Element<V> updateValue(V newValue) {
+    Element<V> updateValue(final Object edit, final V newValue) {
       throw new UnsupportedOperationException();
     }
 
@@ -120,6 +283,11 @@ public final class TreeDictInt<V> extends TreeDictBase<V, TreeDictInt<V>> implem
     public int getSize() {
       return 0;
     }
+
+    @Override
+    public boolean isEmpty() {
+      return true;
+    }
   }
 
   final static class Leaf<V> extends Element<V> {
@@ -152,16 +320,17 @@ public final class TreeDictInt<V> extends TreeDictBase<V, TreeDictInt<V>> implem
     }
 
     @Override
-    Element<V> updateChildren(final Element<V> newLeft, final Element<V> newRight) {
+    Element<V> updateChildren(final Object edit, final Element<V> newLeft,
+        final Element<V> newRight) {
       if (newLeft.isEmpty() && newRight.isEmpty()) {
         return this;
       }
 
-      return new Node<>(key, value, newLeft, newRight);
+      return new Node<>(edit, key, value, newLeft, newRight);
     }
 
     @Override
-    Element<V> updateValue(V newValue) {
+    Element<V> updateValue(final Object edit, final V newValue) {
       return new Leaf<>(key, newValue);
     }
 
@@ -172,13 +341,20 @@ public final class TreeDictInt<V> extends TreeDictBase<V, TreeDictInt<V>> implem
   }
 
   final static class Node<V> extends Element<V> {
+    private final Object edit;
     private final int key;
-    private final V value;
-    private final Element<V> left;
-    private final Element<V> right;
-    private final int size;
+    private V value;
+    private Element<V> left;
+    private Element<V> right;
+    private int size;
 
     Node(final int key, final V value, final Element<V> left, final Element<V> right) {
+      this(null, key, value, left, right);
+    }
+
+    Node(final Object edit, final int key, final V value, final Element<V> left,
+        final Element<V> right) {
+      this.edit = edit;
       this.key = key;
       this.value = value;
       this.left = left;
@@ -207,13 +383,26 @@ public final class TreeDictInt<V> extends TreeDictBase<V, TreeDictInt<V>> implem
     }
 
     @Override
-    Element<V> updateChildren(final Element<V> newLeft, final Element<V> newRight) {
-      return new Node<>(key, value, newLeft, newRight);
+    Element<V> updateChildren(final Object edit, final Element<V> newLeft,
+        final Element<V> newRight) {
+      if (edit != null && edit == this.edit) {
+        this.left = newLeft;
+        this.right = newRight;
+        this.size = newLeft.getSize() + newRight.getSize() + 1;
+        return this;
+      }
+
+      return new Node<>(edit, key, value, newLeft, newRight);
     }
 
     @Override
-    Element<V> updateValue(final V newValue) {
-      return new Node<>(key, newValue, left, right);
+    Element<V> updateValue(final Object edit, final V newValue) {
+      if (edit != null && edit == this.edit) {
+        this.value = newValue;
+        return this;
+      }
+
+      return new Node<>(edit, key, newValue, left, right);
     }
 
     @Override
@@ -0,0 +1,309 @@
+package hurricane.core.collections;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.OptionalInt;
+import java.util.function.ToIntFunction;
+import java.util.stream.Collector;
+
+public final class TreeDictIntInt extends TreeDictBase<Integer, TreeDictIntInt> implements
+    IntIntDict {
+
+  private static final TreeDictIntInt EMPTY = new TreeDictIntInt(Element.empty());
+
+  private final Element root;
+
+  private TreeDictIntInt(final Element root) {
+    this.root = root;
+  }
+
+  static TreeDictIntInt empty() {
+    return EMPTY;
+  }
+
+  static <T> Collector<T, ?, IntIntDict> collector(final ToIntFunction<? super T> keyMapper,
+      final ToIntFunction<? super T> valueMapper) {
+    Objects.requireNonNull(keyMapper, "keyMapper cannot be null");
+    Objects.requireNonNull(valueMapper, "valueMapper cannot be null");
+
+    return Collector.<T, List<Leaf>, IntIntDict>of(
+        ArrayList::new,
+        (list, item) -> list.add(new Leaf(
+            keyMapper.applyAsInt(item),
+            valueMapper.applyAsInt(item))),
+        (a, b) -> {
+          a.addAll(b);
+          return a;
+        },
+        leaves -> {
+          sortDistinct(leaves, (a, b) -> Integer.compare(a.getKey(), b.getKey()));
+          return new TreeDictIntInt(buildBalanced(
+              0,
+              leaves.size(),
+              Element.empty(),
+              (index, left, right) -> leaves.get(index).updateChildren(left, right)
+          ));
+        }
+    );
+  }
+
+  @Override
+  public OptionalInt lookup(final int key) {
+    final Element element = find(key);
+    return element == null ? OptionalInt.empty() : OptionalInt.of(element.getIntValue());
+  }
+
+  @Override
+  public int getOrDefault(final int key, final int defaultValue) {
+    final Element element = find(key);
+    return element == null ? defaultValue : element.getIntValue();
+  }
+
+  @Override
+  public boolean containsKey(final int key) {
+    return find(key) != null;
+  }
+
+  @Override
+  public IntIntDict put(final int key, final int value) {
+    final Element element = find(key);
+
+    // Skip the insert, and the boxing of the value it implies, when nothing changes:
+    if (element != null && element.getIntValue() == value) {
+      return this;
+    }
+
+    return replaceRoot(root.doInsert(
+        null,
+        makeComparator(key),
+        val -> new Leaf(key, val),
+        value
+    ));
+  }
+
+  @Override
+  public IntIntDict delete(final int key) {
+    if (find(key) == null) {
+      return this;
+    }
+
+    return replaceRoot(root.doDelete(null, makeComparator(key)));
+  }
+
+  @Override
+  public int getSize() {
+    return root.getSize();
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return root.isEmpty();
+  }
+
+  private Element find(final int key) {
+    Element current = root;
+
+    while (!current.isEmpty()) {
+      final int currentKey = current.getKey();
+
+      if (key == currentKey) {
+        return current;
+      }
+
+      current = key < currentKey ? current.getLeft() : current.getRight();
+    }
+
+    return null;
+  }
+
+  private static ToIntFunction<Element> makeComparator(final int key) {
+    return node -> Integer.compare(key, node.getKey());
+  }
+
+  private IntIntDict replaceRoot(final Element newRoot) {
+    return newRoot == root
+        ? this
+        : new TreeDictIntInt(newRoot);
+  }
+
+  static abstract class Element extends TreeDictBase.Element<Integer, Element> {
+
+    public static Element empty() {
+      return Empty.VALUE;
+    }
+
+    abstract int getKey();
+
+    abstract int getIntValue();
+
+    @Override
+    final Integer getValue() {
+      return getIntValue();
+    }
+  }
+
+  final static class Empty extends Element {
+    private final static Empty VALUE = new Empty();
+
+    @Override
+    int getKey() {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    int getIntValue() {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    Element getLeft() {
+      return this;
+    }
+
+    @Override
+    Element getRight() {
+      return this;
+    }
+
+    @Override
+    Element updateChildren(final Object edit, final Element newLeft, final Element newRight) {
+      if (!newLeft.isEmpty() || !newRight.isEmpty()) {
+        throw new IllegalArgumentException(
+            "Empty node children can only be updated to empty values");
+      }
+
+      return this;
+    }
+
+    @Override
+    Element updateValue(final Object edit, final Integer newValue) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public int getSize() {
+      return 0;
+    }
+
+    @Override
+    public boolean isEmpty() {
+      return true;
+    }
+  }
+
+  final static class Leaf extends Element {
+    private final int key;
+    private final int value;
+
+    Leaf(final int key, final int value) {
+      this.key = key;
+      this.value = value;
+    }
+
+    @Override
+    public int getSize() {
+      return 1;
+    }
+
+    @Override
+    Element getLeft() {
+      return empty();
+    }
+
+    @Override
+    Element getRight() {
+      return empty();
+    }
+
+    @Override
+    int getIntValue() {
+      return value;
+    }
+
+    @Override
+    Element updateChildren(final Object edit, final Element newLeft, final Element newRight) {
+      if (newLeft.isEmpty() && newRight.isEmpty()) {
+        return this;
+      }
+
+      return new Node(edit, key, value, newLeft, newRight);
+    }
+
+    @Override
+    Element updateValue(final Object edit, final Integer newValue) {
+      return new Leaf(key, newValue);
+    }
+
+    @Override
+    int getKey() {
+      return key;
+    }
+  }
+
+  final static class Node extends Element {
+    private final Object edit;
+    private final int key;
+    private int value;
+    private Element left;
+    private Element right;
+    private int size;
+
+    Node(final Object edit, final int key, final int value, final Element left,
+        final Element right) {
+      this.edit = edit;
+      this.key = key;
+      this.value = value;
+      this.left = left;
+      this.right = right;
+      this.size = left.getSize() + right.getSize() + 1;
+    }
+
+    @Override
+    public int getSize() {
+      return size;
+    }
+
+    @Override
+    public Element getLeft() {
+      return left;
+    }
+
+    @Override
+    public Element getRight() {
+      return right;
+    }
+
+    @Override
+    int getIntValue() {
+      return value;
+    }
+
+    @Override
+    Element updateChildren(final Object edit, final Element newLeft, final Element newRight) {
+      if (edit != null && edit == this.edit) {
+        this.left = newLeft;
+        this.right = newRight;
+        this.size = newLeft.getSize() + newRight.getSize() + 1;
+        return this;
+      }
+
+      return new Node(edit, key, value, newLeft, newRight);
+    }
+
+    @Override
+    Element updateValue(final Object edit, final Integer newValue) {
+      if (edit != null && edit == this.edit) {
+        this.value = newValue;
+        return this;
+      }
+
+      return new Node(edit, key, newValue, left, right);
+    }
+
+    @Override
+    int getKey() {
+      return key;
+    }
+  }
+}
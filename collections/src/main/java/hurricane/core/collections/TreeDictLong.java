@@ -1,8 +1,13 @@
 package hurricane.core.collections;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Function;
 import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+import java.util.stream.Collector;
 
 public final class TreeDictLong<V> extends TreeDictBase<V, TreeDictLong<V>> implements
     LongDict<V> {
@@ -17,30 +22,67 @@ public final class TreeDictLong<V> extends TreeDictBase<V, TreeDictLong<V>> impl
     return new TreeDictLong<>(Empty.value());
   }
 
+  static <T, V> Collector<T, ?, LongDict<V>> collector(final ToLongFunction<? super T> keyMapper,
+      final Function<? super T, ? extends V> valueMapper) {
+    Objects.requireNonNull(keyMapper, "keyMapper cannot be null");
+    Objects.requireNonNull(valueMapper, "valueMapper cannot be null");
+
+    return Collector.<T, List<Leaf<V>>, LongDict<V>>of(
+        ArrayList::new,
+        (list, item) -> list.add(new Leaf<>(
+            keyMapper.applyAsLong(item),
+            Objects.requireNonNull(valueMapper.apply(item), "value cannot be null"))),
+        (a, b) -> {
+          a.addAll(b);
+          return a;
+        },
+        leaves -> {
+          sortDistinct(leaves, (a, b) -> Long.compare(a.getKey(), b.getKey()));
+          return new TreeDictLong<>(buildBalanced(
+              0,
+              leaves.size(),
+              Element.<V>empty(),
+              (index, left, right) -> leaves.get(index).updateChildren(left, right)
+          ));
+        }
+    );
+  }
+
   @Override
   public Optional<V> lookup(final long key) {
-    return root.doGet(makeComparator(key));
+    return Optional.ofNullable(find(root, key, null));
+  }
+
+  @Override
+  public V getOrDefault(final long key, final V defaultValue) {
+    return find(root, key, defaultValue);
+  }
+
+  @Override
+  public V getOrNull(final long key) {
+    return find(root, key, null);
   }
 
   @Override
-  public boolean containsKey(long key) {
-    return lookup(key).isPresent();
+  public boolean containsKey(final long key) {
+    return find(root, key, null) != null;
   }
 
   @Override
   public LongDict<V> put(long key, V value) {
     Objects.requireNonNull(value, "value cannot be null");
 
-    return replaceRoot(root.doInsert(
-        makeComparator(key),
-        val -> new Leaf<>(key, val),
-        value
-    ));
+    return replaceRoot(insert(null, root, key, value));
   }
 
   @Override
   public LongDict<V> delete(long key) {
-    return replaceRoot(root.doDelete(makeComparator(key)));
+    return replaceRoot(root.doDelete(null, makeComparator(key)));
+  }
+
+  @Override
+  public TransientLongDict<V> asTransient() {
+    return new Transient<>(root);
   }
 
   @Override
@@ -53,7 +95,61 @@ public final class TreeDictLong<V> extends TreeDictBase<V, TreeDictLong<V>> impl
     return root.isEmpty();
   }
 
-  private ToIntFunction<Element<V>> makeComparator(final long key) {
+  @Override
+  public int indexOf(final long key) {
+    return root.doIndexOf(makeComparator(key));
+  }
+
+  @Override
+  public long keyAt(final int index) {
+    return root.doSelect(index).getKey();
+  }
+
+  @Override
+  public V valueAt(final int index) {
+    return root.doSelect(index).getValue();
+  }
+
+  @Override
+  public int count(final long from, final long to) {
+    if (from > to) {
+      throw new IllegalArgumentException("from cannot be greater than to");
+    }
+
+    return root.doRank(makeComparator(to)) - root.doRank(makeComparator(from));
+  }
+
+  /**
+   * Descends from the root comparing primitive keys directly, avoiding the comparator lambda and
+   * the Optional that doGet would allocate.
+   */
+  private static <V> V find(final Element<V> root, final long key, final V defaultValue) {
+    Element<V> current = root;
+
+    while (!current.isEmpty()) {
+      final long currentKey = current.getKey();
+
+      if (key == currentKey) {
+        return current.getValue();
+      }
+
+      current = key < currentKey ? current.getLeft() : current.getRight();
+    }
+
+    return defaultValue;
+  }
+
+  private static <V> Element<V> insert(final Object edit, final Element<V> root, final long key,
+      final V value) {
+    return root.doInsert(
+        edit,
+        makeComparator(key),
+        val -> new Leaf<>(key, val),
+        value
+    );
+  }
+
+  private static <V> ToIntFunction<Element<V>> makeComparator(final long key) {
     return node -> Long.compare(key, node.getKey());
   }
 
@@ -63,6 +159,73 @@ public final class TreeDictLong<V> extends TreeDictBase<V, TreeDictLong<V>> impl
         : new TreeDictLong<>(newRoot);
   }
 
+  private static final class Transient<V> implements TransientLongDict<V> {
+
+    private Element<V> root;
+    private Object edit = new Object();
+
+    private Transient(final Element<V> root) {
+      this.root = root;
+    }
+
+    @Override
+    public Optional<V> lookup(final long key) {
+      return Optional.ofNullable(getOrNull(key));
+    }
+
+    @Override
+    public V getOrDefault(final long key, final V defaultValue) {
+      ensureEditable();
+      return find(root, key, defaultValue);
+    }
+
+    @Override
+    public V getOrNull(final long key) {
+      return getOrDefault(key, null);
+    }
+
+    @Override
+    public boolean containsKey(final long key) {
+      return getOrNull(key) != null;
+    }
+
+    @Override
+    public TransientLongDict<V> put(final long key, final V value) {
+      Objects.requireNonNull(value, "value cannot be null");
+      ensureEditable();
+
+      root = insert(edit, root, key, value);
+      return this;
+    }
+
+    @Override
+    public TransientLongDict<V> delete(final long key) {
+      ensureEditable();
+
+      root = root.doDelete(edit, makeComparator(key));
+      return this;
+    }
+
+    @Override
+    public int getSize() {
+      ensureEditable();
+      return root.getSize();
+    }
+
+    @Override
+    public LongDict<V> persistent() {
+      ensureEditable();
+      edit = null;
+      return new TreeDictLong<>(root);
+    }
+
+    private void ensureEditable() {
+      if (edit == null) {
+        throw new IllegalStateException("Transient used after call to persistent()");
+      }
+    }
+  }
+
   static abstract class Element<V> extends TreeDictBase.Element<V, Element<V>> {
 
     public static <V> Element<V> empty() {
@@ -101,7 +264,8 @@ public final class TreeDictLong<V> extends TreeDictBase<V, TreeDictLong<V>> impl
     }
 
     @Override
-    Element<V> updateChildren(final Element<V> newLeft, final Element<V> newRight) {
+    Element<V> updateChildren(final Object edit, final Element<V> newLeft,
+        final Element<V> newRight) {
       if (!newLeft.isEmpty() || !newRight.isEmpty()) {
         throw new IllegalArgumentException(
             "Empty node children can only be updated to empty values");
@@ -111,7 +275,7 @@ public final class TreeDictLong<V> extends TreeDictBase<V, TreeDictLong<V>> impl
     }
 
     @Override
-    Element<V> updateValue(V newValue) {
+    Element<V> updateValue(final Object edit, final V newValue) {
       throw new UnsupportedOperationException();
     }
 
@@ -119,6 +283,11 @@ public final class TreeDictLong<V> extends TreeDictBase<V, TreeDictLong<V>> impl
     public int getSize() {
       return 0;
     }
+
+    @Override
+    public boolean isEmpty() {
+      return true;
+    }
   }
 
   static class Leaf<V> extends Element<V> {
@@ -151,16 +320,17 @@ public final class TreeDictLong<V> extends TreeDictBase<V, TreeDictLong<V>> impl
     }
 
     @Override
-    Element<V> updateChildren(final Element<V> newLeft, final Element<V> newRight) {
+    Element<V> updateChildren(final Object edit, final Element<V> newLeft,
+        final Element<V> newRight) {
       if (newLeft.isEmpty() && newRight.isEmpty()) {
         return this;
       }
 
-      return new Node<>(key, value, newLeft, newRight);
+      return new Node<>(edit, key, value, newLeft, newRight);
     }
 
     @Override
-    Element<V> updateValue(V newValue) {
+    Element<V> updateValue(final Object edit, final V newValue) {
       return new Leaf<>(key, newValue);
     }
 
@@ -172,13 +342,20 @@ public final class TreeDictLong<V> extends TreeDictBase<V, TreeDictLong<V>> impl
   }
 
   static class Node<V> extends Element<V> {
+    private final Object edit;
     private final long key;
-    private final V value;
-    private final Element<V> left;
-    private final Element<V> right;
-    private final int size;
+    private V value;
+    private Element<V> left;
+    private Element<V> right;
+    private int size;
 
     Node(final long key, final V value, final Element<V> left, final Element<V> right) {
+      this(null, key, value, left, right);
+    }
+
+    Node(final Object edit, final long key, final V value, final Element<V> left,
+        final Element<V> right) {
+      this.edit = edit;
       this.key = key;
       this.value = value;
       this.left = left;
@@ -207,13 +384,26 @@ public final class TreeDictLong<V> extends TreeDictBase<V, TreeDictLong<V>> impl
     }
 
     @Override
-    Element<V> updateChildren(final Element<V> newLeft, final Element<V> newRight) {
-      return new Node<>(key, value, newLeft, newRight);
+    Element<V> updateChildren(final Object edit, final Element<V> newLeft,
+        final Element<V> newRight) {
+      if (edit != null && edit == this.edit) {
+        this.left = newLeft;
+        this.right = newRight;
+        this.size = newLeft.getSize() + newRight.getSize() + 1;
+        return this;
+      }
+
+      return new Node<>(edit, key, value, newLeft, newRight);
     }
 
     @Override
-    Element<V> updateValue(final V newValue) {
-      return new Node<>(key, newValue, left, right);
+    Element<V> updateValue(final Object edit, final V newValue) {
+      if (edit != null && edit == this.edit) {
+        this.value = newValue;
+        return this;
+      }
+
+      return new Node<>(edit, key, newValue, left, right);
     }
 
     @Override
@@ -0,0 +1,310 @@
+package hurricane.core.collections;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.OptionalLong;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+import java.util.stream.Collector;
+
+public final class TreeDictLongLong extends TreeDictBase<Long, TreeDictLongLong> implements
+    LongLongDict {
+
+  private static final TreeDictLongLong EMPTY = new TreeDictLongLong(Element.empty());
+
+  private final Element root;
+
+  private TreeDictLongLong(final Element root) {
+    this.root = root;
+  }
+
+  static TreeDictLongLong empty() {
+    return EMPTY;
+  }
+
+  static <T> Collector<T, ?, LongLongDict> collector(final ToLongFunction<? super T> keyMapper,
+      final ToLongFunction<? super T> valueMapper) {
+    Objects.requireNonNull(keyMapper, "keyMapper cannot be null");
+    Objects.requireNonNull(valueMapper, "valueMapper cannot be null");
+
+    return Collector.<T, List<Leaf>, LongLongDict>of(
+        ArrayList::new,
+        (list, item) -> list.add(new Leaf(
+            keyMapper.applyAsLong(item),
+            valueMapper.applyAsLong(item))),
+        (a, b) -> {
+          a.addAll(b);
+          return a;
+        },
+        leaves -> {
+          sortDistinct(leaves, (a, b) -> Long.compare(a.getKey(), b.getKey()));
+          return new TreeDictLongLong(buildBalanced(
+              0,
+              leaves.size(),
+              Element.empty(),
+              (index, left, right) -> leaves.get(index).updateChildren(left, right)
+          ));
+        }
+    );
+  }
+
+  @Override
+  public OptionalLong lookup(final long key) {
+    final Element element = find(key);
+    return element == null ? OptionalLong.empty() : OptionalLong.of(element.getLongValue());
+  }
+
+  @Override
+  public long getOrDefault(final long key, final long defaultValue) {
+    final Element element = find(key);
+    return element == null ? defaultValue : element.getLongValue();
+  }
+
+  @Override
+  public boolean containsKey(final long key) {
+    return find(key) != null;
+  }
+
+  @Override
+  public LongLongDict put(final long key, final long value) {
+    final Element element = find(key);
+
+    // Skip the insert, and the boxing of the value it implies, when nothing changes:
+    if (element != null && element.getLongValue() == value) {
+      return this;
+    }
+
+    return replaceRoot(root.doInsert(
+        null,
+        makeComparator(key),
+        val -> new Leaf(key, val),
+        value
+    ));
+  }
+
+  @Override
+  public LongLongDict delete(final long key) {
+    if (find(key) == null) {
+      return this;
+    }
+
+    return replaceRoot(root.doDelete(null, makeComparator(key)));
+  }
+
+  @Override
+  public int getSize() {
+    return root.getSize();
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return root.isEmpty();
+  }
+
+  private Element find(final long key) {
+    Element current = root;
+
+    while (!current.isEmpty()) {
+      final long currentKey = current.getKey();
+
+      if (key == currentKey) {
+        return current;
+      }
+
+      current = key < currentKey ? current.getLeft() : current.getRight();
+    }
+
+    return null;
+  }
+
+  private static ToIntFunction<Element> makeComparator(final long key) {
+    return node -> Long.compare(key, node.getKey());
+  }
+
+  private LongLongDict replaceRoot(final Element newRoot) {
+    return newRoot == root
+        ? this
+        : new TreeDictLongLong(newRoot);
+  }
+
+  static abstract class Element extends TreeDictBase.Element<Long, Element> {
+
+    public static Element empty() {
+      return Empty.VALUE;
+    }
+
+    abstract long getKey();
+
+    abstract long getLongValue();
+
+    @Override
+    final Long getValue() {
+      return getLongValue();
+    }
+  }
+
+  final static class Empty extends Element {
+    private final static Empty VALUE = new Empty();
+
+    @Override
+    long getKey() {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    long getLongValue() {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    Element getLeft() {
+      return this;
+    }
+
+    @Override
+    Element getRight() {
+      return this;
+    }
+
+    @Override
+    Element updateChildren(final Object edit, final Element newLeft, final Element newRight) {
+      if (!newLeft.isEmpty() || !newRight.isEmpty()) {
+        throw new IllegalArgumentException(
+            "Empty node children can only be updated to empty values");
+      }
+
+      return this;
+    }
+
+    @Override
+    Element updateValue(final Object edit, final Long newValue) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public int getSize() {
+      return 0;
+    }
+
+    @Override
+    public boolean isEmpty() {
+      return true;
+    }
+  }
+
+  final static class Leaf extends Element {
+    private final long key;
+    private final long value;
+
+    Leaf(final long key, final long value) {
+      this.key = key;
+      this.value = value;
+    }
+
+    @Override
+    public int getSize() {
+      return 1;
+    }
+
+    @Override
+    Element getLeft() {
+      return empty();
+    }
+
+    @Override
+    Element getRight() {
+      return empty();
+    }
+
+    @Override
+    long getLongValue() {
+      return value;
+    }
+
+    @Override
+    Element updateChildren(final Object edit, final Element newLeft, final Element newRight) {
+      if (newLeft.isEmpty() && newRight.isEmpty()) {
+        return this;
+      }
+
+      return new Node(edit, key, value, newLeft, newRight);
+    }
+
+    @Override
+    Element updateValue(final Object edit, final Long newValue) {
+      return new Leaf(key, newValue);
+    }
+
+    @Override
+    long getKey() {
+      return key;
+    }
+  }
+
+  final static class Node extends Element {
+    private final Object edit;
+    private final long key;
+    private long value;
+    private Element left;
+    private Element right;
+    private int size;
+
+    Node(final Object edit, final long key, final long value, final Element left,
+        final Element right) {
+      this.edit = edit;
+      this.key = key;
+      this.value = value;
+      this.left = left;
+      this.right = right;
+      this.size = left.getSize() + right.getSize() + 1;
+    }
+
+    @Override
+    public int getSize() {
+      return size;
+    }
+
+    @Override
+    public Element getLeft() {
+      return left;
+    }
+
+    @Override
+    public Element getRight() {
+      return right;
+    }
+
+    @Override
+    long getLongValue() {
+      return value;
+    }
+
+    @Override
+    Element updateChildren(final Object edit, final Element newLeft, final Element newRight) {
+      if (edit != null && edit == this.edit) {
+        this.left = newLeft;
+        this.right = newRight;
+        this.size = newLeft.getSize() + newRight.getSize() + 1;
+        return this;
+      }
+
+      return new Node(edit, key, value, newLeft, newRight);
+    }
+
+    @Override
+    Element updateValue(final Object edit, final Long newValue) {
+      if (edit != null && edit == this.edit) {
+        this.value = newValue;
+        return this;
+      }
+
+      return new Node(edit, key, newValue, left, right);
+    }
+
+    @Override
+    long getKey() {
+      return key;
+    }
+  }
+}
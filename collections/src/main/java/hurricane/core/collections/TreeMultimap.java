@@ -0,0 +1,344 @@
+package hurricane.core.collections;
+
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collector;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * A multimap backed by a single {@link TreePersistentSet} of key-value pairs, ordered by key and
+ * then by value. The values of a key are a contiguous range of the tree, which is located by
+ * searching for bounds that sort before and after all pairs of the key.
+ *
+ * @param <K>
+ * @param <V>
+ */
+public final class TreeMultimap<K, V> implements Multimap<K, V> {
+
+  private final PairOrder<K, V> order;
+  private final SortedPersistentSet<Map.Entry<K, V>> pairs;
+
+  private TreeMultimap(final PairOrder<K, V> order,
+      final SortedPersistentSet<Map.Entry<K, V>> pairs) {
+    this.order = order;
+    this.pairs = pairs;
+  }
+
+  static <K, V> TreeMultimap<K, V> empty(final Comparator<K> keyComparator,
+      final Comparator<V> valueComparator) {
+    final PairOrder<K, V> order = new PairOrder<>(
+        Objects.requireNonNull(keyComparator, "keyComparator cannot be null"),
+        Objects.requireNonNull(valueComparator, "valueComparator cannot be null")
+    );
+
+    return new TreeMultimap<>(order, TreePersistentSet.empty(order));
+  }
+
+  static <T, K, V> Collector<T, ?, Multimap<K, V>> collector(final Comparator<K> keyComparator,
+      final Comparator<V> valueComparator, final Function<? super T, ? extends K> keyMapper,
+      final Function<? super T, ? extends V> valueMapper) {
+    Objects.requireNonNull(keyMapper, "keyMapper cannot be null");
+    Objects.requireNonNull(valueMapper, "valueMapper cannot be null");
+
+    final TreeMultimap<K, V> empty = empty(keyComparator, valueComparator);
+
+    return Collectors.collectingAndThen(
+        Collectors.mapping(
+            item -> pair(keyMapper.apply(item), valueMapper.apply(item)),
+            TreePersistentSet.collector(empty.order)
+        ),
+        pairs -> new TreeMultimap<>(empty.order, pairs)
+    );
+  }
+
+  @Override
+  public int getSize() {
+    return pairs.getSize();
+  }
+
+  @Override
+  public boolean contains(final K key, final V value) {
+    return key != null && value != null && pairs.contains(new Bound<>(key, value, 0));
+  }
+
+  @Override
+  public boolean containsKey(final K key) {
+    return key != null && first(key).isPresent();
+  }
+
+  @Override
+  public Multimap<K, V> put(final K key, final V value) {
+    return replacePairs(pairs.add(pair(key, value)));
+  }
+
+  @Override
+  public Multimap<K, V> delete(final K key, final V value) {
+    if (key == null || value == null) {
+      return this;
+    }
+
+    return replacePairs(pairs.delete(new Bound<>(key, value, 0)));
+  }
+
+  @Override
+  public Multimap<K, V> putAll(final K key, final Iterable<? extends V> values) {
+    Objects.requireNonNull(key, "key cannot be null");
+    Objects.requireNonNull(values, "values cannot be null");
+
+    final List<Map.Entry<K, V>> list = new ArrayList<>();
+    for (final V value : values) {
+      list.add(pair(key, value));
+    }
+
+    return replacePairs(pairs.addAll(list));
+  }
+
+  @Override
+  public Multimap<K, V> deleteAll(final K key) {
+    if (key == null || !containsKey(key)) {
+      return this;
+    }
+
+    return replacePairs(pairs.difference(pairs.subSet(lowerBound(key), upperBound(key))));
+  }
+
+  @Override
+  public Stream<V> get(final K key) {
+    Objects.requireNonNull(key, "key cannot be null");
+
+    return pairs.stream(lowerBound(key))
+        .takeWhile(pair -> order.keyComparator.compare(pair.getKey(), key) == 0)
+        .map(Map.Entry::getValue);
+  }
+
+  @Override
+  public int count(final K key) {
+    Objects.requireNonNull(key, "key cannot be null");
+
+    return pairs.count(lowerBound(key), upperBound(key));
+  }
+
+  @Override
+  public Optional<V> first(final K key) {
+    Objects.requireNonNull(key, "key cannot be null");
+
+    return pairs.ceiling(lowerBound(key))
+        .filter(pair -> order.keyComparator.compare(pair.getKey(), key) == 0)
+        .map(Map.Entry::getValue);
+  }
+
+  @Override
+  public Stream<K> keys() {
+    return Stream.iterate(
+        isEmpty() ? null : pairs.get(0).getKey(),
+        Objects::nonNull,
+        key -> pairs.higher(upperBound(key)).map(Map.Entry::getKey).orElse(null)
+    );
+  }
+
+  @Override
+  public Stream<Map.Entry<K, V>> entries() {
+    return pairs.stream();
+  }
+
+  @Override
+  public Stream<Map.Entry<K, List<V>>> groups() {
+    return StreamSupport.stream(new GroupSpliterator<>(order.keyComparator,
+        pairs.stream().iterator()), false);
+  }
+
+  @Override
+  public Comparator<K> getKeyComparator() {
+    return order.keyComparator;
+  }
+
+  @Override
+  public Comparator<V> getValueComparator() {
+    return order.valueComparator;
+  }
+
+  @Override
+  public TransientMultimap<K, V> asTransient() {
+    return new Transient<>(order, pairs.asTransient());
+  }
+
+  private Multimap<K, V> replacePairs(final SortedPersistentSet<Map.Entry<K, V>> newPairs) {
+    return newPairs == pairs
+        ? this
+        : new TreeMultimap<>(order, newPairs);
+  }
+
+  private static <K, V> Map.Entry<K, V> pair(final K key, final V value) {
+    return new SimpleImmutableEntry<>(
+        Objects.requireNonNull(key, "key cannot be null"),
+        Objects.requireNonNull(value, "value cannot be null")
+    );
+  }
+
+  private static <K, V> Map.Entry<K, V> lowerBound(final K key) {
+    return new Bound<>(key, null, -1);
+  }
+
+  private static <K, V> Map.Entry<K, V> upperBound(final K key) {
+    return new Bound<>(key, null, 1);
+  }
+
+  @Override
+  public boolean equals(final Object obj) {
+    if (this == obj) {
+      return true;
+    }
+
+    if (!(obj instanceof TreeMultimap<?, ?>)) {
+      return false;
+    }
+
+    return pairs.equals(((TreeMultimap<?, ?>) obj).pairs);
+  }
+
+  @Override
+  public int hashCode() {
+    return pairs.hashCode();
+  }
+
+  @Override
+  public String toString() {
+    return groups()
+        .map(group -> group.getKey() + "=" + group.getValue())
+        .collect(Collectors.joining(", ", "{", "}"));
+  }
+
+  /**
+   * A pair used only for searching. Bounds with a side of -1 or 1 sort before or after all pairs
+   * of their key, a side of 0 compares like a pair.
+   */
+  private static final class Bound<K, V> extends SimpleImmutableEntry<K, V> {
+    private static final long serialVersionUID = 1L;
+
+    private final int side;
+
+    private Bound(final K key, final V value, final int side) {
+      super(key, value);
+      this.side = side;
+    }
+  }
+
+  private static final class PairOrder<K, V> implements Comparator<Map.Entry<K, V>> {
+    private final Comparator<K> keyComparator;
+    private final Comparator<V> valueComparator;
+
+    private PairOrder(final Comparator<K> keyComparator, final Comparator<V> valueComparator) {
+      this.keyComparator = keyComparator;
+      this.valueComparator = valueComparator;
+    }
+
+    @Override
+    public int compare(final Map.Entry<K, V> a, final Map.Entry<K, V> b) {
+      final int compare = keyComparator.compare(a.getKey(), b.getKey());
+
+      if (compare != 0) {
+        return compare;
+      }
+
+      final int sideA = a instanceof Bound<?, ?> ? ((Bound<?, ?>) a).side : 0;
+      final int sideB = b instanceof Bound<?, ?> ? ((Bound<?, ?>) b).side : 0;
+
+      return sideA != 0 || sideB != 0
+          ? Integer.compare(sideA, sideB)
+          : valueComparator.compare(a.getValue(), b.getValue());
+    }
+  }
+
+  /**
+   * Collects consecutive pairs with equal keys into groups, looking ahead one pair.
+   */
+  private static final class GroupSpliterator<K, V>
+      extends Spliterators.AbstractSpliterator<Map.Entry<K, List<V>>> {
+
+    private final Comparator<K> keyComparator;
+    private final Iterator<Map.Entry<K, V>> iterator;
+    private Map.Entry<K, V> next;
+
+    private GroupSpliterator(final Comparator<K> keyComparator,
+        final Iterator<Map.Entry<K, V>> iterator) {
+      super(Long.MAX_VALUE, Spliterator.IMMUTABLE | Spliterator.ORDERED | Spliterator.NONNULL
+          | Spliterator.DISTINCT);
+      this.keyComparator = keyComparator;
+      this.iterator = iterator;
+      this.next = iterator.hasNext() ? iterator.next() : null;
+    }
+
+    @Override
+    public boolean tryAdvance(final Consumer<? super Map.Entry<K, List<V>>> action) {
+      if (next == null) {
+        return false;
+      }
+
+      final K key = next.getKey();
+      final List<V> values = new ArrayList<>();
+
+      do {
+        values.add(next.getValue());
+        next = iterator.hasNext() ? iterator.next() : null;
+      } while (next != null && keyComparator.compare(next.getKey(), key) == 0);
+
+      action.accept(new SimpleImmutableEntry<>(key, Collections.unmodifiableList(values)));
+      return true;
+    }
+  }
+
+  private static final class Transient<K, V> implements TransientMultimap<K, V> {
+
+    private final PairOrder<K, V> order;
+    private final TransientSet<Map.Entry<K, V>> pairs;
+
+    private Transient(final PairOrder<K, V> order,
+        final TransientSet<Map.Entry<K, V>> pairs) {
+      this.order = order;
+      this.pairs = pairs;
+    }
+
+    @Override
+    public int getSize() {
+      return pairs.getSize();
+    }
+
+    @Override
+    public boolean contains(final K key, final V value) {
+      return key != null && value != null && pairs.contains(new Bound<>(key, value, 0));
+    }
+
+    @Override
+    public TransientMultimap<K, V> put(final K key, final V value) {
+      pairs.add(pair(key, value));
+      return this;
+    }
+
+    @Override
+    public TransientMultimap<K, V> delete(final K key, final V value) {
+      if (key != null && value != null) {
+        pairs.delete(new Bound<>(key, value, 0));
+      }
+      return this;
+    }
+
+    @Override
+    public Multimap<K, V> persistent() {
+      return new TreeMultimap<>(order,
+          (SortedPersistentSet<Map.Entry<K, V>>) pairs.persistent());
+    }
+  }
+}
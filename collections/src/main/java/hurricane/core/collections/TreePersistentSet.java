@@ -1,17 +1,22 @@
 package hurricane.core.collections;
 
+import java.util.ArrayList;
 import java.util.Comparator;
-import java.util.Iterator;
+import java.util.List;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.Spliterator;
-import java.util.Stack;
-import java.util.function.Consumer;
 import java.util.function.ToIntFunction;
+import java.util.stream.Collector;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
 
 public final class TreePersistentSet<V> extends TreeDictBase<V, TreePersistentSet<V>> implements
-    PersistentSet<V> {
+    SortedPersistentSet<V> {
+
+  private static final int CHARACTERISTICS = Spliterator.IMMUTABLE | Spliterator.ORDERED
+      | Spliterator.NONNULL | Spliterator.DISTINCT | Spliterator.SORTED;
 
   private final Comparator<V> comparator;
   private final Element<V> root;
@@ -32,28 +37,150 @@ public final class TreePersistentSet<V> extends TreeDictBase<V, TreePersistentSe
     );
   }
 
+  static <V> TreePersistentSet<V> fromSorted(final Comparator<V> comparator,
+      final Iterable<? extends V> values) {
+    Objects.requireNonNull(comparator, "comparator cannot be null");
+    Objects.requireNonNull(values, "values cannot be null");
+
+    final List<V> list = new ArrayList<>();
+    for (final V value : values) {
+      list.add(Objects.requireNonNull(value, "value cannot be null"));
+    }
+
+    requireSortedDistinct(list, comparator);
+
+    return build(comparator, list);
+  }
+
+  static <V> Collector<V, ?, SortedPersistentSet<V>> collector(final Comparator<V> comparator) {
+    Objects.requireNonNull(comparator, "comparator cannot be null");
+
+    return Collector.<V, List<V>, SortedPersistentSet<V>>of(
+        ArrayList::new,
+        (list, value) -> list.add(Objects.requireNonNull(value, "value cannot be null")),
+        (a, b) -> {
+          a.addAll(b);
+          return a;
+        },
+        list -> {
+          sortDistinct(list, comparator);
+          return build(comparator, list);
+        }
+    );
+  }
+
+  /**
+   * Builds a balanced set out of a list of values that is sorted and contains no duplicates.
+   */
+  private static <V> TreePersistentSet<V> build(final Comparator<V> comparator,
+      final List<V> values) {
+    return new TreePersistentSet<>(comparator, buildBalanced(
+        0,
+        values.size(),
+        Element.<V>empty(),
+        (index, left, right) -> left.isEmpty() && right.isEmpty()
+            ? new Leaf<>(values.get(index))
+            : new Node<>(values.get(index), left, right)
+    ));
+  }
+
   @Override
   public boolean contains(final V value) {
-    return root.doGet(makeComparator(value)).isPresent();
+    return root.doGet(makeComparator(comparator, value)).isPresent();
   }
 
   @Override
-  public PersistentSet<V> add(final V value) {
+  public SortedPersistentSet<V> add(final V value) {
     Objects.requireNonNull(value, "value cannot be null");
 
-    return replaceRoot(root.doInsert(
-        makeComparator(value),
-        val -> new Leaf<>(val),
-        value));
+    return replaceRoot(insert(null, comparator, root, value));
   }
 
   @Override
-  public PersistentSet<V> delete(final V value) {
+  public SortedPersistentSet<V> delete(final V value) {
     if (value == null) {
       return this;
     }
 
-    return replaceRoot(root.doDelete(makeComparator(value)));
+    return replaceRoot(root.doDelete(null, makeComparator(comparator, value)));
+  }
+
+  /**
+   * Sorts the values and merges them into this set with a single union, which copies every
+   * touched node once instead of once per value.
+   */
+  @Override
+  public SortedPersistentSet<V> addAll(final Iterable<? extends V> values) {
+    Objects.requireNonNull(values, "values cannot be null");
+
+    final List<V> list = new ArrayList<>();
+    for (final V value : values) {
+      list.add(Objects.requireNonNull(value, "value cannot be null"));
+    }
+
+    sortDistinct(list, comparator);
+
+    return list.isEmpty()
+        ? this
+        : replaceRoot(union(elementOrder(), root, build(comparator, list).root));
+  }
+
+  @Override
+  public SortedPersistentSet<V> deleteAll(final Iterable<? extends V> values) {
+    Objects.requireNonNull(values, "values cannot be null");
+
+    final List<V> list = new ArrayList<>();
+    for (final V value : values) {
+      if (value != null) {
+        list.add(value);
+      }
+    }
+
+    sortDistinct(list, comparator);
+
+    return list.isEmpty()
+        ? this
+        : replaceRoot(difference(elementOrder(), root, build(comparator, list).root));
+  }
+
+  @Override
+  public SortedPersistentSet<V> union(final PersistentSet<V> other) {
+    return replaceRoot(union(elementOrder(), root, elementsOf(other)));
+  }
+
+  @Override
+  public SortedPersistentSet<V> intersection(final PersistentSet<V> other) {
+    return replaceRoot(intersection(elementOrder(), root, elementsOf(other)));
+  }
+
+  @Override
+  public SortedPersistentSet<V> difference(final PersistentSet<V> other) {
+    return replaceRoot(difference(elementOrder(), root, elementsOf(other)));
+  }
+
+  /**
+   * Returns the changes that turn this set into the other set in ascending order. When the other
+   * set is a version of this set, subtrees that both share are skipped, so this takes time
+   * proportional to the changes between them.
+   */
+  @Override
+  public Stream<SetChange<V>> diff(final PersistentSet<V> other) {
+    final List<SetChange<V>> changes = new ArrayList<>();
+
+    diff(elementOrder(), root, elementsOf(other), (a, b) -> {
+      if (a == null) {
+        changes.add(SetChange.added(b.getKey()));
+      } else if (b == null) {
+        changes.add(SetChange.removed(a.getKey()));
+      }
+    });
+
+    return changes.stream();
+  }
+
+  @Override
+  public TransientSet<V> asTransient() {
+    return new Transient<>(comparator, root);
   }
 
   @Override
@@ -71,55 +198,151 @@ public final class TreePersistentSet<V> extends TreeDictBase<V, TreePersistentSe
     return StreamSupport.stream(spliterator(), false);
   }
 
-  private PersistentSet<V> replaceRoot(final Element<V> newRoot) {
+  @Override
+  public Stream<V> stream(final V from) {
+    return StreamSupport.stream(new ElementSpliterator<>(
+        root,
+        makeComparator(comparator, Objects.requireNonNull(from, "from cannot be null")),
+        Element::getValue,
+        comparator,
+        CHARACTERISTICS
+    ), false);
+  }
+
+  @Override
+  public Optional<V> floor(final V value) {
+    return valueOf(root.doFloor(makeComparator(comparator, value), true));
+  }
+
+  @Override
+  public Optional<V> ceiling(final V value) {
+    return valueOf(root.doCeiling(makeComparator(comparator, value), true));
+  }
+
+  @Override
+  public Optional<V> lower(final V value) {
+    return valueOf(root.doFloor(makeComparator(comparator, value), false));
+  }
+
+  @Override
+  public Optional<V> higher(final V value) {
+    return valueOf(root.doCeiling(makeComparator(comparator, value), false));
+  }
+
+  @Override
+  public SortedPersistentSet<V> subSet(final V from, final V to) {
+    if (comparator.compare(from, to) > 0) {
+      throw new IllegalArgumentException("from cannot be greater than to");
+    }
+
+    return replaceRoot(range(
+        root,
+        makeComparator(comparator, from),
+        makeComparator(comparator, to)
+    ));
+  }
+
+  @Override
+  public SortedPersistentSet<V> headSet(final V to) {
+    return replaceRoot(range(root, null, makeComparator(comparator, to)));
+  }
+
+  @Override
+  public SortedPersistentSet<V> tailSet(final V from) {
+    return replaceRoot(range(root, makeComparator(comparator, from), null));
+  }
+
+  @Override
+  public int indexOf(final V value) {
+    return root.doIndexOf(makeComparator(comparator, value));
+  }
+
+  @Override
+  public V get(final int index) {
+    return root.doSelect(index).getValue();
+  }
+
+  @Override
+  public int count(final V from, final V to) {
+    if (comparator.compare(from, to) > 0) {
+      throw new IllegalArgumentException("from cannot be greater than to");
+    }
+
+    return root.doRank(makeComparator(comparator, to))
+        - root.doRank(makeComparator(comparator, from));
+  }
+
+  private SortedPersistentSet<V> replaceRoot(final Element<V> newRoot) {
     return newRoot == root
         ? this
         : new TreePersistentSet<>(comparator, newRoot);
   }
 
-  private ToIntFunction<Element<V>> makeComparator(final V value) {
+  private Comparator<Element<V>> elementOrder() {
+    return (a, b) -> comparator.compare(a.getKey(), b.getKey());
+  }
+
+  /**
+   * Returns the elements of another set, ordered by the comparator of this set.
+   */
+  private Element<V> elementsOf(final PersistentSet<V> other) {
+    Objects.requireNonNull(other, "other cannot be null");
+
+    if (other instanceof TreePersistentSet<?>
+        && comparator.equals(((TreePersistentSet<V>) other).comparator)) {
+      return ((TreePersistentSet<V>) other).root;
+    }
+
+    final List<V> values = other.stream().collect(Collectors.toList());
+    sortDistinct(values, comparator);
+    return build(comparator, values).root;
+  }
+
+  private static <V> Element<V> insert(final Object edit, final Comparator<V> comparator,
+      final Element<V> root, final V value) {
+    return root.doInsert(
+        edit,
+        makeComparator(comparator, value),
+        Leaf::new,
+        value);
+  }
+
+  private static <V> ToIntFunction<Element<V>> makeComparator(final Comparator<V> comparator,
+      final V value) {
     return node -> comparator.compare(value, node.getKey());
   }
 
-  private ElementSpliterator<V> spliterator() {
-    return new ElementSpliterator<>(root);
+  private Spliterator<V> spliterator() {
+    return new ElementSpliterator<>(root, Element::getValue, comparator, CHARACTERISTICS);
+  }
+
+  private static <V> Optional<V> valueOf(final Element<V> element) {
+    return element == null ? Optional.empty() : Optional.of(element.getValue());
   }
 
+  /**
+   * Compares the values of both sets in order. Subtrees shared with the other set are skipped, so
+   * comparing two versions of a set takes time proportional to the changes between them.
+   */
   @Override
+  @SuppressWarnings("unchecked")
   public boolean equals(final Object obj) {
     if (!(obj instanceof TreePersistentSet<?>)) {
       return false;
     }
 
-    final TreePersistentSet<?> other = (TreePersistentSet<?>) obj;
-
-    // Pre-test by comparing size:
-    if (getSize() != other.getSize()) {
-      return false;
-    }
-
-    final Iterator<?> iteratorA = stream().iterator();
-    final Iterator<?> iteratorB = other.stream().iterator();
+    final TreePersistentSet<V> other = (TreePersistentSet<V>) obj;
 
-    while (iteratorA.hasNext() && iteratorB.hasNext()) {
-      if (!Objects.equals(iteratorA.next(), iteratorB.next())) {
-        return false;
-      }
-    }
-
-    return !iteratorA.hasNext() && !iteratorB.hasNext();
+    return equalElements(root, other.root, (a, b) -> Objects.equals(a.getKey(), b.getKey()));
   }
 
+  /**
+   * Returns the same hash code as a list of the values in order. The hash of each subtree is
+   * cached, so after an update only the hashes on the changed path are recomputed.
+   */
   @Override
   public int hashCode() {
-    int hashCode = 1;
-
-    final Iterator<V> iterator = stream().iterator();
-    while (iterator.hasNext()) {
-      hashCode = 31 * hashCode + Objects.hashCode(iterator.next());
-    }
-
-    return hashCode;
+    return power31(getSize()) + orderedHash(root, element -> Objects.hashCode(element.getKey()));
   }
 
   static abstract class Element<V> extends TreeDictBase.Element<V, Element<V>> {
@@ -151,7 +374,7 @@ public final class TreePersistentSet<V> extends TreeDictBase<V, TreePersistentSe
     }
 
     @Override
-    Element<V> updateValue(final V newValue) {
+    Element<V> updateValue(final Object edit, final V newValue) {
       throw new UnsupportedOperationException();
     }
 
@@ -176,7 +399,8 @@ public final class TreePersistentSet<V> extends TreeDictBase<V, TreePersistentSe
     }
 
     @Override
-    Element<V> updateChildren(final Element<V> newLeft, final Element<V> newRight) {
+    Element<V> updateChildren(final Object edit, final Element<V> newLeft,
+        final Element<V> newRight) {
       if (newLeft != value() || newRight != value()) {
         throw new IllegalArgumentException(
             "Empty node children can only be updated to empty nodes");
@@ -199,7 +423,7 @@ public final class TreePersistentSet<V> extends TreeDictBase<V, TreePersistentSe
     }
 
     @Override
-    Element<V> updateValue(V newValue) {
+    Element<V> updateValue(final Object edit, final V newValue) {
       return new Leaf<>(newValue);
     }
 
@@ -229,12 +453,13 @@ public final class TreePersistentSet<V> extends TreeDictBase<V, TreePersistentSe
     }
 
     @Override
-    Element<V> updateChildren(final Element<V> newLeft, final Element<V> newRight) {
+    Element<V> updateChildren(final Object edit, final Element<V> newLeft,
+        final Element<V> newRight) {
       if (newLeft.isEmpty() && newRight.isEmpty()) {
         return this;
       }
 
-      return new Node<>(value, newLeft, newRight);
+      return new Node<>(edit, value, newLeft, newRight);
     }
 
     @Override
@@ -244,12 +469,19 @@ public final class TreePersistentSet<V> extends TreeDictBase<V, TreePersistentSe
   }
 
   final static class Node<V> extends Element<V> {
-    private final V value;
-    private final Element<V> left;
-    private final Element<V> right;
-    private final int size;
+    private final Object edit;
+    private V value;
+    private Element<V> left;
+    private Element<V> right;
+    private int size;
+    private int hash;
 
     Node(final V value, final Element<V> left, final Element<V> right) {
+      this(null, value, left, right);
+    }
+
+    Node(final Object edit, final V value, final Element<V> left, final Element<V> right) {
+      this.edit = edit;
       this.value = value;
       this.left = left;
       this.right = right;
@@ -257,8 +489,14 @@ public final class TreePersistentSet<V> extends TreeDictBase<V, TreePersistentSe
     }
 
     @Override
-    Element<V> updateValue(V newValue) {
-      return new Node<>(newValue, left, right);
+    Element<V> updateValue(final Object edit, final V newValue) {
+      if (edit != null && edit == this.edit) {
+        this.value = newValue;
+        this.hash = 0;
+        return this;
+      }
+
+      return new Node<>(edit, newValue, left, right);
     }
 
     @Override
@@ -281,17 +519,35 @@ public final class TreePersistentSet<V> extends TreeDictBase<V, TreePersistentSe
       return value;
     }
 
+    @Override
+    int getCachedHash() {
+      return hash;
+    }
+
+    @Override
+    void setCachedHash(final int hash) {
+      this.hash = hash;
+    }
+
     @Override
     public V getValue() {
       return value;
     }
 
     @Override
-    Element<V> updateChildren(
-        Element<V> newLeft, Element<V> newRight) {
+    Element<V> updateChildren(final Object edit, final Element<V> newLeft,
+        final Element<V> newRight) {
+      if (edit != null && edit == this.edit) {
+        this.left = newLeft;
+        this.right = newRight;
+        this.size = newLeft.getSize() + newRight.getSize() + 1;
+        this.hash = 0;
+        return this;
+      }
+
       return newLeft.isEmpty() && newRight.isEmpty()
           ? new Leaf<>(value)
-          : new Node<>(value, newLeft, newRight);
+          : new Node<>(edit, value, newLeft, newRight);
     }
 
     @Override
@@ -300,58 +556,59 @@ public final class TreePersistentSet<V> extends TreeDictBase<V, TreePersistentSe
     }
   }
 
-  private static final class ElementSpliterator<V> implements Spliterator<V> {
+  private static final class Transient<V> implements TransientSet<V> {
 
-    private final Stack<Element<V>> stack;
+    private final Comparator<V> comparator;
+    private Element<V> root;
+    private Object edit = new Object();
 
-    private ElementSpliterator(final Element<V> root) {
-      // Locate the left most element, while keeping track of the:
-      this.stack = new Stack<>();
-      expandLeftPath(root);
+    private Transient(final Comparator<V> comparator, final Element<V> root) {
+      this.comparator = comparator;
+      this.root = root;
     }
 
-    private void expandLeftPath(Element<V> current) {
-      while (!current.isEmpty()) {
-        this.stack.push(current);
-        current = current.getLeft();
-      }
+    @Override
+    public boolean contains(final V value) {
+      ensureEditable();
+      return root.doGet(makeComparator(comparator, value)).isPresent();
     }
 
     @Override
-    public boolean tryAdvance(final Consumer<? super V> consumer) {
-      if (stack.empty()) {
-        return false;
-      }
+    public TransientSet<V> add(final V value) {
+      Objects.requireNonNull(value, "value cannot be null");
+      ensureEditable();
 
-      final Element<V> currentElement = stack.pop();
+      root = insert(edit, comparator, root, value);
+      return this;
+    }
 
-      // Offer the current element to the consumer:
-      consumer.accept(currentElement.getValue());
+    @Override
+    public TransientSet<V> delete(final V value) {
+      ensureEditable();
 
-      // If the element has a right child, move down that path:
-      final Element<V> right = currentElement.getRight();
-      if (!right.isEmpty()) {
-        expandLeftPath(right);
+      if (value != null) {
+        root = root.doDelete(edit, makeComparator(comparator, value));
       }
-
-      // If there is no right branch, return and offer the value of the parent element at the
-      // next invocation of advance:
-      return true;
+      return this;
     }
 
     @Override
-    public Spliterator<V> trySplit() {
-      return null;
+    public int getSize() {
+      ensureEditable();
+      return root.getSize();
     }
 
     @Override
-    public long estimateSize() {
-      return Long.MAX_VALUE;
+    public PersistentSet<V> persistent() {
+      ensureEditable();
+      edit = null;
+      return new TreePersistentSet<>(comparator, root);
     }
 
-    @Override
-    public int characteristics() {
-      return IMMUTABLE | ORDERED | NONNULL;
+    private void ensureEditable() {
+      if (edit == null) {
+        throw new IllegalStateException("Transient used after call to persistent()");
+      }
     }
   }
 }
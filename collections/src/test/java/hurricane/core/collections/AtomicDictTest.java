@@ -0,0 +1,67 @@
+package hurricane.core.collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+
+public class AtomicDictTest {
+
+  @Test
+  public void testUpdates() {
+    final AtomicDict<String, Integer> dict = new AtomicDict<>(Dict.hashed());
+
+    dict.put("a", 1);
+    dict.putAll(Map.of("b", 2, "c", 3));
+    dict.delete("c");
+    dict.commit(editable -> editable.put("d", 4).delete("a"));
+
+    assertEquals(Optional.of(2), dict.lookup("b"));
+    assertEquals(Optional.empty(), dict.lookup("a"));
+    assertEquals(2, dict.get().getSize());
+    assertEquals(4, dict.getUpdateCount());
+
+    final Dict<String, Integer> current = dict.get();
+    assertSame(current, dict.deleteAll(List.of("x", "y")));
+    assertEquals(4, dict.getUpdateCount());
+  }
+
+  @Test
+  public void testConcurrentIncrements() throws Exception {
+    final AtomicDict<Integer, Integer> dict = new AtomicDict<>(Dict.<Integer, Integer>empty());
+    final ExecutorService executor = Executors.newFixedThreadPool(8);
+
+    try {
+      final List<Future<?>> futures = new ArrayList<>();
+
+      for (int thread = 0; thread < 8; ++ thread) {
+        futures.add(executor.submit(() -> {
+          for (int i = 0; i < 10000; ++ i) {
+            final int key = i % 10;
+            dict.updateAndGet(value -> value.put(key, value.lookup(key).orElse(0) + 1));
+          }
+        }));
+      }
+
+      for (final Future<?> future : futures) {
+        future.get(1, TimeUnit.MINUTES);
+      }
+    } finally {
+      executor.shutdown();
+    }
+
+    for (int key = 0; key < 10; ++ key) {
+      assertEquals(Optional.of(8000), dict.lookup(key));
+    }
+
+    assertEquals(80000, dict.getUpdateCount());
+  }
+}
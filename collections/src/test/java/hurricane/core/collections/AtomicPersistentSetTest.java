@@ -0,0 +1,81 @@
+package hurricane.core.collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.Test;
+
+public class AtomicPersistentSetTest {
+
+  @Test
+  public void testUpdates() {
+    final AtomicPersistentSet<Integer> set = new AtomicPersistentSet<>(PersistentSet.<Integer>empty());
+
+    set.add(1);
+    set.addAll(List.of(2, 3, 4));
+    set.delete(3);
+
+    assertTrue(set.contains(1));
+    assertFalse(set.contains(3));
+    assertEquals(3, set.get().getSize());
+    assertEquals(3, set.getUpdateCount());
+    assertEquals(0, set.getRetryCount());
+
+    // Updates that don't change the set are not published:
+    final PersistentSet<Integer> current = set.get();
+    assertSame(current, set.add(1));
+    assertSame(current, set.delete(5));
+    assertEquals(3, set.getUpdateCount());
+
+    assertFalse(set.compareAndSet(PersistentSet.empty(), PersistentSet.empty()));
+    final PersistentSet<Integer> added = current.add(5);
+    assertTrue(set.compareAndSet(current, added));
+    assertSame(added, set.getAndUpdate(value -> value.delete(1)));
+    assertEquals(List.of(2, 4, 5), set.get().stream().collect(Collectors.toList()));
+  }
+
+  @Test
+  public void testConcurrentCommits() throws Exception {
+    final AtomicPersistentSet<Integer> set = new AtomicPersistentSet<>(PersistentSet.<Integer>empty());
+    final ExecutorService executor = Executors.newFixedThreadPool(8);
+
+    try {
+      final List<Future<?>> futures = new ArrayList<>();
+
+      for (int thread = 0; thread < 8; ++ thread) {
+        final int offset = thread * 10000;
+
+        futures.add(executor.submit(() -> {
+          for (int i = 0; i < 1000; ++ i) {
+            final int base = offset + i * 10;
+
+            if (i % 2 == 0) {
+              set.add(base);
+            } else {
+              set.commit(editable -> IntStream.range(base, base + 10).forEach(editable::add));
+            }
+          }
+        }));
+      }
+
+      for (final Future<?> future : futures) {
+        future.get(1, TimeUnit.MINUTES);
+      }
+    } finally {
+      executor.shutdown();
+    }
+
+    assertEquals(8 * (500 + 500 * 10), set.get().getSize());
+    assertEquals(8 * 1000, set.getUpdateCount());
+  }
+}
@@ -0,0 +1,201 @@
+package hurricane.core.collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.Test;
+
+public class BTreeDictTest {
+
+  private static SortedDict<Integer, String> range(final int from, final int to) {
+    SortedDict<Integer, String> dict = Dict.btree();
+
+    for (int i = from; i < to; ++ i) {
+      dict = dict.put(i, String.valueOf(i));
+    }
+
+    return dict;
+  }
+
+  private static <K, V> List<Map.Entry<K, V>> entries(final Dict<K, V> dict) {
+    return dict.entries().collect(Collectors.toList());
+  }
+
+  @Test
+  public void testPutAndLookup() {
+    final SortedDict<Integer, String> dict = range(0, 10000);
+
+    assertEquals(10000, dict.getSize());
+
+    for (int i = 0; i < 10000; ++ i) {
+      assertEquals(Optional.of(String.valueOf(i)), dict.lookup(i));
+    }
+
+    assertFalse(dict.containsKey(-1));
+    assertSame(dict, dict.put(5, "5"));
+    assertSame(dict, dict.delete(-1));
+    assertEquals(Optional.of("five"), dict.put(5, "five").lookup(5));
+    assertEquals(Optional.of("5"), dict.lookup(5));
+  }
+
+  @Test
+  public void testAgainstTreeMap() {
+    final Random random = new Random(42);
+    final TreeMap<Integer, Integer> expected = new TreeMap<>();
+    SortedDict<Integer, Integer> dict = Dict.btree();
+
+    for (int i = 0; i < 50000; ++ i) {
+      final int key = random.nextInt(2000);
+
+      if (random.nextInt(3) == 0) {
+        expected.remove(key);
+        dict = dict.delete(key);
+      } else {
+        expected.put(key, i);
+        dict = dict.put(key, i);
+      }
+
+      assertEquals(expected.size(), dict.getSize());
+    }
+
+    assertEquals(new ArrayList<>(expected.entrySet()), entries(dict));
+  }
+
+  @Test
+  public void testNavigationAndRanks() {
+    SortedDict<Integer, String> dict = Dict.btree();
+
+    for (int i = 0; i < 1000; ++ i) {
+      dict = dict.put(i * 10, String.valueOf(i));
+    }
+
+    assertEquals(Optional.of(50), dict.floorKey(55));
+    assertEquals(Optional.of(60), dict.ceilingKey(55));
+    assertEquals(Optional.of(40), dict.lowerKey(50));
+    assertEquals(Optional.of(60), dict.higherKey(50));
+    assertEquals(Optional.empty(), dict.lowerKey(0));
+    assertEquals(Optional.empty(), dict.higherKey(9990));
+
+    assertEquals(5, dict.indexOf(50));
+    assertEquals(-1, dict.indexOf(55));
+    assertEquals(Integer.valueOf(500), dict.keyAt(50));
+    assertEquals("50", dict.valueAt(50));
+    assertEquals(10, dict.count(100, 200));
+    assertEquals(
+        IntStream.range(995, 1000).map(i -> i * 10).boxed().collect(Collectors.toList()),
+        dict.entries(9941).map(Map.Entry::getKey).collect(Collectors.toList()));
+  }
+
+  @Test
+  public void testRanges() {
+    final SortedDict<Integer, String> dict = range(0, 10000);
+
+    final SortedDict<Integer, String> sub = dict.subDict(1234, 5678);
+    assertEquals(5678 - 1234, sub.getSize());
+    assertEquals(Integer.valueOf(1234), sub.keyAt(0));
+    assertEquals(Integer.valueOf(5677), sub.keyAt(sub.getSize() - 1));
+    assertFalse(sub.containsKey(5678));
+    assertEquals(1234, dict.headDict(1234).getSize());
+    assertEquals(10000 - 5678, dict.tailDict(5678).getSize());
+    assertSame(dict, dict.tailDict(-1));
+    assertTrue(dict.subDict(20000, 30000).isEmpty());
+
+    // Ranges remain updatable:
+    SortedDict<Integer, String> updated = sub;
+    for (int i = 0; i < 10000; i += 3) {
+      updated = updated.delete(i).put(-i, "x");
+    }
+
+    final TreeMap<Integer, String> expected = new TreeMap<>();
+    sub.entries().forEach(entry -> expected.put(entry.getKey(), entry.getValue()));
+    for (int i = 0; i < 10000; i += 3) {
+      expected.remove(i);
+      expected.put(-i, "x");
+    }
+
+    assertEquals(new ArrayList<>(expected.entrySet()), entries(updated));
+  }
+
+  @Test
+  public void testTransient() {
+    final SortedDict<Integer, String> dict = range(0, 1000);
+    final List<Map.Entry<Integer, String>> before = entries(dict);
+
+    final TransientDict<Integer, String> editable = dict.asTransient();
+    for (int i = 0; i < 1000; i += 2) {
+      editable.delete(i);
+      editable.put(i + 1000, "new");
+    }
+
+    final Dict<Integer, String> result = editable.persistent();
+
+    assertEquals(before, entries(dict));
+    assertEquals(1000, result.getSize());
+    assertFalse(result.containsKey(0));
+    assertEquals(Optional.of("new"), result.lookup(1998));
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testTransientAfterPersistent() {
+    final TransientDict<Integer, String> dict = Dict.<Integer, String>btree().asTransient();
+    dict.persistent();
+    dict.put(1, "1");
+  }
+
+  @Test
+  public void testSetOperations() {
+    final SortedDict<Integer, String> a = range(0, 1000);
+    final SortedDict<Integer, String> b = range(500, 2000).put(600, "b");
+
+    final SortedDict<Integer, String> union = a.union(b);
+    assertEquals(2000, union.getSize());
+    assertEquals(Optional.of("b"), union.lookup(600));
+    assertEquals(Optional.of("600"), b.union(a).lookup(600));
+    assertEquals(500, a.intersection(b).getSize());
+    assertEquals(500, a.difference(b).getSize());
+    assertSame(a, a.intersection(a));
+    assertSame(a, a.difference(Dict.btree()));
+
+    // Small operands and other implementations:
+    assertEquals(1001, a.union(Dict.<Integer, String>empty().put(-1, "t")).getSize());
+    assertEquals(999, a.difference(Dict.<Integer, String>hashed().put(0, "h")).getSize());
+    assertEquals(Integer.valueOf(-1), a.union(Dict.<Integer, String>hashed().put(-1, "h")).keyAt(0));
+  }
+
+  @Test
+  public void testParallelStream() {
+    final SortedDict<Integer, String> dict = range(0, 100000);
+
+    assertEquals(100000, dict.entries().parallel().count());
+    assertEquals(
+        IntStream.range(0, 100000).boxed().collect(Collectors.toList()),
+        dict.entries().parallel().map(Map.Entry::getKey).collect(Collectors.toList()));
+  }
+
+  @Test
+  public void testPutAllAndDeleteAll() {
+    final SortedDict<Integer, String> dict = range(0, 1000);
+    final TreeMap<Integer, String> batch = new TreeMap<>();
+    for (int i = 500; i < 1500; ++ i) {
+      batch.put(i, "batch");
+    }
+
+    final SortedDict<Integer, String> updated = dict.putAll(batch);
+
+    assertEquals(1500, updated.getSize());
+    assertEquals(Optional.of("batch"), updated.lookup(500));
+    assertEquals(Optional.of("500"), dict.lookup(500));
+    assertEquals(500, updated.deleteAll(batch.keySet()).getSize());
+    assertSame(dict, dict.deleteAll(batch.tailMap(1000).keySet()));
+  }
+}
@@ -0,0 +1,97 @@
+package hurricane.core.collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Optional;
+import java.util.Random;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.Test;
+
+public class BTreePersistentSetTest {
+
+  @Test
+  public void testAgainstTreeSet() {
+    final Random random = new Random(7);
+    final TreeSet<Integer> expected = new TreeSet<>();
+    SortedPersistentSet<Integer> set = PersistentSet.btree();
+
+    for (int i = 0; i < 50000; ++ i) {
+      final int value = random.nextInt(5000);
+
+      if (random.nextInt(3) == 0) {
+        expected.remove(value);
+        set = set.delete(value);
+      } else {
+        expected.add(value);
+        set = set.add(value);
+      }
+
+      assertEquals(expected.size(), set.getSize());
+    }
+
+    assertEquals(new ArrayList<>(expected), set.stream().collect(Collectors.toList()));
+    assertEquals(expected.contains(100), set.contains(100));
+    assertEquals(Optional.ofNullable(expected.floor(2500)), set.floor(2500));
+    assertEquals(Optional.ofNullable(expected.higher(2500)), set.higher(2500));
+    assertEquals(expected.subSet(1000, 2000).size(), set.subSet(1000, 2000).getSize());
+    assertEquals(expected.headSet(1000).size(), set.indexOf(expected.ceiling(1000)));
+  }
+
+  @Test
+  public void testComparator() {
+    SortedPersistentSet<String> set = PersistentSet.btree(Comparator.<String>reverseOrder());
+
+    for (int i = 0; i < 100; ++ i) {
+      set = set.add(String.valueOf(i));
+    }
+
+    assertEquals("99", set.get(0));
+    assertEquals(Optional.of("59"), set.ceiling("5a"));
+    assertSame(Comparator.reverseOrder(), set.getComparator());
+  }
+
+  @Test
+  public void testSetOperations() {
+    final SortedPersistentSet<Integer> a = PersistentSet.<Integer>btree()
+        .union(IntStream.range(0, 1000).boxed().collect(PersistentSet.collector()));
+    final SortedPersistentSet<Integer> b = PersistentSet.<Integer>btree()
+        .union(IntStream.range(900, 1100).boxed().collect(PersistentSet.collector()));
+
+    assertEquals(1000, a.getSize());
+    assertEquals(1100, a.union(b).getSize());
+    assertEquals(100, a.intersection(b).getSize());
+    assertEquals(900, a.difference(b).getSize());
+    assertEquals(100, b.difference(a).getSize());
+    assertSame(a, a.union(PersistentSet.btree()));
+    assertTrue(a.difference(a).isEmpty());
+    assertEquals(a.subSet(900, 1000), a.intersection(b));
+  }
+
+  @Test
+  public void testTransient() {
+    final SortedPersistentSet<Integer> base = PersistentSet.btree();
+    final TransientSet<Integer> set = base.asTransient();
+
+    for (int i = 0; i < 10000; ++ i) {
+      set.add(i);
+    }
+
+    for (int i = 0; i < 10000; i += 2) {
+      set.delete(i);
+    }
+
+    final PersistentSet<Integer> result = set.persistent();
+
+    assertTrue(base.isEmpty());
+    assertEquals(5000, result.getSize());
+    assertFalse(result.contains(0));
+    assertTrue(result.contains(9999));
+  }
+}
@@ -0,0 +1,92 @@
+package hurricane.core.collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.function.Function;
+import java.util.stream.IntStream;
+import org.junit.Test;
+
+public class FootprintTest {
+
+  private static SortedPersistentSet<Integer> set(final int size) {
+    return IntStream.range(0, size).boxed().collect(PersistentSet.collector());
+  }
+
+  @Test
+  public void testTreeSetCountsEveryValue() {
+    final Footprint footprint = Footprint.of(set(1000));
+
+    // Every value has a node, plus the shared empty element:
+    assertTrue(footprint.getNodeCount() >= 1000 && footprint.getNodeCount() <= 1001);
+    assertTrue(footprint.getBytes() >= 1000 * 16);
+  }
+
+  private static SortedDict<Integer, Integer> btree(final int size) {
+    return Dict.<Integer, Integer>btree().union(IntStream.range(0, size).boxed()
+        .collect(Dict.collector(i -> i, i -> i)));
+  }
+
+  @Test
+  public void testFootprintGrowsWithSize() {
+    final Footprint small = Footprint.of(btree(1000));
+    final Footprint large = Footprint.of(btree(100000));
+
+    assertTrue(small.getNodeCount() > 0);
+    assertTrue(large.getBytes() > 50 * small.getBytes());
+  }
+
+  @Test
+  public void testSharedWithItself() {
+    final SortedPersistentSet<Integer> set = set(1000);
+
+    assertEquals(Footprint.of(set), Footprint.shared(set, set));
+  }
+
+  @Test
+  public void testSharedBetweenVersions() {
+    final SortedPersistentSet<Integer> set = set(100000);
+    final SortedPersistentSet<Integer> updated = set.add(-1).delete(500);
+
+    final Footprint total = Footprint.of(updated);
+    final Footprint shared = Footprint.shared(updated, set);
+
+    // Only the nodes on the two changed paths, and the set object, are not shared:
+    assertTrue(total.getNodeCount() - shared.getNodeCount() < 100);
+    assertTrue(total.getBytes() > shared.getBytes());
+  }
+
+  @Test
+  public void testSharedWithUnrelatedSet() {
+    // Separately built sets only share the empty element:
+    assertTrue(Footprint.shared(set(1000), set(1000)).getNodeCount() <= 1);
+  }
+
+  @Test
+  public void testHashedAndVector() {
+    final PersistentSet<Integer> hashed = IntStream.range(0, 10000).boxed()
+        .collect(PersistentSet.hashedCollector());
+    final PersistentVector<Integer> vector = IntStream.range(0, 10000).boxed()
+        .collect(PersistentVector.collector());
+
+    assertTrue(Footprint.of(hashed).getNodeCount() > 10000 / 32);
+    // 312 full leaves and the branches above them, the last 16 values are in the tail:
+    assertTrue(Footprint.of(vector).getNodeCount() >= 312 + 10);
+    assertTrue(Footprint.shared(vector.append(1), vector).getNodeCount() >= 312);
+  }
+
+  @Test
+  public void testMultimapIncludesPairs() {
+    final Multimap<Integer, Integer> multimap = IntStream.range(0, 1000).boxed()
+        .collect(Multimap.collector(i -> i % 10, Function.identity()));
+
+    assertTrue(Footprint.of(multimap).getNodeCount() >= 1000);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testOffHeap() {
+    try (OffHeapArena arena = OffHeapArena.forDicts()) {
+      Footprint.of(OffHeapLongLongDict.empty(arena));
+    }
+  }
+}
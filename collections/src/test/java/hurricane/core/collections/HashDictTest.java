@@ -0,0 +1,145 @@
+package hurricane.core.collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.Test;
+
+public class HashDictTest {
+
+  /**
+   * Key with a hash code that collides for every multiple of 1000.
+   */
+  private static final class Key {
+    private final int value;
+
+    Key(final int value) {
+      this.value = value;
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+      return obj instanceof Key && ((Key) obj).value == value;
+    }
+
+    @Override
+    public int hashCode() {
+      return value % 1000;
+    }
+  }
+
+  @Test
+  public void testPutAndLookup() {
+    Dict<Integer, String> dict = Dict.hashed();
+
+    for (int i = 0; i < 10000; ++ i) {
+      dict = dict.put(i, String.valueOf(i));
+    }
+
+    assertEquals(10000, dict.getSize());
+
+    for (int i = 0; i < 10000; ++ i) {
+      assertEquals(Optional.of(String.valueOf(i)), dict.lookup(i));
+    }
+
+    assertFalse(dict.containsKey(10000));
+    assertFalse(dict.containsKey(null));
+    assertSame(dict, dict.put(5, "5"));
+    assertSame(dict, dict.delete(10000));
+    assertEquals(Optional.of("five"), dict.put(5, "five").lookup(5));
+  }
+
+  @Test
+  public void testAgainstHashMap() {
+    final Random random = new Random(42);
+    final Map<Key, Integer> expected = new HashMap<>();
+    Dict<Key, Integer> dict = Dict.hashed();
+
+    for (int i = 0; i < 20000; ++ i) {
+      final Key key = new Key(random.nextInt(5000));
+
+      if (random.nextInt(3) == 0) {
+        expected.remove(key);
+        dict = dict.delete(key);
+      } else {
+        expected.put(key, i);
+        dict = dict.put(key, i);
+      }
+
+      assertEquals(expected.size(), dict.getSize());
+    }
+
+    for (int i = 0; i < 5000; ++ i) {
+      assertEquals(Optional.ofNullable(expected.get(new Key(i))), dict.lookup(new Key(i)));
+    }
+
+    assertEquals(expected, dict.entries()
+        .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue)));
+  }
+
+  @Test
+  public void testTransient() {
+    final Dict<Key, Integer> base = Dict.hashed();
+    final TransientDict<Key, Integer> dict = base.asTransient();
+
+    for (int i = 0; i < 5000; ++ i) {
+      dict.put(new Key(i), i);
+    }
+
+    for (int i = 0; i < 5000; i += 2) {
+      dict.delete(new Key(i));
+    }
+
+    final Dict<Key, Integer> result = dict.persistent();
+
+    assertEquals(0, base.getSize());
+    assertEquals(2500, result.getSize());
+    assertEquals(Optional.of(3001), result.lookup(new Key(3001)));
+    assertFalse(result.containsKey(new Key(3000)));
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testTransientAfterPersistent() {
+    final TransientDict<Integer, String> dict = Dict.<Integer, String>hashed().asTransient();
+    dict.persistent();
+    dict.put(1, "1");
+  }
+
+  @Test
+  public void testSetOperations() {
+    final Dict<Integer, String> a = IntStream.range(0, 100)
+        .boxed()
+        .collect(Dict.hashedCollector(i -> i, i -> "a"));
+    final Dict<Integer, String> b = IntStream.range(50, 1000)
+        .boxed()
+        .collect(Dict.hashedCollector(i -> i, i -> "b"));
+
+    final Dict<Integer, String> union = a.union(b);
+    assertEquals(1000, union.getSize());
+    assertEquals(Optional.of("a"), union.lookup(10));
+    assertEquals(Optional.of("b"), union.lookup(60));
+    assertEquals(Optional.of("a"), b.union(a).lookup(60));
+
+    assertEquals(50, a.intersection(b).getSize());
+    assertEquals(50, a.difference(b).getSize());
+    assertEquals(900, b.difference(a).getSize());
+    assertSame(a, a.intersection(a));
+
+    // Mixing implementations:
+    final SortedDict<Integer, String> tree = Dict.<Integer, String>empty().put(1, "t").put(-1, "t");
+    assertEquals(101, a.union(tree).getSize());
+    assertEquals(Optional.of("t"), a.union(tree).lookup(1));
+    assertEquals(Optional.of("a"), tree.union(a).lookup(1));
+    assertEquals(Integer.valueOf(-1), tree.union(a).keyAt(0));
+    assertTrue(tree.difference(a).containsKey(-1));
+    assertEquals(1, tree.difference(a).getSize());
+  }
+}
@@ -0,0 +1,112 @@
+package hurricane.core.collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.Test;
+
+public class HashPersistentSetTest {
+
+  @Test
+  public void testAddAndDelete() {
+    final Random random = new Random(7);
+    final Set<Long> expected = new HashSet<>();
+    PersistentSet<Long> set = PersistentSet.hashed();
+
+    for (int i = 0; i < 20000; ++ i) {
+      // Longs that differ only in the upper bits collide after hashing:
+      final long value = (long) random.nextInt(100) << 32 | random.nextInt(50);
+
+      if (random.nextBoolean()) {
+        expected.add(value);
+        set = set.add(value);
+      } else {
+        expected.remove(value);
+        set = set.delete(value);
+      }
+
+      assertEquals(expected.size(), set.getSize());
+    }
+
+    for (final Long value : expected) {
+      assertTrue(set.contains(value));
+    }
+
+    assertFalse(set.contains(-1L));
+    assertEquals(expected, set.stream().collect(Collectors.toSet()));
+    assertSame(set, set.delete(-1L));
+  }
+
+  @Test
+  public void testParallelStream() {
+    final PersistentSet<Integer> set = IntStream.range(0, 100000)
+        .boxed()
+        .collect(PersistentSet.hashedCollector());
+
+    assertEquals(100000, set.getSize());
+    assertEquals(100000, set.stream().parallel().count());
+    assertEquals(
+        IntStream.range(0, 100000).asLongStream().sum(),
+        set.stream().parallel().mapToLong(i -> i).sum());
+  }
+
+  @Test
+  public void testSetOperations() {
+    final PersistentSet<Integer> a = IntStream.range(0, 1000)
+        .boxed()
+        .collect(PersistentSet.hashedCollector());
+    final PersistentSet<Integer> b = IntStream.range(500, 600)
+        .boxed()
+        .collect(PersistentSet.hashedCollector());
+
+    assertEquals(1000, a.union(b).getSize());
+    assertEquals(1000, b.union(a).getSize());
+    assertEquals(b, a.intersection(b));
+    assertEquals(b, b.intersection(a));
+    assertEquals(900, a.difference(b).getSize());
+    assertEquals(0, b.difference(a).getSize());
+    assertSame(b, b.difference(PersistentSet.hashed()));
+
+    // Mixing implementations:
+    final SortedPersistentSet<Integer> tree = PersistentSet.<Integer>empty().add(-1).add(1);
+    assertEquals(1001, a.union(tree).getSize());
+    assertEquals(Integer.valueOf(-1), tree.union(a).get(0));
+    assertEquals(1, tree.difference(a).getSize());
+  }
+
+  @Test
+  public void testEquals() {
+    final PersistentSet<Integer> a = PersistentSet.<Integer>hashed().add(1).add(2).add(3);
+    final PersistentSet<Integer> b = PersistentSet.<Integer>hashed().add(3).add(2).add(1);
+
+    assertEquals(a, b);
+    assertEquals(a.hashCode(), b.hashCode());
+    assertNotEquals(a, b.add(4));
+    assertEquals(a, b.add(4).delete(4));
+  }
+
+  @Test
+  public void testTransient() {
+    final TransientSet<Integer> set = PersistentSet.<Integer>hashed().asTransient();
+
+    for (int i = 0; i < 1000; ++ i) {
+      set.add(i);
+      set.add(i);
+    }
+
+    set.delete(0);
+
+    assertEquals(999, set.getSize());
+    assertFalse(set.contains(0));
+    assertTrue(set.contains(999));
+    assertEquals(999, set.persistent().getSize());
+  }
+}
@@ -0,0 +1,122 @@
+package hurricane.core.collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+import org.junit.Test;
+
+public class MappedSortedSetTest {
+
+  @Test
+  public void testStrings() throws IOException {
+    final SortedPersistentSet<String> set = PersistentSet.<String>empty()
+        .add("b").add("a").add("\u00e9").add("ab").add("z").add("");
+    final Path path = Files.createTempFile("set", ".bin");
+
+    try {
+      MappedSortedSet.write(path, set, ByteCodec.utf8());
+
+      try (MappedSortedSet<String> mapped = MappedSortedSet.open(path, ByteCodec.utf8())) {
+        assertEquals(6, mapped.getSize());
+        assertTrue(mapped.contains(""));
+        assertTrue(mapped.contains("\u00e9"));
+        assertFalse(mapped.contains("c"));
+        assertEquals(List.of("", "a", "ab", "b", "z", "\u00e9"),
+            mapped.stream().collect(Collectors.toList()));
+        assertEquals(List.of("ab", "b", "z", "\u00e9"),
+            mapped.stream("aa").collect(Collectors.toList()));
+        assertEquals(List.of("ab", "b"), mapped.stream("aa", "c").collect(Collectors.toList()));
+        assertEquals(2, mapped.count("aa", "c"));
+        assertEquals(2, mapped.indexOf("ab"));
+        assertEquals(-1, mapped.indexOf("x"));
+        assertEquals("z", mapped.get(4));
+        assertEquals(set, mapped.toPersistentSet(String::compareTo));
+      }
+    } finally {
+      Files.delete(path);
+    }
+  }
+
+  @Test
+  public void testLongs() throws IOException {
+    final Random random = new Random(42);
+    final SortedPersistentSet<Long> set = LongStream.generate(random::nextLong)
+        .limit(10000)
+        .boxed()
+        .collect(PersistentSet.collector());
+    final Path path = Files.createTempFile("set", ".bin");
+
+    try {
+      MappedSortedSet.write(path, set, ByteCodec.longs());
+
+      try (MappedSortedSet<Long> mapped = MappedSortedSet.open(path, ByteCodec.longs())) {
+        assertEquals(set.stream().collect(Collectors.toList()),
+            mapped.stream().collect(Collectors.toList()));
+        assertEquals(set.stream().collect(Collectors.toList()),
+            mapped.stream().parallel().collect(Collectors.toList()));
+        assertEquals(set.count(-1000L, 1000L), mapped.count(-1000L, 1000L));
+        assertEquals(set.stream(0L).findFirst(), mapped.stream(0L).findFirst());
+
+        for (int i = 0; i < 1000; ++ i) {
+          final long value = random.nextBoolean() ? set.get(random.nextInt(10000))
+              : random.nextLong();
+          assertEquals(set.contains(value), mapped.contains(value));
+        }
+      }
+    } finally {
+      Files.delete(path);
+    }
+  }
+
+  @Test
+  public void testEmpty() throws IOException {
+    final Path path = Files.createTempFile("set", ".bin");
+
+    try {
+      MappedSortedSet.write(path, PersistentSet.<String>empty(), ByteCodec.utf8());
+
+      try (MappedSortedSet<String> mapped = MappedSortedSet.open(path, ByteCodec.utf8())) {
+        assertTrue(mapped.isEmpty());
+        assertFalse(mapped.contains("a"));
+        assertEquals(0, mapped.stream().count());
+      }
+    } finally {
+      Files.delete(path);
+    }
+  }
+
+  @Test(expected = IOException.class)
+  public void testNotASetFile() throws IOException {
+    final Path path = Files.createTempFile("set", ".bin");
+
+    try {
+      Files.write(path, new byte[64]);
+      MappedSortedSet.open(path, ByteCodec.utf8());
+    } finally {
+      Files.delete(path);
+    }
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testUseAfterClose() throws IOException {
+    final Path path = Files.createTempFile("set", ".bin");
+
+    try {
+      MappedSortedSet.write(path, PersistentSet.<String>empty().add("a"), ByteCodec.utf8());
+
+      final MappedSortedSet<String> mapped = MappedSortedSet.open(path, ByteCodec.utf8());
+      mapped.close();
+      mapped.contains("a");
+    } finally {
+      Files.delete(path);
+    }
+  }
+}
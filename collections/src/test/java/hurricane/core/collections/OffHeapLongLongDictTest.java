@@ -0,0 +1,91 @@
+package hurricane.core.collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.util.OptionalLong;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import org.junit.Test;
+
+public class OffHeapLongLongDictTest {
+
+  @Test
+  public void testAgainstTreeMap() {
+    try (OffHeapArena arena = OffHeapArena.forDicts()) {
+      final Random random = new Random(42);
+      final TreeMap<Long, Long> expected = new TreeMap<>();
+      OffHeapLongLongDict dict = OffHeapLongLongDict.empty(arena);
+
+      for (int i = 0; i < 20000; ++ i) {
+        final long key = random.nextInt(2000);
+        final OffHeapLongLongDict next;
+
+        if (random.nextInt(3) == 0) {
+          expected.remove(key);
+          next = dict.delete(key);
+        } else {
+          final long value = random.nextLong();
+          expected.put(key, value);
+          next = dict.put(key, value);
+        }
+
+        if (next != dict) {
+          dict.close();
+        }
+        dict = next;
+      }
+
+      assertEquals(expected.size(), dict.getSize());
+      assertEquals(
+          expected.keySet().stream().collect(Collectors.toList()),
+          dict.keys().boxed().collect(Collectors.toList())
+      );
+      assertEquals(
+          expected.values().stream().collect(Collectors.toList()),
+          dict.values().boxed().collect(Collectors.toList())
+      );
+
+      for (long key = 0; key < 2000; ++ key) {
+        final Long value = expected.get(key);
+        assertEquals(value == null ? OptionalLong.empty() : OptionalLong.of(value),
+            dict.lookup(key));
+      }
+
+      dict.close();
+      assertEquals(0, arena.getNodeCount());
+    }
+  }
+
+  @Test
+  public void testPersistence() {
+    try (OffHeapArena arena = OffHeapArena.forDicts()) {
+      final OffHeapLongLongDict first = OffHeapLongLongDict.empty(arena).put(1, 10);
+      final OffHeapLongLongDict a = first.put(2, 20);
+      first.close();
+
+      final OffHeapLongLongDict b = a.put(1, 11);
+      final OffHeapLongLongDict c = b.delete(2);
+
+      assertEquals(10, a.getOrDefault(1, -1));
+      assertEquals(11, b.getOrDefault(1, -1));
+      assertEquals(-1, c.getOrDefault(2, -1));
+      assertSame(c, c.delete(2));
+      assertSame(c, c.put(1, 11));
+
+      a.close();
+      assertEquals(11, b.getOrDefault(1, -1));
+      b.close();
+      c.close();
+      assertEquals(0, arena.getNodeCount());
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testSetArena() {
+    try (OffHeapArena arena = OffHeapArena.forSets()) {
+      OffHeapLongLongDict.empty(arena);
+    }
+  }
+}
@@ -0,0 +1,102 @@
+package hurricane.core.collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+import org.junit.Test;
+
+public class OffHeapLongSetTest {
+
+  @Test
+  public void testAgainstTreeSet() {
+    try (OffHeapArena arena = OffHeapArena.forSets()) {
+      final Random random = new Random(7);
+      final TreeSet<Long> expected = new TreeSet<>();
+      OffHeapLongSet set = OffHeapLongSet.empty(arena);
+
+      for (int i = 0; i < 20000; ++ i) {
+        final long value = random.nextInt(2000) - 1000;
+        final OffHeapLongSet next;
+
+        if (random.nextInt(3) == 0) {
+          assertEquals(expected.remove(value), set.contains(value));
+          next = set.delete(value);
+        } else {
+          assertEquals(expected.add(value), !set.contains(value));
+          next = set.add(value);
+        }
+
+        if (next != set) {
+          set.close();
+        }
+        set = next;
+      }
+
+      assertEquals(expected.size(), set.getSize());
+      assertEquals(
+          expected.stream().collect(Collectors.toList()),
+          set.stream().boxed().collect(Collectors.toList())
+      );
+
+      set.close();
+      assertEquals(0, arena.getNodeCount());
+    }
+  }
+
+  @Test
+  public void testPersistence() {
+    try (OffHeapArena arena = OffHeapArena.forSets()) {
+      final List<OffHeapLongSet> versions = new ArrayList<>();
+      OffHeapLongSet set = OffHeapLongSet.empty(arena);
+      versions.add(set);
+
+      for (long i = 0; i < 100; ++ i) {
+        set = set.add(i);
+        versions.add(set);
+      }
+
+      for (int i = 0; i < versions.size(); ++ i) {
+        assertEquals(i, versions.get(i).getSize());
+        assertEquals(i > 0, versions.get(i).contains(0));
+        assertFalse(versions.get(i).contains(i));
+      }
+
+      assertSame(set, set.add(50));
+      assertSame(set, set.delete(500));
+
+      versions.forEach(OffHeapLongSet::close);
+      assertEquals(0, arena.getNodeCount());
+    }
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testUseAfterClose() {
+    try (OffHeapArena arena = OffHeapArena.forSets()) {
+      final OffHeapLongSet set = OffHeapLongSet.empty(arena).add(1);
+      set.close();
+      set.contains(1);
+    }
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testClosedArena() {
+    final OffHeapArena arena = OffHeapArena.forSets();
+    final OffHeapLongSet set = OffHeapLongSet.empty(arena).add(1);
+    arena.close();
+    set.add(2);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testDictArena() {
+    try (OffHeapArena arena = OffHeapArena.forDicts()) {
+      OffHeapLongSet.empty(arena);
+    }
+  }
+}
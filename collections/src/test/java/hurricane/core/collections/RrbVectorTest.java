@@ -0,0 +1,166 @@
+package hurricane.core.collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.Test;
+
+public class RrbVectorTest {
+
+  private static PersistentVector<Integer> range(final int from, final int to) {
+    return IntStream.range(from, to).boxed().collect(PersistentVector.collector());
+  }
+
+  private static List<Integer> list(final int from, final int to) {
+    return IntStream.range(from, to).boxed().collect(Collectors.toList());
+  }
+
+  private static List<Integer> toList(final PersistentVector<Integer> vector) {
+    return vector.stream().collect(Collectors.toList());
+  }
+
+  @Test
+  public void testAppendAndGet() {
+    PersistentVector<Integer> vector = PersistentVector.empty();
+
+    for (int i = 0; i < 50000; ++ i) {
+      vector = vector.append(i);
+    }
+
+    assertEquals(50000, vector.getSize());
+
+    for (int i = 0; i < 50000; ++ i) {
+      assertEquals(Integer.valueOf(i), vector.get(i));
+    }
+
+    assertEquals(list(0, 50000), toList(vector));
+  }
+
+  @Test
+  public void testSetIsPersistent() {
+    final PersistentVector<Integer> vector = range(0, 5000);
+    final PersistentVector<Integer> updated = vector.set(10, -1).set(4999, -2);
+
+    assertEquals(Integer.valueOf(10), vector.get(10));
+    assertEquals(Integer.valueOf(-1), updated.get(10));
+    assertEquals(Integer.valueOf(-2), updated.get(4999));
+    assertEquals(list(0, 5000), toList(vector));
+  }
+
+  @Test
+  public void testDeleteLast() {
+    PersistentVector<Integer> vector = range(0, 1000);
+
+    for (int i = 999; i >= 0; -- i) {
+      assertEquals(Integer.valueOf(i), vector.get(vector.getSize() - 1));
+      vector = vector.deleteLast();
+    }
+
+    assertTrue(vector.isEmpty());
+  }
+
+  @Test
+  public void testSlice() {
+    final PersistentVector<Integer> vector = range(0, 10000);
+
+    assertEquals(list(100, 5000), toList(vector.slice(100, 5000)));
+    assertEquals(list(9990, 10000), toList(vector.slice(9990, 10000)));
+    assertEquals(list(33, 34), toList(vector.slice(33, 34)));
+    assertEquals(list(1000, 1500), toList(vector.slice(500, 5000).slice(500, 1000)));
+    assertTrue(vector.slice(10, 10).isEmpty());
+    assertSame(vector, vector.slice(0, 10000));
+  }
+
+  @Test
+  public void testConcat() {
+    final Random random = new Random(42);
+    PersistentVector<Integer> vector = PersistentVector.empty();
+    final List<Integer> expected = new ArrayList<>();
+
+    for (int i = 0; i < 300; ++ i) {
+      final int size = random.nextInt(500);
+      final PersistentVector<Integer> other = range(i * 1000, i * 1000 + size);
+
+      if (random.nextBoolean()) {
+        vector = vector.concat(other);
+        expected.addAll(list(i * 1000, i * 1000 + size));
+      } else {
+        vector = other.concat(vector);
+        expected.addAll(0, list(i * 1000, i * 1000 + size));
+      }
+    }
+
+    assertEquals(expected.size(), vector.getSize());
+    assertEquals(expected, toList(vector));
+
+    for (int i = 0; i < expected.size(); i += 7) {
+      assertEquals(expected.get(i), vector.get(i));
+    }
+
+    // Slices of concatenated vectors cut through nodes that are not full:
+    assertEquals(expected.subList(1234, 56789), toList(vector.slice(1234, 56789)));
+  }
+
+  @Test
+  public void testTransient() {
+    final PersistentVector<Integer> vector = range(0, 100);
+    final TransientVector<Integer> editable = vector.asTransient();
+
+    for (int i = 100; i < 10000; ++ i) {
+      editable.append(i);
+    }
+
+    editable.set(5, -5).set(5000, -5000);
+
+    final PersistentVector<Integer> result = editable.persistent();
+
+    assertEquals(list(0, 100), toList(vector));
+    assertEquals(10000, result.getSize());
+    assertEquals(Integer.valueOf(-5), result.get(5));
+    assertEquals(Integer.valueOf(-5000), result.get(5000));
+    assertEquals(Integer.valueOf(9999), result.get(9999));
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testTransientUsedAfterPersistent() {
+    final TransientVector<Integer> editable = PersistentVector.<Integer>empty().asTransient();
+    editable.persistent();
+    editable.append(1);
+  }
+
+  @Test
+  public void testParallelCollector() {
+    final List<Integer> values = list(0, 100000);
+
+    assertEquals(values, toList(values.parallelStream().collect(PersistentVector.collector())));
+  }
+
+  @Test
+  public void testEqualsAndHashCode() {
+    final PersistentVector<Integer> a = range(0, 1000);
+    final PersistentVector<Integer> b = range(0, 500).concat(range(500, 1000));
+
+    assertEquals(a, b);
+    assertEquals(a.hashCode(), b.hashCode());
+    assertEquals(list(0, 1000).hashCode(), a.hashCode());
+    assertNotEquals(a, a.set(999, 0));
+    assertEquals(PersistentVector.of(1, 2, 3), range(1, 4));
+  }
+
+  @Test(expected = IndexOutOfBoundsException.class)
+  public void testGetOutOfBounds() {
+    range(0, 10).get(10);
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testDeleteLastOfEmpty() {
+    PersistentVector.empty().deleteLast();
+  }
+}
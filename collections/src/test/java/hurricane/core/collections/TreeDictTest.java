@@ -5,7 +5,16 @@ import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
 import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.OptionalLong;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import org.junit.Test;
 
 public class TreeDictTest {
@@ -88,4 +97,331 @@ public class TreeDictTest {
 
     assertTrue(current.isEmpty());
   }
+
+  @Test
+  public void testCollect() {
+    final Dict<Integer, String> dict = IntStream.range(0, 1000)
+        .map(i -> 999 - i)
+        .boxed()
+        .collect(Dict.collector(i -> i, String::valueOf));
+
+    assertEquals(1000, dict.getSize());
+    for (int i = 0; i < 1000; ++ i) {
+      assertEquals(Optional.of(String.valueOf(i)), dict.lookup(i));
+    }
+
+    final Dict<Integer, String> updated = dict.put(1000, "1000").delete(0);
+    assertEquals(1000, updated.getSize());
+    assertFalse(updated.containsKey(0));
+    assertTrue(updated.containsKey(1000));
+  }
+
+  @Test
+  public void testCollectDuplicateKeysKeepsLastValue() {
+    final Dict<Integer, Integer> dict = IntStream.range(0, 100)
+        .boxed()
+        .collect(Dict.collector(i -> i % 10, i -> i));
+
+    assertEquals(10, dict.getSize());
+    for (int i = 0; i < 10; ++ i) {
+      assertEquals(Optional.of(90 + i), dict.lookup(i));
+    }
+  }
+
+  @Test
+  public void testCollectIntAndLongDict() {
+    final IntDict<Integer> intDict = IntStream.range(0, 100)
+        .boxed()
+        .collect(IntDict.collector(i -> i * 3, i -> i));
+    final LongDict<Integer> longDict = IntStream.range(0, 100)
+        .boxed()
+        .collect(LongDict.collector(i -> i * 3L, i -> i));
+
+    assertEquals(100, intDict.getSize());
+    assertEquals(100, longDict.getSize());
+    for (int i = 0; i < 300; ++ i) {
+      assertEquals(i % 3 == 0 ? Optional.of(i / 3) : Optional.empty(), intDict.lookup(i));
+      assertEquals(i % 3 == 0 ? Optional.of(i / 3) : Optional.empty(), longDict.lookup(i));
+    }
+  }
+
+  @Test
+  public void testTransient() {
+    final Dict<Integer, Integer> original = Dict.<Integer, Integer>empty().put(0, 0);
+    final TransientDict<Integer, Integer> transientDict = original.asTransient();
+
+    for (int i = 0; i < 100; ++ i) {
+      transientDict.put(i, i);
+    }
+    for (int i = 0; i < 100; ++ i) {
+      transientDict.put(i, i * 2);
+    }
+    for (int i = 0; i < 50; ++ i) {
+      transientDict.delete(i);
+    }
+
+    final Dict<Integer, Integer> result = transientDict.persistent();
+
+    assertEquals(50, result.getSize());
+    for (int i = 0; i < 100; ++ i) {
+      assertEquals(i < 50 ? Optional.empty() : Optional.of(i * 2), result.lookup(i));
+    }
+    assertEquals(1, original.getSize());
+    assertEquals(Optional.of(0), original.lookup(0));
+  }
+
+  @Test
+  public void testTransientIntAndLongDict() {
+    final TransientIntDict<String> intDict = IntDict.<String>empty().asTransient();
+    final TransientLongDict<String> longDict = LongDict.<String>empty().asTransient();
+
+    for (int i = 0; i < 100; ++ i) {
+      intDict.put(i, String.valueOf(i));
+      longDict.put(i, String.valueOf(i));
+    }
+    intDict.delete(10);
+    longDict.delete(10);
+
+    final IntDict<String> intResult = intDict.persistent();
+    final LongDict<String> longResult = longDict.persistent();
+
+    assertEquals(99, intResult.getSize());
+    assertEquals(99, longResult.getSize());
+    assertFalse(intResult.containsKey(10));
+    assertFalse(longResult.containsKey(10));
+    assertEquals(Optional.of("42"), intResult.lookup(42));
+    assertEquals(Optional.of("42"), longResult.lookup(42));
+  }
+
+  @Test
+  public void testSetOperations() {
+    Dict<Integer, String> a = Dict.empty();
+    Dict<Integer, Integer> b = Dict.empty();
+    for (int i = 0; i < 100; ++ i) {
+      a = a.put(i, "a" + i);
+      b = b.put(i + 50, i);
+    }
+
+    final Dict<Integer, String> union = a.union(
+        Dict.<Integer, String>empty().put(10, "b10").put(200, "b200"));
+    assertEquals(101, union.getSize());
+    assertEquals(Optional.of("b10"), union.lookup(10));
+    assertEquals(Optional.of("a11"), union.lookup(11));
+    assertEquals(Optional.of("b200"), union.lookup(200));
+
+    final Dict<Integer, String> intersection = a.intersection(b);
+    assertEquals(50, intersection.getSize());
+    assertEquals(Optional.of("a50"), intersection.lookup(50));
+    assertFalse(intersection.containsKey(49));
+
+    final Dict<Integer, String> difference = a.difference(b);
+    assertEquals(50, difference.getSize());
+    assertEquals(Optional.of("a49"), difference.lookup(49));
+    assertFalse(difference.containsKey(50));
+  }
+
+  @Test
+  public void testNavigationAndRanges() {
+    final SortedDict<Integer, String> dict = IntStream.range(0, 100)
+        .map(i -> i * 10)
+        .boxed()
+        .collect(Dict.collector(i -> i, String::valueOf));
+
+    assertEquals(Optional.of(50), dict.floorKey(55));
+    assertEquals(Optional.of(60), dict.ceilingKey(55));
+    assertEquals(Optional.of(40), dict.lowerKey(50));
+    assertEquals(Optional.of(60), dict.higherKey(50));
+    assertEquals(Optional.empty(), dict.higherKey(990));
+
+    final SortedDict<Integer, String> range = dict.subDict(100, 200);
+    assertEquals(10, range.getSize());
+    assertEquals(Optional.of("150"), range.lookup(150));
+    assertFalse(range.containsKey(200));
+    assertEquals(10, dict.headDict(100).getSize());
+    assertEquals(90, dict.tailDict(100).getSize());
+  }
+
+  @Test
+  public void testEntries() {
+    final SortedDict<Integer, String> dict = IntStream.range(0, 100)
+        .boxed()
+        .collect(Dict.collector(i -> i, String::valueOf));
+
+    assertEquals(
+        IntStream.range(0, 100).mapToObj(String::valueOf).collect(Collectors.toList()),
+        dict.entries().map(Map.Entry::getValue).collect(Collectors.toList()));
+    assertEquals(
+        IntStream.range(95, 100).boxed().collect(Collectors.toList()),
+        dict.entries(95).map(Map.Entry::getKey).collect(Collectors.toList()));
+  }
+
+  @Test
+  public void testRankAndSelect() {
+    final SortedDict<Integer, String> dict = IntStream.range(0, 1000)
+        .map(i -> i * 2)
+        .boxed()
+        .collect(Dict.collector(i -> i, String::valueOf));
+
+    for (int i = 0; i < 1000; ++ i) {
+      assertEquals(i, dict.indexOf(i * 2));
+      assertEquals(-1, dict.indexOf(i * 2 + 1));
+      assertEquals(Integer.valueOf(i * 2), dict.keyAt(i));
+      assertEquals(String.valueOf(i * 2), dict.valueAt(i));
+    }
+
+    assertEquals(5, dict.count(10, 20));
+    assertEquals(0, dict.count(-10, 0));
+  }
+
+  @Test
+  public void testIntDictRankAndSelect() {
+    final IntDict<String> dict = IntStream.range(0, 1000)
+        .boxed()
+        .collect(IntDict.collector(i -> -i, String::valueOf));
+
+    assertEquals(0, dict.indexOf(-999));
+    assertEquals(999, dict.indexOf(0));
+    assertEquals(-500, dict.keyAt(499));
+    assertEquals("500", dict.valueAt(499));
+    assertEquals(10, dict.count(-10, 0));
+
+    final LongDict<String> longDict = IntStream.range(0, 1000)
+        .boxed()
+        .collect(LongDict.collector(i -> i * 1000000000L, String::valueOf));
+
+    assertEquals(3, longDict.indexOf(3000000000L));
+    assertEquals(4000000000L, longDict.keyAt(4));
+    assertEquals(1000, longDict.count(Long.MIN_VALUE, Long.MAX_VALUE));
+  }
+
+  @Test
+  public void testIntDictGetOrDefault() {
+    final IntDict<String> dict = IntDict.<String>empty().put(1, "a").put(2, "b");
+
+    assertEquals("a", dict.getOrDefault(1, "z"));
+    assertEquals("z", dict.getOrDefault(3, "z"));
+    assertEquals("b", dict.getOrNull(2));
+    assertEquals(null, dict.getOrNull(3));
+    assertEquals(Optional.of("a"), dict.lookup(1));
+    assertFalse(dict.containsKey(0));
+
+    final LongDict<String> longDict = LongDict.<String>empty().put(1L << 40, "a");
+
+    assertEquals("a", longDict.getOrNull(1L << 40));
+    assertEquals("z", longDict.getOrDefault(1, "z"));
+  }
+
+  @Test
+  public void testIntIntDict() {
+    IntIntDict dict = IntIntDict.empty();
+
+    for (int i = 0; i < 1000; ++ i) {
+      dict = dict.put(i * 7 % 1000, i);
+    }
+
+    assertEquals(1000, dict.getSize());
+
+    for (int i = 0; i < 1000; ++ i) {
+      assertEquals(i, dict.getOrDefault(i * 7 % 1000, -1));
+    }
+
+    assertEquals(-1, dict.getOrDefault(1000, -1));
+    assertEquals(OptionalInt.empty(), dict.lookup(-1));
+    assertSame(dict, dict.put(7, 1));
+    assertSame(dict, dict.delete(1000));
+
+    final IntIntDict deleted = dict.delete(7);
+    assertEquals(999, deleted.getSize());
+    assertFalse(deleted.containsKey(7));
+    assertTrue(dict.containsKey(7));
+
+    final IntIntDict collected = IntStream.range(0, 100)
+        .boxed()
+        .collect(IntIntDict.collector(i -> i % 10, i -> i));
+    assertEquals(10, collected.getSize());
+    assertEquals(OptionalInt.of(93), collected.lookup(3));
+  }
+
+  @Test
+  public void testLongLongDict() {
+    final LongLongDict dict = IntStream.range(0, 1000)
+        .boxed()
+        .collect(LongLongDict.collector(i -> i * (1L << 33), i -> -i));
+
+    assertEquals(1000, dict.getSize());
+    assertEquals(-5, dict.getOrDefault(5L << 33, 0));
+    assertEquals(OptionalLong.empty(), dict.lookup(5));
+    assertEquals(OptionalLong.of(42), dict.put(3, 42).lookup(3));
+    assertEquals(999, dict.delete(0).getSize());
+  }
+
+  @Test
+  public void testDiff() {
+    final SortedDict<Integer, String> dict = IntStream.range(0, 10000)
+        .boxed()
+        .collect(Dict.collector(i -> i, String::valueOf));
+    final SortedDict<Integer, String> changed = dict
+        .delete(10)
+        .put(20, "twenty")
+        .put(20000, "new")
+        .put(30, "30");
+
+    assertEquals(
+        Arrays.asList(
+            DictChange.removed(10, "10"),
+            DictChange.changed(20, "20", "twenty"),
+            DictChange.added(20000, "new")),
+        dict.diff(changed).collect(Collectors.toList()));
+    assertEquals(
+        Arrays.asList(
+            DictChange.added(10, "10"),
+            DictChange.changed(20, "twenty", "20"),
+            DictChange.removed(20000, "new")),
+        changed.diff(dict).collect(Collectors.toList()));
+    assertEquals(0, dict.diff(dict).count());
+
+    // The default implementation of unsorted dictionaries reports the same changes:
+    final Dict<Integer, String> hashed = Dict.<Integer, String>hashed().union(dict);
+    assertEquals(
+        new HashSet<>(dict.diff(changed).collect(Collectors.toList())),
+        hashed.diff(changed).collect(Collectors.toSet()));
+    assertEquals(
+        dict.diff(changed).collect(Collectors.toList()),
+        dict.diff(Dict.<Integer, String>hashed().union(changed)).collect(Collectors.toList()));
+  }
+
+  @Test
+  public void testPutAllAndDeleteAll() {
+    final SortedDict<Integer, String> dict = IntStream.range(0, 10000)
+        .boxed()
+        .collect(Dict.collector(i -> i, String::valueOf));
+
+    final Map<Integer, String> batch = new HashMap<>();
+    for (int i = 0; i < 20000; i += 7) {
+      batch.put(i, "batch" + i);
+    }
+
+    final SortedDict<Integer, String> updated = dict.putAll(batch);
+
+    assertEquals(10000 + batch.keySet().stream().filter(key -> key >= 10000).count(),
+        updated.getSize());
+    assertEquals(Optional.of("batch7"), updated.lookup(7));
+    assertEquals(Optional.of("8"), updated.lookup(8));
+    assertEquals(Optional.of("batch19999"), updated.lookup(19999));
+    assertEquals(Optional.of("7"), dict.lookup(7));
+
+    final SortedDict<Integer, String> deleted = updated.deleteAll(batch.keySet());
+
+    assertEquals(10000 - batch.keySet().stream().filter(key -> key < 10000).count(),
+        deleted.getSize());
+    assertFalse(deleted.containsKey(7));
+    assertTrue(deleted.containsKey(8));
+    assertSame(dict, dict.putAll(Collections.emptyMap()));
+    assertSame(dict, dict.deleteAll(Collections.emptyList()));
+
+    // Unsorted dictionaries apply the batch through a transient:
+    final Dict<Integer, String> hashed = Dict.<Integer, String>hashed().putAll(batch);
+    assertEquals(batch.size(), hashed.getSize());
+    assertEquals(0, hashed.deleteAll(batch.keySet()).getSize());
+  }
 }
@@ -0,0 +1,187 @@
+package hurricane.core.collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+import org.junit.Test;
+
+public class TreeMultimapTest {
+
+  private static Multimap<String, Integer> sample() {
+    return Multimap.<String, Integer>empty()
+        .put("b", 2).put("a", 3).put("b", 1).put("a", 1).put("c", 5).put("b", 9);
+  }
+
+  @Test
+  public void testPutAndGet() {
+    final Multimap<String, Integer> multimap = sample();
+
+    assertEquals(6, multimap.getSize());
+    assertEquals(Arrays.asList(1, 3), multimap.get("a").collect(Collectors.toList()));
+    assertEquals(Arrays.asList(1, 2, 9), multimap.get("b").collect(Collectors.toList()));
+    assertEquals(Collections.emptyList(), multimap.get("bb").collect(Collectors.toList()));
+    assertEquals(3, multimap.count("b"));
+    assertEquals(0, multimap.count("d"));
+    assertEquals(Optional.of(5), multimap.first("c"));
+    assertEquals(Optional.empty(), multimap.first("0"));
+  }
+
+  @Test
+  public void testPutExistingPair() {
+    final Multimap<String, Integer> multimap = sample();
+
+    assertSame(multimap, multimap.put("a", 3));
+  }
+
+  @Test
+  public void testContains() {
+    final Multimap<String, Integer> multimap = sample();
+
+    assertTrue(multimap.contains("b", 9));
+    assertFalse(multimap.contains("b", 3));
+    assertFalse(multimap.contains(null, 3));
+    assertTrue(multimap.containsKey("c"));
+    assertFalse(multimap.containsKey("d"));
+  }
+
+  @Test
+  public void testDelete() {
+    final Multimap<String, Integer> multimap = sample();
+    final Multimap<String, Integer> deleted = multimap.delete("b", 2).delete("c", 5);
+
+    assertEquals(Arrays.asList(1, 9), deleted.get("b").collect(Collectors.toList()));
+    assertFalse(deleted.containsKey("c"));
+    assertEquals(6, multimap.getSize());
+    assertSame(multimap, multimap.delete("b", 3));
+  }
+
+  @Test
+  public void testDeleteAll() {
+    final Multimap<String, Integer> multimap = sample();
+    final Multimap<String, Integer> deleted = multimap.deleteAll("b");
+
+    assertEquals(3, deleted.getSize());
+    assertEquals(Arrays.asList("a", "c"), deleted.keys().collect(Collectors.toList()));
+    assertSame(multimap, multimap.deleteAll("d"));
+  }
+
+  @Test
+  public void testPutAll() {
+    final Multimap<String, Integer> multimap = sample().putAll("a", Arrays.asList(7, 3, 2));
+
+    assertEquals(Arrays.asList(1, 2, 3, 7), multimap.get("a").collect(Collectors.toList()));
+  }
+
+  @Test
+  public void testKeysAndGroups() {
+    final Multimap<String, Integer> multimap = sample();
+
+    assertEquals(Arrays.asList("a", "b", "c"), multimap.keys().collect(Collectors.toList()));
+    assertEquals(
+        Arrays.asList(
+            new SimpleImmutableEntry<>("a", Arrays.asList(1, 3)),
+            new SimpleImmutableEntry<>("b", Arrays.asList(1, 2, 9)),
+            new SimpleImmutableEntry<>("c", Arrays.asList(5))
+        ),
+        multimap.groups().collect(Collectors.toList())
+    );
+    assertEquals(0, Multimap.<String, Integer>empty().keys().count());
+    assertEquals(0, Multimap.<String, Integer>empty().groups().count());
+  }
+
+  @Test
+  public void testAgainstTreeMap() {
+    final Random random = new Random(7);
+    final TreeMap<Integer, TreeSet<Integer>> expected = new TreeMap<>();
+    Multimap<Integer, Integer> multimap = Multimap.empty();
+
+    for (int i = 0; i < 20000; ++ i) {
+      final int key = random.nextInt(100);
+      final int value = random.nextInt(50);
+
+      if (random.nextInt(3) == 0) {
+        multimap = multimap.delete(key, value);
+        if (expected.containsKey(key)) {
+          expected.get(key).remove(value);
+          if (expected.get(key).isEmpty()) {
+            expected.remove(key);
+          }
+        }
+      } else {
+        multimap = multimap.put(key, value);
+        expected.computeIfAbsent(key, k -> new TreeSet<>()).add(value);
+      }
+    }
+
+    final List<Map.Entry<Integer, List<Integer>>> groups = new ArrayList<>();
+    expected.forEach((key, values) -> groups.add(
+        new SimpleImmutableEntry<>(key, new ArrayList<>(values))));
+
+    assertEquals(groups, multimap.groups().collect(Collectors.toList()));
+    assertEquals(new ArrayList<>(expected.keySet()), multimap.keys().collect(Collectors.toList()));
+    assertEquals(expected.values().stream().mapToInt(TreeSet::size).sum(), multimap.getSize());
+
+    for (int key = 0; key < 100; ++ key) {
+      assertEquals(expected.containsKey(key) ? expected.get(key).size() : 0, multimap.count(key));
+    }
+  }
+
+  @Test
+  public void testTransient() {
+    final Multimap<String, Integer> multimap = sample();
+    final TransientMultimap<String, Integer> editable = multimap.asTransient();
+
+    editable.put("d", 4).put("a", 2).delete("b", 9);
+
+    assertTrue(editable.contains("d", 4));
+    assertEquals(7, editable.getSize());
+
+    final Multimap<String, Integer> result = editable.persistent();
+
+    assertEquals(Arrays.asList(1, 2, 3), result.get("a").collect(Collectors.toList()));
+    assertEquals(Arrays.asList(1, 2), result.get("b").collect(Collectors.toList()));
+    assertEquals(6, multimap.getSize());
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testTransientUsedAfterPersistent() {
+    final TransientMultimap<String, Integer> editable = sample().asTransient();
+    editable.persistent();
+    editable.put("a", 1);
+  }
+
+  @Test
+  public void testCollector() {
+    final Multimap<String, Integer> multimap = Arrays.asList("b2", "a3", "b1", "a1", "c5", "b9",
+        "a3").stream().collect(Multimap.collector(s -> s.substring(0, 1),
+        s -> Integer.valueOf(s.substring(1))));
+
+    assertEquals(sample(), multimap);
+    assertEquals(sample().hashCode(), multimap.hashCode());
+    assertNotEquals(sample(), multimap.delete("a", 1));
+  }
+
+  @Test
+  public void testToString() {
+    assertEquals("{a=[1, 3], b=[1, 2, 9], c=[5]}", sample().toString());
+  }
+
+  @Test(expected = NullPointerException.class)
+  public void testPutNullValue() {
+    sample().put("a", null);
+  }
+}
@@ -0,0 +1,490 @@
+package hurricane.core.collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.Spliterator;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.Test;
+
+public class TreePersistentSetTest {
+
+  @Test
+  public void testFromSorted() {
+    final List<Integer> values = IntStream.range(0, 1000).boxed().collect(Collectors.toList());
+
+    final PersistentSet<Integer> set = PersistentSet.fromSorted(Comparator.naturalOrder(), values);
+
+    assertEquals(1000, set.getSize());
+    assertEquals(values, set.stream().collect(Collectors.toList()));
+  }
+
+  @Test
+  public void testFromSortedCollapsesDuplicates() {
+    final PersistentSet<Integer> set = PersistentSet
+        .fromSorted(Comparator.naturalOrder(), Arrays.asList(1, 1, 2, 3, 3, 3));
+
+    assertEquals(Arrays.asList(1, 2, 3), set.stream().collect(Collectors.toList()));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testFromSortedRejectsUnsortedInput() {
+    PersistentSet.fromSorted(Comparator.<Integer>naturalOrder(), Arrays.asList(1, 3, 2));
+  }
+
+  @Test
+  public void testCollectUnsorted() {
+    final List<Integer> values = IntStream.range(0, 1000).boxed().collect(Collectors.toList());
+    final List<Integer> shuffled = new ArrayList<>(values);
+    Collections.shuffle(shuffled, new Random(42));
+    shuffled.addAll(values.subList(0, 100));
+
+    final PersistentSet<Integer> set = shuffled.stream().collect(PersistentSet.collector());
+
+    assertEquals(1000, set.getSize());
+    assertEquals(values, set.stream().collect(Collectors.toList()));
+    assertEquals(values.stream().collect(PersistentSet.collector()), set);
+  }
+
+  @Test
+  public void testModifyBulkLoadedSet() {
+    PersistentSet<Integer> set = IntStream.range(0, 100)
+        .map(i -> i * 2)
+        .boxed()
+        .collect(PersistentSet.collector());
+
+    for (int i = 0; i < 100; ++ i) {
+      set = set.add(i * 2 + 1);
+    }
+    for (int i = 0; i < 50; ++ i) {
+      set = set.delete(i);
+    }
+
+    assertEquals(150, set.getSize());
+    for (int i = 0; i < 200; ++ i) {
+      assertEquals(i >= 50, set.contains(i));
+    }
+  }
+
+  @Test
+  public void testCollectEmpty() {
+    final PersistentSet<Integer> set = IntStream.range(0, 0)
+        .boxed()
+        .collect(PersistentSet.collector());
+
+    assertTrue(set.isEmpty());
+    assertFalse(set.contains(0));
+  }
+
+  @Test
+  public void testTransient() {
+    final PersistentSet<Integer> original = IntStream.range(0, 100)
+        .boxed()
+        .collect(PersistentSet.collector());
+
+    final TransientSet<Integer> transientSet = original.asTransient();
+    for (int i = 0; i < 200; ++ i) {
+      assertSame(transientSet, transientSet.add(i));
+    }
+    for (int i = 0; i < 200; i += 2) {
+      transientSet.delete(i);
+    }
+
+    assertEquals(100, transientSet.getSize());
+    assertTrue(transientSet.contains(199));
+    assertFalse(transientSet.contains(198));
+
+    final PersistentSet<Integer> result = transientSet.persistent();
+
+    assertEquals(
+        IntStream.range(0, 100).map(i -> i * 2 + 1).boxed().collect(Collectors.toList()),
+        result.stream().collect(Collectors.toList()));
+
+    // The set the transient was created from is unaffected:
+    assertEquals(
+        IntStream.range(0, 100).boxed().collect(Collectors.toList()),
+        original.stream().collect(Collectors.toList()));
+  }
+
+  @Test
+  public void testPersistentResultIsNotModifiedByNewTransient() {
+    final TransientSet<Integer> first = PersistentSet.<Integer>empty().asTransient();
+    for (int i = 0; i < 100; ++ i) {
+      first.add(i);
+    }
+    final PersistentSet<Integer> result = first.persistent();
+
+    final TransientSet<Integer> second = result.asTransient();
+    for (int i = 0; i < 100; ++ i) {
+      second.delete(i);
+    }
+
+    assertTrue(second.persistent().isEmpty());
+    assertEquals(100, result.getSize());
+    for (int i = 0; i < 100; ++ i) {
+      assertTrue(result.contains(i));
+    }
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testTransientCannotBeUsedAfterPersistent() {
+    final TransientSet<Integer> transientSet = PersistentSet.<Integer>empty().asTransient();
+    transientSet.persistent();
+    transientSet.add(1);
+  }
+
+  @Test
+  public void testSetOperations() {
+    final PersistentSet<Integer> multiplesOfTwo = IntStream.range(0, 10000)
+        .map(i -> i * 2)
+        .boxed()
+        .collect(PersistentSet.collector());
+    final PersistentSet<Integer> multiplesOfThree = IntStream.range(0, 10000)
+        .map(i -> i * 3)
+        .boxed()
+        .collect(PersistentSet.collector());
+
+    assertEquals(
+        IntStream.range(0, 30000).filter(i -> (i % 2 == 0 && i < 20000) || i % 3 == 0)
+            .boxed().collect(Collectors.toList()),
+        multiplesOfTwo.union(multiplesOfThree).stream().collect(Collectors.toList()));
+    assertEquals(
+        IntStream.range(0, 20000).filter(i -> i % 6 == 0).boxed().collect(Collectors.toList()),
+        multiplesOfTwo.intersection(multiplesOfThree).stream().collect(Collectors.toList()));
+    assertEquals(
+        IntStream.range(0, 20000).filter(i -> i % 2 == 0 && i % 3 != 0)
+            .boxed().collect(Collectors.toList()),
+        multiplesOfTwo.difference(multiplesOfThree).stream().collect(Collectors.toList()));
+  }
+
+  @Test
+  public void testSetOperationsWithSharedStructure() {
+    final PersistentSet<Integer> set = IntStream.range(0, 1000)
+        .boxed()
+        .collect(PersistentSet.collector());
+    final PersistentSet<Integer> modified = set.delete(500).add(1000);
+
+    assertSame(set, set.union(set));
+    assertSame(set, set.intersection(set));
+    assertTrue(set.difference(set).isEmpty());
+    assertSame(set, set.union(PersistentSet.empty()));
+
+    assertEquals(1001, set.union(modified).getSize());
+    assertEquals(999, set.intersection(modified).getSize());
+    assertEquals(Arrays.asList(500), set.difference(modified).stream().collect(Collectors.toList()));
+    assertEquals(Arrays.asList(1000), modified.difference(set).stream().collect(Collectors.toList()));
+  }
+
+  @Test
+  public void testSetOperationsWithDifferentComparators() {
+    final PersistentSet<Integer> ascending = PersistentSet.<Integer>empty().add(1).add(2).add(3);
+    final PersistentSet<Integer> descending = PersistentSet.empty(Comparator.<Integer>reverseOrder())
+        .add(3).add(4);
+
+    assertEquals(Arrays.asList(1, 2, 3, 4),
+        ascending.union(descending).stream().collect(Collectors.toList()));
+    assertEquals(Arrays.asList(4, 3, 2, 1),
+        descending.union(ascending).stream().collect(Collectors.toList()));
+  }
+
+  @Test
+  public void testSpliteratorSplitsBySubtree() {
+    final PersistentSet<Integer> set = IntStream.range(0, 1000)
+        .boxed()
+        .collect(PersistentSet.collector());
+
+    final Spliterator<Integer> suffix = set.stream().spliterator();
+    assertTrue(suffix.hasCharacteristics(Spliterator.SIZED | Spliterator.SUBSIZED));
+    assertEquals(1000, suffix.estimateSize());
+
+    final Spliterator<Integer> prefix = suffix.trySplit();
+    assertEquals(1000, prefix.estimateSize() + suffix.estimateSize());
+    assertTrue(prefix.estimateSize() >= 400 && suffix.estimateSize() >= 400);
+
+    final List<Integer> values = new ArrayList<>();
+    prefix.forEachRemaining(values::add);
+    suffix.tryAdvance(values::add);
+    assertEquals(suffix.estimateSize(), 1000 - values.size());
+    suffix.forEachRemaining(values::add);
+
+    assertEquals(IntStream.range(0, 1000).boxed().collect(Collectors.toList()), values);
+  }
+
+  @Test
+  public void testParallelStream() {
+    final PersistentSet<Integer> set = IntStream.range(0, 100000)
+        .boxed()
+        .collect(PersistentSet.collector());
+
+    assertEquals(100000, set.stream().parallel().count());
+    assertEquals(
+        IntStream.range(0, 100000).boxed().collect(Collectors.toList()),
+        set.stream().parallel().collect(Collectors.toList()));
+  }
+
+  @Test
+  public void testNavigation() {
+    final SortedPersistentSet<Integer> set = IntStream.range(0, 100)
+        .map(i -> i * 10)
+        .boxed()
+        .collect(PersistentSet.collector());
+
+    assertEquals(Optional.of(50), set.floor(50));
+    assertEquals(Optional.of(50), set.floor(55));
+    assertEquals(Optional.of(40), set.lower(50));
+    assertEquals(Optional.of(50), set.ceiling(50));
+    assertEquals(Optional.of(60), set.ceiling(55));
+    assertEquals(Optional.of(60), set.higher(50));
+    assertEquals(Optional.empty(), set.floor(-1));
+    assertEquals(Optional.empty(), set.lower(0));
+    assertEquals(Optional.empty(), set.ceiling(991));
+    assertEquals(Optional.empty(), set.higher(990));
+  }
+
+  @Test
+  public void testRanges() {
+    final SortedPersistentSet<Integer> set = IntStream.range(0, 100)
+        .boxed()
+        .collect(PersistentSet.collector());
+
+    assertEquals(
+        IntStream.range(10, 20).boxed().collect(Collectors.toList()),
+        set.subSet(10, 20).stream().collect(Collectors.toList()));
+    assertEquals(
+        IntStream.range(0, 10).boxed().collect(Collectors.toList()),
+        set.headSet(10).stream().collect(Collectors.toList()));
+    assertEquals(
+        IntStream.range(90, 100).boxed().collect(Collectors.toList()),
+        set.tailSet(90).stream().collect(Collectors.toList()));
+    assertTrue(set.subSet(200, 300).isEmpty());
+    assertSame(set, set.tailSet(-1));
+
+    // Ranges are sets of their own:
+    final SortedPersistentSet<Integer> range = set.subSet(10, 20).add(50);
+    assertEquals(11, range.getSize());
+    assertTrue(range.contains(50));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidRange() {
+    PersistentSet.<Integer>empty().subSet(2, 1);
+  }
+
+  @Test
+  public void testStreamFrom() {
+    final SortedPersistentSet<Integer> set = IntStream.range(0, 100)
+        .map(i -> i * 2)
+        .boxed()
+        .collect(PersistentSet.collector());
+
+    assertEquals(
+        IntStream.range(50, 100).map(i -> i * 2).boxed().collect(Collectors.toList()),
+        set.stream(99).collect(Collectors.toList()));
+    assertEquals(
+        IntStream.range(50, 100).map(i -> i * 2).boxed().collect(Collectors.toList()),
+        set.stream(100).collect(Collectors.toList()));
+    assertEquals(50, set.stream(100).spliterator().estimateSize());
+    assertEquals(0, set.stream(1000).count());
+  }
+
+  @Test
+  public void testRankAndSelect() {
+    final SortedPersistentSet<Integer> set = IntStream.range(0, 1000)
+        .map(i -> i * 3)
+        .boxed()
+        .collect(PersistentSet.collector());
+
+    for (int i = 0; i < 1000; ++ i) {
+      assertEquals(i, set.indexOf(i * 3));
+      assertEquals(-1, set.indexOf(i * 3 + 1));
+      assertEquals(Integer.valueOf(i * 3), set.get(i));
+    }
+
+    assertEquals(1000, set.count(-100, 10000));
+    assertEquals(0, set.count(7, 7));
+    assertEquals(4, set.count(3, 15));
+    assertEquals(5, set.count(3, 16));
+    assertEquals(set.subSet(100, 2000).getSize(), set.count(100, 2000));
+  }
+
+  @Test(expected = IndexOutOfBoundsException.class)
+  public void testGetOutOfBounds() {
+    PersistentSet.<Integer>empty().add(1).get(1);
+  }
+
+  @Test
+  public void testEqualsAndHashCode() {
+    final Random random = new Random(3);
+    final List<Integer> values = IntStream.range(0, 5000)
+        .map(i -> random.nextInt(20000))
+        .distinct()
+        .boxed()
+        .collect(Collectors.toList());
+
+    SortedPersistentSet<Integer> inserted = PersistentSet.empty();
+    for (final Integer value : values) {
+      inserted = inserted.add(value);
+    }
+
+    final SortedPersistentSet<Integer> collected = values.stream()
+        .collect(PersistentSet.collector());
+    final List<Integer> sorted = collected.stream().collect(Collectors.toList());
+
+    assertEquals(sorted.hashCode(), collected.hashCode());
+    assertEquals(sorted.hashCode(), inserted.hashCode());
+    assertEquals(collected, inserted);
+    assertEquals(inserted, collected);
+
+    final SortedPersistentSet<Integer> empty = PersistentSet.empty();
+    assertEquals(Collections.emptyList().hashCode(), empty.hashCode());
+    assertEquals(empty, collected.difference(collected));
+  }
+
+  @Test
+  public void testEqualsAndHashCodeAfterSmallChanges() {
+    final SortedPersistentSet<Integer> set = IntStream.range(0, 100000)
+        .boxed()
+        .collect(PersistentSet.collector());
+    final int hashCode = set.hashCode();
+
+    final SortedPersistentSet<Integer> added = set.add(-1);
+    final SortedPersistentSet<Integer> deleted = set.delete(50000);
+    final SortedPersistentSet<Integer> restored = added.delete(-1).delete(50000).add(50000);
+
+    assertFalse(set.equals(added));
+    assertFalse(added.equals(set));
+    assertFalse(set.equals(deleted));
+    assertFalse(deleted.equals(added));
+    assertEquals(set, restored);
+    assertEquals(restored, set);
+    assertEquals(hashCode, restored.hashCode());
+
+    // Same size, single value replaced:
+    final SortedPersistentSet<Integer> replaced = deleted.add(100000);
+    assertFalse(set.equals(replaced));
+    assertFalse(replaced.equals(set));
+
+    final List<Integer> list = replaced.stream().collect(Collectors.toList());
+    assertEquals(list.hashCode(), replaced.hashCode());
+    assertEquals(hashCode, set.hashCode());
+  }
+
+  @Test
+  public void testEqualsAfterTransientUpdates() {
+    final SortedPersistentSet<Integer> set = IntStream.range(0, 1000)
+        .boxed()
+        .collect(PersistentSet.collector());
+    final int hashCode = set.hashCode();
+
+    final TransientSet<Integer> editable = set.asTransient();
+    for (int i = 0; i < 1000; i += 2) {
+      editable.delete(i);
+    }
+    for (int i = 0; i < 1000; i += 2) {
+      editable.add(i);
+    }
+
+    final PersistentSet<Integer> result = editable.persistent();
+
+    assertEquals(set, result);
+    assertEquals(hashCode, result.hashCode());
+    assertEquals(hashCode, set.hashCode());
+  }
+
+  @Test
+  public void testDiff() {
+    final SortedPersistentSet<Integer> set = IntStream.range(0, 100000)
+        .boxed()
+        .collect(PersistentSet.collector());
+    final SortedPersistentSet<Integer> changed = set.delete(500).add(-1).add(100000).delete(70000);
+
+    assertEquals(
+        Arrays.asList(
+            SetChange.added(-1),
+            SetChange.removed(500),
+            SetChange.removed(70000),
+            SetChange.added(100000)),
+        set.diff(changed).collect(Collectors.toList()));
+    assertEquals(
+        Arrays.asList(
+            SetChange.removed(-1),
+            SetChange.added(500),
+            SetChange.added(70000),
+            SetChange.removed(100000)),
+        changed.diff(set).collect(Collectors.toList()));
+    assertEquals(0, set.diff(set).count());
+    assertEquals(0, set.diff(changed.add(500).add(70000).delete(-1).delete(100000)).count());
+  }
+
+  @Test
+  public void testDiffWithOtherSets() {
+    final Random random = new Random(11);
+    final SortedPersistentSet<Integer> a = IntStream.range(0, 2000)
+        .map(i -> random.nextInt(3000))
+        .boxed()
+        .collect(PersistentSet.collector());
+    final SortedPersistentSet<Integer> b = IntStream.range(0, 2000)
+        .map(i -> random.nextInt(3000))
+        .boxed()
+        .collect(PersistentSet.collector());
+
+    final List<SetChange<Integer>> expected = new ArrayList<>();
+    IntStream.range(0, 3000).forEach(value -> {
+      if (a.contains(value) && !b.contains(value)) {
+        expected.add(SetChange.removed(value));
+      } else if (!a.contains(value) && b.contains(value)) {
+        expected.add(SetChange.added(value));
+      }
+    });
+
+    assertEquals(expected, a.diff(b).collect(Collectors.toList()));
+    assertEquals(expected, a.diff(b.stream().collect(PersistentSet.hashedCollector()))
+        .collect(Collectors.toList()));
+    assertEquals(expected.size(), PersistentSet.<Integer>hashed().union(a).diff(b).count());
+  }
+
+  @Test
+  public void testAddAllAndDeleteAll() {
+    final Random random = new Random(5);
+    final List<Integer> initial = IntStream.range(0, 20000)
+        .map(i -> random.nextInt(100000))
+        .boxed()
+        .collect(Collectors.toList());
+    final List<Integer> added = IntStream.range(0, 5000)
+        .map(i -> random.nextInt(100000))
+        .boxed()
+        .collect(Collectors.toList());
+    final List<Integer> deleted = IntStream.range(0, 5000)
+        .map(i -> random.nextInt(100000))
+        .boxed()
+        .collect(Collectors.toList());
+
+    final SortedPersistentSet<Integer> set = initial.stream().collect(PersistentSet.collector());
+
+    SortedPersistentSet<Integer> expected = set;
+    for (final Integer value : added) {
+      expected = expected.add(value);
+    }
+    for (final Integer value : deleted) {
+      expected = expected.delete(value);
+    }
+
+    final SortedPersistentSet<Integer> result = set.addAll(added).deleteAll(deleted);
+
+    assertEquals(expected, result);
+    assertEquals(initial.stream().distinct().count(), set.getSize());
+    assertSame(set, set.addAll(Collections.emptyList()));
+    assertSame(set, set.deleteAll(Arrays.asList(null, null)));
+    assertEquals(set.delete(initial.get(0)), set.deleteAll(Arrays.asList(initial.get(0), null)));
+  }
+}
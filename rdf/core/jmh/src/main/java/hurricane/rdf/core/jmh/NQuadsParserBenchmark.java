@@ -0,0 +1,118 @@
+package hurricane.rdf.core.jmh;
+
+import hurricane.rdf.core.parser.AbstractParser;
+import hurricane.rdf.core.rdf.Quad;
+import hurricane.rdf.core.rdf.formatters.NQuadsParser;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Compares the table-driven {@link NQuadsParser} with {@link LambdaNQuadsParser}, the parser built
+ * from chained closures that it replaced. The document is fed in blocks of 8K characters, as
+ * {@link AbstractParser#parse} does, and the quads are drained after every block.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class NQuadsParserBenchmark {
+
+  private static final int BLOCK_SIZE = 1 << 13;
+
+  @Param({"table", "lambda"})
+  public String parser;
+
+  @Param({"1000", "100000"})
+  public int statements;
+
+  private String document;
+
+  @Setup
+  public void setUp() {
+    document = document(statements);
+  }
+
+  /**
+   * Generates statements about a new subject every 10 statements, with a mix of IRI, blank node,
+   * plain and typed literal objects, and a graph name on every third statement.
+   */
+  static String document(final int statements) {
+    final Random random = new Random(3);
+    final StringBuilder builder = new StringBuilder();
+
+    for (int i = 0; i < statements; ++ i) {
+      builder.append("<http://example.com/resource/").append(i / 10).append("> ")
+          .append("<http://example.com/vocabulary#property").append(random.nextInt(20))
+          .append("> ");
+
+      switch (random.nextInt(4)) {
+        case 0:
+          builder.append("<http://example.com/resource/").append(random.nextInt(statements))
+              .append('>');
+          break;
+        case 1:
+          builder.append("_:node").append(random.nextInt(1000));
+          break;
+        case 2:
+          builder.append("\"A plain literal with \\\"escapes\\\" number ").append(i).append('"');
+          break;
+        default:
+          builder.append('"').append(random.nextInt())
+              .append("\"^^<http://www.w3.org/2001/XMLSchema#integer>");
+          break;
+      }
+
+      if (i % 3 == 0) {
+        builder.append(" <http://example.com/graph/").append(random.nextInt(5)).append('>');
+      }
+
+      builder.append(" .\n");
+    }
+
+    return builder.toString();
+  }
+
+  private AbstractParser<Quad> createParser() {
+    switch (parser) {
+      case "table":
+        return new NQuadsParser();
+      case "lambda":
+        return new LambdaNQuadsParser();
+      default:
+        throw new IllegalArgumentException("Unknown parser: " + parser);
+    }
+  }
+
+  @Benchmark
+  public void parse(final Blackhole blackhole) {
+    final AbstractParser<Quad> parser = createParser();
+
+    for (int i = 0; i < document.length(); i += BLOCK_SIZE) {
+      parser.accept(document.subSequence(i, Math.min(document.length(), i + BLOCK_SIZE)));
+
+      while (parser.hasToken()) {
+        blackhole.consume(parser.nextToken());
+      }
+    }
+
+    parser.endOfInput();
+
+    while (parser.hasToken()) {
+      blackhole.consume(parser.nextToken());
+    }
+  }
+}
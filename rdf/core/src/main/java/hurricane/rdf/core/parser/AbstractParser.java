@@ -0,0 +1,192 @@
+package hurricane.rdf.core.parser;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.CharBuffer;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * The input and output of a parser: characters are accepted incrementally, passed to the subclass
+ * one code point at a time, and the tokens it emits are queued until they are taken.
+ *
+ * @param <T>
+ */
+public abstract class AbstractParser<T> {
+
+  private static final int BLOCK_SIZE = 1 << 13;
+
+  private LinkedList<T> tokens = new LinkedList<>();
+  private boolean endSignalled = false;
+  private boolean atEnd = false;
+
+  protected AbstractParser() {
+  }
+
+  public void accept(final CharSequence characters) {
+    if (endSignalled) {
+      throw new IllegalStateException("Cannot accept input after end-of-input was signalled");
+    }
+
+    for (int i = 0; i < characters.length(); ) {
+      final int codePoint = Character.codePointAt(characters, i);
+      acceptCodePoint(codePoint);
+      i += Character.charCount(codePoint);
+    }
+  }
+
+  public void endOfInput() {
+    if (endSignalled) {
+      throw new IllegalStateException("Cannot accept input after end-of-input was signalled");
+    }
+
+    acceptCodePoint(-1);
+    endSignalled = true;
+  }
+
+  /**
+   * Returns a lazy stream of the tokens parsed from a reader. Characters are read a block at a
+   * time when the tokens of the previous block have been consumed, so only the tokens of one
+   * block are held. Closing the stream closes the reader.
+   *
+   * @throws IllegalArgumentException from the stream if the input is invalid.
+   * @throws UncheckedIOException from the stream if the reader fails.
+   */
+  public Stream<T> parse(final Reader reader) {
+    return StreamSupport.stream(
+        Spliterators.spliteratorUnknownSize(iterator(reader),
+            Spliterator.ORDERED | Spliterator.NONNULL),
+        false
+    ).onClose(() -> {
+      try {
+        reader.close();
+      } catch (final IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    });
+  }
+
+  /**
+   * Returns a lazy iterator over the tokens parsed from a reader, see {@link #parse(Reader)}. The
+   * reader is not closed.
+   */
+  public Iterator<T> iterator(final Reader reader) {
+    Objects.requireNonNull(reader, "reader cannot be null");
+
+    return new Iterator<>() {
+      private final char[] block = new char[BLOCK_SIZE];
+
+      /**
+       * The number of characters at the start of the block that are left from the previous read,
+       * which is 1 if it ended with a high surrogate.
+       */
+      private int carried;
+
+      @Override
+      public boolean hasNext() {
+        while (!hasToken()) {
+          if (endSignalled) {
+            return false;
+          }
+
+          read();
+        }
+
+        return true;
+      }
+
+      @Override
+      public T next() {
+        if (!hasNext()) {
+          throw new NoSuchElementException();
+        }
+
+        return nextToken();
+      }
+
+      private void read() {
+        final int read;
+
+        try {
+          read = reader.read(block, carried, block.length - carried);
+        } catch (final IOException e) {
+          throw new UncheckedIOException(e);
+        }
+
+        if (read < 0) {
+          accept(CharBuffer.wrap(block, 0, carried));
+          endOfInput();
+          return;
+        }
+
+        final int length = carried + read;
+
+        // Keep a high surrogate for the next read, which has the rest of the code point:
+        carried = Character.isHighSurrogate(block[length - 1]) ? 1 : 0;
+        accept(CharBuffer.wrap(block, 0, length - carried));
+        block[0] = block[length - 1];
+      }
+    };
+  }
+
+  public boolean hasToken() {
+    return !tokens.isEmpty() && !(tokens.size() == 1 && tokens.peek() == null);
+  }
+
+  public T nextToken() {
+    if (!hasToken()) {
+      throw new IllegalStateException("The parser has no tokens available.");
+    }
+
+    return tokens.pollFirst();
+  }
+
+  public boolean isComplete() {
+    return atEnd && !hasToken();
+  }
+
+  /**
+   * Whether the end of the input has been emitted.
+   */
+  protected boolean atEnd() {
+    return atEnd;
+  }
+
+  /**
+   * Handles a code point, or -1 for the end of the input.
+   *
+   * @throws IllegalArgumentException if the code point is not valid at this point of the input.
+   */
+  protected abstract void acceptCodePoint(int codePoint);
+
+  /**
+   * Returns the exception for an unexpected code point, or -1 for the end of the input.
+   */
+  protected static IllegalArgumentException invalid(final int codePoint) {
+    if (codePoint < 0) {
+      return new IllegalArgumentException("Unexpected EOF");
+    }
+
+    final StringBuilder message = new StringBuilder("Invalid character: '");
+    message.appendCodePoint(codePoint);
+    message.append('\'');
+    return new IllegalArgumentException(message.toString());
+  }
+
+  protected void emit(final T token) {
+    Objects.requireNonNull(token, "token cannot be null");
+    tokens.addLast(token);
+  }
+
+  protected void emitEndOfInput() {
+    tokens.addLast(null);
+    atEnd = true;
+  }
+}
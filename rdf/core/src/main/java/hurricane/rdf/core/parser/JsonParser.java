@@ -1,8 +1,11 @@
 package hurricane.rdf.core.parser;
 
 import hurricane.rdf.core.parser.JsonParser.Token;
+import java.nio.ByteBuffer;
 import java.util.LinkedList;
+import java.util.List;
 import java.util.ListIterator;
+import java.util.concurrent.Flow;
 import java.util.function.Function;
 import java.util.function.IntFunction;
 import java.util.function.Supplier;
@@ -17,6 +20,14 @@ public final class JsonParser extends Parser<Token> {
     this.tokenBuffers.addLast(new Tokens(tokensPerBuffer));
   }
 
+  /**
+   * Returns a processor that parses UTF-8 encoded chunks of bytes and publishes the tokens to a
+   * single subscriber as it requests them.
+   */
+  public static Flow.Processor<List<ByteBuffer>, Token> processor() {
+    return new ParserProcessor<>(new JsonParser());
+  }
+
   @Override
   protected void emit(final Token token) {
     emit(token, "");
@@ -7,69 +7,39 @@ import java.util.function.IntFunction;
 import java.util.function.IntPredicate;
 import java.util.function.Supplier;
 
-public abstract class Parser<T> {
+/**
+ * A parser driven by a stack of {@link ParserState} closures, each of which handles the code
+ * points of one part of the grammar.
+ *
+ * @param <T>
+ */
+public abstract class Parser<T> extends AbstractParser<T> {
 
   private LinkedList<ParserState> state = new LinkedList<>();
-  private LinkedList<T> tokens = new LinkedList<>();
-  private boolean endSignalled = false;
-  private boolean atEnd = false;
 
-  public void accept(final CharSequence characters) {
-    if (endSignalled) {
-      throw new IllegalStateException("Cannot accept input after end-of-input was signalled");
-    }
+  protected Parser() {
+  }
 
+  /**
+   * Passes a code point, or -1 for the end of the input, to the state on top of the stack.
+   */
+  @Override
+  protected void acceptCodePoint(final int codePoint) {
     if (this.state.isEmpty()) {
       pushState(initialState());
     }
 
-    characters.codePoints().forEach(this::acceptCodePoint);
-  }
-
-  public void endOfInput() {
-    if (endSignalled) {
-      throw new IllegalStateException("Cannot accept input after end-of-input was signalled");
-    }
-
-    acceptCodePoint(-1);
-    endSignalled = true;
-  }
-
-  public boolean hasToken() {
-    return !tokens.isEmpty() && !(tokens.size() == 1 && tokens.peek() == null);
-  }
-
-  public T nextToken() {
-    if (!hasToken()) {
-      throw new IllegalStateException("The parser has no tokens available.");
-    }
-
-    return tokens.pollFirst();
-  }
-
-  public boolean isComplete() {
-    return atEnd && !hasToken();
-  }
-
-  private void acceptCodePoint(final int codePoint) {
     ParserState state = this.state.peek();
 
     while (!state.acceptChar(codePoint)) {
-      if (atEnd) {
+      if (atEnd()) {
         break;
       }
 
       // Fail if the character wasn't handled and the state didn't change:
       final ParserState newState = this.state.peek();
       if (state == newState) {
-        if (codePoint < 0) {
-          throw new IllegalArgumentException("Unexpected EOF");
-        } else {
-          final StringBuilder message = new StringBuilder("Invalid character: '");
-          message.appendCodePoint(codePoint);
-          message.append('\'');
-          throw new IllegalArgumentException(message.toString());
-        }
+        throw invalid(codePoint);
       }
 
       state = newState;
@@ -78,16 +48,6 @@ public abstract class Parser<T> {
 
   protected abstract ParserState initialState();
 
-  protected void emit(final T token) {
-    Objects.requireNonNull(token, "token cannot be null");
-    tokens.addLast(token);
-  }
-
-  protected void emitEndOfInput() {
-    tokens.addLast(null);
-    atEnd = true;
-  }
-
   protected ParserState pushState(final ParserState state) {
     this.state.push(Objects.requireNonNull(state, "state cannot be null"));
     return state;
@@ -0,0 +1,315 @@
+package hurricane.rdf.core.parser;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Connects a parser to a reactive stream: UTF-8 encoded chunks of bytes are received from a
+ * publisher, such as the body of a {@code java.net.http} response, and the tokens parsed from them
+ * are published to a single subscriber.
+ *
+ * <p>Chunks are requested one at a time, only when the subscriber has demand that the tokens of
+ * the previous chunks cannot satisfy, so at most the tokens of one chunk are held. Signals from
+ * both sides are handled by whichever thread arrives first, the parser is never used by two
+ * threads at once.</p>
+ *
+ * <p>Invalid input cancels the upstream subscription and is signalled to the subscriber as an
+ * IllegalArgumentException, or a CharacterCodingException for invalid UTF-8. Any other exception
+ * thrown by the parser is signalled the same way.</p>
+ *
+ * @param <T>
+ */
+public final class ParserProcessor<T> implements Flow.Processor<List<ByteBuffer>, T> {
+
+  private static final int BLOCK_SIZE = 1 << 13;
+
+  private final AbstractParser<T> parser;
+  private final CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+      .onMalformedInput(CodingErrorAction.REPORT)
+      .onUnmappableCharacter(CodingErrorAction.REPORT);
+  private final CharBuffer chars = CharBuffer.allocate(BLOCK_SIZE);
+
+  /**
+   * The bytes of a UTF-8 sequence that was cut off at the end of the previous chunk.
+   */
+  private final ByteBuffer carry = ByteBuffer.allocate(4);
+
+  private final Queue<List<ByteBuffer>> chunks = new ConcurrentLinkedQueue<>();
+  private final AtomicInteger work = new AtomicInteger();
+  private final AtomicLong demand = new AtomicLong();
+
+  private volatile Flow.Subscription upstream;
+  private volatile Flow.Subscriber<? super T> downstream;
+  private volatile boolean upstreamDone;
+  private volatile Throwable upstreamError;
+  private volatile Throwable requestError;
+  private volatile boolean cancelled;
+
+  /**
+   * Only accessed while draining.
+   */
+  private boolean requested;
+  private boolean ended;
+  private boolean terminated;
+
+  public ParserProcessor(final AbstractParser<T> parser) {
+    this.parser = Objects.requireNonNull(parser, "parser cannot be null");
+  }
+
+  @Override
+  public void subscribe(final Flow.Subscriber<? super T> subscriber) {
+    Objects.requireNonNull(subscriber, "subscriber cannot be null");
+
+    synchronized (this) {
+      if (downstream != null) {
+        subscriber.onSubscribe(new Flow.Subscription() {
+          @Override
+          public void request(final long n) {
+          }
+
+          @Override
+          public void cancel() {
+          }
+        });
+        subscriber.onError(new IllegalStateException("Processor already has a subscriber"));
+        return;
+      }
+
+      downstream = subscriber;
+    }
+
+    subscriber.onSubscribe(new Flow.Subscription() {
+      @Override
+      public void request(final long n) {
+        if (n <= 0) {
+          requestError = new IllegalArgumentException("n must be positive");
+          cancelled = true;
+        } else {
+          demand.getAndAccumulate(n, (a, b) -> a + b < 0 ? Long.MAX_VALUE : a + b);
+        }
+
+        drain();
+      }
+
+      @Override
+      public void cancel() {
+        cancelled = true;
+        drain();
+      }
+    });
+
+    drain();
+  }
+
+  @Override
+  public void onSubscribe(final Flow.Subscription subscription) {
+    Objects.requireNonNull(subscription, "subscription cannot be null");
+
+    if (upstream != null || cancelled) {
+      subscription.cancel();
+      return;
+    }
+
+    upstream = subscription;
+    drain();
+  }
+
+  @Override
+  public void onNext(final List<ByteBuffer> item) {
+    chunks.add(Objects.requireNonNull(item, "item cannot be null"));
+    drain();
+  }
+
+  @Override
+  public void onError(final Throwable throwable) {
+    upstreamError = Objects.requireNonNull(throwable, "throwable cannot be null");
+    upstreamDone = true;
+    drain();
+  }
+
+  @Override
+  public void onComplete() {
+    upstreamDone = true;
+    drain();
+  }
+
+  /**
+   * Runs the processor on the calling thread, unless another thread is running it, in which case
+   * that thread runs it again when done.
+   */
+  private void drain() {
+    if (work.getAndIncrement() != 0) {
+      return;
+    }
+
+    int missed = 1;
+
+    do {
+      if (!terminated && downstream != null) {
+        step();
+      }
+
+      missed = work.addAndGet(-missed);
+    } while (missed != 0);
+  }
+
+  /**
+   * Emits tokens while there is demand, parsing chunks and requesting new ones as required.
+   */
+  private void step() {
+    final Flow.Subscriber<? super T> subscriber = downstream;
+
+    while (!terminated) {
+      if (cancelled) {
+        terminated = true;
+        chunks.clear();
+
+        if (upstream != null) {
+          upstream.cancel();
+        }
+
+        if (requestError != null) {
+          subscriber.onError(requestError);
+        }
+
+        return;
+      }
+
+      try {
+        if (demand.get() > 0 && parser.hasToken()) {
+          demand.decrementAndGet();
+          subscriber.onNext(parser.nextToken());
+          continue;
+        }
+
+        final List<ByteBuffer> chunk = chunks.poll();
+
+        if (chunk != null) {
+          requested = false;
+          for (final ByteBuffer buffer : chunk) {
+            decode(buffer);
+          }
+        } else if (upstreamDone && upstreamError != null) {
+          fail(upstreamError);
+          return;
+        } else if (upstreamDone && !ended) {
+          // Parse the last characters, the tokens are emitted by the next iteration:
+          ended = true;
+          endOfInput();
+        } else if (upstreamDone) {
+          if (!parser.hasToken()) {
+            terminated = true;
+            subscriber.onComplete();
+          }
+          return;
+        } else {
+          if (demand.get() > 0 && !requested && upstream != null) {
+            requested = true;
+            upstream.request(1);
+          }
+          return;
+        }
+      } catch (final RuntimeException | CharacterCodingException e) {
+        // Any failure must terminate, or the stream would hang with no more signals:
+        if (upstream != null) {
+          upstream.cancel();
+        }
+        fail(e);
+      }
+    }
+  }
+
+  private void fail(final Throwable throwable) {
+    terminated = true;
+    chunks.clear();
+    downstream.onError(throwable);
+  }
+
+  /**
+   * Decodes bytes and passes the characters to the parser. A UTF-8 sequence that is cut off at the
+   * end of the bytes is kept for the next call, as is a high surrogate at the end of the decoded
+   * characters.
+   */
+  private void decode(final ByteBuffer buffer) throws CharacterCodingException {
+    final ByteBuffer in = buffer.duplicate();
+
+    // Complete the sequence left by the previous chunk a byte at a time:
+    while (carry.position() > 0 && in.hasRemaining()) {
+      carry.put(in.get()).flip();
+      decode(carry, false);
+      carry.compact();
+    }
+
+    decode(in, false);
+    carry.put(in);
+  }
+
+  /**
+   * Fails on a sequence left by the last chunk, and signals the end of input to the parser.
+   */
+  private void endOfInput() throws CharacterCodingException {
+    carry.flip();
+    decode(carry, true);
+    carry.clear();
+    parser.endOfInput();
+  }
+
+  private void decode(final ByteBuffer in, final boolean endOfInput)
+      throws CharacterCodingException {
+    while (true) {
+      final CoderResult result = decoder.decode(in, chars, endOfInput);
+
+      if (result.isError()) {
+        result.throwException();
+      }
+
+      if (endOfInput && result.isUnderflow()) {
+        decoder.flush(chars);
+      }
+
+      accept(endOfInput && result.isUnderflow());
+
+      if (result.isUnderflow()) {
+        return;
+      }
+    }
+  }
+
+  /**
+   * Passes the decoded characters to the parser, keeping a trailing high surrogate unless this is
+   * the end of the input.
+   */
+  private void accept(final boolean last) {
+    chars.flip();
+
+    final int length = chars.remaining();
+    final char lastChar = length > 0 ? chars.get(length - 1) : 0;
+    final boolean keep = !last && Character.isHighSurrogate(lastChar);
+
+    if (keep) {
+      chars.limit(length - 1);
+    }
+
+    if (chars.hasRemaining()) {
+      parser.accept(chars);
+    }
+
+    chars.clear();
+
+    if (keep) {
+      chars.put(lastChar);
+    }
+  }
+}
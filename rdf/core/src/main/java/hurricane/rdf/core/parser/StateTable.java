@@ -0,0 +1,227 @@
+package hurricane.rdf.core.parser;
+
+import java.util.Arrays;
+
+/**
+ * The transitions of a {@link TableParser}: for every state and character class, the next state,
+ * an action for the parser to perform and whether the character is consumed. Code points are
+ * mapped to classes by a lookup table for ASCII, all other code points share a class, as does the
+ * end of the input.
+ *
+ * <p>A transition is packed into an int: the next state in the low 16 bits, the action in the
+ * next 14 bits and a flag for passing the character on to the next state instead of consuming it.
+ * Characters without a transition or a default transition in their state are rejected.</p>
+ */
+public final class StateTable {
+
+  static final int ERROR = -1;
+  private static final int UNSET = Integer.MIN_VALUE;
+
+  private static final int STATE_MASK = 0xFFFF;
+  private static final int ACTION_SHIFT = 16;
+  private static final int ACTION_MASK = 0x3FFF;
+  private static final int REDIRECT = 1 << 30;
+
+  private final byte[] asciiClasses;
+  private final int otherClass;
+  private final int endClass;
+  private final int classCount;
+  private final int[] transitions;
+
+  private StateTable(final Builder builder) {
+    this.asciiClasses = builder.asciiClasses.clone();
+    this.otherClass = builder.otherClass;
+    this.endClass = builder.endClass;
+    this.classCount = builder.classCount;
+    this.transitions = builder.transitions.clone();
+
+    // Fill the transitions that were left to the default of their state:
+    for (int state = 0; state < builder.stateCount; ++ state) {
+      for (int charClass = 0; charClass < classCount; ++ charClass) {
+        final int index = state * classCount + charClass;
+
+        if (transitions[index] == UNSET) {
+          transitions[index] = charClass == endClass ? ERROR : builder.defaults[state];
+        }
+      }
+    }
+  }
+
+  /**
+   * Creates a builder for a table of states and character classes numbered from 0. All ASCII
+   * characters are in class 0 until they are assigned a class.
+   *
+   * @param otherClass the class of all code points outside of ASCII.
+   * @param endClass the class of the end of the input.
+   */
+  public static Builder builder(final int stateCount, final int classCount, final int otherClass,
+      final int endClass) {
+    return new Builder(stateCount, classCount, otherClass, endClass);
+  }
+
+  int classOf(final int codePoint) {
+    if (codePoint < 0) {
+      return endClass;
+    }
+
+    return codePoint < 0x80 ? asciiClasses[codePoint] : otherClass;
+  }
+
+  int transition(final int state, final int charClass) {
+    return transitions[state * classCount + charClass];
+  }
+
+  static int nextState(final int transition) {
+    return transition & STATE_MASK;
+  }
+
+  static int action(final int transition) {
+    return (transition >>> ACTION_SHIFT) & ACTION_MASK;
+  }
+
+  static boolean isRedirect(final int transition) {
+    return (transition & REDIRECT) != 0;
+  }
+
+  public static final class Builder {
+    private final int stateCount;
+    private final int classCount;
+    private final int otherClass;
+    private final int endClass;
+    private final byte[] asciiClasses = new byte[0x80];
+    private final int[] transitions;
+    private final int[] defaults;
+
+    private Builder(final int stateCount, final int classCount, final int otherClass,
+        final int endClass) {
+      if (stateCount <= 0 || stateCount > STATE_MASK) {
+        throw new IllegalArgumentException("stateCount must be between 1 and " + STATE_MASK);
+      }
+
+      if (classCount <= 0 || classCount > Byte.MAX_VALUE) {
+        throw new IllegalArgumentException("classCount must be between 1 and " + Byte.MAX_VALUE);
+      }
+
+      checkClass(otherClass, classCount);
+      checkClass(endClass, classCount);
+
+      this.stateCount = stateCount;
+      this.classCount = classCount;
+      this.otherClass = otherClass;
+      this.endClass = endClass;
+      this.transitions = new int[stateCount * classCount];
+      this.defaults = new int[stateCount];
+
+      Arrays.fill(transitions, UNSET);
+      Arrays.fill(defaults, ERROR);
+    }
+
+    /**
+     * Assigns a class to ASCII characters.
+     */
+    public Builder classify(final int charClass, final String characters) {
+      checkClass(charClass, classCount);
+
+      characters.chars().forEach(c -> {
+        if (c >= 0x80) {
+          throw new IllegalArgumentException("Not an ASCII character: " + (char) c);
+        }
+
+        asciiClasses[c] = (byte) charClass;
+      });
+
+      return this;
+    }
+
+    /**
+     * Assigns a class to a range of ASCII characters, both inclusive.
+     */
+    public Builder classify(final int charClass, final char from, final char to) {
+      checkClass(charClass, classCount);
+
+      if (from > to || to >= 0x80) {
+        throw new IllegalArgumentException("Not a range of ASCII characters: " + from + "-" + to);
+      }
+
+      Arrays.fill(asciiClasses, from, to + 1, (byte) charClass);
+      return this;
+    }
+
+    /**
+     * Consumes the characters of a class in a state and moves to the next state.
+     */
+    public Builder on(final int state, final int charClass, final int next, final int action) {
+      transitions[index(state, charClass)] = pack(next, action, false);
+      return this;
+    }
+
+    /**
+     * Passes the characters of a class on to the next state without consuming them.
+     */
+    public Builder redirect(final int state, final int charClass, final int next,
+        final int action) {
+      transitions[index(state, charClass)] = pack(next, action, true);
+      return this;
+    }
+
+    /**
+     * Rejects the characters of a class in a state, regardless of its default transition.
+     */
+    public Builder reject(final int state, final int charClass) {
+      transitions[index(state, charClass)] = ERROR;
+      return this;
+    }
+
+    /**
+     * Consumes the characters of all classes without a transition in a state, except the end of
+     * the input.
+     */
+    public Builder otherwise(final int state, final int next, final int action) {
+      checkState(state);
+      defaults[state] = pack(next, action, false);
+      return this;
+    }
+
+    /**
+     * Passes the characters of all classes without a transition in a state on to the next state,
+     * except the end of the input.
+     */
+    public Builder redirectOtherwise(final int state, final int next, final int action) {
+      checkState(state);
+      defaults[state] = pack(next, action, true);
+      return this;
+    }
+
+    public StateTable build() {
+      return new StateTable(this);
+    }
+
+    private int index(final int state, final int charClass) {
+      checkState(state);
+      checkClass(charClass, classCount);
+      return state * classCount + charClass;
+    }
+
+    private int pack(final int next, final int action, final boolean redirect) {
+      checkState(next);
+
+      if (action < 0 || action > ACTION_MASK) {
+        throw new IllegalArgumentException("action must be between 0 and " + ACTION_MASK);
+      }
+
+      return next | action << ACTION_SHIFT | (redirect ? REDIRECT : 0);
+    }
+
+    private void checkState(final int state) {
+      if (state < 0 || state >= stateCount) {
+        throw new IllegalArgumentException("Invalid state: " + state);
+      }
+    }
+  }
+
+  private static void checkClass(final int charClass, final int classCount) {
+    if (charClass < 0 || charClass >= classCount) {
+      throw new IllegalArgumentException("Invalid character class: " + charClass);
+    }
+  }
+}
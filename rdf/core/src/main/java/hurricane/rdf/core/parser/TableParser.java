@@ -0,0 +1,50 @@
+package hurricane.rdf.core.parser;
+
+import java.util.Objects;
+
+/**
+ * A parser driven by a {@link StateTable} instead of a stack of closures, as a {@link Parser} is.
+ * The current state is an int, every code point is looked up in the table by its class and the
+ * subclass performs the action of the transition, so nothing is allocated per character or per
+ * token beyond what the actions build. Input is accepted incrementally, as with any parser.
+ *
+ * @param <T>
+ */
+public abstract class TableParser<T> extends AbstractParser<T> {
+
+  private final StateTable table;
+  private int state;
+
+  protected TableParser(final StateTable table, final int initialState) {
+    this.table = Objects.requireNonNull(table, "table cannot be null");
+    this.state = initialState;
+  }
+
+  /**
+   * Performs the action of a transition, which is never 0, and returns the state to continue in.
+   * That is usually the next state of the transition, actions that end a nested term return the
+   * state of the enclosing term instead.
+   *
+   * @throws IllegalArgumentException if the code point is not valid in this state.
+   */
+  protected abstract int perform(int action, int codePoint, int next);
+
+  @Override
+  protected final void acceptCodePoint(final int codePoint) {
+    final int charClass = table.classOf(codePoint);
+    int transition;
+
+    do {
+      transition = table.transition(state, charClass);
+
+      if (transition == StateTable.ERROR) {
+        throw invalid(codePoint);
+      }
+
+      final int action = StateTable.action(transition);
+      final int next = StateTable.nextState(transition);
+
+      state = action == 0 ? next : perform(action, codePoint, next);
+    } while (StateTable.isRedirect(transition));
+  }
+}
@@ -12,6 +12,13 @@ public interface Literal extends Comparable<Literal> {
   Iri datatypeIri();
   Optional<Locale> languageTag();
 
+  /**
+   * The language tag as written, which may not survive the conversion to a {@link Locale}.
+   */
+  default Optional<String> languageTagString() {
+    return languageTag().map(Locale::toLanguageTag);
+  }
+
   static XsdString of(final String value) {
     return new XsdString(value);
   }
@@ -20,6 +27,24 @@ public interface Literal extends Comparable<Literal> {
   default int compareTo(final Literal other) {
     Objects.requireNonNull(other, "other cannot be null");
 
-    return lexicalValue().compareTo(other.lexicalValue());
+    final int lexicalCompare = lexicalValue().compareTo(other.lexicalValue());
+    if (lexicalCompare != 0) {
+      return lexicalCompare;
+    }
+
+    final int datatypeCompare = datatypeIri().compareTo(other.datatypeIri());
+    if (datatypeCompare != 0) {
+      return datatypeCompare;
+    }
+
+    final Optional<String> tag = languageTagString();
+    final Optional<String> otherTag = other.languageTagString();
+
+    if (tag.isPresent() && otherTag.isPresent()) {
+      return tag.get().compareTo(otherTag.get());
+    }
+
+    // Literals without a language tag come first:
+    return Boolean.compare(tag.isPresent(), otherTag.isPresent());
   }
 }
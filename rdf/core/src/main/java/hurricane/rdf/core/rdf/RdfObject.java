@@ -69,7 +69,7 @@ public interface RdfObject extends Comparable<RdfObject> {
             // Blank nodes come before IRI's:
             otherIri -> -1,
             // Blank nodes come before literals:
-            otherLiteral -> 0,
+            otherLiteral -> -1,
             // Compare blank nodes:
             blankNode::compareTo
         )
@@ -4,6 +4,9 @@ import java.util.stream.IntStream;
 
 public class NQuads {
 
+  private NQuads() {
+  }
+
   public static void escapeLiteralValue(final StringBuilder builder, final String rawValue) {
     rawValue.chars().forEach((c) -> {
       switch (c) {
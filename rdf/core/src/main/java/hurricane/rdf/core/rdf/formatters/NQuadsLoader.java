@@ -0,0 +1,314 @@
+package hurricane.rdf.core.rdf.formatters;
+
+import hurricane.core.collections.PersistentSet;
+import hurricane.rdf.core.rdf.Dataset;
+import hurricane.rdf.core.rdf.Quad;
+import hurricane.rdf.core.rdf.impl.DefaultDataset;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Loads N-Quads into a dataset in parallel. The input is cut into chunks of up to 64 MiB at line
+ * endings, every chunk is read by its own {@link NQuadsReader} on a fork/join pool into a set of
+ * quads, and the sets are merged pairwise with {@link PersistentSet#union}. Files are
+ * memory-mapped a chunk at a time, so the size of the input is not limited by the heap.
+ *
+ * <p>Blank node labels are scoped to the document, as in the N-Quads specification: a label that
+ * occurs in several chunks denotes the same blank node in all of them, so chunks are read without
+ * sharing any state. Loading several documents into one dataset requires labels that are unique
+ * across the documents.</p>
+ */
+public final class NQuadsLoader {
+
+  private static final int MIN_CHUNK_SIZE = 1 << 20;
+  private static final int MAX_CHUNK_SIZE = 1 << 26;
+  private static final int SCAN_SIZE = 1 << 13;
+
+  private NQuadsLoader() {
+  }
+
+  /**
+   * Loads a file on the common pool.
+   *
+   * @throws IllegalArgumentException if the file is not valid N-Quads.
+   */
+  public static Dataset load(final Path path) throws IOException {
+    return load(path, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Loads a file on a pool.
+   *
+   * @throws IllegalArgumentException if the file is not valid N-Quads.
+   */
+  public static Dataset load(final Path path, final ForkJoinPool pool) throws IOException {
+    Objects.requireNonNull(path, "path cannot be null");
+    Objects.requireNonNull(pool, "pool cannot be null");
+
+    return load(path, pool, 0);
+  }
+
+  /**
+   * Loads the remaining bytes of a buffer, for example a memory-mapped region, on the common pool.
+   * The position of the buffer is not changed.
+   *
+   * @throws IllegalArgumentException if the bytes are not valid N-Quads.
+   */
+  public static Dataset load(final ByteBuffer buffer) {
+    return load(buffer, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Loads the remaining bytes of a buffer on a pool. The position of the buffer is not changed.
+   *
+   * @throws IllegalArgumentException if the bytes are not valid N-Quads.
+   */
+  public static Dataset load(final ByteBuffer buffer, final ForkJoinPool pool) {
+    Objects.requireNonNull(buffer, "buffer cannot be null");
+    Objects.requireNonNull(pool, "pool cannot be null");
+
+    return load(buffer, pool, chunkSize(buffer.remaining(), pool));
+  }
+
+  static Dataset load(final ByteBuffer buffer, final ForkJoinPool pool, final int chunkSize) {
+    try {
+      return load(new BufferInput(buffer), pool, chunkSize);
+    } catch (final IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Loads a file in chunks of a given size, or of a size chosen for the pool if 0.
+   */
+  static Dataset load(final Path path, final ForkJoinPool pool, final int chunkSize)
+      throws IOException {
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      return load(new FileInput(channel), pool,
+          chunkSize > 0 ? chunkSize : chunkSize(channel.size(), pool));
+    }
+  }
+
+  private static Dataset load(final Input input, final ForkJoinPool pool, final int chunkSize)
+      throws IOException {
+    final long[] bounds = split(input, chunkSize);
+
+    if (bounds.length == 1) {
+      return DefaultDataset.empty();
+    }
+
+    try {
+      return DefaultDataset.of(pool.invoke(new ChunkTask(input, bounds, 0, bounds.length - 1)));
+    } catch (final UncheckedIOException e) {
+      throw e.getCause();
+    } catch (final ChunkException e) {
+      throw e.getCause();
+    }
+  }
+
+  /**
+   * Aims for a few chunks per worker, so that workers that finish early can take over chunks.
+   */
+  private static int chunkSize(final long size, final ForkJoinPool pool) {
+    final long perWorker = size / (4L * pool.getParallelism());
+
+    return (int) Math.max(MIN_CHUNK_SIZE, Math.min(MAX_CHUNK_SIZE, perWorker));
+  }
+
+  /**
+   * Returns the offsets at which the chunks start, followed by the size of the input. Every chunk
+   * but the last ends just after the first line feed or carriage return at or after its nominal
+   * size.
+   */
+  private static long[] split(final Input input, final int chunkSize) throws IOException {
+    final long size = input.size();
+    final List<Long> bounds = new ArrayList<>();
+    long start = 0;
+
+    bounds.add(start);
+
+    while (start < size) {
+      final long end = size - start <= chunkSize
+          ? size
+          : input.nextLine(start + chunkSize - 1);
+
+      if (end - start > Integer.MAX_VALUE) {
+        throw new IllegalArgumentException("Line longer than 2 GiB at byte " + start);
+      }
+
+      bounds.add(end);
+      start = end;
+    }
+
+    return bounds.stream().mapToLong(Long::longValue).toArray();
+  }
+
+  private static boolean isLineEnd(final byte b) {
+    return b == '\n' || b == '\r';
+  }
+
+  /**
+   * Reads a range of chunks, splitting it in half until it is a single chunk, and merges the sets
+   * of both halves.
+   */
+  private static final class ChunkTask extends RecursiveTask<PersistentSet<Quad>> {
+    private static final long serialVersionUID = 1L;
+
+    private final Input input;
+    private final long[] bounds;
+    private final int from;
+    private final int to;
+
+    private ChunkTask(final Input input, final long[] bounds, final int from, final int to) {
+      this.input = input;
+      this.bounds = bounds;
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    protected PersistentSet<Quad> compute() {
+      if (to - from == 1) {
+        return read(bounds[from], bounds[to]);
+      }
+
+      final int middle = (from + to) >>> 1;
+      final ChunkTask left = new ChunkTask(input, bounds, from, middle);
+
+      left.fork();
+
+      final PersistentSet<Quad> right = new ChunkTask(input, bounds, middle, to).compute();
+
+      return left.join().union(right);
+    }
+
+    private PersistentSet<Quad> read(final long start, final long end) {
+      final List<Quad> quads = new ArrayList<>();
+
+      try (NQuadsReader reader = new NQuadsReader(input.slice(start, end))) {
+        reader.forEach(quads::add);
+      } catch (final IOException e) {
+        throw new UncheckedIOException(e);
+      } catch (final IllegalArgumentException e) {
+        throw new ChunkException(new IllegalArgumentException(
+            "Invalid N-Quads in the chunk at byte " + start
+                + ", lines are counted from the start of the chunk: " + e.getMessage(), e));
+      }
+
+      return quads.stream().collect(PersistentSet.collector(Quad.comparator()));
+    }
+  }
+
+  /**
+   * Carries the exception of a chunk to the caller. Fork/join tasks rethrow an exception from
+   * another thread as a copy, made with a public constructor that takes the original as the cause,
+   * so the exception is wrapped in a class without public constructors to be rethrown as is.
+   */
+  private static final class ChunkException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    private ChunkException(final IllegalArgumentException cause) {
+      super(cause);
+    }
+
+    @Override
+    public IllegalArgumentException getCause() {
+      return (IllegalArgumentException) super.getCause();
+    }
+  }
+
+  private interface Input {
+    long size() throws IOException;
+
+    /**
+     * Returns the offset just after the first line feed or carriage return at or after an offset,
+     * or the size if there is none.
+     */
+    long nextLine(long offset) throws IOException;
+
+    ByteBuffer slice(long start, long end) throws IOException;
+  }
+
+  private static final class FileInput implements Input {
+    private final FileChannel channel;
+
+    private FileInput(final FileChannel channel) {
+      this.channel = channel;
+    }
+
+    @Override
+    public long size() throws IOException {
+      return channel.size();
+    }
+
+    @Override
+    public long nextLine(final long offset) throws IOException {
+      final ByteBuffer block = ByteBuffer.allocate(SCAN_SIZE);
+      long position = offset;
+
+      while (true) {
+        block.clear();
+
+        final int read = channel.read(block, position);
+
+        if (read < 0) {
+          return channel.size();
+        }
+
+        for (int i = 0; i < read; ++ i) {
+          if (isLineEnd(block.get(i))) {
+            return position + i + 1;
+          }
+        }
+
+        position += read;
+      }
+    }
+
+    @Override
+    public ByteBuffer slice(final long start, final long end) throws IOException {
+      return channel.map(MapMode.READ_ONLY, start, end - start);
+    }
+  }
+
+  private static final class BufferInput implements Input {
+    private final ByteBuffer buffer;
+    private final int base;
+
+    private BufferInput(final ByteBuffer buffer) {
+      this.buffer = buffer.duplicate();
+      this.base = buffer.position();
+    }
+
+    @Override
+    public long size() {
+      return buffer.limit() - base;
+    }
+
+    @Override
+    public long nextLine(final long offset) {
+      for (int i = base + (int) offset; i < buffer.limit(); ++ i) {
+        if (isLineEnd(buffer.get(i))) {
+          return i - base + 1;
+        }
+      }
+
+      return size();
+    }
+
+    @Override
+    public ByteBuffer slice(final long start, final long end) {
+      return buffer.duplicate().limit(base + (int) end).position(base + (int) start);
+    }
+  }
+}
@@ -1,292 +1,535 @@
 package hurricane.rdf.core.rdf.formatters;
 
 import hurricane.rdf.core.iri.Iri;
-import hurricane.rdf.core.parser.Parser;
+import hurricane.rdf.core.parser.ParserProcessor;
+import hurricane.rdf.core.parser.StateTable;
+import hurricane.rdf.core.parser.TableParser;
 import hurricane.rdf.core.rdf.BlankNode;
-import hurricane.rdf.core.rdf.Literal;
 import hurricane.rdf.core.rdf.Predicate;
 import hurricane.rdf.core.rdf.Quad;
 import hurricane.rdf.core.rdf.RdfObject;
 import hurricane.rdf.core.rdf.Subject;
 import hurricane.rdf.core.rdf.impl.DefaultBlankNode;
-import hurricane.rdf.core.rdf.impl.DefaultObject;
 import hurricane.rdf.core.rdf.impl.DefaultObject.BlankNodeObject;
 import hurricane.rdf.core.rdf.impl.DefaultObject.IriObject;
+import hurricane.rdf.core.rdf.impl.DefaultObject.LiteralObject;
 import hurricane.rdf.core.rdf.impl.DefaultPredicate;
 import hurricane.rdf.core.rdf.impl.DefaultQuad;
-import hurricane.rdf.core.rdf.impl.DefaultSubject;
+import hurricane.rdf.core.rdf.impl.DefaultSubject.BlankNodeSubject;
+import hurricane.rdf.core.rdf.impl.DefaultSubject.IriSubject;
+import hurricane.rdf.core.rdf.literals.LangString;
 import hurricane.rdf.core.rdf.literals.RawLiteral;
 import hurricane.rdf.core.rdf.literals.XsdString;
-import java.util.function.Function;
-import java.util.function.IntFunction;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.Flow;
+import java.util.stream.Stream;
+
+/**
+ * Parses N-Quads incrementally with a {@link StateTable}. Terms are collected in two string
+ * builders that are reused for every statement, and IRIs are looked up in a small cache by their
+ * characters, so the repeated predicates and graph names of a dataset are parsed once.
+ */
+public class NQuadsParser extends TableParser<Quad> {
+
+  // Character classes:
+  private static final int OTHER = 0;
+  private static final int SPACE = 1;
+  private static final int EOL = 2;
+  private static final int LESS_THAN = 3;
+  private static final int GREATER_THAN = 4;
+  private static final int QUOTE = 5;
+  private static final int BACKSLASH = 6;
+  private static final int UNDERSCORE = 7;
+  private static final int COLON = 8;
+  private static final int PERIOD = 9;
+  private static final int HASH = 10;
+  private static final int AT = 11;
+  private static final int CARET = 12;
+  private static final int MINUS = 13;
+  private static final int DIGIT = 14;
+  private static final int HEX_LETTER = 15;
+  private static final int LETTER = 16;
+  private static final int NOT_IN_IRI = 17;
+  private static final int NON_ASCII = 18;
+  private static final int END = 19;
+  private static final int CLASS_COUNT = 20;
+
+  // States:
+  private static final int SUBJECT = 0;
+  private static final int COMMENT = 1;
+  private static final int PREDICATE = 2;
+  private static final int OBJECT = 3;
+  private static final int GRAPH_OR_PERIOD = 4;
+  private static final int PERIOD_AFTER_GRAPH = 5;
+  private static final int IRI = 6;
+  private static final int UCHAR = 7;
+  private static final int HEX = 8;
+  private static final int BLANK_NODE = 9;
+  private static final int LABEL_START = 10;
+  private static final int LABEL = 11;
+  private static final int LITERAL = 12;
+  private static final int ECHAR = 13;
+  private static final int LITERAL_END = 14;
+  private static final int DATATYPE_CARET = 15;
+  private static final int DATATYPE_START = 16;
+  private static final int DATATYPE = 17;
+  private static final int LANGUAGE_START = 18;
+  private static final int LANGUAGE = 19;
+  private static final int SUBTAG_START = 20;
+  private static final int SUBTAG = 21;
+  private static final int DONE = 22;
+  private static final int STATE_COUNT = 23;
+
+  // Actions:
+  private static final int APPEND = 1;
+  private static final int APPEND_SUFFIX = 2;
+  private static final int IRI_END = 3;
+  private static final int IRI_ESCAPE = 4;
+  private static final int DATATYPE_ESCAPE = 5;
+  private static final int UCHAR_START = 6;
+  private static final int ECHAR_END = 7;
+  private static final int HEX_DIGIT = 8;
+  private static final int LABEL_START_CHAR = 9;
+  private static final int LABEL_CHAR = 10;
+  private static final int LABEL_PERIOD = 11;
+  private static final int LABEL_END = 12;
+  private static final int LITERAL_STRING_END = 13;
+  private static final int DATATYPE_END = 14;
+  private static final int LANGUAGE_END = 15;
+  private static final int STATEMENT_END = 16;
+  private static final int INPUT_END = 17;
+
+  private static final StateTable TABLE = createTable();
+
+  private static final int IRI_CACHE_SIZE = 1 << 8;
 
-public class NQuadsParser extends Parser<Quad> {
+  /**
+   * The characters of the current term, and of the datatype or language tag of a literal.
+   */
+  private final StringBuilder text = new StringBuilder();
+  private final StringBuilder suffix = new StringBuilder();
 
-  @Override
-  public ParserState initialState() {
-    return cp -> {
-      if (cp < 0) {
-        // End-of-file:
-        emitEndOfInput();
-      }
+  private final String[] cachedIriStrings = new String[IRI_CACHE_SIZE];
+  private final Iri[] cachedIris = new Iri[IRI_CACHE_SIZE];
 
-      // Parse a quad:
-      pushState(statement(quad -> {
-        emit(quad);
-        return popState();
-      }));
+  /**
+   * The index of the current term in the statement, from subject (0) to graph name (3).
+   */
+  private int term;
+  private Subject subject;
+  private Predicate predicate;
+  private RdfObject object;
+  private Subject graphName;
 
-      return false;
-    };
-  }
+  /**
+   * The state to return to after an escape sequence, and the code point it encodes so far.
+   */
+  private int escapeReturn;
+  private int hexRemaining;
+  private int hexValue;
 
-  public ParserState statement(final Function<Quad, ParserState> quadConsumer) {
-    return skipWhitespace(
-        () -> subject(subject -> skipWhitespace(
-            () -> predicate(predicate -> skipWhitespace(
-                () -> object(object -> skipWhitespace(
-                    () -> check(
-                        '.',
-                        () -> quadConsumer.apply(new DefaultQuad(null, subject, predicate, object)),
-                        () -> graphLabel(graphLabel -> skipWhitespace(
-                            () -> expect(
-                                '.',
-                                () -> quadConsumer.apply(new DefaultQuad(graphLabel, subject, predicate, object))
-                            )
-                        ))
-                    )
-                ))
-            ))
-        ))
-    );
-  }
+  /**
+   * The number of periods read at the end of a blank node label, which are part of the label only
+   * if another label character follows.
+   */
+  private int labelPeriods;
 
-  public ParserState subject(final Function<Subject, ParserState> subjectConsumer) {
-    return cp -> {
-      if (cp == '<') {
-        become(iriRef(iriRef -> subjectConsumer.apply(new DefaultSubject.IriSubject(iriRef))));
-      } else if (cp == '_') {
-        become(blankNode(bn -> subjectConsumer.apply(new DefaultSubject.BlankNodeSubject(bn))));
-      }
+  public NQuadsParser() {
+    super(TABLE, SUBJECT);
+  }
 
-      return false;
-    };
+  /**
+   * Returns a lazy stream of the quads read from a reader, which is closed with the stream. Quads
+   * are parsed as the stream is consumed, so files of any size are read in constant memory.
+   */
+  public static Stream<Quad> stream(final Reader reader) {
+    return new NQuadsParser().parse(reader);
   }
 
-  public ParserState predicate(final Function<Predicate, ParserState> predicateConsumer) {
-    return iriRef(iri -> predicateConsumer.apply(new DefaultPredicate(iri)));
+  /**
+   * Returns a lazy stream of the quads of a UTF-8 encoded file, which is closed with the stream.
+   */
+  public static Stream<Quad> stream(final Path path) throws IOException {
+    return stream(Files.newBufferedReader(path, StandardCharsets.UTF_8));
+  }
 
+  /**
+   * Returns a processor that parses UTF-8 encoded chunks of bytes, such as the body of an HTTP
+   * response, and publishes the quads to a single subscriber as it requests them.
+   */
+  public static Flow.Processor<List<ByteBuffer>, Quad> processor() {
+    return new ParserProcessor<>(new NQuadsParser());
   }
 
-  public ParserState object(final Function<RdfObject, ParserState> objectConsumer) {
-    return cp -> {
-      if (cp == '<') {
-        become(iriRef(iri -> objectConsumer.apply(new IriObject(iri))));
-      } else if (cp == '_') {
-        become(blankNode(blankNode -> objectConsumer.apply(new BlankNodeObject(blankNode))));
-      } else if (cp == '"') {
-        become(literal(literal -> objectConsumer.apply(new DefaultObject.LiteralObject(literal))));
+  private static StateTable createTable() {
+    final StateTable.Builder builder = StateTable.builder(STATE_COUNT, CLASS_COUNT, NON_ASCII, END)
+        .classify(SPACE, (char) 0x00, ' ')
+        .classify(EOL, "\n\r")
+        .classify(LESS_THAN, "<")
+        .classify(GREATER_THAN, ">")
+        .classify(QUOTE, "\"")
+        .classify(BACKSLASH, "\\")
+        .classify(UNDERSCORE, "_")
+        .classify(COLON, ":")
+        .classify(PERIOD, ".")
+        .classify(HASH, "#")
+        .classify(AT, "@")
+        .classify(CARET, "^")
+        .classify(MINUS, "-")
+        .classify(DIGIT, '0', '9')
+        .classify(LETTER, 'a', 'z')
+        .classify(LETTER, 'A', 'Z')
+        .classify(HEX_LETTER, 'a', 'f')
+        .classify(HEX_LETTER, 'A', 'F')
+        .classify(NOT_IN_IRI, "{}|`");
+
+    // Statements, white space and comments between terms:
+    for (final int state : new int[] {SUBJECT, PREDICATE, OBJECT, GRAPH_OR_PERIOD,
+        PERIOD_AFTER_GRAPH}) {
+      builder.on(state, SPACE, state, 0).on(state, EOL, state, 0);
+    }
+
+    builder
+        .on(SUBJECT, HASH, COMMENT, 0)
+        .on(SUBJECT, LESS_THAN, IRI, 0)
+        .on(SUBJECT, UNDERSCORE, BLANK_NODE, 0)
+        .on(SUBJECT, END, DONE, INPUT_END)
+        .otherwise(COMMENT, COMMENT, 0)
+        .on(COMMENT, EOL, SUBJECT, 0)
+        .on(COMMENT, END, DONE, INPUT_END)
+        .on(PREDICATE, LESS_THAN, IRI, 0)
+        .on(OBJECT, LESS_THAN, IRI, 0)
+        .on(OBJECT, UNDERSCORE, BLANK_NODE, 0)
+        .on(OBJECT, QUOTE, LITERAL, 0)
+        .on(GRAPH_OR_PERIOD, PERIOD, SUBJECT, STATEMENT_END)
+        .on(GRAPH_OR_PERIOD, LESS_THAN, IRI, 0)
+        .on(GRAPH_OR_PERIOD, UNDERSCORE, BLANK_NODE, 0)
+        .on(PERIOD_AFTER_GRAPH, PERIOD, SUBJECT, STATEMENT_END);
+
+    // IRIs, and the datatype IRIs of literals:
+    addIri(builder, IRI, APPEND, IRI_ESCAPE, IRI_END);
+    addIri(builder, DATATYPE, APPEND_SUFFIX, DATATYPE_ESCAPE, DATATYPE_END);
+
+    builder
+        .otherwise(UCHAR, HEX, UCHAR_START)
+        .on(HEX, DIGIT, HEX, HEX_DIGIT)
+        .on(HEX, HEX_LETTER, HEX, HEX_DIGIT);
+
+    // Blank nodes:
+    builder.on(BLANK_NODE, COLON, LABEL_START, 0);
+
+    for (final int charClass : new int[] {LETTER, HEX_LETTER, DIGIT, UNDERSCORE, COLON,
+        NON_ASCII}) {
+      builder
+          .on(LABEL_START, charClass, LABEL, LABEL_START_CHAR)
+          .on(LABEL, charClass, LABEL, LABEL_CHAR);
+    }
+
+    builder
+        .on(LABEL, MINUS, LABEL, LABEL_CHAR)
+        .on(LABEL, PERIOD, LABEL, LABEL_PERIOD)
+        .redirectOtherwise(LABEL, LABEL, LABEL_END)
+        .redirect(LABEL, END, LABEL, LABEL_END);
+
+    // Literals:
+    builder
+        .otherwise(LITERAL, LITERAL, APPEND)
+        .on(LITERAL, QUOTE, LITERAL_END, 0)
+        .on(LITERAL, BACKSLASH, ECHAR, 0)
+        .reject(LITERAL, EOL)
+        .otherwise(ECHAR, LITERAL, ECHAR_END)
+        .on(LITERAL_END, CARET, DATATYPE_CARET, 0)
+        .on(LITERAL_END, AT, LANGUAGE_START, 0)
+        .redirectOtherwise(LITERAL_END, LITERAL_END, LITERAL_STRING_END)
+        .redirect(LITERAL_END, END, LITERAL_END, LITERAL_STRING_END)
+        .on(DATATYPE_CARET, CARET, DATATYPE_START, 0)
+        .on(DATATYPE_START, LESS_THAN, DATATYPE, 0);
+
+    // Language tags, LANGTAG ::= '@' [a-zA-Z]+ ('-' [a-zA-Z0-9]+)*
+    for (final int charClass : new int[] {LETTER, HEX_LETTER, DIGIT}) {
+      if (charClass != DIGIT) {
+        builder
+            .on(LANGUAGE_START, charClass, LANGUAGE, APPEND_SUFFIX)
+            .on(LANGUAGE, charClass, LANGUAGE, APPEND_SUFFIX);
       }
 
-      return false;
-    };
+      builder
+          .on(SUBTAG_START, charClass, SUBTAG, APPEND_SUFFIX)
+          .on(SUBTAG, charClass, SUBTAG, APPEND_SUFFIX);
+    }
+
+    for (final int state : new int[] {LANGUAGE, SUBTAG}) {
+      builder
+          .on(state, MINUS, SUBTAG_START, APPEND_SUFFIX)
+          .redirectOtherwise(state, state, LANGUAGE_END)
+          .redirect(state, END, state, LANGUAGE_END);
+    }
+
+    return builder.build();
   }
 
-  public ParserState graphLabel(final Function<Subject, ParserState> graphNameConsumer) {
-    return subject(graphNameConsumer);
+  /**
+   * IRIREF ::= '<' ([^#x00-#x20<>"{}|^`\\] | UCHAR)* '>'
+   */
+  private static void addIri(final StateTable.Builder builder, final int state, final int append,
+      final int escape, final int end) {
+    builder
+        .otherwise(state, state, append)
+        .on(state, GREATER_THAN, state, end)
+        .on(state, BACKSLASH, UCHAR, escape);
+
+    for (final int charClass : new int[] {SPACE, EOL, LESS_THAN, QUOTE, CARET, NOT_IN_IRI}) {
+      builder.reject(state, charClass);
+    }
+  }
+
+  @Override
+  protected int perform(final int action, final int codePoint, final int next) {
+    switch (action) {
+      case APPEND:
+        text.appendCodePoint(codePoint);
+        return next;
+      case APPEND_SUFFIX:
+        suffix.appendCodePoint(codePoint);
+        return next;
+      case IRI_END:
+        return endIri();
+      case IRI_ESCAPE:
+        escapeReturn = IRI;
+        return next;
+      case DATATYPE_ESCAPE:
+        escapeReturn = DATATYPE;
+        return next;
+      case UCHAR_START:
+        return startUchar(codePoint);
+      case ECHAR_END:
+        return endEchar(codePoint);
+      case HEX_DIGIT:
+        return hexDigit(codePoint);
+      case LABEL_START_CHAR:
+        if (codePoint >= 0x80 && !isPnCharU(codePoint)) {
+          throw invalid(codePoint);
+        }
+        text.appendCodePoint(codePoint);
+        return next;
+      case LABEL_CHAR:
+        if (codePoint >= 0x80 && !isPnChar(codePoint)) {
+          throw invalid(codePoint);
+        }
+        for (; labelPeriods > 0; -- labelPeriods) {
+          text.append('.');
+        }
+        text.appendCodePoint(codePoint);
+        return next;
+      case LABEL_PERIOD:
+        ++ labelPeriods;
+        return next;
+      case LABEL_END:
+        return endLabel();
+      case LITERAL_STRING_END:
+        return endTerm(new LiteralObject(new XsdString(takeText())));
+      case DATATYPE_END:
+        return endTerm(new LiteralObject(new RawLiteral(takeText(), iri(suffix))));
+      case LANGUAGE_END:
+        return endLanguage();
+      case STATEMENT_END:
+        return endStatement();
+      case INPUT_END:
+        emitEndOfInput();
+        return next;
+      default:
+        throw new IllegalStateException("Unknown action: " + action);
+    }
   }
 
-  public ParserState literal(final Function<Literal, ParserState> literalConsumer) {
-    final StringBuilder lexicalForm = new StringBuilder();
-
-    return expect(
-        '"',
-        () -> (cp -> {
-          if (cp == '"') {
-            // End the literal or parse a datatype iri:
-            become(c -> {
-              if (c == '^') {
-                become(expect('^', () -> iriRef(iri -> {
-                  // Literal with iri:
-                  return literalConsumer.apply(new RawLiteral(lexicalForm.toString(), iri));
-                })));
-                return true;
-              }
-
-              // Literal without iri:
-              become(literalConsumer.apply(new XsdString(lexicalForm.toString())));
-              return false;
-            });
-
-            return true;
-          } else if (cp == 0xA || cp == 0xD) {
-            // Reject illegal characters in literal strings:
-            return false;
-          } else if (cp == '\\') {
-            // Parse escaped characters:
-            pushState(escapedCharacter(echar -> {
-              lexicalForm.appendCodePoint(echar);
-              return popState();
-            }));
-            return false;
-          }
-
-          // Accept the character and add to the lexical form:
-          lexicalForm.appendCodePoint(cp);
-
-          return true;
-        })
-    );
+  private int endIri() {
+    final Iri iri = iri(text);
+
+    switch (term) {
+      case 0:
+        subject = new IriSubject(iri);
+        break;
+      case 1:
+        predicate = new DefaultPredicate(iri);
+        break;
+      case 2:
+        object = new IriObject(iri);
+        break;
+      default:
+        graphName = new IriSubject(iri);
+        break;
+    }
+
+    return nextTerm();
   }
 
-  public ParserState iriRef(final Function<Iri, ParserState> iriConsumer) {
-    return cp -> {
-      // Parse the start character:
-      if (cp != '<') {
-        return false;
-      }
+  private int endLabel() {
+    if (labelPeriods > 1) {
+      // A label cannot end with a period:
+      throw invalid('.');
+    }
 
-      final StringBuilder iri = new StringBuilder();
+    final BlankNode blankNode = new DefaultBlankNode(takeText());
 
-      // Parse IRI character until an end character:
-      become(c -> {
-        // Reject characters not allowed in N-Quads iri ref:
-        if ((c >= 0x00 && c <= 0x20) || c == '<' || c == '\"' || c == '{' || c == '}' || c == '|'
-            || c == '^' || c == '`') {
-          return false;
-        }
+    if (term == 0) {
+      subject = new BlankNodeSubject(blankNode);
+    } else if (term == 2) {
+      object = new BlankNodeObject(blankNode);
+    } else {
+      graphName = new BlankNodeSubject(blankNode);
+    }
 
-        // Parse escape sequences:
-        if (c == '\\') {
-          pushState(uChar(uchar -> {
-            iri.appendCodePoint(uchar);
-            return popState();
-          }));
-          return false;
-        }
+    final int next = nextTerm();
 
-        // Parse the end of the iri:
-        if (c == '>') {
-          become(iriConsumer.apply(Iri.of(iri.toString())));
-          return true;
-        }
+    if (labelPeriods == 0) {
+      return next;
+    }
 
-        // Other characters are added to the IRI:
-        iri.appendCodePoint(c);
-        return true;
-      });
+    // The period ends the statement:
+    labelPeriods = 0;
 
-      return true;
-    };
+    if (next != GRAPH_OR_PERIOD && next != PERIOD_AFTER_GRAPH) {
+      throw invalid('.');
+    }
+
+    return endStatement();
   }
 
-  public ParserState blankNode(final Function<BlankNode, ParserState> blankNode) {
-    return expect(
-        '_',
-        () -> expect(
-            ':',
-            () -> expect(
-                c -> isPnCharU(c) || (c >= '0' && c <= '9'),
-                pnCharU -> collectWhile(
-                    c -> isPnChar(c) || c == '.',
-                    chars -> {
-                      final StringBuilder builder = new StringBuilder();
-
-                      builder.appendCodePoint(pnCharU);
-                      builder.append(chars);
-
-                      return blankNode.apply(new DefaultBlankNode(builder.toString()));
-                    })
-            )
-        )
-    );
+  private int endLanguage() {
+    final String languageTag = suffix.toString();
+    suffix.setLength(0);
+
+    return endTerm(new LiteralObject(new LangString(takeText(), languageTag)));
   }
 
-  public ParserState escapedCharacter(final IntFunction<ParserState> charConsumer) {
-    return expect(
-        '\\',
-        () -> ((int cp) -> {
-          switch (cp) {
-            case 't':
-              become(charConsumer.apply('\t'));
-              return true;
-            case 'b':
-              become(charConsumer.apply('\b'));
-              return true;
-            case 'n':
-              become(charConsumer.apply('\n'));
-              return true;
-            case 'r':
-              become(charConsumer.apply('\n'));
-              return true;
-            case 'f':
-              become(charConsumer.apply('\f'));
-              return true;
-            case '\"':
-              become(charConsumer.apply('\"'));
-              return true;
-            case '\'':
-              become(charConsumer.apply('\''));
-              return true;
-            case '\\':
-              become(charConsumer.apply('\\'));
-              return true;
-            case 'u':
-            case 'U':
-              become(hexCharacters(cp, hexCharacter -> {
-                return charConsumer.apply(hexCharacter);
-              }));
-              return true;
-          }
-
-          return false;
-        }
-    ));
+  private int endTerm(final RdfObject literal) {
+    object = literal;
+    return nextTerm();
   }
 
-  public ParserState uChar(final IntFunction<ParserState> ucharConsumer) {
-    return cp -> {
-      // Parse the backslash:
-      if (cp != '\\') {
-        return false;
-      }
+  private int nextTerm() {
+    switch (++ term) {
+      case 1:
+        return PREDICATE;
+      case 2:
+        return OBJECT;
+      case 3:
+        return GRAPH_OR_PERIOD;
+      default:
+        return PERIOD_AFTER_GRAPH;
+    }
+  }
 
-      // Parse the remainder:
-      become(c -> {
-        // Accept only the u and U characters:
-        if (c != 'u' && c != 'U') {
-          return false;
-        }
+  private int endStatement() {
+    emit(new DefaultQuad(graphName, subject, predicate, object));
 
-        // Parse the remaining hex characters:
-        become(hexCharacters(c, uchar -> {
-          return ucharConsumer.apply(uchar);
-        }));
+    term = 0;
+    subject = null;
+    predicate = null;
+    object = null;
+    graphName = null;
 
-        return true;
-      });
+    return SUBJECT;
+  }
 
-      return true;
-    };
+  private int startUchar(final int codePoint) {
+    if (codePoint == 'u') {
+      hexRemaining = 4;
+    } else if (codePoint == 'U') {
+      hexRemaining = 8;
+    } else {
+      throw invalid(codePoint);
+    }
+
+    hexValue = 0;
+    return HEX;
   }
 
-  public ParserState hexCharacters(final int c, final IntFunction<ParserState> ucharConsumer) {
-    final StringBuilder hexString = new StringBuilder();
-    return hexChar -> {
-      // Append hex characters:
-      if ((hexChar >= '0' && hexChar <= '9') || (hexChar >= 'a' && hexChar <= 'z') || (hexChar >= 'A' && hexChar <= 'Z')) {
-        hexString.appendCodePoint(hexChar);
-
-        // End the character if it has the right length:
-        if ((c == 'u' && hexString.length() == 4) || (c == 'U' && hexString.length() == 8)) {
-          become(ucharConsumer.apply(Integer.parseInt(hexString.toString(), 16)));
-          return true;
-        }
-      }
+  /**
+   * ECHAR ::= '\\' [tbnrf"'\\], or the start of a UCHAR.
+   */
+  private int endEchar(final int codePoint) {
+    switch (codePoint) {
+      case 't':
+        text.append('\t');
+        break;
+      case 'b':
+        text.append('\b');
+        break;
+      case 'n':
+        text.append('\n');
+        break;
+      case 'r':
+        text.append('\r');
+        break;
+      case 'f':
+        text.append('\f');
+        break;
+      case '"':
+      case '\'':
+      case '\\':
+        text.append((char) codePoint);
+        break;
+      default:
+        escapeReturn = LITERAL;
+        return startUchar(codePoint);
+    }
+
+    return LITERAL;
+  }
+
+  private int hexDigit(final int codePoint) {
+    hexValue = hexValue << 4 | Character.digit(codePoint, 16);
+
+    if (-- hexRemaining > 0) {
+      return HEX;
+    }
 
-      // Reject other characters:
-      return false;
-    };
+    if (!Character.isValidCodePoint(hexValue)) {
+      throw new IllegalArgumentException("Invalid code point: " + Integer.toHexString(hexValue));
+    }
+
+    (escapeReturn == DATATYPE ? suffix : text).appendCodePoint(hexValue);
+    return escapeReturn;
+  }
+
+  private String takeText() {
+    final String value = text.toString();
+    text.setLength(0);
+    return value;
+  }
+
+  /**
+   * Returns the IRI of the characters of a builder, from the cache if it holds the same
+   * characters, and clears the builder.
+   */
+  private Iri iri(final StringBuilder characters) {
+    int hash = 0;
+    for (int i = 0; i < characters.length(); ++ i) {
+      hash = 31 * hash + characters.charAt(i);
+    }
+
+    final int slot = (hash ^ hash >>> 16) & (IRI_CACHE_SIZE - 1);
+    final String cached = cachedIriStrings[slot];
+    final Iri iri;
+
+    if (cached != null && cached.contentEquals(characters)) {
+      iri = cachedIris[slot];
+    } else {
+      final String string = characters.toString();
+      iri = Iri.of(string);
+      cachedIriStrings[slot] = string;
+      cachedIris[slot] = iri;
+    }
+
+    characters.setLength(0);
+    return iri;
   }
 
   /**
@@ -312,14 +555,14 @@ public class NQuadsParser extends Parser<Quad> {
   /**
    * PN_CHARS_U 	::= 	PN_CHARS_BASE | '_' | ':'
    */
-  private static boolean isPnCharU(final int cp) {
+  static boolean isPnCharU(final int cp) {
     return isPnCharBase(cp) || cp == '_' || cp == ':';
   }
 
   /**
    * PN_CHARS 	::= 	PN_CHARS_U | '-' | [0-9] | #x00B7 | [#x0300-#x036F] | [#x203F-#x2040]
    */
-  private static boolean isPnChar(final int cp) {
+  static boolean isPnChar(final int cp) {
     return isPnCharU(cp)
         || cp == '-'
         || (cp >= '0' && cp <= '9')
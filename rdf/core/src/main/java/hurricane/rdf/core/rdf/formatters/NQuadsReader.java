@@ -0,0 +1,699 @@
+package hurricane.rdf.core.rdf.formatters;
+
+import hurricane.rdf.core.iri.Iri;
+import hurricane.rdf.core.rdf.BlankNode;
+import hurricane.rdf.core.rdf.Literal;
+import hurricane.rdf.core.rdf.Predicate;
+import hurricane.rdf.core.rdf.Quad;
+import hurricane.rdf.core.rdf.RdfObject;
+import hurricane.rdf.core.rdf.Subject;
+import hurricane.rdf.core.rdf.impl.DefaultBlankNode;
+import hurricane.rdf.core.rdf.impl.DefaultObject.BlankNodeObject;
+import hurricane.rdf.core.rdf.impl.DefaultObject.IriObject;
+import hurricane.rdf.core.rdf.impl.DefaultObject.LiteralObject;
+import hurricane.rdf.core.rdf.impl.DefaultPredicate;
+import hurricane.rdf.core.rdf.impl.DefaultQuad;
+import hurricane.rdf.core.rdf.impl.DefaultSubject.BlankNodeSubject;
+import hurricane.rdf.core.rdf.impl.DefaultSubject.IriSubject;
+import hurricane.rdf.core.rdf.literals.LangString;
+import hurricane.rdf.core.rdf.literals.RawLiteral;
+import hurricane.rdf.core.rdf.literals.XsdString;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Reads N-Quads from UTF-8 encoded bytes, one statement per line.
+ *
+ * <p>Unlike {@link NQuadsParser}, which looks up every decoded code point in a state table, the
+ * reader loads whole lines into a byte array and scans them with a single loop per term. Terms
+ * without escape sequences are decoded straight from the array, and IRIs and language tags are
+ * looked up in small caches by their bytes, so the repeated predicates and graph names of a
+ * dataset are parsed once. Nothing is allocated per character.</p>
+ *
+ * <p>Invalid input is reported with an IllegalArgumentException that mentions the line number. A
+ * reader must not be shared between threads.</p>
+ */
+public final class NQuadsReader implements AutoCloseable {
+
+  private static final int BUFFER_SIZE = 1 << 16;
+
+  /**
+   * ASCII characters allowed in an IRI reference without escaping.
+   */
+  private static final boolean[] IRI_CHARS = new boolean[128];
+
+  static {
+    for (int c = 0x21; c < 0x80; ++ c) {
+      IRI_CHARS[c] = "<>\"{}|^`\\".indexOf(c) < 0;
+    }
+  }
+
+  private final ReadableByteChannel channel;
+  private final ByteBuffer source;
+  private final TermCache<Iri> iris = new TermCache<>(1 << 14, Iri::of);
+  private final TermCache<String> languageTags = new TermCache<>(1 << 6, Function.identity());
+  private final StringBuilder builder = new StringBuilder();
+
+  private byte[] bytes;
+  private ByteBuffer window;
+  private int position;
+  private int limit;
+  private boolean endOfInput;
+  private long lineNumber;
+
+  /**
+   * Whether the last line ended with a carriage return, which may be followed by a line feed.
+   */
+  private boolean afterCarriageReturn;
+
+  /**
+   * The scan position and the end of the current line.
+   */
+  private int pos;
+  private int end;
+
+  /**
+   * Creates a reader of the bytes of a channel, which is closed with the reader.
+   */
+  public NQuadsReader(final ReadableByteChannel channel) {
+    this.channel = Objects.requireNonNull(channel, "channel cannot be null");
+    this.source = null;
+    this.bytes = new byte[BUFFER_SIZE];
+    this.window = ByteBuffer.wrap(bytes);
+  }
+
+  /**
+   * Creates a reader of the remaining bytes of a buffer. Heap buffers are scanned in place,
+   * direct buffers are copied a block at a time. The position of the buffer is not changed.
+   */
+  public NQuadsReader(final ByteBuffer buffer) {
+    Objects.requireNonNull(buffer, "buffer cannot be null");
+
+    this.channel = null;
+
+    if (buffer.hasArray()) {
+      this.source = null;
+      this.bytes = buffer.array();
+      this.position = buffer.arrayOffset() + buffer.position();
+      this.limit = buffer.arrayOffset() + buffer.limit();
+      this.endOfInput = true;
+    } else {
+      this.source = buffer.duplicate();
+      this.bytes = new byte[BUFFER_SIZE];
+    }
+  }
+
+  /**
+   * Creates a reader of the bytes of a stream, which is closed with the reader.
+   */
+  public static NQuadsReader of(final InputStream in) {
+    return new NQuadsReader(Channels.newChannel(Objects.requireNonNull(in, "in cannot be null")));
+  }
+
+  /**
+   * Returns the next quad, or null at the end of the input.
+   *
+   * @throws IllegalArgumentException if the input is not valid N-Quads.
+   */
+  public Quad read() throws IOException {
+    while (nextLine()) {
+      ++ lineNumber;
+      pos = position;
+      skipSpace();
+
+      final Quad quad = pos < end && bytes[pos] != '#' ? statement() : null;
+
+      position = Math.min(end + 1, limit);
+
+      if (quad != null) {
+        return quad;
+      }
+    }
+
+    return null;
+  }
+
+  /**
+   * Reads all remaining quads.
+   */
+  public void forEach(final Consumer<? super Quad> consumer) throws IOException {
+    Objects.requireNonNull(consumer, "consumer cannot be null");
+
+    for (Quad quad = read(); quad != null; quad = read()) {
+      consumer.accept(quad);
+    }
+  }
+
+  /**
+   * Returns the number of the line of the last quad that was read, starting at 1.
+   */
+  public long getLineNumber() {
+    return lineNumber;
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (channel != null) {
+      channel.close();
+    }
+  }
+
+  /**
+   * Makes the next line available from position up to end, which is the index of the line feed or
+   * carriage return, or the limit for the last line. A carriage return followed by a line feed
+   * ends a single line. Returns false at the end of the input.
+   */
+  private boolean nextLine() throws IOException {
+    if (afterCarriageReturn) {
+      afterCarriageReturn = false;
+
+      if (position == limit && !endOfInput) {
+        fill();
+      }
+
+      if (position < limit && bytes[position] == '\n') {
+        ++ position;
+      }
+    }
+
+    int scan = position;
+
+    while (true) {
+      for (; scan < limit; ++ scan) {
+        final byte b = bytes[scan];
+
+        if (b == '\n' || b == '\r') {
+          end = scan;
+          afterCarriageReturn = b == '\r';
+          return true;
+        }
+      }
+
+      if (endOfInput) {
+        end = limit;
+        return position < limit;
+      }
+
+      scan -= position;
+      fill();
+    }
+  }
+
+  /**
+   * Moves the unread bytes to the start of the array, growing it when a line doesn't fit, and
+   * reads more bytes after them.
+   */
+  private void fill() throws IOException {
+    final int remaining = limit - position;
+
+    if (remaining == bytes.length) {
+      bytes = Arrays.copyOf(bytes, bytes.length * 2);
+      window = channel != null ? ByteBuffer.wrap(bytes) : null;
+    } else {
+      System.arraycopy(bytes, position, bytes, 0, remaining);
+    }
+
+    position = 0;
+    limit = remaining;
+
+    if (channel != null) {
+      window.clear().position(limit);
+
+      final int read = channel.read(window);
+
+      if (read < 0) {
+        endOfInput = true;
+      } else {
+        limit += read;
+      }
+    } else {
+      final int read = Math.min(source.remaining(), bytes.length - limit);
+
+      source.get(bytes, limit, read);
+      limit += read;
+      endOfInput = !source.hasRemaining();
+    }
+  }
+
+  private Quad statement() {
+    final Subject subject = subject();
+    skipSpace();
+    final Predicate predicate = new DefaultPredicate(iri());
+    skipSpace();
+    final RdfObject object = object();
+    skipSpace();
+
+    Subject graphName = null;
+
+    if (peek() != '.') {
+      graphName = subject();
+      skipSpace();
+    }
+
+    expect('.');
+    skipSpace();
+
+    if (pos < end && bytes[pos] != '#') {
+      throw invalid();
+    }
+
+    return new DefaultQuad(graphName, subject, predicate, object);
+  }
+
+  private Subject subject() {
+    switch (peek()) {
+      case '<':
+        return new IriSubject(iri());
+      case '_':
+        return new BlankNodeSubject(blankNode());
+      default:
+        throw invalid();
+    }
+  }
+
+  private RdfObject object() {
+    switch (peek()) {
+      case '<':
+        return new IriObject(iri());
+      case '_':
+        return new BlankNodeObject(blankNode());
+      case '"':
+        return new LiteralObject(literal());
+      default:
+        throw invalid();
+    }
+  }
+
+  private Iri iri() {
+    expect('<');
+
+    // The scan loops work on locals, which the compiler keeps in registers:
+    final byte[] bytes = this.bytes;
+    final int start = pos;
+    int scan = start;
+    int hash = 0;
+    boolean ascii = true;
+    boolean escaped = false;
+
+    for (; scan < end; ++ scan) {
+      final byte b = bytes[scan];
+
+      if (b == '>') {
+        break;
+      } else if (b < 0) {
+        ascii = false;
+      } else if (!IRI_CHARS[b]) {
+        if (b != '\\') {
+          pos = scan;
+          throw invalid();
+        }
+        escaped = true;
+      }
+
+      hash = 31 * hash + b;
+    }
+
+    pos = scan;
+    expect('>');
+    final int stop = pos - 1;
+
+    if (!ascii) {
+      checkUtf8(start, stop);
+    }
+
+    try {
+      return escaped
+          ? Iri.of(unescape(start, stop, false))
+          : iris.get(bytes, start, stop, hash);
+    } catch (final IllegalArgumentException e) {
+      throw new IllegalArgumentException("Invalid IRI at line " + lineNumber, e);
+    }
+  }
+
+  private BlankNode blankNode() {
+    expect('_');
+    expect(':');
+
+    final int start = pos;
+    boolean ascii = true;
+
+    while (pos < end) {
+      final int b = bytes[pos] & 0xFF;
+
+      if (b >= 0x80) {
+        ascii = false;
+        final int codePoint = decode();
+
+        if (!(NQuadsParser.isPnChar(codePoint)
+            && (pos > start || NQuadsParser.isPnCharU(codePoint)))) {
+          throw invalid();
+        }
+
+        pos += length(b);
+      } else if (isLabelChar(b) && (pos > start || b != '-' && b != '.')) {
+        ++ pos;
+      } else {
+        break;
+      }
+    }
+
+    // A label cannot end with a period, which ends the statement instead:
+    while (pos > start && bytes[pos - 1] == '.') {
+      -- pos;
+    }
+
+    if (pos == start) {
+      throw invalid();
+    }
+
+    return new DefaultBlankNode(new String(bytes, start, pos - start,
+        ascii ? StandardCharsets.ISO_8859_1 : StandardCharsets.UTF_8));
+  }
+
+  private Literal literal() {
+    expect('"');
+
+    final byte[] bytes = this.bytes;
+    final int start = pos;
+    int scan = start;
+    boolean ascii = true;
+    boolean escaped = false;
+
+    for (; scan < end; ++ scan) {
+      final byte b = bytes[scan];
+
+      if (b == '"') {
+        break;
+      } else if (b == '\\') {
+        escaped = true;
+        ++ scan;
+      } else if (b < 0) {
+        ascii = false;
+      }
+    }
+
+    pos = scan;
+    expect('"');
+    final int stop = pos - 1;
+
+    if (!ascii) {
+      checkUtf8(start, stop);
+    }
+    final String lexicalForm = escaped
+        ? unescape(start, stop, true)
+        : new String(bytes, start, stop - start,
+            ascii ? StandardCharsets.ISO_8859_1 : StandardCharsets.UTF_8);
+
+    if (pos < end && bytes[pos] == '^') {
+      ++ pos;
+      expect('^');
+      return new RawLiteral(lexicalForm, iri());
+    } else if (pos < end && bytes[pos] == '@') {
+      return new LangString(lexicalForm, languageTag());
+    }
+
+    return new XsdString(lexicalForm);
+  }
+
+  /**
+   * LANGTAG ::= '@' [a-zA-Z]+ ('-' [a-zA-Z0-9]+)*
+   */
+  private String languageTag() {
+    expect('@');
+
+    final int start = pos;
+    int hash = 0;
+    boolean subtag = false;
+    int length = 0;
+
+    while (pos < end) {
+      final int b = bytes[pos];
+
+      if (b >= 'a' && b <= 'z' || b >= 'A' && b <= 'Z' || subtag && b >= '0' && b <= '9') {
+        ++ length;
+      } else if (b == '-' && length > 0) {
+        subtag = true;
+        length = 0;
+      } else {
+        break;
+      }
+
+      hash = 31 * hash + b;
+      ++ pos;
+    }
+
+    if (length == 0) {
+      throw invalid();
+    }
+
+    return languageTags.get(bytes, start, pos, hash);
+  }
+
+  /**
+   * Decodes a term with escape sequences, leaving the scan position unchanged. IRIs only allow
+   * UCHAR escapes, literals also allow ECHAR escapes.
+   */
+  private String unescape(final int start, final int stop, final boolean literal) {
+    builder.setLength(0);
+
+    final int resume = pos;
+    int from = start;
+    pos = start;
+
+    while (pos < stop) {
+      if (bytes[pos] != '\\') {
+        ++ pos;
+        continue;
+      }
+
+      builder.append(new String(bytes, from, pos - from, StandardCharsets.UTF_8));
+
+      final int c = bytes[pos + 1];
+      pos += 2;
+
+      if (c == 'u' || c == 'U') {
+        builder.appendCodePoint(hex(c == 'u' ? 4 : 8, stop));
+      } else if (literal && escapedCharacter(c) >= 0) {
+        builder.append((char) escapedCharacter(c));
+      } else {
+        pos -= 1;
+        throw invalid();
+      }
+
+      from = pos;
+    }
+
+    builder.append(new String(bytes, from, stop - from, StandardCharsets.UTF_8));
+    pos = resume;
+
+    return builder.toString();
+  }
+
+  private int hex(final int digits, final int stop) {
+    if (pos + digits > stop) {
+      throw invalid();
+    }
+
+    int value = 0;
+
+    for (int i = 0; i < digits; ++ i, ++ pos) {
+      final int digit = Character.digit(bytes[pos], 16);
+
+      if (digit < 0) {
+        throw invalid();
+      }
+
+      value = value << 4 | digit;
+    }
+
+    if (!Character.isValidCodePoint(value)) {
+      throw invalid();
+    }
+
+    return value;
+  }
+
+  private static int escapedCharacter(final int c) {
+    switch (c) {
+      case 't':
+        return '\t';
+      case 'b':
+        return '\b';
+      case 'n':
+        return '\n';
+      case 'r':
+        return '\r';
+      case 'f':
+        return '\f';
+      case '"':
+      case '\'':
+      case '\\':
+        return c;
+      default:
+        return -1;
+    }
+  }
+
+  /**
+   * ASCII characters of PN_CHARS, plus the period allowed inside blank node labels.
+   */
+  private static boolean isLabelChar(final int b) {
+    return b >= 'a' && b <= 'z' || b >= 'A' && b <= 'Z' || b >= '0' && b <= '9'
+        || b == '_' || b == ':' || b == '-' || b == '.';
+  }
+
+  /**
+   * Checks the UTF-8 sequences of a term, as decoding a String would replace invalid sequences
+   * instead of failing. The scan position is left unchanged unless a sequence is invalid.
+   */
+  private void checkUtf8(final int start, final int stop) {
+    final int resume = pos;
+    pos = start;
+
+    while (pos < stop) {
+      final int b = bytes[pos] & 0xFF;
+
+      if (b >= 0x80) {
+        decode();
+        pos += length(b);
+      } else {
+        ++ pos;
+      }
+    }
+
+    pos = resume;
+  }
+
+  /**
+   * Decodes the UTF-8 sequence at the scan position, rejecting overlong encodings, surrogates and
+   * code points beyond U+10FFFF.
+   */
+  private int decode() {
+    final int b = bytes[pos] & 0xFF;
+    final int length = length(b);
+
+    if (length == 0 || pos + length > end) {
+      throw invalid();
+    }
+
+    int codePoint = b & (0x7F >> length);
+
+    for (int i = 1; i < length; ++ i) {
+      final int next = bytes[pos + i] & 0xFF;
+
+      if ((next & 0xC0) != 0x80) {
+        throw invalid();
+      }
+
+      codePoint = codePoint << 6 | next & 0x3F;
+    }
+
+    if (length == 3 && (codePoint < 0x800 || codePoint >= 0xD800 && codePoint < 0xE000)
+        || length == 4 && (codePoint < 0x10000 || codePoint > Character.MAX_CODE_POINT)) {
+      throw invalid();
+    }
+
+    return codePoint;
+  }
+
+  /**
+   * Returns the length of the UTF-8 sequence starting with a byte, or 0 if it cannot start one.
+   */
+  private static int length(final int b) {
+    if (b < 0x80) {
+      return 1;
+    } else if (b >= 0xC2 && b < 0xE0) {
+      return 2;
+    } else if (b >= 0xE0 && b < 0xF0) {
+      return 3;
+    } else if (b >= 0xF0 && b < 0xF5) {
+      return 4;
+    }
+
+    return 0;
+  }
+
+  private void skipSpace() {
+    while (pos < end && (bytes[pos] == ' ' || bytes[pos] == '\t')) {
+      ++ pos;
+    }
+  }
+
+  /**
+   * Returns the byte at the scan position, which must be on the current line.
+   */
+  private int peek() {
+    if (pos >= end) {
+      throw new IllegalArgumentException("Unexpected end of line " + lineNumber);
+    }
+
+    return bytes[pos] & 0xFF;
+  }
+
+  private void expect(final int c) {
+    if (peek() != c) {
+      throw invalid();
+    }
+
+    ++ pos;
+  }
+
+  private IllegalArgumentException invalid() {
+    if (pos >= end) {
+      return new IllegalArgumentException("Unexpected end of line " + lineNumber);
+    }
+
+    final int lineStart = position;
+    final int b = bytes[pos] & 0xFF;
+    final String character = b < 0x80 ? String.valueOf((char) b) : "0x" + Integer.toHexString(b);
+
+    return new IllegalArgumentException("Invalid character: '" + character + "' at line "
+        + lineNumber + ", column " + (pos - lineStart + 1));
+  }
+
+  /**
+   * Caches terms by their bytes in a direct-mapped table. A miss replaces the entry of the slot, so
+   * the cache favours the terms that recur within a few thousand statements.
+   */
+  private static final class TermCache<T> {
+    private final int[] hashes;
+    private final byte[][] keys;
+    private final Object[] values;
+    private final Function<String, T> factory;
+
+    TermCache(final int size, final Function<String, T> factory) {
+      this.hashes = new int[size];
+      this.keys = new byte[size][];
+      this.values = new Object[size];
+      this.factory = factory;
+    }
+
+    @SuppressWarnings("unchecked")
+    T get(final byte[] bytes, final int from, final int to, final int hash) {
+      final int slot = (hash ^ hash >>> 16) & (keys.length - 1);
+      final byte[] key = keys[slot];
+
+      // Comparing the hashes first avoids loading the key of a slot that holds another term:
+      if (hashes[slot] == hash && key != null
+          && Arrays.equals(key, 0, key.length, bytes, from, to)) {
+        return (T) values[slot];
+      }
+
+      final T term = factory.apply(new String(bytes, from, to - from, StandardCharsets.UTF_8));
+
+      hashes[slot] = hash;
+      keys[slot] = Arrays.copyOfRange(bytes, from, to);
+      values[slot] = term;
+
+      return term;
+    }
+  }
+}
@@ -1,6 +1,7 @@
 package hurricane.rdf.core.rdf.impl;
 
 import hurricane.core.collections.PersistentSet;
+import hurricane.core.collections.SetChange;
 import hurricane.rdf.core.rdf.Dataset;
 import hurricane.rdf.core.rdf.Graph;
 import hurricane.rdf.core.rdf.Quad;
@@ -28,6 +29,41 @@ public final class DefaultDataset implements Dataset {
     return replaceQuads(quads.add(Objects.requireNonNull(quad, "quad cannot be null")));
   }
 
+  /**
+   * Returns a dataset with all given quads added, applying them as a single batch.
+   */
+  public DefaultDataset addAll(final Iterable<? extends Quad> quads) {
+    return replaceQuads(this.quads.addAll(Objects.requireNonNull(quads, "quads cannot be null")));
+  }
+
+  /**
+   * Returns a dataset without the given quads, applying them as a single batch.
+   */
+  public DefaultDataset deleteAll(final Iterable<? extends Quad> quads) {
+    return replaceQuads(
+        this.quads.deleteAll(Objects.requireNonNull(quads, "quads cannot be null")));
+  }
+
+  /**
+   * Returns a dataset with the quads of both this dataset and the other dataset.
+   */
+  public DefaultDataset union(final DefaultDataset other) {
+    Objects.requireNonNull(other, "other cannot be null");
+
+    return replaceQuads(quads.union(other.quads));
+  }
+
+  /**
+   * Returns the quads that are added and removed to turn this dataset into the other dataset.
+   * Quads in the part that both datasets share are skipped, so comparing two snapshots of a
+   * dataset takes time proportional to the changes between them.
+   */
+  public Stream<SetChange<Quad>> diff(final DefaultDataset other) {
+    Objects.requireNonNull(other, "other cannot be null");
+
+    return quads.diff(other.quads);
+  }
+
   private DefaultDataset replaceQuads(final PersistentSet<Quad> newQuads) {
     return quads == newQuads ? this : new DefaultDataset(newQuads);
   }
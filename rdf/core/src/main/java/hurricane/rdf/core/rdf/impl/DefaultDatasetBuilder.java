@@ -1,5 +1,7 @@
 package hurricane.rdf.core.rdf.impl;
 
+import hurricane.core.collections.PersistentSet;
+import hurricane.core.collections.TransientSet;
 import hurricane.rdf.core.iri.Iri;
 import hurricane.rdf.core.rdf.BlankNode;
 import hurricane.rdf.core.rdf.Dataset;
@@ -23,21 +25,19 @@ public class DefaultDatasetBuilder implements DatasetBuilder {
   private final Map<BlankNode, RdfObject> blankNodeObjectMap = new HashMap<>();
   private final Map<Literal, RdfObject> literalObjectMap = new HashMap<>();
   private final Map<Iri, Predicate> predicateMap = new HashMap<>();
-  private DefaultDataset dataset = DefaultDataset.empty();
+  private TransientSet<Quad> quads = PersistentSet.empty(Quad.comparator()).asTransient();
 
   @Override
   public DatasetBuilder quad(final Subject graphName, final Subject subject,
       final Predicate predicate, final RdfObject object) {
-    final Quad quad = new DefaultQuad(graphName, subject, predicate, object);
-
-    dataset = dataset.add(quad);
+    quads.add(new DefaultQuad(graphName, subject, predicate, object));
 
     return this;
   }
 
   @Override
   public DatasetBuilder quad(final Quad quad) {
-    dataset = dataset.add(Objects.requireNonNull(quad, "quad cannot be null"));
+    quads.add(Objects.requireNonNull(quad, "quad cannot be null"));
     return this;
   }
 
@@ -100,6 +100,11 @@ public class DefaultDatasetBuilder implements DatasetBuilder {
   }
 
   public Dataset build() {
-    return dataset;
+    final PersistentSet<Quad> result = quads.persistent();
+
+    // Continue with a new transient, so that the built dataset is never modified:
+    quads = result.asTransient();
+
+    return DefaultDataset.of(result);
   }
 }
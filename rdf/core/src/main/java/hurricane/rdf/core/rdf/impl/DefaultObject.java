@@ -106,8 +106,8 @@ public abstract class DefaultObject implements RdfObject {
       NQuads.escapeLiteralValue(builder, literal.lexicalValue());
       builder.append("\"");
 
-      if (literal.languageTag().isPresent()) {
-        builder.append("@").append(literal.languageTag().get().toLanguageTag());
+      if (literal.languageTagString().isPresent()) {
+        builder.append("@").append(literal.languageTagString().get());
       } else {
         builder.append("^^<").append(literal.datatypeIri().asciiString()).append(">");
       }
@@ -0,0 +1,67 @@
+package hurricane.rdf.core.rdf.literals;
+
+import hurricane.rdf.core.iri.Iri;
+import hurricane.rdf.core.rdf.Literal;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * A string literal with a language tag, such as "chat"@fr. The tag is kept as written, as a
+ * {@link Locale} does not preserve every well-formed tag.
+ */
+public final class LangString implements Literal {
+  private static final Iri iri = Iri.of("http://www.w3.org/1999/02/22-rdf-syntax-ns#langString");
+
+  private final String lexicalValue;
+  private final String languageTag;
+
+  public LangString(final String lexicalValue, final String languageTag) {
+    this.lexicalValue = Objects.requireNonNull(lexicalValue, "lexicalValue cannot be null");
+    this.languageTag = Objects.requireNonNull(languageTag, "languageTag cannot be null");
+  }
+
+  public LangString(final String lexicalValue, final Locale languageTag) {
+    this(lexicalValue,
+        Objects.requireNonNull(languageTag, "languageTag cannot be null").toLanguageTag());
+  }
+
+  @Override
+  public String lexicalValue() {
+    return lexicalValue;
+  }
+
+  @Override
+  public Iri datatypeIri() {
+    return iri;
+  }
+
+  @Override
+  public Optional<Locale> languageTag() {
+    return Optional.of(Locale.forLanguageTag(languageTag));
+  }
+
+  @Override
+  public Optional<String> languageTagString() {
+    return Optional.of(languageTag);
+  }
+
+  @Override
+  public boolean equals(final Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof LangString)) {
+      return false;
+    }
+
+    final LangString that = (LangString) o;
+
+    return lexicalValue.equals(that.lexicalValue) && languageTag.equals(that.languageTag);
+  }
+
+  @Override
+  public int hashCode() {
+    return lexicalValue.hashCode() * 31 + languageTag.hashCode();
+  }
+}
@@ -1,6 +1,8 @@
 open module hurricane.rdf.core {
   exports hurricane.rdf.core.rdf;
   exports hurricane.rdf.core.iri;
+  exports hurricane.rdf.core.rdf.formatters;
+  exports hurricane.rdf.core.parser;
 
   requires hurricane.collections;
   requires jdk.jshell;
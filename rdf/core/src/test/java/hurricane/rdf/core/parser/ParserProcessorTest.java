@@ -0,0 +1,309 @@
+package hurricane.rdf.core.parser;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import hurricane.rdf.core.parser.JsonParser.Token;
+import hurricane.rdf.core.rdf.Quad;
+import hurricane.rdf.core.rdf.formatters.NQuadsParser;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+
+public class ParserProcessorTest {
+
+  private static final String JSON = "{ \"a\": [1, 2.5, \"x\"], \"b\": { \"c\": null } }";
+
+  private static final String QUADS =
+      "<http://example.com/s> <http://example.com/p> \"caf\u00e9\" .\n"
+      + "_:b <http://example.com/p> \"smile \uD83D\uDE00\" <http://example.com/g> .\n"
+      + "<http://example.com/s> <http://example.com/q> _:b .\n";
+
+  private static List<byte[]> split(final String input, final int size) {
+    final byte[] bytes = input.getBytes(StandardCharsets.UTF_8);
+    final List<byte[]> chunks = new ArrayList<>();
+
+    for (int i = 0; i < bytes.length; i += size) {
+      chunks.add(Arrays.copyOfRange(bytes, i, Math.min(bytes.length, i + size)));
+    }
+
+    return chunks;
+  }
+
+  /**
+   * Publishes chunks synchronously as they are requested.
+   */
+  private static final class ChunkPublisher implements Flow.Publisher<List<ByteBuffer>> {
+    private final List<byte[]> chunks;
+    private final Throwable error;
+    private int next;
+    private long requested;
+    private boolean cancelled;
+    private boolean done;
+
+    private ChunkPublisher(final List<byte[]> chunks, final Throwable error) {
+      this.chunks = chunks;
+      this.error = error;
+    }
+
+    private ChunkPublisher(final List<byte[]> chunks) {
+      this(chunks, null);
+    }
+
+    @Override
+    public void subscribe(final Flow.Subscriber<? super List<ByteBuffer>> subscriber) {
+      subscriber.onSubscribe(new Flow.Subscription() {
+        @Override
+        public void request(final long n) {
+          requested += n;
+
+          for (long i = 0; i < n && next < chunks.size() && !cancelled; ++ i) {
+            subscriber.onNext(Collections.singletonList(ByteBuffer.wrap(chunks.get(next ++))));
+          }
+
+          if (next == chunks.size() && !cancelled && !done) {
+            done = true;
+
+            if (error != null) {
+              subscriber.onError(error);
+            } else {
+              subscriber.onComplete();
+            }
+          }
+        }
+
+        @Override
+        public void cancel() {
+          cancelled = true;
+        }
+      });
+    }
+  }
+
+  private static final class Collector<T> implements Flow.Subscriber<T> {
+    private final long initialDemand;
+    private final List<T> items = Collections.synchronizedList(new ArrayList<>());
+    private final CountDownLatch terminated = new CountDownLatch(1);
+    private Flow.Subscription subscription;
+    private volatile Throwable error;
+    private volatile boolean complete;
+
+    private Collector(final long initialDemand) {
+      this.initialDemand = initialDemand;
+    }
+
+    @Override
+    public void onSubscribe(final Flow.Subscription subscription) {
+      this.subscription = subscription;
+
+      if (initialDemand > 0) {
+        subscription.request(initialDemand);
+      }
+    }
+
+    @Override
+    public void onNext(final T item) {
+      items.add(item);
+    }
+
+    @Override
+    public void onError(final Throwable throwable) {
+      error = throwable;
+      terminated.countDown();
+    }
+
+    @Override
+    public void onComplete() {
+      complete = true;
+      terminated.countDown();
+    }
+  }
+
+  private static <T> Collector<T> run(final Flow.Processor<List<ByteBuffer>, T> processor,
+      final Flow.Publisher<List<ByteBuffer>> publisher) {
+    final Collector<T> collector = new Collector<>(Long.MAX_VALUE);
+
+    processor.subscribe(collector);
+    publisher.subscribe(processor);
+
+    return collector;
+  }
+
+  @Test
+  public void testJson() {
+    final List<Token> expected = ParserTestUtils.parse(JsonParser::new, JSON);
+
+    for (int size = 1; size <= 8; ++ size) {
+      final Collector<Token> collector = run(JsonParser.processor(),
+          new ChunkPublisher(split(JSON, size)));
+
+      assertTrue(collector.complete);
+      assertNull(collector.error);
+      assertEquals(expected, collector.items);
+    }
+  }
+
+  @Test
+  public void testMultiByteCharactersAcrossChunks() {
+    final List<Quad> expected = ParserTestUtils.parse(NQuadsParser::new, QUADS);
+
+    for (int size = 1; size <= 5; ++ size) {
+      final Collector<Quad> collector = run(NQuadsParser.processor(),
+          new ChunkPublisher(split(QUADS, size)));
+
+      assertTrue(collector.complete);
+      assertEquals(expected, collector.items);
+    }
+  }
+
+  @Test
+  public void testDemand() {
+    final ChunkPublisher publisher = new ChunkPublisher(split(QUADS, 10));
+    final Collector<Quad> collector = new Collector<>(0);
+    final Flow.Processor<List<ByteBuffer>, Quad> processor = NQuadsParser.processor();
+
+    processor.subscribe(collector);
+    publisher.subscribe(processor);
+
+    // Nothing is requested without demand:
+    assertEquals(0, publisher.requested);
+
+    collector.subscription.request(1);
+    assertEquals(1, collector.items.size());
+
+    final long requested = publisher.requested;
+    assertTrue(requested < split(QUADS, 10).size());
+
+    collector.subscription.request(1);
+    assertEquals(2, collector.items.size());
+    assertFalse(collector.complete);
+
+    collector.subscription.request(10);
+    assertEquals(3, collector.items.size());
+    assertTrue(collector.complete);
+  }
+
+  @Test
+  public void testCancel() {
+    final ChunkPublisher publisher = new ChunkPublisher(split(QUADS, 10));
+    final Collector<Quad> collector = new Collector<>(1);
+    final Flow.Processor<List<ByteBuffer>, Quad> processor = NQuadsParser.processor();
+
+    processor.subscribe(collector);
+    publisher.subscribe(processor);
+    collector.subscription.cancel();
+    collector.subscription.request(5);
+
+    assertTrue(publisher.cancelled);
+    assertEquals(1, collector.items.size());
+    assertFalse(collector.complete);
+  }
+
+  @Test
+  public void testInvalidSyntax() {
+    final ChunkPublisher publisher = new ChunkPublisher(split("<http://example.com/s> oops .\n",
+        4));
+    final Collector<Quad> collector = run(NQuadsParser.processor(), publisher);
+
+    assertTrue(collector.error instanceof IllegalArgumentException);
+    assertTrue(publisher.cancelled);
+  }
+
+  @Test
+  public void testParserFailure() {
+    final IllegalStateException failure = new IllegalStateException("broken");
+    final Parser<Token> parser = new Parser<>() {
+      @Override
+      protected ParserState initialState() {
+        return cp -> {
+          throw failure;
+        };
+      }
+    };
+
+    final ChunkPublisher publisher = new ChunkPublisher(split(JSON, 4));
+    final Collector<Token> collector = run(new ParserProcessor<>(parser), publisher);
+
+    assertEquals(failure, collector.error);
+    assertTrue(publisher.cancelled);
+    assertFalse(collector.complete);
+  }
+
+  @Test
+  public void testInvalidUtf8() {
+    final List<byte[]> chunks = split("[\"a", 3);
+    chunks.add(new byte[] {(byte) 0xC3, (byte) 0x28});
+
+    final Collector<Token> collector = run(JsonParser.processor(), new ChunkPublisher(chunks));
+
+    assertTrue(collector.error instanceof CharacterCodingException);
+  }
+
+  @Test
+  public void testTruncatedUtf8() {
+    final List<byte[]> chunks = split("[\"a", 3);
+    chunks.add(new byte[] {(byte) 0xE2, (byte) 0x82});
+
+    final Collector<Token> collector = run(JsonParser.processor(), new ChunkPublisher(chunks));
+
+    assertTrue(collector.error instanceof CharacterCodingException);
+  }
+
+  @Test
+  public void testUpstreamError() {
+    final IOException error = new IOException("connection reset");
+    final Collector<Quad> collector = run(NQuadsParser.processor(),
+        new ChunkPublisher(split(QUADS, 10), error));
+
+    assertEquals(error, collector.error);
+    assertFalse(collector.complete);
+  }
+
+  @Test
+  public void testSecondSubscriber() {
+    final Flow.Processor<List<ByteBuffer>, Quad> processor = NQuadsParser.processor();
+    final Collector<Quad> second = new Collector<>(1);
+
+    processor.subscribe(new Collector<>(1));
+    processor.subscribe(second);
+
+    assertTrue(second.error instanceof IllegalStateException);
+  }
+
+  @Test
+  public void testAsynchronousPublisher() throws InterruptedException {
+    final StringBuilder input = new StringBuilder();
+    for (int i = 0; i < 1000; ++ i) {
+      input.append(QUADS.replace("/s>", "/s" + i + ">"));
+    }
+
+    final List<Quad> expected = ParserTestUtils.parse(NQuadsParser::new, input.toString());
+    final Collector<Quad> collector = new Collector<>(Long.MAX_VALUE);
+    final Flow.Processor<List<ByteBuffer>, Quad> processor = NQuadsParser.processor();
+
+    try (SubmissionPublisher<List<ByteBuffer>> publisher = new SubmissionPublisher<>()) {
+      processor.subscribe(collector);
+      publisher.subscribe(processor);
+
+      for (final byte[] chunk : split(input.toString(), 97)) {
+        publisher.submit(Collections.singletonList(ByteBuffer.wrap(chunk)));
+      }
+    }
+
+    assertTrue(collector.terminated.await(10, TimeUnit.SECONDS));
+    assertTrue(collector.complete);
+    assertEquals(expected, collector.items);
+  }
+}
@@ -6,10 +6,10 @@ import java.util.function.Supplier;
 
 public class ParserTestUtils {
 
-  public static <T> List<T> parse(final Supplier<? extends Parser<T>> parserSupplier,
+  public static <T> List<T> parse(final Supplier<? extends AbstractParser<T>> parserSupplier,
       final String ... input) {
 
-    final Parser<T> parser = parserSupplier.get();
+    final AbstractParser<T> parser = parserSupplier.get();
 
     // Send all text at once:
     for (final String i: input) {
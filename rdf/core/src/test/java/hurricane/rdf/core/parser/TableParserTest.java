@@ -0,0 +1,126 @@
+package hurricane.rdf.core.parser;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.junit.Test;
+
+public class TableParserTest {
+
+  /**
+   * Parses numbers separated by commas and optional spaces, emitting every number.
+   */
+  private static final class NumberParser extends TableParser<Integer> {
+    private static final int OTHER = 0;
+    private static final int DIGIT = 1;
+    private static final int COMMA = 2;
+    private static final int SPACE = 3;
+    private static final int NON_ASCII = 4;
+    private static final int END = 5;
+
+    private static final int START = 0;
+    private static final int NUMBER = 1;
+    private static final int SEPARATOR = 2;
+
+    private static final int ADD_DIGIT = 1;
+    private static final int NUMBER_END = 2;
+    private static final int INPUT_END = 3;
+
+    private static final StateTable TABLE = StateTable.builder(3, 6, NON_ASCII, END)
+        .classify(DIGIT, '0', '9')
+        .classify(COMMA, ",")
+        .classify(SPACE, " ")
+        .on(START, SPACE, START, 0)
+        .on(START, DIGIT, NUMBER, ADD_DIGIT)
+        .on(START, END, START, INPUT_END)
+        .on(NUMBER, DIGIT, NUMBER, ADD_DIGIT)
+        .redirectOtherwise(NUMBER, SEPARATOR, NUMBER_END)
+        .redirect(NUMBER, END, SEPARATOR, NUMBER_END)
+        .reject(NUMBER, NON_ASCII)
+        .on(SEPARATOR, SPACE, SEPARATOR, 0)
+        .on(SEPARATOR, COMMA, START, 0)
+        .on(SEPARATOR, END, SEPARATOR, INPUT_END)
+        .build();
+
+    private int value;
+
+    private NumberParser() {
+      super(TABLE, START);
+    }
+
+    @Override
+    protected int perform(final int action, final int codePoint, final int next) {
+      switch (action) {
+        case ADD_DIGIT:
+          value = value * 10 + codePoint - '0';
+          return next;
+        case NUMBER_END:
+          emit(value);
+          value = 0;
+          return next;
+        case INPUT_END:
+          emitEndOfInput();
+          return next;
+        default:
+          throw new IllegalStateException();
+      }
+    }
+  }
+
+  @Test
+  public void testParse() {
+    assertEquals(Arrays.asList(12, 3, 456), ParserTestUtils.parse(NumberParser::new,
+        "12, 3", ",45", "6"));
+    assertEquals(Collections.singletonList(7), ParserTestUtils.parse(NumberParser::new, " 7 "));
+    assertEquals(Collections.emptyList(), ParserTestUtils.parse(NumberParser::new, ""));
+  }
+
+  @Test
+  public void testIncremental() {
+    final NumberParser parser = new NumberParser();
+
+    parser.accept("1, 2");
+    assertEquals(Integer.valueOf(1), parser.nextToken());
+    assertFalse(parser.hasToken());
+
+    parser.accept("3,");
+    assertEquals(Integer.valueOf(23), parser.nextToken());
+
+    parser.endOfInput();
+    assertFalse(parser.hasToken());
+  }
+
+  @Test
+  public void testInvalid() {
+    final List<String> inputs = Arrays.asList("1,,2", "1 2", "1\u00e9", "x");
+    final List<String> messages = Arrays.asList("Invalid character: ','",
+        "Invalid character: '2'", "Invalid character: '\u00e9'", "Invalid character: 'x'");
+
+    for (int i = 0; i < inputs.size(); ++ i) {
+      try {
+        ParserTestUtils.parse(NumberParser::new, inputs.get(i));
+        throw new AssertionError("Parsed: " + inputs.get(i));
+      } catch (final IllegalArgumentException e) {
+        assertEquals(messages.get(i), e.getMessage());
+      }
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidState() {
+    StateTable.builder(2, 3, 1, 2).on(0, 0, 2, 0);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidClass() {
+    StateTable.builder(2, 3, 1, 2).classify(3, "a");
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNonAsciiClassification() {
+    StateTable.builder(2, 3, 1, 2).classify(0, "\u00e9");
+  }
+}
@@ -0,0 +1,184 @@
+package hurricane.rdf.core.rdf.formatters;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import hurricane.rdf.core.rdf.BlankNode;
+import hurricane.rdf.core.rdf.Dataset;
+import hurricane.rdf.core.rdf.Quad;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+import org.junit.Test;
+
+public class NQuadsLoaderTest {
+
+  private static final ForkJoinPool POOL = new ForkJoinPool(4);
+
+  private static String document(final int count) {
+    final StringBuilder builder = new StringBuilder("# generated\n");
+
+    for (int i = 0; i < count; ++ i) {
+      builder.append("<http://example.com/s").append(i / 10).append("> ")
+          .append("<http://example.com/p").append(i % 7).append("> ");
+
+      if (i % 3 == 0) {
+        builder.append("_:b").append(i % 50);
+      } else {
+        builder.append('"').append("value ").append(i).append('"');
+      }
+
+      builder.append(i % 5 == 0 ? " <http://example.com/g> .\n" : " .\n");
+    }
+
+    return builder.toString();
+  }
+
+  private static Set<Quad> readAll(final byte[] bytes) throws IOException {
+    final Set<Quad> quads = new HashSet<>();
+
+    try (NQuadsReader reader = new NQuadsReader(ByteBuffer.wrap(bytes))) {
+      reader.forEach(quads::add);
+    }
+
+    return quads;
+  }
+
+  private static Set<Quad> quads(final Dataset dataset) {
+    return dataset.quads().collect(Collectors.toSet());
+  }
+
+  @Test
+  public void testSameAsReader() throws IOException {
+    final byte[] bytes = document(2000).getBytes(StandardCharsets.UTF_8);
+    final Set<Quad> expected = readAll(bytes);
+
+    for (final int chunkSize : new int[] {1, 100, 4096, bytes.length, bytes.length * 2}) {
+      assertEquals(expected, quads(NQuadsLoader.load(ByteBuffer.wrap(bytes), POOL, chunkSize)));
+    }
+  }
+
+  @Test
+  public void testBlankNodesAcrossChunks() {
+    final byte[] bytes = ("_:x <http://example.com/p> \"a\" .\n"
+        + "_:x <http://example.com/p> \"b\" .\n"
+        + "_:y <http://example.com/p> _:x .\n").getBytes(StandardCharsets.UTF_8);
+
+    final Dataset dataset = NQuadsLoader.load(ByteBuffer.wrap(bytes), POOL, 1);
+
+    assertEquals(3, dataset.quads().count());
+    assertEquals(2, dataset.quads().map(Quad::subject).distinct().count());
+
+    final BlankNode x = dataset.quads()
+        .filter(quad -> quad.object().literal().isPresent())
+        .map(quad -> quad.subject().blankNode().get())
+        .distinct()
+        .collect(Collectors.toList()).get(0);
+
+    assertTrue(dataset.quads()
+        .anyMatch(quad -> quad.object().blankNode().equals(Optional.of(x))));
+  }
+
+  @Test
+  public void testLiteralsDifferingInDatatypeOrLanguage() {
+    final List<String> objects = Arrays.asList("\"chat\"",
+        "\"chat\"@en", "\"chat\"@fr", "\"chat\"^^<http://a/t>");
+    final StringBuilder builder = new StringBuilder();
+
+    for (final String object : objects) {
+      builder.append("<http://a/s> <http://a/p> ").append(object).append(" .\n");
+    }
+
+    final Dataset dataset = NQuadsLoader.load(
+        ByteBuffer.wrap(builder.toString().getBytes(StandardCharsets.UTF_8)), POOL, 1);
+
+    // Literals with a datatype do not implement equals, compare them as written:
+    assertEquals(new HashSet<>(Arrays.asList("\"chat\"^^<http://www.w3.org/2001/XMLSchema#string>",
+        "\"chat\"@en", "\"chat\"@fr", "\"chat\"^^<http://a/t>")),
+        dataset.quads().map(quad -> quad.object().toString()).collect(Collectors.toSet()));
+  }
+
+  @Test
+  public void testDirectBufferWithoutFinalLineFeed() throws IOException {
+    final byte[] bytes = document(500).trim().getBytes(StandardCharsets.UTF_8);
+    final ByteBuffer buffer = ByteBuffer.allocateDirect(bytes.length + 10);
+
+    buffer.position(10);
+    buffer.put(bytes);
+    buffer.position(10);
+
+    assertEquals(readAll(bytes),
+        quads(NQuadsLoader.load(buffer, POOL, 1000)));
+    assertEquals(10, buffer.position());
+  }
+
+  @Test
+  public void testFile() throws IOException {
+    final byte[] bytes = document(3000).getBytes(StandardCharsets.UTF_8);
+    final Path path = Files.createTempFile("loader", ".nq");
+
+    try {
+      Files.write(path, bytes);
+
+      final Set<Quad> expected = readAll(bytes);
+
+      assertEquals(expected, quads(NQuadsLoader.load(path, POOL, 5000)));
+      assertEquals(expected, quads(NQuadsLoader.load(path, POOL)));
+    } finally {
+      Files.delete(path);
+    }
+  }
+
+  @Test
+  public void testEmpty() {
+    assertEquals(0, NQuadsLoader.load(ByteBuffer.allocate(0), POOL).quads().count());
+  }
+
+  @Test
+  public void testInvalidChunk() {
+    final byte[] bytes = (document(100) + "<http://example.com/s> oops .\n")
+        .getBytes(StandardCharsets.UTF_8);
+
+    try {
+      NQuadsLoader.load(ByteBuffer.wrap(bytes), POOL, 500);
+      fail();
+    } catch (final IllegalArgumentException e) {
+      // The exception of the worker is rethrown as is, not wrapped in a copy:
+      assertTrue(e.getMessage(), e.getMessage().startsWith("Invalid N-Quads in the chunk at byte"));
+      assertTrue(e.getMessage(),
+          e.getMessage().contains("lines are counted from the start of the chunk"));
+      assertTrue(e.getCause().getMessage(), e.getCause().getMessage().startsWith("Invalid"));
+    }
+  }
+
+  @Test
+  public void testCarriageReturns() throws IOException {
+    final byte[] bytes = document(2000).replace('\n', '\r').getBytes(StandardCharsets.UTF_8);
+    final Set<Quad> expected = readAll(bytes);
+
+    assertEquals(2000, expected.size());
+
+    for (final int chunkSize : new int[] {1, 100, 4096}) {
+      assertEquals(expected, quads(NQuadsLoader.load(ByteBuffer.wrap(bytes), POOL, chunkSize)));
+    }
+
+    final Path path = Files.createTempFile("loader", ".nq");
+
+    try {
+      Files.write(path, document(2000).replace("\n", "\r\n").getBytes(StandardCharsets.UTF_8));
+      assertEquals(expected, quads(NQuadsLoader.load(path, POOL, 100)));
+    } finally {
+      Files.delete(path);
+    }
+  }
+}
@@ -1,13 +1,29 @@
 package hurricane.rdf.core.rdf.formatters;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 
 import hurricane.rdf.core.parser.ParserTestUtils;
 import hurricane.rdf.core.iri.Iri;
 import hurricane.rdf.core.rdf.Dataset;
 import hurricane.rdf.core.rdf.Literal;
+import hurricane.rdf.core.rdf.Quad;
 import hurricane.rdf.core.rdf.Rdf;
 import hurricane.rdf.core.rdf.impl.DefaultRdf;
+import java.io.FilterReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -40,4 +56,215 @@ public class NQuadsParserTest {
         )
     );
   }
+
+  private static String document(final int count) {
+    final StringBuilder builder = new StringBuilder();
+
+    for (int i = 0; i < count; ++ i) {
+      builder.append("<http://example.com/s").append(i).append("> <http://example.com/p> ")
+          .append(i % 2 == 0 ? "_:b" + i : "\"value \uD83D\uDE00 " + i + "\"")
+          .append(" .\n");
+    }
+
+    return builder.toString();
+  }
+
+  /**
+   * Returns at most a few characters per read, and counts the characters read.
+   */
+  private static final class SlowReader extends FilterReader {
+    private final int maxRead;
+    private long charsRead;
+    private boolean closed;
+
+    private SlowReader(final String input, final int maxRead) {
+      super(new StringReader(input));
+      this.maxRead = maxRead;
+    }
+
+    @Override
+    public int read(final char[] buffer, final int offset, final int length) throws IOException {
+      final int read = super.read(buffer, offset, Math.min(length, maxRead));
+      charsRead += Math.max(read, 0);
+      return read;
+    }
+
+    @Override
+    public void close() throws IOException {
+      closed = true;
+      super.close();
+    }
+  }
+
+  @Test
+  public void testStream() {
+    final String input = document(1000);
+
+    try (Stream<Quad> quads = NQuadsParser.stream(new StringReader(input))) {
+      assertEquals(ParserTestUtils.parse(NQuadsParser::new, input),
+          quads.collect(Collectors.toList()));
+    }
+  }
+
+  @Test
+  public void testStreamSplitsSurrogatePairs() {
+    final String input = document(20);
+
+    for (int maxRead = 1; maxRead <= 5; ++ maxRead) {
+      try (Stream<Quad> quads = NQuadsParser.stream(new SlowReader(input, maxRead))) {
+        assertEquals(ParserTestUtils.parse(NQuadsParser::new, input),
+            quads.collect(Collectors.toList()));
+      }
+    }
+  }
+
+  @Test
+  public void testStreamIsLazy() {
+    final SlowReader reader = new SlowReader(document(10000), Integer.MAX_VALUE);
+    final Iterator<Quad> quads = new NQuadsParser().iterator(reader);
+
+    assertTrue(quads.hasNext());
+    quads.next();
+    assertTrue(reader.charsRead <= 1 << 13);
+
+    long count = 1;
+    while (quads.hasNext()) {
+      quads.next();
+      ++ count;
+    }
+
+    assertEquals(10000, count);
+    assertFalse(reader.closed);
+  }
+
+  @Test
+  public void testStreamClosesReader() {
+    final SlowReader reader = new SlowReader(document(10), 100);
+
+    try (Stream<Quad> quads = NQuadsParser.stream(reader)) {
+      assertEquals(1, quads.limit(1).count());
+    }
+
+    assertTrue(reader.closed);
+  }
+
+  @Test
+  public void testStreamEmpty() {
+    assertEquals(0, NQuadsParser.stream(new StringReader("")).count());
+  }
+
+  @Test
+  public void testStreamPath() throws IOException {
+    final String input = document(100);
+    final Path path = Files.createTempFile("parser", ".nq");
+
+    try {
+      Files.write(path, input.getBytes(StandardCharsets.UTF_8));
+
+      final List<Quad> quads;
+      try (Stream<Quad> stream = NQuadsParser.stream(path)) {
+        quads = stream.collect(Collectors.toList());
+      }
+
+      assertEquals(ParserTestUtils.parse(NQuadsParser::new, input), quads);
+    } finally {
+      Files.delete(path);
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testStreamInvalid() {
+    NQuadsParser.stream(new StringReader("<http://example.com/s> oops .\n")).count();
+  }
+
+  private static final String[] GRAMMAR = {
+      "# a comment",
+      "<http://example.com/s> <http://example.com/p> \"plain\" .",
+      "<http://example.com/s> <http://example.com/p> \"chat\"@fr .",
+      "<http://example.com/s> <http://example.com/p> \"hi\"@en-GB <http://example.com/g> .",
+      "<http://example.com/s> <http://example.com/p> \"42\"^^<http://example.com/int> .",
+      "<http://example.com/s> <http://example.com/p> "
+          + "\"a\\tb \\\"q\\\" \\r\\n \\u00e9 \\U0001F600\" .",
+      "<http://example.com/c\\u0041t> <http://example.com/p> _:b1 .",
+      "_:a.b <http://example.com/p> _:c.",
+      "_:a.b <http://example.com/p> _:c _:g.",
+      "<http://example.com/s> <http://example.com/p> <http://example.com/o> . # trailing",
+      "_:\u00e9t\u00e9 <http://example.com/p> \"caf\u00e9\" <http://example.com/g> ."
+  };
+
+  /**
+   * Describes a quad by its terms, as literals with a datatype do not implement equals.
+   */
+  private static String describe(final Quad quad) {
+    return quad.subject() + " " + quad.predicate() + " "
+        + quad.object().map(
+            iri -> "<" + iri + ">",
+            literal -> "\"" + literal.lexicalValue() + "\"^^" + literal.datatypeIri()
+                + literal.languageTagString(),
+            blankNode -> "_:" + blankNode)
+        + " " + quad.graphName();
+  }
+
+  private static List<String> describe(final List<Quad> quads) {
+    return quads.stream().map(NQuadsParserTest::describe).collect(Collectors.toList());
+  }
+
+  @Test
+  public void testSameAsReader() throws IOException {
+    final String input = String.join("\n", GRAMMAR);
+    final List<Quad> expected = new ArrayList<>();
+
+    try (NQuadsReader reader = new NQuadsReader(
+        ByteBuffer.wrap(input.getBytes(StandardCharsets.UTF_8)))) {
+      reader.forEach(expected::add);
+    }
+
+    assertEquals(10, expected.size());
+    assertEquals(describe(expected), describe(ParserTestUtils.parse(NQuadsParser::new, input)));
+  }
+
+  @Test
+  public void testOneCodePointAtATime() {
+    final String input = String.join("\n", GRAMMAR);
+    final String[] codePoints = input.codePoints()
+        .mapToObj(Character::toString)
+        .toArray(String[]::new);
+
+    assertEquals(describe(ParserTestUtils.parse(NQuadsParser::new, input)),
+        describe(ParserTestUtils.parse(NQuadsParser::new, codePoints)));
+  }
+
+  @Test
+  public void testEscapes() {
+    final List<Quad> quads = ParserTestUtils.parse(NQuadsParser::new, GRAMMAR[5], GRAMMAR[6]);
+
+    assertEquals("a\tb \"q\" \r\n \u00e9 \uD83D\uDE00",
+        quads.get(0).object().literal().get().lexicalValue());
+    assertEquals(Iri.of("http://example.com/cAt"), quads.get(1).subject().iri().get());
+  }
+
+  @Test
+  public void testInvalid() {
+    final String[] inputs = {
+        "<http://example.com/s> <http://example.com/p> \"x\"@ .",
+        "<http://example.com/s> <http://example.com/p> \"x\\q\" .",
+        "<http://example.com/s> <http://example.com/p> \"x\\u00g0\" .",
+        "<http://example.com/s p> <http://example.com/p> \"x\" .",
+        "<http://example.com/s> _:p \"x\" .",
+        "_:a.. <http://example.com/p> \"x\" .",
+        "_:a. <http://example.com/p> \"x\" .",
+        "<http://example.com/s> <http://example.com/p> \"x\" <http://example.com/g> <h:h> .",
+        "<http://example.com/s> <http://example.com/p> \"x\"",
+        "<http://example.com/s> <http://example.com/p> \"x\n\" ."
+    };
+
+    for (final String input : inputs) {
+      try {
+        ParserTestUtils.parse(NQuadsParser::new, input);
+        throw new AssertionError("Parsed: " + input);
+      } catch (final IllegalArgumentException e) {
+        // Expected
+      }
+    }
+  }
 }
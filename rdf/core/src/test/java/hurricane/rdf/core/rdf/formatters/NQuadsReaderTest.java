@@ -0,0 +1,258 @@
+package hurricane.rdf.core.rdf.formatters;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import hurricane.rdf.core.iri.Iri;
+import hurricane.rdf.core.parser.ParserTestUtils;
+import hurricane.rdf.core.rdf.Literal;
+import hurricane.rdf.core.rdf.Quad;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import org.junit.Test;
+
+public class NQuadsReaderTest {
+
+  private static List<Quad> read(final String input) throws IOException {
+    final List<Quad> quads = new ArrayList<>();
+
+    try (NQuadsReader reader = NQuadsReader.of(
+        new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8)))) {
+      reader.forEach(quads::add);
+    }
+
+    return quads;
+  }
+
+  /**
+   * Reads bytes from a stream that returns a single byte per read.
+   */
+  private static List<Quad> readSlowly(final byte[] input) throws IOException {
+    final List<Quad> quads = new ArrayList<>();
+    final InputStream in = new ByteArrayInputStream(input) {
+      @Override
+      public synchronized int read(final byte[] b, final int off, final int len) {
+        return super.read(b, off, Math.min(len, 1));
+      }
+    };
+
+    try (NQuadsReader reader = NQuadsReader.of(in)) {
+      reader.forEach(quads::add);
+    }
+
+    return quads;
+  }
+
+  private static void assertInvalid(final byte[] input, final String message) throws IOException {
+    try {
+      new NQuadsReader(ByteBuffer.wrap(input)).forEach(quad -> { });
+    } catch (final IllegalArgumentException e) {
+      assertTrue(e.getMessage(), e.getMessage().contains(message));
+      return;
+    }
+
+    throw new AssertionError("Expected an exception");
+  }
+
+  private static byte[] bytes(final String prefix, final int[] sequence, final String suffix) {
+    final byte[] start = prefix.getBytes(StandardCharsets.US_ASCII);
+    final byte[] end = suffix.getBytes(StandardCharsets.US_ASCII);
+    final byte[] bytes = Arrays.copyOf(start, start.length + sequence.length + end.length);
+
+    for (int i = 0; i < sequence.length; ++ i) {
+      bytes[start.length + i] = (byte) sequence[i];
+    }
+
+    System.arraycopy(end, 0, bytes, start.length + sequence.length, end.length);
+    return bytes;
+  }
+
+  private static Quad readOne(final String input) throws IOException {
+    final List<Quad> quads = read(input);
+    assertEquals(1, quads.size());
+    return quads.get(0);
+  }
+
+  @Test
+  public void testSameAsParser() throws IOException {
+    final String[] lines = {
+        "<http://bla.com> <http://bla.com> <http://bla.com> .",
+        "_:a <http://bla.com> \"abcde\".",
+        "_:a <http://bla.com/p> _:b1 <http://bla.com/g> .",
+        "<http://bla.com/s> <http://bla.com/p> \"x\" _:g ."
+    };
+
+    assertEquals(ParserTestUtils.parse(NQuadsParser::new, lines),
+        read(String.join("\n", lines)));
+  }
+
+  @Test
+  public void testCommentsBlankLinesAndLineEndings() throws IOException {
+    final List<Quad> quads = read("# comment\r\n\r\n"
+        + "<http://a.com/s> <http://a.com/p> <http://a.com/o> . # trailing\r\n"
+        + "   \t\n"
+        + "<http://a.com/s> <http://a.com/p> \"last\" .");
+
+    assertEquals(2, quads.size());
+    assertEquals(Optional.of(Literal.of("last")), quads.get(1).object().literal());
+  }
+
+  @Test
+  public void testLiterals() throws IOException {
+    assertEquals(
+        Optional.of(Literal.of("tab\there \"quoted\" \\ caf\u00e9 \u00e9 \ud83d\ude00")),
+        readOne("<http://a.com/s> <http://a.com/p> "
+            + "\"tab\\there \\\"quoted\\\" \\\\ caf\u00e9 \\u00E9 \\U0001F600\" .")
+            .object().literal()
+    );
+
+    final Literal typed = readOne("<http://a.com/s> <http://a.com/p> "
+        + "\"42\"^^<http://www.w3.org/2001/XMLSchema#integer> .").object().literal().get();
+
+    assertEquals("42", typed.lexicalValue());
+    assertEquals(Iri.of("http://www.w3.org/2001/XMLSchema#integer"), typed.datatypeIri());
+
+    final Literal tagged = readOne("<http://a.com/s> <http://a.com/p> \"chat\"@fr-BE .")
+        .object().literal().get();
+
+    assertEquals("chat", tagged.lexicalValue());
+    assertEquals(Optional.of(Locale.forLanguageTag("fr-BE")), tagged.languageTag());
+  }
+
+  @Test
+  public void testLanguageTagsAsWritten() throws IOException {
+    final String[] tags = {"abcdefghi", "i-klingon", "en-abcdefghijk", "fr-BE"};
+
+    for (final String tag : tags) {
+      final Quad quad = readOne("<http://a.com/s> <http://a.com/p> \"chat\"@" + tag + " .");
+
+      assertEquals(Optional.of(tag), quad.object().literal().get().languageTagString());
+      assertEquals("\"chat\"@" + tag, quad.object().toString());
+    }
+
+    assertNotEquals(readOne("<http://a.com/s> <http://a.com/p> \"chat\"@en-abcdefghijk ."),
+        readOne("<http://a.com/s> <http://a.com/p> \"chat\"@en ."));
+  }
+
+  @Test
+  public void testBlankNodeLabels() throws IOException {
+    final Quad quad = readOne("_:a.b-c <http://a.com/p> _:\u00e9t\u00e9.");
+
+    assertEquals("_:a.b-c", quad.subject().blankNode().get().toString());
+    assertEquals("_:\u00e9t\u00e9", quad.object().blankNode().get().toString());
+  }
+
+  @Test
+  public void testLinesAcrossBufferBoundaries() throws IOException {
+    final StringBuilder input = new StringBuilder();
+    final String longValue = "x".repeat(200000);
+
+    for (int i = 0; i < 5000; ++ i) {
+      input.append("<http://a.com/s").append(i).append("> <http://a.com/p> \"")
+          .append(i == 2500 ? longValue : "v" + i).append("\" .\n");
+    }
+
+    final List<Quad> quads = read(input.toString());
+
+    assertEquals(5000, quads.size());
+    assertEquals(Optional.of(Literal.of("v4999")), quads.get(4999).object().literal());
+    assertEquals(Optional.of(Literal.of(longValue)), quads.get(2500).object().literal());
+  }
+
+  @Test
+  public void testByteBuffers() throws IOException {
+    final byte[] bytes = ("<http://a.com/s> <http://a.com/p> \"1\" .\n"
+        + "<http://a.com/s> <http://a.com/p> \"2\" .\n").getBytes(StandardCharsets.UTF_8);
+    final ByteBuffer direct = ByteBuffer.allocateDirect(bytes.length).put(bytes).flip();
+
+    final NQuadsReader heapReader = new NQuadsReader(ByteBuffer.wrap(bytes, 1, bytes.length - 1)
+        .slice().position(39));
+    final NQuadsReader directReader = new NQuadsReader(direct);
+
+    assertEquals(Optional.of(Literal.of("2")), heapReader.read().object().literal());
+    assertNull(heapReader.read());
+    assertEquals(Optional.of(Literal.of("1")), directReader.read().object().literal());
+    assertEquals(Optional.of(Literal.of("2")), directReader.read().object().literal());
+    assertNull(directReader.read());
+    assertEquals(0, direct.position());
+  }
+
+  @Test
+  public void testErrorReportsLine() throws IOException {
+    try {
+      read("<http://a.com/s> <http://a.com/p> <http://a.com/o> .\n"
+          + "<http://a.com/s> <http://a.com/p> <http://a.com/o> <x y> .\n");
+    } catch (final IllegalArgumentException e) {
+      assertTrue(e.getMessage(), e.getMessage().contains("line 2"));
+      return;
+    }
+
+    throw new AssertionError("Expected an exception");
+  }
+
+  @Test
+  public void testCarriageReturns() throws IOException {
+    final String input = "<http://a.com/s> <http://a.com/p> <http://a.com/o> .\r"
+        + "<http://a.com/s> <http://a.com/p> \"2\" .\r\n"
+        + "\r\n"
+        + "# comment\r"
+        + "<http://a.com/s> <http://a.com/p> \"3\" .\r";
+
+    assertEquals(3, read(input).size());
+    assertEquals(read(input), readSlowly(input.getBytes(StandardCharsets.UTF_8)));
+
+    try {
+      readSlowly((input + "<x y> <http://a.com/p> \"4\" .\r\n").getBytes(StandardCharsets.UTF_8));
+      throw new AssertionError("Expected an exception");
+    } catch (final IllegalArgumentException e) {
+      assertTrue(e.getMessage(), e.getMessage().contains("line 6"));
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testCarriageReturnBetweenTerms() throws IOException {
+    read("<http://a.com/s>\r<http://a.com/p> <http://a.com/o> .\n");
+  }
+
+  @Test
+  public void testInvalidUtf8() throws IOException {
+    final String literal = "<http://a.com/s> <http://a.com/p> \"x";
+    final String iri = "<http://a.com/s> <http://a.com/p> <http://a.com/";
+
+    // Invalid lead bytes:
+    assertInvalid(bytes(literal, new int[] {0xFF}, "\" .\n"), "'0xff' at line 1, column 37");
+    assertInvalid(bytes(iri, new int[] {0x80}, "> .\n"), "'0x80' at line 1");
+    // Truncated sequences:
+    assertInvalid(bytes(iri, new int[] {0xC3}, "/> .\n"), "'0xc3' at line 1");
+    assertInvalid(bytes(literal, new int[] {0xE2, 0x82}, "\" .\n"), "'0xe2' at line 1");
+    assertInvalid(bytes(literal, new int[] {0xF0, 0x9F, 0x98}, "\\n\" .\n"), "'0xf0' at line 1");
+    // Overlong encoding, surrogate and a code point beyond U+10FFFF:
+    assertInvalid(bytes(literal, new int[] {0xE0, 0x80, 0xAF}, "\" .\n"), "'0xe0' at line 1");
+    assertInvalid(bytes(literal, new int[] {0xED, 0xA0, 0x80}, "\" .\n"), "'0xed' at line 1");
+    assertInvalid(bytes(literal, new int[] {0xF4, 0x90, 0x80, 0x80}, "\" .\n"), "'0xf4' at line 1");
+
+    assertEquals(Optional.of(Literal.of("x\u20ac")),
+        new NQuadsReader(ByteBuffer.wrap(bytes(literal, new int[] {0xE2, 0x82, 0xAC}, "\" .\n")))
+            .read().object().literal());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testMissingPeriod() throws IOException {
+    read("<http://a.com/s> <http://a.com/p> <http://a.com/o>\n");
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testLiteralSubject() throws IOException {
+    read("\"s\" <http://a.com/p> <http://a.com/o> .\n");
+  }
+}